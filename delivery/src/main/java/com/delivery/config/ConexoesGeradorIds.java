@@ -0,0 +1,35 @@
+package com.delivery.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Pool pequeno, separado do principal, usado só para reservar blocos de IDs (ver GeradorIdsEmBloco)
+ */
+@Component
+public class ConexoesGeradorIds {
+
+    private final HikariDataSource dataSource;
+
+    public ConexoesGeradorIds(DataSourceProperties properties,
+                              @Value("${app.gerador-ids.conexoes:2}") int conexoes) {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("gerador-ids");
+        dataSource.setMaximumPoolSize(conexoes);
+        dataSource.setMinimumIdle(1);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        dataSource.close();
+    }
+}
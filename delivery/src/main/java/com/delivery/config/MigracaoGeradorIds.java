@@ -0,0 +1,56 @@
+package com.delivery.config;
+
+import com.delivery.entity.base.BaseEntity;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migração das tabelas que usavam AUTO_INCREMENT para o gerador de IDs em blocos.
+ *
+ * Para cada entidade, garante que o segmento em "geradores_id" fique acima do maior ID
+ * já existente na tabela. Roda antes de qualquer outro CommandLineRunner (ex.: DataLoader),
+ * ou seja, antes do primeiro insert da aplicação.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class MigracaoGeradorIds implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(String... args) {
+        for (EntityType<?> entidade : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> tipo = entidade.getJavaType();
+            Table table = tipo.getAnnotation(Table.class);
+
+            if (!BaseEntity.class.isAssignableFrom(tipo) || table == null) {
+                continue;
+            }
+
+            sincronizarSegmento(table.name());
+        }
+    }
+
+    private void sincronizarSegmento(String tabela) {
+        // Com o otimizador pooled, o valor gravado é o topo do próximo bloco:
+        // MAX(id) + tamanho do bloco faz o primeiro ID alocado ser MAX(id) + 1
+        int atualizados = jdbcTemplate.update(
+                "INSERT INTO " + BaseEntity.TABELA_GERADOR_IDS + " (tabela, proximo_valor) " +
+                        "SELECT ?, COALESCE(MAX(id), 0) + ? FROM " + tabela + " " +
+                        "ON DUPLICATE KEY UPDATE proximo_valor = GREATEST(proximo_valor, VALUES(proximo_valor))",
+                tabela, BaseEntity.TAMANHO_BLOCO_IDS);
+
+        log.debug("Segmento de IDs da tabela {} sincronizado ({} linha(s) afetada(s))", tabela, atualizados);
+    }
+}
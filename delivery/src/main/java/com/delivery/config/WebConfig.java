@@ -1,10 +1,13 @@
 package com.delivery.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,6 +17,31 @@ import java.util.List;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Exportações em StreamingResponseBody usam o timeout padrão do MVC assíncrono (SSE define o seu)
+    @Value("${app.exportacao.timeout-ms:3600000}")
+    private long timeoutExportacaoMs;
+
+    @Value("${app.exportacao.threads:4}")
+    private int threadsExportacao;
+
+    @Value("${app.exportacao.fila:20}")
+    private int filaExportacao;
+
+    /**
+     * Executor das respostas em StreamingResponseBody (exportações CSV e PDF): threads e fila limitadas,
+     * para um pico de exportações não ocupar as threads das requisições. Com a fila cheia a
+     * exportação é recusada com 503 antes de a resposta começar
+     */
+    @Bean
+    public ThreadPoolTaskExecutor executorExportacoes() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threadsExportacao);
+        executor.setMaxPoolSize(threadsExportacao);
+        executor.setQueueCapacity(filaExportacao);
+        executor.setThreadNamePrefix("exportacao-");
+        return executor;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -28,7 +56,7 @@ public class WebConfig implements WebMvcConfigurer {
         configuration.setAllowedHeaders(List.of("*"));
 
         // Headers expostos
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Replayed"));
 
         // Permitir credentials
         configuration.setAllowCredentials(true);
@@ -42,6 +70,12 @@ public class WebConfig implements WebMvcConfigurer {
         return source;
     }
 
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeoutExportacaoMs);
+        configurer.setTaskExecutor(executorExportacoes());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Configuração para servir arquivos estáticos
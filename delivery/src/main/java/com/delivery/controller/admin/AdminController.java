@@ -2,8 +2,15 @@ package com.delivery.controller.admin;
 
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.publico.CategoriaDTO;
+import com.delivery.service.admin.AnalisePlataformaService;
+import com.delivery.service.admin.AnalisePlataformaService.Agrupamento;
+import com.delivery.service.admin.AnalisePlataformaService.Analise;
 import com.delivery.service.empresa.EmpresaService;
+import com.delivery.service.empresa.FeedbackService;
+import com.delivery.service.empresa.RelatorioCache;
 import com.delivery.service.publico.CatalogoService;
+import com.delivery.service.publico.IndiceBuscaService;
+import com.delivery.service.publico.IndiceGeograficoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +32,11 @@ public class AdminController {
 
     private final EmpresaService empresaService;
     private final CatalogoService catalogoService;
+    private final RelatorioCache relatorioCache;
+    private final AnalisePlataformaService analisePlataformaService;
+    private final IndiceBuscaService indiceBuscaService;
+    private final IndiceGeograficoService indiceGeograficoService;
+    private final FeedbackService feedbackService;
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> obterDashboard() {
@@ -36,6 +48,15 @@ public class AdminController {
         return ResponseEntity.ok(dashboard);
     }
 
+    @GetMapping("/analise")
+    public ResponseEntity<Analise> obterAnalise(
+            @RequestParam String dataInicio,
+            @RequestParam String dataFim,
+            @RequestParam(defaultValue = "CATEGORIA") Agrupamento agrupamento) {
+        Analise analise = analisePlataformaService.consultar(dataInicio, dataFim, agrupamento);
+        return ResponseEntity.ok(analise);
+    }
+
     @GetMapping("/empresas")
     public ResponseEntity<Page<EmpresaDTO>> listarEmpresas(
             @RequestParam(defaultValue = "0") int page,
@@ -56,6 +77,22 @@ public class AdminController {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalEmpresas", empresaService.contarEmpresasAtivas());
         stats.put("totalCategorias", catalogoService.contarCategorias());
+        stats.put("cacheRelatorios", relatorioCache.getEstatisticas());
+        stats.put("indiceBusca", indiceBuscaService.getEstatisticas());
+        stats.put("indiceGeografico", indiceGeograficoService.getEstatisticas());
         return ResponseEntity.ok(stats);
     }
+
+    @PostMapping("/busca/reindexar")
+    public ResponseEntity<IndiceBuscaService.Estatisticas> reindexarBusca() {
+        IndiceBuscaService.Estatisticas estatisticas = indiceBuscaService.reconstruir();
+        return ResponseEntity.ok(estatisticas);
+    }
+
+    @PostMapping("/avaliacoes/recalcular")
+    public ResponseEntity<Map<String, Object>> recalcularAvaliacoes() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("empresas", feedbackService.recalcularAvaliacoes());
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.delivery.dto.auth.TokenResponse;
 import com.delivery.entity.base.Usuario;
 import com.delivery.repository.UsuarioRepository;
 import com.delivery.exception.NotFoundException;
+import com.delivery.security.UsuariosAtivos;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,6 +20,7 @@ import java.util.Map;
 public class UserController {
 
     private final UsuarioRepository usuarioRepository;
+    private final UsuariosAtivos usuariosAtivos;
 
     @GetMapping("/me")
     public ResponseEntity<Map<String, Object>> getCurrentUser(Authentication authentication) {
@@ -75,6 +77,7 @@ public class UserController {
 
         usuario.setAtivo(false);
         usuarioRepository.save(usuario);
+        usuariosAtivos.invalidar(usuario.getId());
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "Usuário desativado com sucesso");
@@ -2,15 +2,20 @@ package com.delivery.controller.cliente;
 
 import com.delivery.dto.cliente.PagamentoDTO;
 import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.entity.enums.StatusPedido;
+import com.delivery.service.cliente.IngestaoPedidoService;
 import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.notificacao.PedidoStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import java.util.Map;
@@ -22,13 +27,15 @@ import java.util.Map;
 public class PedidoClienteController {
 
     private final PedidoService pedidoService;
+    private final IngestaoPedidoService ingestaoPedidoService;
+    private final PedidoStreamService pedidoStreamService;
 
     @PostMapping
     public ResponseEntity<PedidoDTO> criarPedido(
             @Valid @RequestBody PedidoDTO pedidoDTO,
             Authentication authentication) {
 
-        PedidoDTO pedido = pedidoService.criarPedido(pedidoDTO, authentication.getName());
+        PedidoDTO pedido = ingestaoPedidoService.criarPedido(pedidoDTO, authentication.getName());
         return ResponseEntity.ok(pedido);
     }
 
@@ -43,6 +50,17 @@ public class PedidoClienteController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginaCursorDTO<PedidoDTO>> listarMeusPedidosPorCursor(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<PedidoDTO> pedidos = pedidoService.listarPedidosClientePorCursor(
+                authentication.getName(), cursor, size);
+        return ResponseEntity.ok(pedidos);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PedidoDTO> buscarPedidoPorId(
             @PathVariable Long id,
@@ -89,6 +107,14 @@ public class PedidoClienteController {
         return ResponseEntity.ok(rastreamento);
     }
 
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharPedido(
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        return pedidoStreamService.assinarPedido(id, authentication.getName());
+    }
+
     @PostMapping("/{id}/pagar")
     public ResponseEntity<PedidoDTO> pagarPedido(
             @PathVariable Long id,
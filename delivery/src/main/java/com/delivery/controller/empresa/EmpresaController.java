@@ -3,16 +3,20 @@ package com.delivery.controller.empresa;
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.empresa.RelatorioDTO;
 import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.entity.enums.StatusPedido;
 import com.delivery.service.empresa.EmpresaService;
 import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.notificacao.PedidoStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 
@@ -24,6 +28,7 @@ public class EmpresaController {
 
     private final EmpresaService empresaService;
     private final PedidoService pedidoService;
+    private final PedidoStreamService pedidoStreamService;
 
     @GetMapping("/perfil")
     public ResponseEntity<EmpresaDTO> obterPerfil(Authentication authentication) {
@@ -63,6 +68,22 @@ public class EmpresaController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/pedidos/cursor")
+    public ResponseEntity<PaginaCursorDTO<PedidoDTO>> listarPedidosPorCursor(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<PedidoDTO> pedidos = pedidoService.listarPedidosEmpresaPorCursor(
+                authentication.getName(), cursor, size);
+        return ResponseEntity.ok(pedidos);
+    }
+
+    @GetMapping(value = "/pedidos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharPedidos(Authentication authentication) {
+        return pedidoStreamService.assinarEmpresa(authentication.getName());
+    }
+
     @PatchMapping("/pedidos/{id}/status")
     public ResponseEntity<PedidoDTO> atualizarStatusPedido(
             @PathVariable Long id,
@@ -0,0 +1,42 @@
+package com.delivery.controller.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.service.empresa.PainelCozinhaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/empresa/painel-cozinha")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PainelCozinhaController {
+
+    private final PainelCozinhaService painelCozinhaService;
+
+    @GetMapping
+    public ResponseEntity<Map<StatusPedido, List<PedidoDTO>>> obterPainel(Authentication authentication) {
+        Map<StatusPedido, List<PedidoDTO>> painel = painelCozinhaService.obterPainel(authentication.getName());
+        return ResponseEntity.ok(painel);
+    }
+
+    @GetMapping("/status/{status}")
+    public ResponseEntity<List<PedidoDTO>> listarPorStatus(
+            @PathVariable StatusPedido status,
+            Authentication authentication) {
+
+        List<PedidoDTO> pedidos = painelCozinhaService.listarPorStatus(authentication.getName(), status);
+        return ResponseEntity.ok(pedidos);
+    }
+
+    @GetMapping("/contagens")
+    public ResponseEntity<Map<StatusPedido, Long>> contarPorStatus(Authentication authentication) {
+        Map<StatusPedido, Long> contagens = painelCozinhaService.contarPorStatus(authentication.getName());
+        return ResponseEntity.ok(contagens);
+    }
+}
@@ -58,6 +58,15 @@ public class ProdutoEmpresaController {
         return ResponseEntity.ok(produto);
     }
 
+    @PostMapping("/importar")
+    public ResponseEntity<List<ProdutoDTO>> importarProdutos(
+            @RequestBody List<ProdutoDTO> produtosDTO,
+            Authentication authentication) {
+
+        List<ProdutoDTO> produtos = produtoService.importarProdutos(produtosDTO, authentication.getName());
+        return ResponseEntity.ok(produtos);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProdutoDTO> atualizarProduto(
             @PathVariable Long id,
@@ -1,11 +1,21 @@
 package com.delivery.controller.empresa;
 
 import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.dto.empresa.RelatorioJobDTO;
+import com.delivery.service.empresa.ExportacaoPedidosService;
+import com.delivery.service.empresa.RelatorioJobService;
+import com.delivery.service.empresa.RelatorioPdfService;
 import com.delivery.service.empresa.RelatorioService;
+import com.delivery.service.empresa.SerieVendasService;
+import com.delivery.service.empresa.SerieVendasService.Intervalo;
+import com.delivery.service.empresa.SerieVendasService.SerieVendas;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -17,6 +27,10 @@ import java.util.Map;
 public class RelatorioEmpresaController {
 
     private final RelatorioService relatorioService;
+    private final ExportacaoPedidosService exportacaoPedidosService;
+    private final RelatorioPdfService relatorioPdfService;
+    private final RelatorioJobService relatorioJobService;
+    private final SerieVendasService serieVendasService;
 
     @GetMapping("/mensal")
     public ResponseEntity<RelatorioDTO> obterRelatorioMensal(
@@ -55,6 +69,55 @@ public class RelatorioEmpresaController {
         return ResponseEntity.ok(relatorio);
     }
 
+    @PostMapping("/jobs/anual")
+    public ResponseEntity<RelatorioJobDTO> submeterRelatorioAnual(
+            Authentication authentication,
+            @RequestParam(defaultValue = "#{T(java.time.LocalDate).now().getYear()}") int ano) {
+
+        if (ano == 0) ano = LocalDate.now().getYear();
+
+        RelatorioJobDTO job = relatorioJobService.submeterRelatorioAnual(
+                authentication.getName(), ano);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @PostMapping("/jobs/periodo")
+    public ResponseEntity<RelatorioJobDTO> submeterRelatorioPorPeriodo(
+            Authentication authentication,
+            @RequestParam String dataInicio,
+            @RequestParam String dataFim) {
+
+        RelatorioJobDTO job = relatorioJobService.submeterRelatorioPorPeriodo(
+                authentication.getName(), dataInicio, dataFim);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<RelatorioJobDTO> consultarJob(
+            Authentication authentication,
+            @PathVariable String id) {
+
+        RelatorioJobDTO job = relatorioJobService.consultar(id, authentication.getName());
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "/jobs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharJob(
+            Authentication authentication,
+            @PathVariable String id) {
+
+        return relatorioJobService.acompanhar(id, authentication.getName());
+    }
+
+    @GetMapping("/jobs/{id}/resultado")
+    public ResponseEntity<RelatorioDTO> obterResultadoJob(
+            Authentication authentication,
+            @PathVariable String id) {
+
+        RelatorioDTO relatorio = relatorioJobService.obterResultado(id, authentication.getName());
+        return ResponseEntity.ok(relatorio);
+    }
+
     @GetMapping("/vendas")
     public ResponseEntity<Map<String, Object>> obterRelatorioVendas(
             Authentication authentication,
@@ -69,6 +132,18 @@ public class RelatorioEmpresaController {
         return ResponseEntity.ok(relatorio);
     }
 
+    @GetMapping("/vendas/serie")
+    public ResponseEntity<SerieVendas> obterSerieVendas(
+            Authentication authentication,
+            @RequestParam String dataInicio,
+            @RequestParam String dataFim,
+            @RequestParam(defaultValue = "DIA") Intervalo intervalo) {
+
+        SerieVendas serie = serieVendasService.gerarSerie(
+                authentication.getName(), dataInicio, dataFim, intervalo);
+        return ResponseEntity.ok(serie);
+    }
+
     @GetMapping("/produtos-mais-vendidos")
     public ResponseEntity<Map<String, Object>> obterProdutosMaisVendidos(
             Authentication authentication,
@@ -123,7 +198,7 @@ public class RelatorioEmpresaController {
     }
 
     @GetMapping("/exportar/pdf")
-    public ResponseEntity<byte[]> exportarRelatorioPDF(
+    public ResponseEntity<StreamingResponseBody> exportarRelatorioPDF(
             Authentication authentication,
             @RequestParam(defaultValue = "#{T(java.time.LocalDate).now().getMonthValue()}") int mes,
             @RequestParam(defaultValue = "#{T(java.time.LocalDate).now().getYear()}") int ano) {
@@ -131,7 +206,7 @@ public class RelatorioEmpresaController {
         if (mes == 0) mes = LocalDate.now().getMonthValue();
         if (ano == 0) ano = LocalDate.now().getYear();
 
-        byte[] pdf = relatorioService.exportarRelatorioPDF(
+        StreamingResponseBody pdf = relatorioPdfService.exportarRelatorioMensal(
                 authentication.getName(), mes, ano);
 
         return ResponseEntity.ok()
@@ -139,4 +214,19 @@ public class RelatorioEmpresaController {
                 .header("Content-Disposition", "attachment; filename=relatorio.pdf")
                 .body(pdf);
     }
+
+    @GetMapping("/exportar/csv")
+    public ResponseEntity<StreamingResponseBody> exportarPedidosCSV(
+            Authentication authentication,
+            @RequestParam String dataInicio,
+            @RequestParam String dataFim) {
+
+        StreamingResponseBody csv = exportacaoPedidosService.exportarCSV(
+                authentication.getName(), dataInicio, dataFim);
+
+        return ResponseEntity.ok()
+                .header("Content-Type", "text/csv; charset=UTF-8")
+                .header("Content-Disposition", "attachment; filename=pedidos_" + dataInicio + "_" + dataFim + ".csv")
+                .body(csv);
+    }
 }
@@ -2,8 +2,10 @@ package com.delivery.controller.publico;
 
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.empresa.ProdutoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.service.empresa.EmpresaService;
 import com.delivery.service.empresa.ProdutoService;
+import com.delivery.service.publico.BuscaService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,14 +23,34 @@ public class BuscaController {
 
     private final EmpresaService empresaService;
     private final ProdutoService produtoService;
+    private final BuscaService buscaService;
+
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<String>> obterSugestoes(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "10") int limite) {
+
+        List<String> sugestoes = buscaService.obterSugestoesBusca(termo, limite);
+        return ResponseEntity.ok(sugestoes);
+    }
 
     @GetMapping("/empresas")
     public ResponseEntity<Page<EmpresaDTO>> listarEmpresas(
+            @RequestParam(defaultValue = "PADRAO") EmpresaService.Ordem ordem,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<EmpresaDTO> empresas = empresaService.listarEmpresas(pageable);
+        Page<EmpresaDTO> empresas = empresaService.listarEmpresas(ordem, pageable);
+        return ResponseEntity.ok(empresas);
+    }
+
+    @GetMapping("/empresas/cursor")
+    public ResponseEntity<PaginaCursorDTO<EmpresaDTO>> listarEmpresasPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<EmpresaDTO> empresas = empresaService.listarEmpresasPorCursor(cursor, size);
         return ResponseEntity.ok(empresas);
     }
 
@@ -47,21 +69,35 @@ public class BuscaController {
     @GetMapping("/empresas/categoria/{categoriaId}")
     public ResponseEntity<Page<EmpresaDTO>> buscarEmpresasPorCategoria(
             @PathVariable Long categoriaId,
+            @RequestParam(defaultValue = "PADRAO") EmpresaService.Ordem ordem,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<EmpresaDTO> empresas = empresaService.buscarPorCategoria(categoriaId, pageable);
+        Page<EmpresaDTO> empresas = empresaService.buscarPorCategoria(categoriaId, ordem, pageable);
+        return ResponseEntity.ok(empresas);
+    }
+
+    @GetMapping("/empresas/categoria/{categoriaId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<EmpresaDTO>> buscarEmpresasPorCategoriaPorCursor(
+            @PathVariable Long categoriaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<EmpresaDTO> empresas = empresaService.buscarPorCategoriaPorCursor(categoriaId, cursor, size);
         return ResponseEntity.ok(empresas);
     }
 
     @GetMapping("/empresas/proximas")
-    public ResponseEntity<List<EmpresaDTO>> buscarEmpresasProximas(
+    public ResponseEntity<Page<EmpresaDTO>> buscarEmpresasProximas(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "10.0") Double raioKm) {
+            @RequestParam(required = false) Double raioKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
 
-        List<EmpresaDTO> empresas = empresaService.buscarPorLocalizacao(latitude, longitude, raioKm);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<EmpresaDTO> empresas = empresaService.buscarPorLocalizacao(latitude, longitude, raioKm, pageable);
         return ResponseEntity.ok(empresas);
     }
 
@@ -87,6 +123,15 @@ public class BuscaController {
         return ResponseEntity.ok(produtos);
     }
 
+    @GetMapping("/produtos/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProdutoDTO>> listarProdutosPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<ProdutoDTO> produtos = produtoService.listarTodosPorCursor(cursor, size);
+        return ResponseEntity.ok(produtos);
+    }
+
     @GetMapping("/produtos/termo")
     public ResponseEntity<Page<ProdutoDTO>> buscarProdutos(
             @RequestParam String termo,
@@ -108,4 +153,14 @@ public class BuscaController {
         Page<ProdutoDTO> produtos = produtoService.buscarPorCategoria(categoriaId, pageable);
         return ResponseEntity.ok(produtos);
     }
+
+    @GetMapping("/produtos/categoria/{categoriaId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProdutoDTO>> buscarProdutosPorCategoriaPorCursor(
+            @PathVariable Long categoriaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<ProdutoDTO> produtos = produtoService.buscarPorCategoriaPorCursor(categoriaId, cursor, size);
+        return ResponseEntity.ok(produtos);
+    }
 }
\ No newline at end of file
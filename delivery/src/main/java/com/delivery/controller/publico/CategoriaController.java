@@ -1,8 +1,10 @@
 package com.delivery.controller.publico;
 
 import com.delivery.dto.publico.CategoriaDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.empresa.ProdutoDTO;
+import com.delivery.service.empresa.EmpresaService;
 import com.delivery.service.publico.CatalogoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -43,11 +45,22 @@ public class CategoriaController {
     @GetMapping("/{id}/empresas")
     public ResponseEntity<Page<EmpresaDTO>> listarEmpresasPorCategoria(
             @PathVariable Long id,
+            @RequestParam(defaultValue = "PADRAO") EmpresaService.Ordem ordem,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<EmpresaDTO> empresas = catalogoService.listarEmpresasPorCategoria(id, pageable);
+        Page<EmpresaDTO> empresas = catalogoService.listarEmpresasPorCategoria(id, ordem, pageable);
+        return ResponseEntity.ok(empresas);
+    }
+
+    @GetMapping("/{id}/empresas/cursor")
+    public ResponseEntity<PaginaCursorDTO<EmpresaDTO>> listarEmpresasPorCategoriaPorCursor(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<EmpresaDTO> empresas = catalogoService.listarEmpresasPorCategoriaPorCursor(id, cursor, size);
         return ResponseEntity.ok(empresas);
     }
 
@@ -62,6 +75,16 @@ public class CategoriaController {
         return ResponseEntity.ok(produtos);
     }
 
+    @GetMapping("/{id}/produtos/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProdutoDTO>> listarProdutosPorCategoriaPorCursor(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PaginaCursorDTO<ProdutoDTO> produtos = catalogoService.listarProdutosPorCategoriaPorCursor(id, cursor, size);
+        return ResponseEntity.ok(produtos);
+    }
+
     @GetMapping("/{id}/estatisticas")
     public ResponseEntity<Map<String, Object>> obterEstatisticasCategoria(@PathVariable Long id) {
         Map<String, Object> stats = catalogoService.obterEstatisticasCategoria(id);
@@ -29,6 +29,7 @@ public class RegisterRequest {
     private String cnpj;
     private String telefoneEmpresa;
     private String enderecoEmpresa;
+    private String cidade;
     private Long categoriaId;
     private String descricao;
 }
\ No newline at end of file
@@ -22,8 +22,22 @@ public class PedidoDTO {
     private Double latitude;
     private Double longitude;
     private LocalDateTime dataPedido;
+    private LocalDateTime dataAtualizacao;
     private List<ItemPedidoDTO> itens;
 
+    /**
+     * Se este estado do pedido é posterior ao outro. As transições só avançam na ordem de StatusPedido,
+     * então o status é a versão; no mesmo status desempata o updatedAt (gravado em segundos, não
+     * distingue transições no mesmo segundo)
+     */
+    public boolean isMaisNovoQue(PedidoDTO outro) {
+        int comparacao = status.compareTo(outro.status);
+        if (comparacao != 0) {
+            return comparacao > 0;
+        }
+        return dataAtualizacao != null && outro.dataAtualizacao != null && dataAtualizacao.isAfter(outro.dataAtualizacao);
+    }
+
     @Data
     public static class ItemPedidoDTO {
         private Long produtoId;
@@ -12,6 +12,7 @@ public class EmpresaDTO {
     private String cnpj;
     private String telefone;
     private String endereco;
+    private String cidade;
     private Double latitude;
     private Double longitude;
     private String logoUrl;
@@ -21,4 +22,7 @@ public class EmpresaDTO {
     private List<ProdutoDTO> produtos;
     private Double avaliacao;
     private Integer totalAvaliacoes;
+
+    // Preenchida apenas na busca por proximidade
+    private Double distanciaKm;
 }
\ No newline at end of file
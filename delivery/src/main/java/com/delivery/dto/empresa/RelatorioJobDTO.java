@@ -0,0 +1,24 @@
+package com.delivery.dto.empresa;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class RelatorioJobDTO {
+    private String id;
+    private Status status;
+    private boolean anual;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private LocalDateTime criadoEm;
+    private LocalDateTime concluidoEm;
+    private String erro;
+
+    public enum Status {
+        PENDENTE,
+        EXECUTANDO,
+        CONCLUIDO,
+        FALHOU
+    }
+}
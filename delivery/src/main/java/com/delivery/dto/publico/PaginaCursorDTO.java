@@ -0,0 +1,21 @@
+package com.delivery.dto.publico;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor (keyset): sem total de elementos e sem COUNT,
+ * o cliente navega enviando o proximoCursor recebido
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> conteudo;
+    private String proximoCursor;
+    private boolean temMais;
+    private int tamanho;
+}
@@ -0,0 +1,52 @@
+package com.delivery.entity;
+
+import com.delivery.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta gravada para um Idempotency-Key. Enquanto a requisição original está em andamento,
+ * statusHttp fica nulo e expiraEm curto (a reserva expira se a instância cair no meio)
+ */
+@Entity
+@Table(name = "chaves_idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chaves_idempotencia_usuario_chave", columnNames = {"usuario", "chave"}),
+        indexes = @Index(name = "idx_chaves_idempotencia_expira_em", columnList = "expira_em"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia extends BaseEntity {
+
+    @Column(nullable = false)
+    private String usuario;
+
+    @Column(nullable = false, length = 100)
+    private String chave;
+
+    // SHA-256 de método, caminho e corpo da requisição original
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao;
+
+    @Column(name = "status_http")
+    private Integer statusHttp;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Lob
+    @Column(name = "corpo_resposta", columnDefinition = "MEDIUMTEXT")
+    private String corpoResposta;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    public boolean isConcluida() {
+        return statusHttp != null;
+    }
+}
@@ -11,7 +11,14 @@ import lombok.AllArgsConstructor;
 import java.util.List;
 
 @Entity
-@Table(name = "empresas")
+@Table(name = "empresas", indexes = {
+        @Index(name = "idx_empresas_ativo_created", columnList = "ativo, created_at"),
+        @Index(name = "idx_empresas_categoria_ativo_created", columnList = "categoria_id, ativo, created_at"),
+        @Index(name = "idx_empresas_latitude_longitude", columnList = "latitude, longitude"),
+        @Index(name = "idx_empresas_ativo_avaliacao", columnList = "ativo, avaliacao_media, total_avaliacoes"),
+        @Index(name = "idx_empresas_categoria_ativo_avaliacao",
+                columnList = "categoria_id, ativo, avaliacao_media, total_avaliacoes")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,6 +40,9 @@ public class Empresa extends BaseEntity {
     @Column(length = 500)
     private String endereco;
 
+    @Column(length = 100)
+    private String cidade;
+
     private Double latitude;
     private Double longitude;
 
@@ -49,6 +59,17 @@ public class Empresa extends BaseEntity {
     @Column(nullable = false)
     private Boolean ativo = true;
 
+    // Agregados dos feedbacks: somados em FeedbackService.criarFeedback, recalculados diariamente e,
+    // se divergirem dos feedbacks, na inicialização
+    @Column(name = "soma_avaliacoes", nullable = false)
+    private Long somaAvaliacoes = 0L;
+
+    @Column(name = "total_avaliacoes", nullable = false)
+    private Integer totalAvaliacoes = 0;
+
+    @Column(name = "avaliacao_media", nullable = false)
+    private Double avaliacaoMedia = 0.0;
+
     @OneToMany(mappedBy = "empresa", cascade = CascadeType.ALL)
     private List<Produto> produtos;
 
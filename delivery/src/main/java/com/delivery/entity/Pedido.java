@@ -14,7 +14,11 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+        @Index(name = "idx_pedidos_cliente_created", columnList = "cliente_id, created_at"),
+        @Index(name = "idx_pedidos_empresa_created", columnList = "empresa_id, created_at"),
+        @Index(name = "idx_pedidos_created", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
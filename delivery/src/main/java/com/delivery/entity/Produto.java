@@ -11,7 +11,10 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "produtos")
+@Table(name = "produtos", indexes = {
+        @Index(name = "idx_produtos_ativo_created", columnList = "ativo, created_at"),
+        @Index(name = "idx_produtos_categoria_ativo_created", columnList = "categoria_id, ativo, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
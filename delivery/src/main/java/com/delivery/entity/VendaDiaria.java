@@ -0,0 +1,62 @@
+package com.delivery.entity;
+
+import com.delivery.entity.enums.FormaPagamento;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Vendas consolidadas por empresa, dia (data de criação do pedido) e forma de pagamento.
+ * Mantida incrementalmente a cada pedido criado ou cancelado e reconstruída periodicamente
+ * a partir de pedidos (ver VendaDiariaService)
+ */
+@Entity
+@Table(name = "vendas_diarias", indexes = {
+        @Index(name = "idx_vendas_diarias_empresa_dia", columnList = "empresa_id, dia")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendaDiaria {
+
+    @EmbeddedId
+    private Chave chave;
+
+    // Todos os pedidos criados no dia, inclusive os cancelados
+    @Column(nullable = false)
+    private Long pedidos;
+
+    @Column(nullable = false)
+    private Long cancelados;
+
+    // Soma dos pedidos não cancelados
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        @Column(name = "empresa_id", nullable = false)
+        private Long empresaId;
+
+        @Column(nullable = false)
+        private LocalDate dia;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "forma_pagamento", nullable = false, length = 20)
+        private FormaPagamento formaPagamento;
+    }
+}
@@ -3,6 +3,9 @@ package com.delivery.entity.base;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,8 +18,25 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
 
+    public static final String TABELA_GERADOR_IDS = "geradores_id";
+    public static final int TAMANHO_BLOCO_IDS = 50;
+
+    // IDs alocados em blocos por tabela (otimizador pooled), permitindo batch de inserts.
+    // Os blocos são reservados num pool de conexões próprio (ver GeradorIdsEmBloco)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "gerador_ids_pooled")
+    @GenericGenerator(
+            name = "gerador_ids_pooled",
+            type = GeradorIdsEmBloco.class,
+            parameters = {
+                    @Parameter(name = TableGenerator.TABLE_PARAM, value = TABELA_GERADOR_IDS),
+                    @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = "tabela"),
+                    @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = "proximo_valor"),
+                    @Parameter(name = TableGenerator.CONFIG_PREFER_SEGMENT_PER_ENTITY, value = "true"),
+                    @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "" + TAMANHO_BLOCO_IDS),
+                    @Parameter(name = TableGenerator.OPT_PARAM, value = "pooled")
+            }
+    )
     private Long id;
 
     @CreatedDate
@@ -0,0 +1,214 @@
+package com.delivery.entity.base;
+
+import com.delivery.config.ConexoesGeradorIds;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.tool.schema.Action;
+import org.hibernate.type.Type;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de IDs em blocos que reserva cada novo bloco num pool de conexões próprio.
+ *
+ * O TableGenerator padrão reserva o bloco numa segunda conexão do pool principal. Com o pool
+ * todo ocupado por transações que precisam de IDs, nenhuma consegue essa segunda conexão e todas
+ * ficam presas até o timeout do Hikari.
+ *
+ * O pool é o bean ConexoesGeradorIds, obtido pelo BeanContainer da própria SessionFactory (o contexto
+ * do Spring) no primeiro ID gerado. Sem o bean, usa o comportamento padrão.
+ *
+ * Quando outra SessionFactory da mesma JVM recria o schema (ddl-auto create, como nos contextos de
+ * teste), a tabela de sequências volta ao início e os blocos já reservados deixam de valer: o
+ * otimizador é descartado e o próximo ID reserva um bloco novo.
+ */
+public class GeradorIdsEmBloco extends TableGenerator {
+
+    // Busca o bean existente no contexto, sem criar outra instância
+    private static final BeanContainer.LifecycleOptions BEAN_DO_CONTEXTO = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    // Sem o bean no contexto, nenhum pool dedicado
+    private static final BeanInstanceProducer SEM_BEAN = new BeanInstanceProducer() {
+        @Override
+        public <B> B produceBeanInstance(Class<B> beanType) {
+            return null;
+        }
+
+        @Override
+        public <B> B produceBeanInstance(String name, Class<B> beanType) {
+            return null;
+        }
+    };
+
+    // Ações de ddl-auto que apagam a tabela de sequências
+    private static final Set<Action> ACOES_QUE_RECRIAM_SCHEMA = EnumSet.of(Action.CREATE, Action.CREATE_DROP, Action.DROP);
+
+    // Quantas SessionFactories recriaram o schema nesta JVM
+    private static final AtomicLong RECRIACOES_SCHEMA = new AtomicLong();
+
+    private BeanContainer beanContainer;
+
+    private volatile Optional<DataSource> conexoesDedicadas;
+
+    private Class<?> tipoId;
+    private Properties parametros;
+
+    private volatile Optimizer otimizador;
+    private volatile long recriacoesVistas;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, parameters, serviceRegistry);
+        beanContainer = serviceRegistry.requireService(ManagedBeanRegistry.class).getBeanContainer();
+        tipoId = type.getReturnedClass();
+        parametros = parameters;
+
+        if (recriaSchema(serviceRegistry.requireService(ConfigurationService.class).getSettings())) {
+            RECRIACOES_SCHEMA.incrementAndGet();
+        }
+        otimizador = getOptimizer();
+        recriacoesVistas = RECRIACOES_SCHEMA.get();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        DataSource dataSource = conexoesDedicadas().orElse(null);
+        if (dataSource == null) {
+            return super.generate(session, object);
+        }
+
+        return otimizador().generate(new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                return reservarBloco(dataSource);
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return session.getTenantIdentifier();
+            }
+        });
+    }
+
+    private Optional<DataSource> conexoesDedicadas() {
+        Optional<DataSource> conexoes = conexoesDedicadas;
+        if (conexoes == null) {
+            ConexoesGeradorIds bean = beanContainer == null ? null
+                    : beanContainer.getBean(ConexoesGeradorIds.class, BEAN_DO_CONTEXTO, SEM_BEAN).getBeanInstance();
+            conexoes = Optional.ofNullable(bean).map(ConexoesGeradorIds::getDataSource);
+            conexoesDedicadas = conexoes;
+        }
+        return conexoes;
+    }
+
+    /**
+     * Otimizador em uso, trocado por um vazio se o schema foi recriado desde a última reserva
+     */
+    private Optimizer otimizador() {
+        long recriacoes = RECRIACOES_SCHEMA.get();
+        if (recriacoes != recriacoesVistas) {
+            synchronized (this) {
+                if (recriacoes != recriacoesVistas) {
+                    String nome = ConfigurationHelper.getString(OPT_PARAM, parametros,
+                            OptimizerFactory.determineImplicitOptimizerName(getIncrementSize(), parametros));
+                    otimizador = OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.fromExternalName(nome),
+                            tipoId, getIncrementSize(), ConfigurationHelper.getInt(INITIAL_PARAM, parametros, -1));
+                    recriacoesVistas = recriacoes;
+                }
+            }
+        }
+        return otimizador;
+    }
+
+    private static boolean recriaSchema(Map<String, Object> configuracoes) {
+        Action acao = Action.interpretJpaSetting(configuracoes.get(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION));
+        if (acao == Action.NONE) {
+            acao = Action.interpretHbm2ddlSetting(configuracoes.get(AvailableSettings.HBM2DDL_AUTO));
+        }
+        return ACOES_QUE_RECRIAM_SCHEMA.contains(acao);
+    }
+
+    /**
+     * Avança o segmento num único upsert, em transação própria. O upsert trava a linha, então a leitura
+     * seguinte vê o valor gravado por esta transação; reservas simultâneas do primeiro bloco não
+     * conflitam na chave
+     */
+    private IntegralDataTypeHolder reservarBloco(DataSource dataSource) {
+        String tabela = getTableName();
+        String segmento = getSegmentColumnName();
+        String valor = getValueColumnName();
+
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            boolean confirmado = false;
+            try {
+                try (PreparedStatement upsert = conexao.prepareStatement(
+                        "INSERT INTO " + tabela + " (" + segmento + ", " + valor + ") VALUES (?, ?)"
+                                + " ON DUPLICATE KEY UPDATE " + valor + " = " + valor + " + ?")) {
+                    upsert.setString(1, getSegmentValue());
+                    upsert.setLong(2, (long) getInitialValue() + getIncrementSize());
+                    upsert.setLong(3, getIncrementSize());
+                    upsert.executeUpdate();
+                }
+
+                long proximo;
+                try (PreparedStatement select = conexao.prepareStatement(
+                        "SELECT " + valor + " FROM " + tabela + " WHERE " + segmento + " = ?")) {
+                    select.setString(1, getSegmentValue());
+                    try (ResultSet resultado = select.executeQuery()) {
+                        resultado.next();
+                        proximo = resultado.getLong(1);
+                    }
+                }
+
+                conexao.commit();
+                confirmado = true;
+
+                IntegralDataTypeHolder valorReservado = IdentifierGeneratorHelper.getIntegralDataTypeHolder(tipoId);
+                valorReservado.initialize(proximo - getIncrementSize());
+                return valorReservado;
+            } finally {
+                if (!confirmado) {
+                    conexao.rollback();
+                }
+            }
+        } catch (SQLException e) {
+            throw new HibernateException("Não foi possível reservar bloco de IDs para " + getSegmentValue(), e);
+        }
+    }
+}
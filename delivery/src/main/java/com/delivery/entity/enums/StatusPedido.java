@@ -1,10 +1,38 @@
 package com.delivery.entity.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum StatusPedido {
     PENDENTE,
     CONFIRMADO,
     PREPARANDO,
     PRONTO,
     ENTREGUE,
-    CANCELADO
-}
\ No newline at end of file
+    CANCELADO;
+
+    // Tabela de transições permitidas: status atual -> próximos status
+    private static final Map<StatusPedido, Set<StatusPedido>> TRANSICOES = new EnumMap<>(StatusPedido.class);
+
+    static {
+        TRANSICOES.put(PENDENTE, EnumSet.of(CONFIRMADO, PREPARANDO, CANCELADO));
+        TRANSICOES.put(CONFIRMADO, EnumSet.of(PREPARANDO, PRONTO, ENTREGUE, CANCELADO));
+        TRANSICOES.put(PREPARANDO, EnumSet.of(PRONTO, ENTREGUE, CANCELADO));
+        TRANSICOES.put(PRONTO, EnumSet.of(ENTREGUE, CANCELADO));
+        TRANSICOES.put(ENTREGUE, EnumSet.noneOf(StatusPedido.class));
+        TRANSICOES.put(CANCELADO, EnumSet.noneOf(StatusPedido.class));
+    }
+
+    /**
+     * Pedido ainda em andamento (ainda não foi entregue nem cancelado)
+     */
+    public boolean isAtivo() {
+        return this != ENTREGUE && this != CANCELADO;
+    }
+
+    public boolean podeTransicionarPara(StatusPedido destino) {
+        return TRANSICOES.get(this).contains(destino);
+    }
+}
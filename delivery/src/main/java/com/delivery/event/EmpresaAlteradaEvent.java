@@ -0,0 +1,15 @@
+package com.delivery.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado quando uma empresa é cadastrada ou tem o perfil alterado. Ouvintes com
+ * @TransactionalEventListener recebem o evento após o commit
+ */
+@Getter
+@AllArgsConstructor
+public class EmpresaAlteradaEvent {
+
+    private final Long empresaId;
+}
@@ -0,0 +1,17 @@
+package com.delivery.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado na transação que grava um feedback. Ouvintes com @TransactionalEventListener
+ * recebem o evento após o commit
+ */
+@Getter
+@AllArgsConstructor
+public class FeedbackCriadoEvent {
+
+    private final Long empresaId;
+
+    private final Integer nota;
+}
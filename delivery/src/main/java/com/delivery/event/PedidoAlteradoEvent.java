@@ -0,0 +1,29 @@
+package com.delivery.event;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.StatusPedido;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado quando um pedido é criado ou muda de status/pagamento, dentro da transação do pedido.
+ * Ouvintes com @TransactionalEventListener recebem o evento após o commit; ouvintes com
+ * @EventListener rodam na própria transação (ex.: consolidação de vendas diárias).
+ */
+@Getter
+@AllArgsConstructor
+public class PedidoAlteradoEvent {
+
+    private final PedidoDTO pedido;
+
+    // Nulo quando o pedido acabou de ser criado
+    private final StatusPedido statusAnterior;
+
+    public Long getPedidoId() {
+        return pedido.getId();
+    }
+
+    public Long getEmpresaId() {
+        return pedido.getEmpresaId();
+    }
+}
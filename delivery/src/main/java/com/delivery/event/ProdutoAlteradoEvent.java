@@ -0,0 +1,17 @@
+package com.delivery.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Publicado na transação que cria, altera, ativa ou desativa produtos. Ouvintes com
+ * @TransactionalEventListener recebem o evento após o commit
+ */
+@Getter
+@AllArgsConstructor
+public class ProdutoAlteradoEvent {
+
+    private final List<Long> produtoIds;
+}
@@ -0,0 +1,7 @@
+package com.delivery.exception;
+
+public class LimiteExcedidoException extends RuntimeException {
+    public LimiteExcedidoException(String message) {
+        super(message);
+    }
+}
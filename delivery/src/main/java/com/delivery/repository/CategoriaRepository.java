@@ -27,6 +27,15 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     @Query("SELECT DISTINCT c FROM Categoria c JOIN c.empresas e WHERE e.ativo = true")
     List<Categoria> findCategoriasComEmpresas();
 
+    /**
+     * Popularidade das categorias ativas para as sugestões de busca: [nome, empresas ativas, produtos ativos]
+     */
+    @Query("SELECT c.nome, " +
+            "(SELECT COUNT(e) FROM Empresa e WHERE e.categoria = c AND e.ativo = true), " +
+            "(SELECT COUNT(p) FROM Produto p WHERE p.categoria = c AND p.ativo = true) " +
+            "FROM Categoria c WHERE c.ativo = true")
+    List<Object[]> findPopularidadeDosNomes();
+
     @Query("SELECT c FROM Categoria c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', ?1, '%'))")
     List<Categoria> findByNomeContainingIgnoreCase(String nome);
 }
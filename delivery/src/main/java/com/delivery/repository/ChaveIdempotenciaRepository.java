@@ -0,0 +1,41 @@
+package com.delivery.repository;
+
+import com.delivery.entity.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Usado fora de transações de serviço (pelo filtro de idempotência): as escritas têm transação própria
+ */
+@Repository
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, Long> {
+
+    Optional<ChaveIdempotencia> findByUsuarioAndChave(String usuario, String chave);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChaveIdempotencia c SET c.statusHttp = :statusHttp, c.contentType = :contentType, " +
+            "c.corpoResposta = :corpoResposta, c.expiraEm = :expiraEm WHERE c.id = :id")
+    int concluir(@Param("id") Long id,
+                 @Param("statusHttp") int statusHttp,
+                 @Param("contentType") String contentType,
+                 @Param("corpoResposta") String corpoResposta,
+                 @Param("expiraEm") LocalDateTime expiraEm);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.id = :id AND c.expiraEm < :agora")
+    int deleteExpiradaById(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.expiraEm < :agora")
+    int deleteExpiradas(@Param("agora") LocalDateTime agora);
+}
@@ -13,6 +13,12 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     @Query("SELECT c FROM Cliente c WHERE c.usuario.email = :email")
     Optional<Cliente> findByEmail(@Param("email") String email);
 
+    @Query("SELECT c.id FROM Cliente c WHERE c.usuario.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT c.id FROM Cliente c WHERE c.usuario.id = :usuarioId")
+    Optional<Long> findIdByUsuarioId(@Param("usuarioId") Long usuarioId);
+
     boolean existsByCpf(String cpf);
 
     @Query("SELECT c FROM Cliente c WHERE c.usuario.id = :usuarioId")
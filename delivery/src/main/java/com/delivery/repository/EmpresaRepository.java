@@ -4,20 +4,68 @@ import com.delivery.entity.Empresa;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
 
+    // Haversine em km entre (:latitude, :longitude) e a empresa
+    String DISTANCIA_KM = "(2 * 6371 * ASIN(LEAST(1, SQRT(" +
+            "POWER(SIN(RADIANS(e.latitude - :latitude) / 2), 2) + " +
+            "COS(RADIANS(:latitude)) * COS(RADIANS(e.latitude)) * POWER(SIN(RADIANS(e.longitude - :longitude) / 2), 2)))))";
+
+    // Prefiltro pelo índice (latitude, longitude): só as empresas da caixa têm a distância calculada
+    String NA_CAIXA = "e.ativo = true " +
+            "AND e.latitude BETWEEN :latitudeMinima AND :latitudeMaxima " +
+            "AND e.longitude BETWEEN :longitudeMinima AND :longitudeMaxima ";
+
     @Query("SELECT e FROM Empresa e WHERE e.usuario.email = :email")
     Optional<Empresa> findByEmail(@Param("email") String email);
 
+    @Query("SELECT e.id FROM Empresa e WHERE e.usuario.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT e.id FROM Empresa e WHERE e.usuario.id = :usuarioId")
+    Optional<Long> findIdByUsuarioId(@Param("usuarioId") Long usuarioId);
+
     boolean existsByCnpj(String cnpj);
 
+    /**
+     * Dimensões das empresas para a análise da plataforma: [id, nomeFantasia, categoriaId, categoria, cidade]
+     */
+    @Query("SELECT e.id, e.nomeFantasia, c.id, c.nome, e.cidade FROM Empresa e LEFT JOIN e.categoria c")
+    List<Object[]> findDimensoesParaAnalise();
+
+    @Query("SELECT e.id, e.nomeFantasia, c.id, c.nome, e.cidade FROM Empresa e LEFT JOIN e.categoria c WHERE e.id = :id")
+    List<Object[]> findDimensoesParaAnalise(@Param("id") Long id);
+
+    /**
+     * Empresas para o índice de busca: [id, nomeFantasia, categoriaId, ativo]. Só o nome, como na consulta por termo
+     */
+    @Query("SELECT e.id, e.nomeFantasia, c.id, e.ativo FROM Empresa e LEFT JOIN e.categoria c " +
+            "WHERE e.ativo = true ORDER BY e.id")
+    List<Object[]> findParaIndiceBusca();
+
+    @Query("SELECT e.id, e.nomeFantasia, c.id, e.ativo FROM Empresa e LEFT JOIN e.categoria c WHERE e.id = :id")
+    List<Object[]> findParaIndiceBusca(@Param("id") Long id);
+
+    /**
+     * Popularidade das empresas ativas para as sugestões de busca: [nomeFantasia, pedidos não cancelados]
+     */
+    @Query("SELECT e.nomeFantasia, COUNT(p) FROM Empresa e LEFT JOIN e.pedidos p ON p.status <> 'CANCELADO' " +
+            "WHERE e.ativo = true GROUP BY e.id, e.nomeFantasia")
+    List<Object[]> findPopularidadeDosNomes();
+
+    @Query("SELECT e FROM Empresa e JOIN FETCH e.usuario LEFT JOIN FETCH e.categoria WHERE e.id IN :ids")
+    List<Empresa> findComUsuarioECategoriaByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT e FROM Empresa e WHERE e.usuario.id = :usuarioId")
     Optional<Empresa> findByUsuarioId(@Param("usuarioId") Long usuarioId);
 
@@ -27,6 +75,23 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
     @Query("SELECT e FROM Empresa e WHERE e.categoria.id = :categoriaId AND e.ativo = true")
     Page<Empresa> findByCategoriaId(@Param("categoriaId") Long categoriaId, Pageable pageable);
 
+    // Listagens por cursor (keyset): seek em (createdAt, id) sem OFFSET e sem COUNT
+
+    @Query("SELECT e FROM Empresa e WHERE e.ativo = true AND " +
+            "(:createdAt IS NULL OR e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Empresa> findAtivasAposCursor(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable limite);
+
+    @Query("SELECT e FROM Empresa e WHERE e.categoria.id = :categoriaId AND e.ativo = true AND " +
+            "(:createdAt IS NULL OR e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Empresa> findByCategoriaIdAposCursor(@Param("categoriaId") Long categoriaId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable limite);
+
     @Query("SELECT e FROM Empresa e WHERE " +
             "(:termo IS NULL OR LOWER(e.nomeFantasia) LIKE LOWER(CONCAT('%', :termo, '%'))) AND " +
             "(:categoriaId IS NULL OR e.categoria.id = :categoriaId) AND " +
@@ -35,18 +100,71 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
                                           @Param("categoriaId") Long categoriaId,
                                           Pageable pageable);
 
-    @Query(value = "SELECT e.*, " +
-            "(6371 * acos(cos(radians(:latitude)) * cos(radians(e.latitude)) * " +
-            "cos(radians(e.longitude) - radians(:longitude)) + " +
-            "sin(radians(:latitude)) * sin(radians(e.latitude)))) AS distancia " +
-            "FROM empresas e " +
-            "WHERE e.ativo = true " +
+    /**
+     * Empresas ativas no raio, da mais próxima para a mais distante: [id, distância em km]
+     */
+    @Query(value = "SELECT e.id, " + DISTANCIA_KM + " AS distancia FROM empresas e " +
+            "WHERE " + NA_CAIXA +
             "HAVING distancia <= :raioKm " +
-            "ORDER BY distancia",
+            "ORDER BY distancia, e.id " +
+            "LIMIT :limite OFFSET :offset",
+            nativeQuery = true)
+    List<Object[]> findProximas(@Param("latitude") double latitude,
+                                @Param("longitude") double longitude,
+                                @Param("latitudeMinima") double latitudeMinima,
+                                @Param("latitudeMaxima") double latitudeMaxima,
+                                @Param("longitudeMinima") double longitudeMinima,
+                                @Param("longitudeMaxima") double longitudeMaxima,
+                                @Param("raioKm") double raioKm,
+                                @Param("limite") int limite,
+                                @Param("offset") long offset);
+
+    @Query(value = "SELECT COUNT(*) FROM empresas e " +
+            "WHERE " + NA_CAIXA +
+            "AND " + DISTANCIA_KM + " <= :raioKm",
+            nativeQuery = true)
+    long countProximas(@Param("latitude") double latitude,
+                       @Param("longitude") double longitude,
+                       @Param("latitudeMinima") double latitudeMinima,
+                       @Param("latitudeMaxima") double latitudeMaxima,
+                       @Param("longitudeMinima") double longitudeMinima,
+                       @Param("longitudeMaxima") double longitudeMaxima,
+                       @Param("raioKm") double raioKm);
+
+    /**
+     * Coordenadas das empresas ativas para o índice geográfico: [id, latitude, longitude]
+     */
+    @Query("SELECT e.id, e.latitude, e.longitude FROM Empresa e " +
+            "WHERE e.ativo = true AND e.latitude IS NOT NULL AND e.longitude IS NOT NULL")
+    List<Object[]> findCoordenadasAtivas();
+
+    @Query("SELECT e.id, e.latitude, e.longitude, e.ativo FROM Empresa e WHERE e.id = :id")
+    List<Object[]> findCoordenadas(@Param("id") Long id);
+
+    /**
+     * Soma uma nota aos agregados de avaliação numa única instrução, sem ler a empresa. A média vem
+     * primeiro porque o MySQL aplica as atribuições em ordem e as seguintes já veem os valores novos
+     */
+    @Modifying
+    @Query("UPDATE Empresa e SET e.avaliacaoMedia = (e.somaAvaliacoes + :nota) * 1.0 / (e.totalAvaliacoes + 1), " +
+            "e.somaAvaliacoes = e.somaAvaliacoes + :nota, e.totalAvaliacoes = e.totalAvaliacoes + 1 " +
+            "WHERE e.id = :id")
+    int registrarAvaliacao(@Param("id") Long id, @Param("nota") int nota);
+
+    /**
+     * Recalcula os agregados de avaliação de todas as empresas a partir dos feedbacks
+     */
+    @Modifying
+    @Query(value = "UPDATE empresas e LEFT JOIN (" +
+            "SELECT empresa_id, SUM(nota) AS soma, COUNT(*) AS total FROM feedbacks GROUP BY empresa_id) f " +
+            "ON f.empresa_id = e.id " +
+            "SET e.soma_avaliacoes = COALESCE(f.soma, 0), e.total_avaliacoes = COALESCE(f.total, 0), " +
+            "e.avaliacao_media = COALESCE(f.soma / f.total, 0)",
             nativeQuery = true)
-    List<Empresa> findByLocalizacao(@Param("latitude") Double latitude,
-                                    @Param("longitude") Double longitude,
-                                    @Param("raioKm") Double raioKm);
+    int recalcularAvaliacoes();
+
+    @Query("SELECT COALESCE(SUM(e.totalAvaliacoes), 0) FROM Empresa e")
+    long somarTotalAvaliacoes();
 
     @Query("SELECT COUNT(e) FROM Empresa e WHERE e.ativo = true")
     Long countByAtivoTrue();
@@ -1,31 +1,115 @@
 package com.delivery.repository;
 
 import com.delivery.entity.Pedido;
+import com.delivery.entity.enums.StatusPagamento;
 import com.delivery.entity.enums.StatusPedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.cliente.id = :clienteId ORDER BY p.createdAt DESC")
-    Page<Pedido> findByClienteId(@Param("clienteId") Long clienteId, Pageable pageable);
+    // Paginação em duas fases: primeiro os IDs da página (LIMIT no banco), depois os itens só desses pedidos
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.empresa.id = :empresaId ORDER BY p.createdAt DESC")
-    Page<Pedido> findByEmpresaId(@Param("empresaId") Long empresaId, Pageable pageable);
+    @Query(value = "SELECT p.id FROM Pedido p WHERE p.cliente.id = :clienteId ORDER BY p.createdAt DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.cliente.id = :clienteId")
+    Page<Long> findIdsByClienteId(@Param("clienteId") Long clienteId, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Pedido p WHERE p.empresa.id = :empresaId ORDER BY p.createdAt DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.empresa.id = :empresaId")
+    Page<Long> findIdsByEmpresaId(@Param("empresaId") Long empresaId, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Pedido p WHERE p.cliente.id = :clienteId AND p.status = :status ORDER BY p.createdAt DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.cliente.id = :clienteId AND p.status = :status")
+    Page<Long> findIdsByClienteIdAndStatus(@Param("clienteId") Long clienteId, @Param("status") StatusPedido status, Pageable pageable);
+
+    @Query("SELECT p.id FROM Pedido p WHERE p.cliente.id = :clienteId AND " +
+            "(:createdAt IS NULL OR p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> findIdsByClienteIdAposCursor(@Param("clienteId") Long clienteId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable limite);
+
+    @Query("SELECT p.id FROM Pedido p WHERE p.empresa.id = :empresaId AND " +
+            "(:createdAt IS NULL OR p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> findIdsByEmpresaIdAposCursor(@Param("empresaId") Long empresaId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable limite);
+
+    // Transições de status com compare-and-set: só gravam se o status no banco ainda for o esperado
+
+    @Query("SELECT p.status FROM Pedido p WHERE p.id = :id AND p.empresa.id = :empresaId")
+    Optional<StatusPedido> findStatusByIdAndEmpresaId(@Param("id") Long id, @Param("empresaId") Long empresaId);
+
+    @Query("SELECT p.status FROM Pedido p WHERE p.id = :id AND p.cliente.id = :clienteId")
+    Optional<StatusPedido> findStatusByIdAndClienteId(@Param("id") Long id, @Param("clienteId") Long clienteId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novoStatus, p.updatedAt = :agora " +
+            "WHERE p.id = :id AND p.empresa.id = :empresaId AND p.status = :statusAtual")
+    int atualizarStatusDaEmpresa(@Param("id") Long id,
+                                 @Param("empresaId") Long empresaId,
+                                 @Param("statusAtual") StatusPedido statusAtual,
+                                 @Param("novoStatus") StatusPedido novoStatus,
+                                 @Param("agora") LocalDateTime agora);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novoStatus, p.updatedAt = :agora " +
+            "WHERE p.id = :id AND p.cliente.id = :clienteId AND p.status = :statusAtual")
+    int atualizarStatusDoCliente(@Param("id") Long id,
+                                 @Param("clienteId") Long clienteId,
+                                 @Param("statusAtual") StatusPedido statusAtual,
+                                 @Param("novoStatus") StatusPedido novoStatus,
+                                 @Param("agora") LocalDateTime agora);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = com.delivery.entity.enums.StatusPedido.CONFIRMADO, " +
+            "p.statusPagamento = com.delivery.entity.enums.StatusPagamento.PAGO, p.updatedAt = :agora " +
+            "WHERE p.id = :id AND p.cliente.id = :clienteId " +
+            "AND p.status = com.delivery.entity.enums.StatusPedido.PENDENTE " +
+            "AND p.statusPagamento <> com.delivery.entity.enums.StatusPagamento.PAGO")
+    int confirmarPagamento(@Param("id") Long id,
+                           @Param("clienteId") Long clienteId,
+                           @Param("agora") LocalDateTime agora);
+
+    boolean existsByIdAndStatusPagamento(Long id, StatusPagamento statusPagamento);
+
+    @Query("SELECT p.id FROM Pedido p WHERE p.status IN :status")
+    List<Long> findIdsByStatusIn(@Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT DISTINCT p FROM Pedido p JOIN FETCH p.cliente c JOIN FETCH c.usuario JOIN FETCH p.empresa e " +
+            "JOIN FETCH e.usuario LEFT JOIN FETCH e.categoria LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto pr " +
+            "LEFT JOIN FETCH pr.categoria LEFT JOIN FETCH p.feedback WHERE p.id IN :ids")
+    List<Pedido> findAllWithItensByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.id = :id")
     Optional<Pedido> findByIdWithItens(@Param("id") Long id);
 
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto " +
+            "WHERE p.id = :id AND p.cliente.id = :clienteId")
+    Optional<Pedido> findByIdAndClienteIdWithItens(@Param("id") Long id, @Param("clienteId") Long clienteId);
+
+    @Query("SELECT p FROM Pedido p WHERE p.id = :id AND p.cliente.id = :clienteId")
+    Optional<Pedido> findByIdAndClienteId(@Param("id") Long id, @Param("clienteId") Long clienteId);
+
     @Query("SELECT p FROM Pedido p WHERE p.empresa.id = :empresaId AND p.status = :status")
     List<Pedido> findByEmpresaIdAndStatus(@Param("empresaId") Long empresaId,
                                           @Param("status") StatusPedido status);
@@ -48,8 +132,81 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
                                                        @Param("inicio") LocalDateTime inicio,
                                                        @Param("fim") LocalDateTime fim);
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.cliente.id = :clienteId AND p.status = :status ORDER BY p.createdAt DESC")
-    Page<Pedido> findByClienteIdAndStatus(@Param("clienteId") Long clienteId, @Param("status") StatusPedido status, Pageable pageable);
+    @Query("SELECT MIN(p.createdAt) FROM Pedido p")
+    LocalDateTime findPrimeiraData();
+
+    /**
+     * Quantidade e receita por produto da empresa em [inicio, fim), sem pedidos cancelados.
+     * Colunas: produtoId, nome, quantidade, receita
+     */
+    @Query("SELECT i.produto.id, i.produto.nome, SUM(i.quantidade), SUM(i.subtotal) " +
+            "FROM Pedido p JOIN p.itens i WHERE p.empresa.id = :empresaId AND " +
+            "p.createdAt >= :inicio AND p.createdAt < :fim AND p.status != 'CANCELADO' " +
+            "GROUP BY i.produto.id, i.produto.nome")
+    List<Object[]> somarItensVendidos(@Param("empresaId") Long empresaId,
+                                      @Param("inicio") LocalDateTime inicio,
+                                      @Param("fim") LocalDateTime fim);
+
+    /**
+     * Mesma agregação de somarItensVendidos para todas as empresas.
+     * Colunas: empresaId, produtoId, nome, quantidade, receita
+     */
+    @Query("SELECT p.empresa.id, i.produto.id, i.produto.nome, SUM(i.quantidade), SUM(i.subtotal) " +
+            "FROM Pedido p JOIN p.itens i WHERE p.createdAt >= :inicio AND p.createdAt < :fim " +
+            "AND p.status != 'CANCELADO' GROUP BY p.empresa.id, i.produto.id, i.produto.nome")
+    List<Object[]> somarItensVendidosPorEmpresa(@Param("inicio") LocalDateTime inicio,
+                                                @Param("fim") LocalDateTime fim);
+
+    /**
+     * Pedidos, gasto e último pedido de cada cliente da empresa em [inicio, fim), sem cancelados.
+     * As linhas são lidas do banco sob demanda (fetch size mínimo no Connector/J): exige transação aberta
+     * e que o stream seja fechado. Colunas: clienteId, nome, pedidos, total, ultimoPedido
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT c.id, c.nome, COUNT(p), SUM(p.total), MAX(p.createdAt) FROM Pedido p JOIN p.cliente c " +
+            "WHERE p.empresa.id = :empresaId AND p.createdAt >= :inicio AND p.createdAt < :fim " +
+            "AND p.status != 'CANCELADO' GROUP BY c.id, c.nome")
+    Stream<Object[]> streamClientesDaEmpresa(@Param("empresaId") Long empresaId,
+                                            @Param("inicio") LocalDateTime inicio,
+                                            @Param("fim") LocalDateTime fim);
+
+    /**
+     * Itens dos pedidos da empresa em [inicio, fim) para exportação, em ordem cronológica.
+     * Lidos sob demanda como streamClientesDaEmpresa. Colunas: pedidoId, data, status, statusPagamento,
+     * formaPagamento, cliente, totalPedido, produtoId, produto, quantidade, precoUnitario, subtotal
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.id, p.createdAt, p.status, p.statusPagamento, p.formaPagamento, c.nome, p.total, " +
+            "pr.id, pr.nome, i.quantidade, i.precoUnitario, i.subtotal " +
+            "FROM Pedido p JOIN p.cliente c JOIN p.itens i JOIN i.produto pr " +
+            "WHERE p.empresa.id = :empresaId AND p.createdAt >= :inicio AND p.createdAt < :fim " +
+            "ORDER BY p.createdAt, p.id")
+    Stream<Object[]> streamItensParaExportacao(@Param("empresaId") Long empresaId,
+                                              @Param("inicio") LocalDateTime inicio,
+                                              @Param("fim") LocalDateTime fim);
+
+    /**
+     * Pedidos criados a partir de inicio, em ordem de ID, lidos sob demanda para a análise da
+     * plataforma: [id, empresaId, createdAt, total, status]. Consumir dentro de uma transação
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.id, p.empresa.id, p.createdAt, p.total, p.status FROM Pedido p " +
+            "WHERE p.createdAt >= :inicio ORDER BY p.id")
+    Stream<Object[]> streamPedidosParaAnalise(@Param("inicio") LocalDateTime inicio);
+
+    /**
+     * Vendas da empresa por hora em [inicio, fim), no formato [dia, hora, pedidos, cancelados, total].
+     * Horas sem pedidos não vêm
+     */
+    @Query(value = "SELECT DATE(p.created_at), HOUR(p.created_at), COUNT(*), " +
+            "SUM(CASE WHEN p.status = 'CANCELADO' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.status = 'CANCELADO' THEN 0 ELSE p.total END) " +
+            "FROM pedidos p WHERE p.empresa_id = :empresaId AND p.created_at >= :inicio AND p.created_at < :fim " +
+            "GROUP BY DATE(p.created_at), HOUR(p.created_at)",
+            nativeQuery = true)
+    List<Object[]> somarVendasPorHora(@Param("empresaId") Long empresaId,
+                                      @Param("inicio") LocalDateTime inicio,
+                                      @Param("fim") LocalDateTime fim);
 
     @Query("SELECT COUNT(p) FROM Pedido p WHERE p.cliente.id = :clienteId")
     Long countByClienteId(@Param("clienteId") Long clienteId);
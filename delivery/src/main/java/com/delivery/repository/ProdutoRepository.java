@@ -1,13 +1,20 @@
 package com.delivery.repository;
 
 import com.delivery.entity.Produto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProdutoRepository extends JpaRepository<Produto, Long> {
@@ -15,9 +22,26 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
     @Query("SELECT p FROM Produto p WHERE p.empresa.id = :empresaId AND p.ativo = true")
     List<Produto> findByEmpresaIdAndAtivoTrue(@Param("empresaId") Long empresaId);
 
+    /**
+     * Popularidade dos nomes de produtos ativos para as sugestões de busca, lida sob demanda:
+     * [nome, produtos com o nome, unidades vendidas em pedidos não cancelados]. Consumir dentro de uma transação
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.nome, COUNT(DISTINCT p.id), " +
+            "COALESCE(SUM(CASE WHEN ped.status <> 'CANCELADO' THEN i.quantidade ELSE 0 END), 0) " +
+            "FROM Produto p LEFT JOIN p.itensPedido i LEFT JOIN i.pedido ped " +
+            "WHERE p.ativo = true GROUP BY p.nome")
+    Stream<Object[]> streamPopularidadeDosNomes();
+
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.categoria WHERE p.id IN :ids")
+    List<Produto> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT p FROM Produto p WHERE p.empresa.id = :empresaId")
     List<Produto> findByEmpresaId(@Param("empresaId") Long empresaId);
 
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.categoria WHERE p.id = :id AND p.empresa.id = :empresaId")
+    Optional<Produto> findByIdAndEmpresaId(@Param("id") Long id, @Param("empresaId") Long empresaId);
+
     @Query("SELECT p FROM Produto p WHERE p.categoria.id = :categoriaId AND p.ativo = true")
     Page<Produto> findByCategoriaIdAndAtivoTrue(@Param("categoriaId") Long categoriaId, Pageable pageable);
 
@@ -27,9 +51,40 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
             "p.ativo = true")
     Page<Produto> findByTermoAndAtivoTrue(@Param("termo") String termo, Pageable pageable);
 
+    /**
+     * Produtos ativos para o índice de busca, em ordem de ID, lidos sob demanda: [id, nome, descricao].
+     * Consumir dentro de uma transação
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.id, p.nome, p.descricao FROM Produto p WHERE p.ativo = true ORDER BY p.id")
+    Stream<Object[]> streamParaIndiceBusca();
+
+    @Query("SELECT p.id, p.nome, p.descricao, p.ativo FROM Produto p WHERE p.id IN :ids")
+    List<Object[]> findParaIndiceBusca(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.categoria WHERE p.id IN :ids")
+    List<Produto> findComCategoriaByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT p FROM Produto p WHERE p.ativo = true ORDER BY p.createdAt DESC")
     Page<Produto> findAllAtivoOrderByCreatedAtDesc(Pageable pageable);
 
+    // Listagens por cursor (keyset): seek em (createdAt, id) sem OFFSET e sem COUNT
+
+    @Query("SELECT p FROM Produto p WHERE p.ativo = true AND " +
+            "(:createdAt IS NULL OR p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Produto> findAtivosAposCursor(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable limite);
+
+    @Query("SELECT p FROM Produto p WHERE p.categoria.id = :categoriaId AND p.ativo = true AND " +
+            "(:createdAt IS NULL OR p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Produto> findByCategoriaIdAtivosAposCursor(@Param("categoriaId") Long categoriaId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Pageable limite);
+
     @Query("SELECT p FROM Produto p WHERE p.empresa.id = :empresaId")
     Page<Produto> findByEmpresaIdPaginated(@Param("empresaId") Long empresaId, Pageable pageable);
 
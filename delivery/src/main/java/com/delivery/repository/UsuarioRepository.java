@@ -2,6 +2,8 @@ package com.delivery.repository;
 
 import com.delivery.entity.base.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -9,4 +11,7 @@ import java.util.Optional;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.ativo FROM Usuario u WHERE u.id = :id")
+    Optional<Boolean> findAtivoById(@Param("id") Long id);
+}
@@ -0,0 +1,73 @@
+package com.delivery.repository;
+
+import com.delivery.entity.VendaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VendaDiariaRepository extends JpaRepository<VendaDiaria, VendaDiaria.Chave>, VendaDiariaRepositoryCustom {
+
+    /**
+     * Soma os valores informados à linha do dia, criando-a se ainda não existir
+     */
+    @Modifying
+    @Query(value = "INSERT INTO vendas_diarias (empresa_id, dia, forma_pagamento, pedidos, cancelados, total) " +
+            "VALUES (:empresaId, :dia, :formaPagamento, :pedidos, :cancelados, :total) " +
+            "ON DUPLICATE KEY UPDATE pedidos = pedidos + VALUES(pedidos), " +
+            "cancelados = cancelados + VALUES(cancelados), total = total + VALUES(total)",
+            nativeQuery = true)
+    int acumular(@Param("empresaId") Long empresaId,
+                 @Param("dia") LocalDate dia,
+                 @Param("formaPagamento") String formaPagamento,
+                 @Param("pedidos") long pedidos,
+                 @Param("cancelados") long cancelados,
+                 @Param("total") BigDecimal total);
+
+    @Modifying
+    @Query("DELETE FROM VendaDiaria v WHERE v.chave.dia BETWEEN :inicio AND :fim")
+    int deleteByDiaBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Recalcula a partir de pedidos os dias de [inicio, fim)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO vendas_diarias (empresa_id, dia, forma_pagamento, pedidos, cancelados, total) " +
+            "SELECT p.empresa_id, DATE(p.created_at), p.forma_pagamento, COUNT(*), " +
+            "SUM(CASE WHEN p.status = 'CANCELADO' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.status = 'CANCELADO' THEN 0 ELSE p.total END) " +
+            "FROM pedidos p WHERE p.created_at >= :inicio AND p.created_at < :fim " +
+            "GROUP BY p.empresa_id, DATE(p.created_at), p.forma_pagamento",
+            nativeQuery = true)
+    int inserirAPartirDePedidos(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    /**
+     * Vendas da empresa por dia: dias consolidados de [inicio, fimConsolidado] e pedidos de
+     * [inicioPedidos, fimPedidos), no formato [dia, pedidos, cancelados, total]. Dias sem vendas não vêm
+     */
+    @Query(value = "SELECT v.dia, SUM(v.pedidos), SUM(v.cancelados), SUM(v.total) FROM (" +
+            "SELECT vd.dia, vd.pedidos, vd.cancelados, vd.total FROM vendas_diarias vd " +
+            "WHERE vd.empresa_id = :empresaId AND vd.dia BETWEEN :inicio AND :fimConsolidado " +
+            "UNION ALL SELECT DATE(p.created_at), 1, " +
+            "CASE WHEN p.status = 'CANCELADO' THEN 1 ELSE 0 END, " +
+            "CASE WHEN p.status = 'CANCELADO' THEN 0 ELSE p.total END " +
+            "FROM pedidos p WHERE p.empresa_id = :empresaId " +
+            "AND p.created_at >= :inicioPedidos AND p.created_at < :fimPedidos" +
+            ") v GROUP BY v.dia",
+            nativeQuery = true)
+    List<Object[]> somarPorDia(@Param("empresaId") Long empresaId,
+                               @Param("inicio") LocalDate inicio,
+                               @Param("fimConsolidado") LocalDate fimConsolidado,
+                               @Param("inicioPedidos") LocalDateTime inicioPedidos,
+                               @Param("fimPedidos") LocalDateTime fimPedidos);
+
+    @Query("SELECT MIN(v.chave.dia) FROM VendaDiaria v")
+    LocalDate findPrimeiroDia();
+}
@@ -0,0 +1,20 @@
+package com.delivery.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaDiariaRepositoryCustom {
+
+    /**
+     * Métricas de vários períodos da empresa em uma única consulta, com agregação condicional
+     * sobre as vendas consolidadas (dias anteriores a hoje) e os pedidos de hoje.
+     *
+     * Uma linha por forma de pagamento (ou uma linha com forma nula, sem vendas), no formato
+     * [forma, (pedidos, cancelados, total) de cada período..., e, com indicadores:
+     * total de produtos, produtos ativos, avaliação média, total de avaliações]
+     */
+    List<Object[]> consultarMetricas(Long empresaId, List<Periodo> periodos, LocalDate hoje, boolean incluirIndicadores);
+
+    record Periodo(LocalDate inicio, LocalDate fim) {
+    }
+}
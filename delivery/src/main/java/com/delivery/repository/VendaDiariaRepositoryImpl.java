@@ -0,0 +1,62 @@
+package com.delivery.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class VendaDiariaRepositoryImpl implements VendaDiariaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> consultarMetricas(Long empresaId, List<Periodo> periodos, LocalDate hoje, boolean incluirIndicadores) {
+        LocalDate inicio = periodos.stream().map(Periodo::inicio).min(LocalDate::compareTo).orElse(hoje);
+        LocalDate fim = periodos.stream().map(Periodo::fim).max(LocalDate::compareTo).orElse(hoje);
+        boolean incluiHoje = periodos.stream().anyMatch(p -> !p.inicio().isAfter(hoje) && !p.fim().isBefore(hoje));
+
+        StringBuilder sql = new StringBuilder("SELECT v.forma_pagamento");
+        for (int i = 0; i < periodos.size(); i++) {
+            String noPeriodo = "CASE WHEN v.dia BETWEEN :inicio" + i + " AND :fim" + i + " THEN ";
+            sql.append(", SUM(").append(noPeriodo).append("v.pedidos ELSE 0 END)")
+                    .append(", SUM(").append(noPeriodo).append("v.cancelados ELSE 0 END)")
+                    .append(", SUM(").append(noPeriodo).append("v.total ELSE 0 END)");
+        }
+        if (incluirIndicadores) {
+            sql.append(", (SELECT COUNT(*) FROM produtos pr WHERE pr.empresa_id = :empresaId)")
+                    .append(", (SELECT COUNT(*) FROM produtos pr WHERE pr.empresa_id = :empresaId AND pr.ativo = TRUE)")
+                    .append(", (SELECT AVG(f.nota) FROM feedbacks f WHERE f.empresa_id = :empresaId)")
+                    .append(", (SELECT COUNT(*) FROM feedbacks f WHERE f.empresa_id = :empresaId)");
+        }
+
+        // A junção com a linha base garante uma linha de resultado mesmo sem vendas no intervalo
+        sql.append(" FROM (SELECT 1 AS base) b LEFT JOIN (")
+                .append("SELECT vd.dia, vd.forma_pagamento, vd.pedidos, vd.cancelados, vd.total FROM vendas_diarias vd ")
+                .append("WHERE vd.empresa_id = :empresaId AND vd.dia BETWEEN :inicio AND :fimConsolidado");
+        if (incluiHoje) {
+            sql.append(" UNION ALL SELECT DATE(p.created_at), p.forma_pagamento, 1, ")
+                    .append("CASE WHEN p.status = 'CANCELADO' THEN 1 ELSE 0 END, ")
+                    .append("CASE WHEN p.status = 'CANCELADO' THEN 0 ELSE p.total END ")
+                    .append("FROM pedidos p WHERE p.empresa_id = :empresaId AND p.created_at >= :hoje AND p.created_at < :amanha");
+        }
+        sql.append(") v ON 1 = 1 GROUP BY v.forma_pagamento");
+
+        LocalDate fimConsolidado = fim.isBefore(hoje) ? fim : hoje.minusDays(1);
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("empresaId", empresaId)
+                .setParameter("inicio", inicio)
+                .setParameter("fimConsolidado", fimConsolidado);
+        if (incluiHoje) {
+            query.setParameter("hoje", hoje.atStartOfDay()).setParameter("amanha", hoje.plusDays(1).atStartOfDay());
+        }
+        for (int i = 0; i < periodos.size(); i++) {
+            query.setParameter("inicio" + i, periodos.get(i).inicio()).setParameter("fim" + i, periodos.get(i).fim());
+        }
+
+        return query.getResultList();
+    }
+}
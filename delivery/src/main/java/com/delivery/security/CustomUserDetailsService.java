@@ -1,10 +1,11 @@
 package com.delivery.security;
 
 import com.delivery.entity.base.Usuario;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
 import com.delivery.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,20 +15,22 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public UsuarioPrincipal loadUserByUsername(String email) throws UsernameNotFoundException {
         Usuario usuario = usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
 
-        return User.builder()
-                .username(usuario.getEmail())
-                .password(usuario.getSenha())
-                .authorities("ROLE_" + usuario.getTipoUsuario().name())
-                .accountExpired(false)
-                .accountLocked(!usuario.getAtivo())
-                .credentialsExpired(false)
-                .disabled(!usuario.getAtivo())
-                .build();
+        Long clienteId = usuario.getTipoUsuario() == TipoUsuario.CLIENTE
+                ? clienteRepository.findIdByUsuarioId(usuario.getId()).orElse(null)
+                : null;
+        Long empresaId = usuario.getTipoUsuario() == TipoUsuario.EMPRESA
+                ? empresaRepository.findIdByUsuarioId(usuario.getId()).orElse(null)
+                : null;
+
+        return new UsuarioPrincipal(usuario.getId(), usuario.getEmail(), usuario.getTipoUsuario(),
+                clienteId, empresaId, usuario.getSenha(), usuario.getAtivo());
     }
 }
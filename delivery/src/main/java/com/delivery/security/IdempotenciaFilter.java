@@ -0,0 +1,215 @@
+package com.delivery.security;
+
+import com.delivery.entity.ChaveIdempotencia;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.service.idempotencia.IdempotenciaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Idempotency-Key para criação e pagamento de pedidos: a repetição de uma requisição já executada
+ * recebe a resposta original, sem passar de novo pelo PedidoService.
+ *
+ * Roda depois da autorização, então só requisições que chegariam ao controller reservam a chave.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_CHAVE = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotency-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private static final List<String> ROTAS = List.of(
+            "/api/cliente/pedidos",
+            "/api/cliente/pedidos/*/pagar"
+    );
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER_CHAVE) == null) {
+            return true;
+        }
+
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return ROTAS.stream().noneMatch(rota -> pathMatcher.match(rota, caminho));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String chave = request.getHeader(HEADER_CHAVE).trim();
+        if (chave.isEmpty() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            escreverErro(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida");
+            return;
+        }
+
+        Optional<String> usuario = SecurityUtils.getCurrentUserEmail();
+        if (usuario.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] corpo = StreamUtils.copyToByteArray(request.getInputStream());
+
+        IdempotenciaService.Inicio inicio;
+        try {
+            inicio = idempotenciaService.iniciar(usuario.get(), chave, calcularHash(request, corpo));
+        } catch (LimiteExcedidoException e) {
+            escreverErro(response, HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+            return;
+        }
+
+        switch (inicio.situacao()) {
+            case CONFLITO -> escreverErro(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key já utilizada com outra requisição");
+            case EM_ANDAMENTO -> escreverErro(response, HttpStatus.CONFLICT,
+                    "Requisição com esta Idempotency-Key ainda em andamento");
+            case REPETIDA -> repetirResposta(inicio.registro(), response);
+            case NOVA -> executar(inicio.registro(), new RequisicaoComCorpo(request, corpo), response, filterChain);
+        }
+    }
+
+    private void executar(ChaveIdempotencia registro, HttpServletRequest request, HttpServletResponse response,
+                          FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        boolean concluida = false;
+        try {
+            filterChain.doFilter(request, resposta);
+            idempotenciaService.concluir(registro, resposta.getStatus(), resposta.getContentType(),
+                    new String(resposta.getContentAsByteArray(), StandardCharsets.UTF_8));
+            concluida = true;
+        } finally {
+            if (!concluida) {
+                idempotenciaService.liberar(registro);
+            }
+            resposta.copyBodyToResponse();
+        }
+    }
+
+    private void repetirResposta(ChaveIdempotencia registro, HttpServletResponse response) throws IOException {
+        response.setStatus(registro.getStatusHttp());
+        response.setHeader(HEADER_REPETIDA, "true");
+        if (registro.getContentType() != null) {
+            response.setContentType(registro.getContentType());
+        }
+        if (registro.getCorpoResposta() != null) {
+            response.getOutputStream().write(registro.getCorpoResposta().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void escreverErro(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", mensagem));
+    }
+
+    private String calcularHash(HttpServletRequest request, byte[] corpo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(corpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Requisição com o corpo já lido, para que o controller possa lê-lo de novo
+     */
+    private static class RequisicaoComCorpo extends HttpServletRequestWrapper {
+        private final byte[] corpo;
+
+        RequisicaoComCorpo(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // O corpo já está em memória: tudo está disponível de imediato
+                    Objects.requireNonNull(readListener, "readListener");
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
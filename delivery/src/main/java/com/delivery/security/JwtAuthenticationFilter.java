@@ -1,6 +1,7 @@
 package com.delivery.security;
 
 import com.delivery.service.auth.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -39,12 +40,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        // Uma única verificação do token por requisição; expirado ou adulterado falha aqui
+        final Claims claims = jwtService.extractAllClaims(jwt);
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // Tokens com as claims de ID dispensam a consulta do usuário no banco
+            UserDetails userDetails = jwtService.extractPrincipal(claims)
+                    .<UserDetails>map(principal -> principal)
+                    .orElseGet(() -> this.userDetailsService.loadUserByUsername(userEmail));
 
-            if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+            // Usuário desativado depois da emissão do token não é autenticado
+            if (userDetails.isEnabled() && jwtService.isTokenValid(claims, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
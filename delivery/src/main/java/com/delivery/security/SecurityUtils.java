@@ -36,6 +36,19 @@ public class SecurityUtils {
         return Optional.empty();
     }
 
+    /**
+     * Obtém o usuário autenticado com os IDs carregados do token
+     */
+    public static Optional<UsuarioPrincipal> getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof UsuarioPrincipal principal) {
+            return Optional.of(principal);
+        }
+
+        return Optional.empty();
+    }
+
     /**
      * Verifica se o usuário atual está autenticado
      */
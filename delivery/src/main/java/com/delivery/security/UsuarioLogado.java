@@ -0,0 +1,40 @@
+package com.delivery.security;
+
+import com.delivery.exception.NotFoundException;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Resolve o ID do cliente ou da empresa de um email. Se o email for o do usuário autenticado,
+ * usa o ID que veio no token; caso contrário (jobs, testes, tokens antigos) consulta o banco
+ */
+@Component
+@RequiredArgsConstructor
+public class UsuarioLogado {
+
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
+
+    public Long clienteId(String emailCliente) {
+        return principalDoEmail(emailCliente)
+                .map(UsuarioPrincipal::getClienteId)
+                .or(() -> clienteRepository.findIdByEmail(emailCliente))
+                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+    }
+
+    public Long empresaId(String emailEmpresa) {
+        return principalDoEmail(emailEmpresa)
+                .map(UsuarioPrincipal::getEmpresaId)
+                .or(() -> empresaRepository.findIdByEmail(emailEmpresa))
+                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+    }
+
+    private Optional<UsuarioPrincipal> principalDoEmail(String email) {
+        return SecurityUtils.getCurrentPrincipal()
+                .filter(principal -> principal.getEmail().equals(email));
+    }
+}
@@ -0,0 +1,72 @@
+package com.delivery.security;
+
+import com.delivery.entity.enums.TipoUsuario;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuário autenticado com os IDs que os serviços precisam (usuário, cliente ou empresa).
+ * Nas requisições com token, é montado a partir das claims do JWT, sem consultar o banco
+ */
+@Getter
+public class UsuarioPrincipal implements UserDetails {
+
+    private final Long usuarioId;
+    private final String email;
+    private final TipoUsuario tipoUsuario;
+    private final Long clienteId;
+    private final Long empresaId;
+    private final String senha;
+    private final boolean ativo;
+
+    public UsuarioPrincipal(Long usuarioId, String email, TipoUsuario tipoUsuario, Long clienteId, Long empresaId,
+                            String senha, boolean ativo) {
+        this.usuarioId = usuarioId;
+        this.email = email;
+        this.tipoUsuario = tipoUsuario;
+        this.clienteId = clienteId;
+        this.empresaId = empresaId;
+        this.senha = senha;
+        this.ativo = ativo;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + tipoUsuario.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return senha;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return ativo;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ativo;
+    }
+}
@@ -0,0 +1,63 @@
+package com.delivery.security;
+
+import com.delivery.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Situação (ativo ou não) dos usuários autenticados por token, em cache por pouco tempo e limitado
+ * por LRU. Um usuário desativado perde o acesso em até app.auth.cache-ativo-ms, ou na hora na
+ * instância que fez a desativação
+ */
+@Component
+@RequiredArgsConstructor
+public class UsuariosAtivos {
+
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${app.auth.cache-ativo-ms:30000}")
+    private long validadeMs;
+
+    @Value("${app.auth.cache-ativo-max-entradas:10000}")
+    private int maxEntradas;
+
+    private Map<Long, Situacao> situacoes;
+
+    @PostConstruct
+    public void iniciar() {
+        situacoes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Situacao> maisAntiga) {
+                return size() > maxEntradas;
+            }
+        });
+    }
+
+    /**
+     * Usuário inexistente conta como inativo
+     */
+    public boolean estaAtivo(Long usuarioId) {
+        long agora = System.currentTimeMillis();
+        Situacao situacao = situacoes.get(usuarioId);
+        if (situacao != null && situacao.validaAte() > agora) {
+            return situacao.ativo();
+        }
+
+        boolean ativo = usuarioRepository.findAtivoById(usuarioId).orElse(false);
+        situacoes.put(usuarioId, new Situacao(ativo, agora + validadeMs));
+        return ativo;
+    }
+
+    public void invalidar(Long usuarioId) {
+        situacoes.remove(usuarioId);
+    }
+
+    private record Situacao(boolean ativo, long validaAte) {
+    }
+}
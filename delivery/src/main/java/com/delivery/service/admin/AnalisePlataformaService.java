@@ -0,0 +1,492 @@
+package com.delivery.service.admin;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.util.DateUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Vendas de toda a plataforma (GMV, pedidos, cancelamentos e ticket médio) por categoria, cidade,
+ * empresa ou dia, para o painel do administrador.
+ *
+ * Os pedidos dos últimos app.analise-plataforma.dias ficam em memória em colunas de arrays primitivos,
+ * com empresa, categoria e cidade codificadas em dicionários. Pedidos criados e alterados são aplicados
+ * após o commit; a reconciliação periódica recarrega as colunas do banco, inclusive mudanças de
+ * categoria e cidade das empresas. As consultas varrem as colunas em paralelo num ForkJoinPool próprio.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalisePlataformaService {
+
+    private static final byte CANCELADO = (byte) StatusPedido.CANCELADO.ordinal();
+
+    private final PedidoRepository pedidoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.analise-plataforma.dias:365}")
+    private int dias;
+
+    @Value("${app.analise-plataforma.paralelismo:4}")
+    private int paralelismo;
+
+    @Value("${app.analise-plataforma.linhas-por-tarefa:65536}")
+    private int linhasPorTarefa;
+
+    private final Object trava = new Object();
+
+    // Escritas protegidas pela trava; consultas leem a visão publicada
+    private volatile Colunas colunas;
+
+    // Alterações recebidas enquanto uma reconciliação lê o banco (protegido por trava)
+    private List<Alteracao> alteracoesDuranteReconciliacao;
+
+    private ForkJoinPool pool;
+
+    public enum Agrupamento {
+        CATEGORIA,
+        CIDADE,
+        EMPRESA,
+        DIA
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        pool = new ForkJoinPool(paralelismo);
+        colunas = new Colunas(inicioDaJanela());
+        colunas.publicar();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    /**
+     * Recarrega as colunas do banco e troca as atuais. Alterações ocorridas durante a leitura
+     * são reaplicadas antes da troca
+     */
+    @Scheduled(initialDelayString = "${app.analise-plataforma.reconciliacao-ms:900000}",
+            fixedDelayString = "${app.analise-plataforma.reconciliacao-ms:900000}")
+    public void reconciliar() {
+        synchronized (trava) {
+            alteracoesDuranteReconciliacao = new ArrayList<>();
+        }
+
+        Colunas novas;
+        try {
+            novas = lerDoBanco();
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                alteracoesDuranteReconciliacao = null;
+            }
+            log.error("Falha ao reconciliar a análise da plataforma", e);
+            return;
+        }
+
+        synchronized (trava) {
+            alteracoesDuranteReconciliacao.forEach(novas::aplicar);
+            alteracoesDuranteReconciliacao = null;
+            novas.publicar();
+            colunas = novas;
+        }
+        log.info("Análise da plataforma carregada: {} pedidos desde {}", novas.tamanho, novas.inicio);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        PedidoDTO pedido = evento.getPedido();
+
+        // Empresa ainda não vista desde a última reconciliação: busca as dimensões fora da trava
+        boolean conhecida;
+        synchronized (trava) {
+            conhecida = colunas.dimensoesPorEmpresa.containsKey(pedido.getEmpresaId());
+        }
+        Object[] empresa = conhecida ? null
+                : empresaRepository.findDimensoesParaAnalise(pedido.getEmpresaId()).stream().findFirst().orElse(null);
+
+        Alteracao alteracao = new Alteracao(pedido, empresa);
+        synchronized (trava) {
+            colunas.aplicar(alteracao);
+            colunas.publicar();
+            if (alteracoesDuranteReconciliacao != null) {
+                alteracoesDuranteReconciliacao.add(alteracao);
+            }
+        }
+    }
+
+    public Analise consultar(String dataInicio, String dataFim, Agrupamento agrupamento) {
+        return consultar(DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD),
+                DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD), agrupamento);
+    }
+
+    /**
+     * Totais do período e uma fatia por grupo com pedidos: por dia em ordem cronológica, os demais
+     * do maior GMV para o menor. O período é limitado à janela em memória
+     */
+    public Analise consultar(LocalDate inicio, LocalDate fim, Agrupamento agrupamento) {
+        if (fim.isBefore(inicio)) {
+            throw new BusinessException("Data final anterior à data inicial");
+        }
+
+        Visao visao = colunas.visao;
+        LocalDate de = inicio.isBefore(visao.inicio()) ? visao.inicio() : inicio;
+        LocalDate ate = fim.isAfter(LocalDate.now()) ? LocalDate.now() : fim;
+        if (ate.isBefore(de)) {
+            return new Analise(de, ate, agrupamento, fatia("Total", 0, 0, 0), List.of());
+        }
+
+        int primeiroDia = (int) de.toEpochDay();
+        int ultimoDia = (int) ate.toEpochDay();
+        int[] grupos;
+        int deslocamento = 0;
+        String[] rotulos;
+        switch (agrupamento) {
+            case CATEGORIA -> {
+                grupos = visao.categorias();
+                rotulos = visao.rotulosCategoria();
+            }
+            case CIDADE -> {
+                grupos = visao.cidades();
+                rotulos = visao.rotulosCidade();
+            }
+            case EMPRESA -> {
+                grupos = visao.empresas();
+                rotulos = visao.rotulosEmpresa();
+            }
+            default -> {
+                grupos = visao.dias();
+                deslocamento = primeiroDia;
+                rotulos = new String[ultimoDia - primeiroDia + 1];
+                for (int i = 0; i < rotulos.length; i++) {
+                    rotulos[i] = de.plusDays(i).toString();
+                }
+            }
+        }
+
+        Acumulador soma = pool.invoke(new Varredura(visao, grupos, deslocamento, rotulos.length,
+                primeiroDia, ultimoDia, 0, visao.tamanho()));
+
+        List<Fatia> fatias = new ArrayList<>();
+        long pedidos = 0;
+        long cancelados = 0;
+        long centavos = 0;
+        for (int g = 0; g < rotulos.length; g++) {
+            if (soma.pedidos[g] > 0) {
+                fatias.add(fatia(rotulos[g], soma.pedidos[g], soma.cancelados[g], soma.centavos[g]));
+                pedidos += soma.pedidos[g];
+                cancelados += soma.cancelados[g];
+                centavos += soma.centavos[g];
+            }
+        }
+        if (agrupamento != Agrupamento.DIA) {
+            fatias.sort(Comparator.comparing(Fatia::gmv).reversed());
+        }
+
+        return new Analise(de, ate, agrupamento, fatia("Total", pedidos, cancelados, centavos), fatias);
+    }
+
+    private LocalDate inicioDaJanela() {
+        return LocalDate.now().minusDays(dias - 1L);
+    }
+
+    private Colunas lerDoBanco() {
+        Colunas novas = new Colunas(inicioDaJanela());
+        empresaRepository.findDimensoesParaAnalise().forEach(novas::registrarEmpresa);
+
+        transactionTemplate.execute(status -> {
+            try (Stream<Object[]> pedidos = pedidoRepository.streamPedidosParaAnalise(novas.inicio.atStartOfDay())) {
+                pedidos.forEach(novas::adicionar);
+            }
+            return null;
+        });
+        novas.carregados = novas.tamanho;
+        return novas;
+    }
+
+    private static Fatia fatia(String chave, long pedidos, long cancelados, long centavos) {
+        BigDecimal gmv = BigDecimal.valueOf(centavos, 2);
+        long validos = pedidos - cancelados;
+
+        return new Fatia(chave, pedidos, cancelados, gmv,
+                validos > 0 ? gmv.divide(BigDecimal.valueOf(validos), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                pedidos > 0 ? (double) cancelados / pedidos : 0.0);
+    }
+
+    /**
+     * GMV é a soma dos pedidos não cancelados; o ticket médio divide o GMV por esses pedidos
+     */
+    public record Fatia(String chave, long pedidos, long cancelados, BigDecimal gmv, BigDecimal ticketMedio,
+                        double taxaCancelamento) {
+    }
+
+    public record Analise(LocalDate dataInicio, LocalDate dataFim, Agrupamento agrupamento, Fatia total,
+                          List<Fatia> fatias) {
+    }
+
+    // Dimensões da empresa, quando buscadas no evento: [id, nomeFantasia, categoriaId, categoria, cidade]
+    private record Alteracao(PedidoDTO pedido, Object[] empresa) {
+    }
+
+    /**
+     * Estado publicado para as consultas. As linhas até tamanho não mudam de dimensão; o status
+     * pode ser atualizado no lugar, e uma consulta em andamento pode ver o valor antigo ou o novo
+     */
+    private record Visao(LocalDate inicio, int tamanho, int[] empresas, int[] categorias, int[] cidades, int[] dias,
+                         long[] centavos, byte[] status, String[] rotulosEmpresa, String[] rotulosCategoria,
+                         String[] rotulosCidade) {
+    }
+
+    /**
+     * Uma linha por pedido. Os pedidos lidos do banco estão em ordem de ID, e a linha de um pedido
+     * é achada por busca binária; os recebidos depois ficam num mapa à parte até a próxima reconciliação
+     */
+    private static final class Colunas {
+        private final LocalDate inicio;
+        private final int diaInicial;
+
+        private long[] pedidoIds = new long[1024];
+        private int[] empresas = new int[1024];
+        private int[] categorias = new int[1024];
+        private int[] cidades = new int[1024];
+        private int[] dias = new int[1024];
+        private long[] centavos = new long[1024];
+        private byte[] status = new byte[1024];
+        private int tamanho;
+        private int carregados;
+        private final Map<Long, Integer> linhasRecebidas = new HashMap<>();
+
+        // Empresa -> [índice da empresa, da categoria, da cidade]
+        private final Map<Long, int[]> dimensoesPorEmpresa = new HashMap<>();
+        private final Dicionario dicionarioEmpresas = new Dicionario(null);
+        private final Dicionario dicionarioCategorias = new Dicionario("Sem categoria");
+        private final Dicionario dicionarioCidades = new Dicionario("Sem cidade");
+
+        private volatile Visao visao;
+
+        private Colunas(LocalDate inicio) {
+            this.inicio = inicio;
+            this.diaInicial = (int) inicio.toEpochDay();
+        }
+
+        private void registrarEmpresa(Object[] empresa) {
+            Long empresaId = (Long) empresa[0];
+            String cidade = empresa[4] != null && !((String) empresa[4]).isBlank() ? ((String) empresa[4]).trim() : null;
+
+            dimensoesPorEmpresa.put(empresaId, new int[]{
+                    dicionarioEmpresas.indice(empresaId, (String) empresa[1]),
+                    empresa[2] != null ? dicionarioCategorias.indice(empresa[2], (String) empresa[3]) : 0,
+                    cidade != null ? dicionarioCidades.indice(cidade.toLowerCase(), cidade) : 0});
+        }
+
+        // [id, empresaId, createdAt, total, status]
+        private void adicionar(Object[] pedido) {
+            adicionar((Long) pedido[0], (Long) pedido[1], (LocalDateTime) pedido[2], (BigDecimal) pedido[3],
+                    (StatusPedido) pedido[4]);
+        }
+
+        private void aplicar(Alteracao alteracao) {
+            PedidoDTO pedido = alteracao.pedido();
+            int linha = linha(pedido.getId());
+            if (linha >= 0) {
+                status[linha] = (byte) pedido.getStatus().ordinal();
+                return;
+            }
+            if (pedido.getDataPedido() == null) {
+                return;
+            }
+
+            if (!dimensoesPorEmpresa.containsKey(pedido.getEmpresaId())) {
+                registrarEmpresa(alteracao.empresa() != null ? alteracao.empresa()
+                        : new Object[]{pedido.getEmpresaId(), "Empresa " + pedido.getEmpresaId(), null, null, null});
+            }
+            if (adicionar(pedido.getId(), pedido.getEmpresaId(), pedido.getDataPedido(), pedido.getTotal(),
+                    pedido.getStatus())) {
+                linhasRecebidas.put(pedido.getId(), tamanho - 1);
+            }
+        }
+
+        // Pedidos anteriores à janela ficam de fora
+        private boolean adicionar(Long pedidoId, Long empresaId, LocalDateTime data, BigDecimal total,
+                                  StatusPedido statusPedido) {
+            int dia = (int) data.toLocalDate().toEpochDay();
+            int[] dimensoes = dimensoesPorEmpresa.get(empresaId);
+            if (dia < diaInicial || dimensoes == null) {
+                return false;
+            }
+
+            if (tamanho == pedidoIds.length) {
+                int capacidade = tamanho * 2;
+                pedidoIds = Arrays.copyOf(pedidoIds, capacidade);
+                empresas = Arrays.copyOf(empresas, capacidade);
+                categorias = Arrays.copyOf(categorias, capacidade);
+                cidades = Arrays.copyOf(cidades, capacidade);
+                dias = Arrays.copyOf(dias, capacidade);
+                centavos = Arrays.copyOf(centavos, capacidade);
+                status = Arrays.copyOf(status, capacidade);
+            }
+
+            pedidoIds[tamanho] = pedidoId;
+            empresas[tamanho] = dimensoes[0];
+            categorias[tamanho] = dimensoes[1];
+            cidades[tamanho] = dimensoes[2];
+            dias[tamanho] = dia;
+            centavos[tamanho] = total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            status[tamanho] = (byte) statusPedido.ordinal();
+            tamanho++;
+            return true;
+        }
+
+        private int linha(Long pedidoId) {
+            int linha = Arrays.binarySearch(pedidoIds, 0, carregados, pedidoId);
+            if (linha >= 0) {
+                return linha;
+            }
+            return linhasRecebidas.getOrDefault(pedidoId, -1);
+        }
+
+        private void publicar() {
+            visao = new Visao(inicio, tamanho, empresas, categorias, cidades, dias, centavos, status,
+                    dicionarioEmpresas.rotulos, dicionarioCategorias.rotulos, dicionarioCidades.rotulos);
+        }
+    }
+
+    /**
+     * Valor -> índice denso. O array de rótulos é trocado a cada novo valor, então uma visão
+     * publicada continua com o array da época
+     */
+    private static final class Dicionario {
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private String[] rotulos;
+
+        // Com rótulo de ausência, o índice 0 fica reservado para ele
+        private Dicionario(String ausente) {
+            rotulos = ausente != null ? new String[]{ausente} : new String[0];
+        }
+
+        private int indice(Object valor, String rotulo) {
+            Integer indice = indices.get(valor);
+            if (indice != null) {
+                return indice;
+            }
+            indice = rotulos.length;
+            rotulos = Arrays.copyOf(rotulos, indice + 1);
+            rotulos[indice] = rotulo;
+            indices.put(valor, indice);
+            return indice;
+        }
+    }
+
+    private static final class Acumulador {
+        private final long[] pedidos;
+        private final long[] cancelados;
+        private final long[] centavos;
+
+        private Acumulador(int grupos) {
+            pedidos = new long[grupos];
+            cancelados = new long[grupos];
+            centavos = new long[grupos];
+        }
+
+        private Acumulador somar(Acumulador outro) {
+            for (int g = 0; g < pedidos.length; g++) {
+                pedidos[g] += outro.pedidos[g];
+                cancelados[g] += outro.cancelados[g];
+                centavos[g] += outro.centavos[g];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Soma as linhas [de, ate) do período por grupo, dividindo o intervalo ao meio até linhasPorTarefa
+     */
+    private final class Varredura extends RecursiveTask<Acumulador> {
+        private final Visao visao;
+        private final int[] grupos;
+        private final int deslocamento;
+        private final int totalGrupos;
+        private final int primeiroDia;
+        private final int ultimoDia;
+        private final int de;
+        private final int ate;
+
+        private Varredura(Visao visao, int[] grupos, int deslocamento, int totalGrupos,
+                          int primeiroDia, int ultimoDia, int de, int ate) {
+            this.visao = visao;
+            this.grupos = grupos;
+            this.deslocamento = deslocamento;
+            this.totalGrupos = totalGrupos;
+            this.primeiroDia = primeiroDia;
+            this.ultimoDia = ultimoDia;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected Acumulador compute() {
+            if (ate - de > linhasPorTarefa) {
+                int meio = (de + ate) >>> 1;
+                Varredura esquerda = new Varredura(visao, grupos, deslocamento, totalGrupos, primeiroDia, ultimoDia, de, meio);
+                esquerda.fork();
+                Acumulador direita = new Varredura(visao, grupos, deslocamento, totalGrupos, primeiroDia, ultimoDia, meio, ate)
+                        .compute();
+                return direita.somar(esquerda.join());
+            }
+
+            Acumulador soma = new Acumulador(totalGrupos);
+            int[] diasDasLinhas = visao.dias();
+            long[] centavosDasLinhas = visao.centavos();
+            byte[] statusDasLinhas = visao.status();
+            for (int i = de; i < ate; i++) {
+                int dia = diasDasLinhas[i];
+                if (dia < primeiroDia || dia > ultimoDia) {
+                    continue;
+                }
+                int g = grupos[i] - deslocamento;
+                soma.pedidos[g]++;
+                if (statusDasLinhas[i] == CANCELADO) {
+                    soma.cancelados[g]++;
+                } else {
+                    soma.centavos[g] += centavosDasLinhas[i];
+                }
+            }
+            return soma;
+        }
+    }
+}
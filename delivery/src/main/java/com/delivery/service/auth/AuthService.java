@@ -7,14 +7,18 @@ import com.delivery.entity.Cliente;
 import com.delivery.entity.Empresa;
 import com.delivery.entity.base.Usuario;
 import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.event.EmpresaAlteradaEvent;
 import com.delivery.exception.BusinessException;
 import com.delivery.repository.CategoriaRepository;
 import com.delivery.repository.ClienteRepository;
 import com.delivery.repository.EmpresaRepository;
 import com.delivery.repository.UsuarioRepository;
+import com.delivery.security.UsuarioPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,18 +34,19 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TokenResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getSenha())
         );
 
-        Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado"));
+        // O principal já traz os IDs carregados na autenticação
+        UsuarioPrincipal principal = (UsuarioPrincipal) authentication.getPrincipal();
 
-        String token = jwtService.generateToken(usuario.getEmail());
+        String token = jwtService.generateToken(principal);
 
-        return new TokenResponse(token, usuario.getTipoUsuario(), usuario.getId(), usuario.getEmail());
+        return new TokenResponse(token, principal.getTipoUsuario(), principal.getUsuarioId(), principal.getEmail());
     }
 
     @Transactional
@@ -58,17 +63,21 @@ public class AuthService {
 
         usuario = usuarioRepository.save(usuario);
 
+        Long clienteId = null;
+        Long empresaId = null;
         if (request.getTipoUsuario() == TipoUsuario.CLIENTE) {
-            criarCliente(usuario, request);
+            clienteId = criarCliente(usuario, request).getId();
         } else if (request.getTipoUsuario() == TipoUsuario.EMPRESA) {
-            criarEmpresa(usuario, request);
+            empresaId = criarEmpresa(usuario, request).getId();
+            eventPublisher.publishEvent(new EmpresaAlteradaEvent(empresaId));
         }
 
-        String token = jwtService.generateToken(usuario.getEmail());
+        String token = jwtService.generateToken(new UsuarioPrincipal(usuario.getId(), usuario.getEmail(),
+                usuario.getTipoUsuario(), clienteId, empresaId, null, true));
         return new TokenResponse(token, usuario.getTipoUsuario(), usuario.getId(), usuario.getEmail());
     }
 
-    private void criarCliente(Usuario usuario, RegisterRequest request) {
+    private Cliente criarCliente(Usuario usuario, RegisterRequest request) {
         if (clienteRepository.existsByCpf(request.getCpf())) {
             throw new BusinessException("CPF já está em uso");
         }
@@ -80,10 +89,10 @@ public class AuthService {
         cliente.setTelefone(request.getTelefoneCliente());
         cliente.setEndereco(request.getEnderecoCliente());
 
-        clienteRepository.save(cliente);
+        return clienteRepository.save(cliente);
     }
 
-    private void criarEmpresa(Usuario usuario, RegisterRequest request) {
+    private Empresa criarEmpresa(Usuario usuario, RegisterRequest request) {
         if (empresaRepository.existsByCnpj(request.getCnpj())) {
             throw new BusinessException("CNPJ já está em uso");
         }
@@ -94,6 +103,7 @@ public class AuthService {
         empresa.setCnpj(request.getCnpj());
         empresa.setTelefone(request.getTelefoneEmpresa());
         empresa.setEndereco(request.getEnderecoEmpresa());
+        empresa.setCidade(request.getCidade());
         empresa.setDescricao(request.getDescricao());
 
         if (request.getCategoriaId() != null) {
@@ -101,6 +111,6 @@ public class AuthService {
                     .orElseThrow(() -> new BusinessException("Categoria não encontrada")));
         }
 
-        empresaRepository.save(empresa);
+        return empresaRepository.save(empresa);
     }
 }
\ No newline at end of file
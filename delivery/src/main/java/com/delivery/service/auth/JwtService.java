@@ -1,19 +1,34 @@
 package com.delivery.service.auth;
 
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.security.UsuarioPrincipal;
+import com.delivery.security.UsuariosAtivos;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private static final String CLAIM_USUARIO_ID = "uid";
+    private static final String CLAIM_TIPO = "tipo";
+    private static final String CLAIM_CLIENTE_ID = "clienteId";
+    private static final String CLAIM_EMPRESA_ID = "empresaId";
+
+    private final UsuariosAtivos usuariosAtivos;
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -30,11 +45,54 @@ public class JwtService {
     }
 
     public String generateToken(String username) {
-        return buildToken(username, jwtExpiration);
+        return buildToken(new HashMap<>(), username, jwtExpiration);
+    }
+
+    /**
+     * Gera o token com os IDs do usuário nas claims, para que as requisições
+     * autenticadas não precisem consultar o banco para identificar o cliente ou a empresa
+     */
+    public String generateToken(UsuarioPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USUARIO_ID, principal.getUsuarioId());
+        claims.put(CLAIM_TIPO, principal.getTipoUsuario().name());
+        if (principal.getClienteId() != null) {
+            claims.put(CLAIM_CLIENTE_ID, principal.getClienteId());
+        }
+        if (principal.getEmpresaId() != null) {
+            claims.put(CLAIM_EMPRESA_ID, principal.getEmpresaId());
+        }
+        return buildToken(claims, principal.getUsername(), jwtExpiration);
+    }
+
+    public Optional<UsuarioPrincipal> extractPrincipal(String token) {
+        return extractPrincipal(extractAllClaims(token));
     }
 
-    private String buildToken(String username, long expiration) {
+    /**
+     * Monta o usuário autenticado a partir das claims de um token já verificado; só a situação do
+     * usuário (ativo ou não) é consultada, em cache. Tokens antigos, sem as claims de ID, retornam vazio
+     */
+    public Optional<UsuarioPrincipal> extractPrincipal(Claims claims) {
+        if (claims.get(CLAIM_USUARIO_ID) == null || claims.get(CLAIM_TIPO) == null) {
+            return Optional.empty();
+        }
+
+        Long usuarioId = claims.get(CLAIM_USUARIO_ID, Long.class);
+        return Optional.of(new UsuarioPrincipal(
+                usuarioId,
+                claims.getSubject(),
+                TipoUsuario.valueOf(claims.get(CLAIM_TIPO, String.class)),
+                claims.get(CLAIM_CLIENTE_ID, Long.class),
+                claims.get(CLAIM_EMPRESA_ID, Long.class),
+                null,
+                usuariosAtivos.estaAtivo(usuarioId)
+        ));
+    }
+
+    private String buildToken(Map<String, Object> claims, String username, long expiration) {
         return Jwts.builder()
+                .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -43,19 +101,18 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username)) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(extractAllClaims(token), username);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // A assinatura e a expiração já foram verificadas ao extrair as claims
+    public boolean isTokenValid(Claims claims, String username) {
+        return claims.getSubject().equals(username);
     }
 
-    private Claims extractAllClaims(String token) {
+    /**
+     * Verifica assinatura e expiração do token e retorna suas claims
+     */
+    public Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSignInKey())
                 .build()
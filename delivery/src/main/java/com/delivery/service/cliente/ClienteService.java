@@ -4,6 +4,7 @@ import com.delivery.dto.cliente.ClienteDTO;
 import com.delivery.entity.Cliente;
 import com.delivery.exception.NotFoundException;
 import com.delivery.repository.ClienteRepository;
+import com.delivery.security.UsuarioLogado;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,16 +14,17 @@ import org.springframework.transaction.annotation.Transactional;
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final UsuarioLogado usuarioLogado;
 
     public ClienteDTO buscarPorEmail(String email) {
-        Cliente cliente = clienteRepository.findByEmail(email)
+        Cliente cliente = clienteRepository.findById(usuarioLogado.clienteId(email))
                 .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
         return convertToDTO(cliente);
     }
 
     @Transactional
     public ClienteDTO atualizarPerfil(ClienteDTO clienteDTO, String email) {
-        Cliente cliente = clienteRepository.findByEmail(email)
+        Cliente cliente = clienteRepository.findById(usuarioLogado.clienteId(email))
                 .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
 
         cliente.setNome(clienteDTO.getNome());
@@ -0,0 +1,275 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.Pedido;
+import com.delivery.entity.Produto;
+import com.delivery.exception.BusinessException;
+import com.delivery.exception.NotFoundException;
+import com.delivery.exception.ServicoSobrecarregadoException;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.security.UsuarioLogado;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modo opcional de criação de pedidos para picos (app.ingestao-pedidos.habilitada).
+ *
+ * As requisições validadas entram numa fila limitada e poucas threads gravam os pedidos em grupos:
+ * uma transação e inserts em lote para vários pedidos, em vez de uma conexão presa por requisição.
+ * Quem chamou recebe o PedidoDTO quando o grupo do seu pedido for confirmado. Com a fila cheia,
+ * o pedido é recusado na hora (503) em vez de acumular requisições esperando conexão.
+ *
+ * Se a gravação do grupo falha antes do commit, os pedidos são gravados um a um. Uma falha no
+ * próprio commit deixa o resultado incerto (o banco pode ter confirmado), então o grupo falha sem
+ * nova tentativa, para não duplicar pedidos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestaoPedidoService {
+
+    private final PedidoService pedidoService;
+    private final PedidoRepository pedidoRepository;
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
+    private final ProdutoRepository produtoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UsuarioLogado usuarioLogado;
+
+    @Value("${app.ingestao-pedidos.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${app.ingestao-pedidos.capacidade-fila:2000}")
+    private int capacidadeFila;
+
+    @Value("${app.ingestao-pedidos.escritores:2}")
+    private int escritores;
+
+    @Value("${app.ingestao-pedidos.tamanho-grupo:50}")
+    private int tamanhoGrupo;
+
+    @Value("${app.ingestao-pedidos.timeout-resposta-ms:30000}")
+    private long timeoutRespostaMs;
+
+    private BlockingQueue<Solicitacao> fila;
+    private final List<Thread> threadsEscritoras = new ArrayList<>();
+    private volatile boolean ativa;
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        ativa = true;
+        for (int i = 0; i < escritores; i++) {
+            Thread thread = new Thread(this::escrever, "ingestao-pedidos-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threadsEscritoras.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        // As escritoras terminam de gravar o que já está na fila antes de parar
+        ativa = false;
+        for (Thread thread : threadsEscritoras) {
+            thread.join(timeoutRespostaMs);
+        }
+    }
+
+    /**
+     * Cria o pedido pela fila de ingestão, ou direto pelo PedidoService quando o modo está desligado
+     */
+    public PedidoDTO criarPedido(PedidoDTO pedidoDTO, String emailCliente) {
+        if (!habilitada) {
+            return pedidoService.criarPedido(pedidoDTO, emailCliente);
+        }
+
+        // Pedidos malformados não ocupam lugar na fila
+        pedidoService.validarItens(pedidoDTO);
+
+        // O cliente é resolvido aqui, onde está o usuário autenticado; as threads de gravação só usam o ID
+        Solicitacao solicitacao = new Solicitacao(pedidoDTO, emailCliente, usuarioLogado.clienteId(emailCliente));
+        if (!ativa || !fila.offer(solicitacao)) {
+            throw new ServicoSobrecarregadoException("Muitos pedidos em processamento, tente novamente em instantes");
+        }
+
+        try {
+            return solicitacao.resposta.get(timeoutRespostaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServicoSobrecarregadoException(
+                    "Pedido ainda em processamento, confira seus pedidos antes de tentar novamente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicoSobrecarregadoException("Criação do pedido interrompida");
+        }
+    }
+
+    public int getTamanhoFila() {
+        return fila != null ? fila.size() : 0;
+    }
+
+    private void escrever() {
+        List<Solicitacao> grupo = new ArrayList<>(tamanhoGrupo);
+        while (ativa || !fila.isEmpty()) {
+            try {
+                Solicitacao primeira = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+
+                // Sem espera artificial: o grupo é o que acumulou enquanto o anterior era gravado
+                grupo.add(primeira);
+                fila.drainTo(grupo, tamanhoGrupo - 1);
+                gravarGrupo(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado na ingestão de pedidos", e);
+                grupo.forEach(solicitacao -> solicitacao.resposta.completeExceptionally(e));
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    void gravarGrupo(List<Solicitacao> grupo) {
+        List<Solicitacao> aceitas = new ArrayList<>(grupo.size());
+        List<PedidoDTO> criados = new ArrayList<>(grupo.size());
+        AtomicBoolean falhouAntesDoCommit = new AtomicBoolean();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Cliente> clientes = new HashMap<>();
+                Map<Long, Empresa> empresas = new HashMap<>();
+                Map<Long, Produto> produtos = carregarProdutosDoGrupo(grupo);
+                List<Pedido> pedidos = new ArrayList<>(grupo.size());
+
+                for (Solicitacao solicitacao : grupo) {
+                    try {
+                        pedidos.add(montarPedido(solicitacao, clientes, empresas, produtos));
+                        aceitas.add(solicitacao);
+                    } catch (BusinessException | NotFoundException e) {
+                        // Pedido inválido falha sozinho, o restante do grupo segue
+                        solicitacao.resposta.completeExceptionally(e);
+                    }
+                }
+
+                try {
+                    pedidoRepository.saveAll(pedidos);
+                    pedidoRepository.flush();
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao gravar grupo de {} pedidos, gravando um a um", aceitas.size(), e);
+                    falhouAntesDoCommit.set(true);
+                    status.setRollbackOnly();
+                    return;
+                }
+
+                // Eventos publicados na transação do grupo: os ouvintes recebem após o commit
+                pedidos.forEach(pedido -> criados.add(pedidoService.publicarAlteracao(pedido, null)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao confirmar grupo de {} pedidos, resultado incerto", aceitas.size(), e);
+            ServicoSobrecarregadoException erro = new ServicoSobrecarregadoException(
+                    "Não foi possível confirmar o pedido, confira seus pedidos antes de tentar novamente");
+            aceitas.forEach(solicitacao -> solicitacao.resposta.completeExceptionally(erro));
+            return;
+        }
+
+        if (falhouAntesDoCommit.get()) {
+            aceitas.forEach(this::gravarIndividualmente);
+            return;
+        }
+
+        for (int i = 0; i < aceitas.size(); i++) {
+            aceitas.get(i).resposta.complete(criados.get(i));
+        }
+    }
+
+    /**
+     * Produtos de todos os pedidos do grupo numa única consulta
+     */
+    private Map<Long, Produto> carregarProdutosDoGrupo(List<Solicitacao> grupo) {
+        Set<Long> produtoIds = new HashSet<>();
+        for (Solicitacao solicitacao : grupo) {
+            for (PedidoDTO.ItemPedidoDTO item : solicitacao.pedidoDTO.getItens()) {
+                if (item.getProdutoId() != null) {
+                    produtoIds.add(item.getProdutoId());
+                }
+            }
+        }
+
+        Map<Long, Produto> produtos = new HashMap<>();
+        for (Produto produto : produtoRepository.findAllByIdIn(produtoIds)) {
+            produtos.put(produto.getId(), produto);
+        }
+        return produtos;
+    }
+
+    private Pedido montarPedido(Solicitacao solicitacao, Map<Long, Cliente> clientes, Map<Long, Empresa> empresas,
+                                Map<Long, Produto> produtosDoGrupo) {
+        PedidoDTO pedidoDTO = solicitacao.pedidoDTO;
+
+        Cliente cliente = clientes.computeIfAbsent(solicitacao.clienteId, clienteRepository::getReferenceById);
+
+        Empresa empresa = empresas.computeIfAbsent(pedidoDTO.getEmpresaId(), id -> empresaRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Empresa não encontrada")));
+
+        Map<Long, Produto> produtos = pedidoService.produtosDoPedido(pedidoDTO, pedidoService.validarItens(pedidoDTO), produtosDoGrupo);
+        return pedidoService.montarPedido(pedidoDTO, cliente, empresa, produtos);
+    }
+
+    private void gravarIndividualmente(Solicitacao solicitacao) {
+        try {
+            solicitacao.resposta.complete(pedidoService.criarPedido(solicitacao.pedidoDTO, solicitacao.emailCliente));
+        } catch (RuntimeException e) {
+            solicitacao.resposta.completeExceptionally(e);
+        }
+    }
+
+    static class Solicitacao {
+        final PedidoDTO pedidoDTO;
+        final String emailCliente;
+        final Long clienteId;
+        final CompletableFuture<PedidoDTO> resposta = new CompletableFuture<>();
+
+        Solicitacao(PedidoDTO pedidoDTO, String emailCliente, Long clienteId) {
+            this.pedidoDTO = pedidoDTO;
+            this.emailCliente = emailCliente;
+            this.clienteId = clienteId;
+        }
+    }
+}
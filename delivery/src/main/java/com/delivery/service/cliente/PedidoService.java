@@ -1,165 +1,279 @@
 package com.delivery.service.cliente;
 
 import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.entity.*;
 import com.delivery.entity.enums.StatusPagamento;
 import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
 import com.delivery.exception.BusinessException;
 import com.delivery.exception.NotFoundException;
 import com.delivery.repository.*;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.util.CursorUtils;
+import com.delivery.util.ValidationUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 @Service
 @RequiredArgsConstructor
 public class PedidoService {
 
+    private static final int TAMANHO_BLOCO_CARGA = 500;
+    private static final int MAX_TENTATIVAS_TRANSICAO = 3;
+
     private final PedidoRepository pedidoRepository;
     private final ClienteRepository clienteRepository;
     private final EmpresaRepository empresaRepository;
     private final ProdutoRepository produtoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsuarioLogado usuarioLogado;
+
+    @Value("${app.pagination.max-size:100}")
+    private int tamanhoMaximo;
 
     @Transactional(readOnly = true)
     public Page<PedidoDTO> listarPedidosCliente(String emailCliente, Pageable pageable) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
-        return pedidoRepository.findByClienteId(cliente.getId(), pageable)
-                .map(this::convertToDTO);
+        return carregarPagina(pedidoRepository.findIdsByClienteId(clienteId, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<PedidoDTO> listarPedidosEmpresa(String emailEmpresa, Pageable pageable) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        return carregarPagina(pedidoRepository.findIdsByEmpresaId(empresaId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<PedidoDTO> listarPedidosClientePorCursor(String emailCliente, String cursor, int tamanho) {
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
-        return pedidoRepository.findByEmpresaId(empresa.getId(), pageable)
-                .map(this::convertToDTO);
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Long> ids = pedidoRepository.findIdsByClienteIdAposCursor(
+                clienteId, posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+
+        return CursorUtils.montarPagina(carregarPedidosComItens(ids), tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<PedidoDTO> listarPedidosEmpresaPorCursor(String emailEmpresa, String cursor, int tamanho) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Long> ids = pedidoRepository.findIdsByEmpresaIdAposCursor(
+                empresaId, posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+
+        return CursorUtils.montarPagina(carregarPedidosComItens(ids), tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
+    /**
+     * Pedidos em andamento de todas as empresas, carregados em blocos de IDs (usado pelo painel da cozinha)
+     */
+    @Transactional(readOnly = true)
+    public List<PedidoDTO> listarPedidosAtivos() {
+        List<StatusPedido> ativos = Arrays.stream(StatusPedido.values()).filter(StatusPedido::isAtivo).toList();
+        List<Long> ids = pedidoRepository.findIdsByStatusIn(ativos);
+
+        List<PedidoDTO> pedidos = new ArrayList<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_CARGA) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_CARGA, ids.size()));
+            carregarPedidosComItens(bloco).forEach(pedido -> pedidos.add(convertToDTO(pedido)));
+        }
+        return pedidos;
     }
 
     @Transactional
     public PedidoDTO criarPedido(PedidoDTO pedidoDTO, String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        // Referência sem SELECT: o ID do cliente já vem do token
+        Cliente cliente = clienteRepository.getReferenceById(usuarioLogado.clienteId(emailCliente));
 
         Empresa empresa = empresaRepository.findById(pedidoDTO.getEmpresaId())
                 .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
 
+        // Uma única consulta para todos os produtos do carrinho
+        Map<Long, Produto> produtos = carregarProdutosDoPedido(pedidoDTO);
+
+        Pedido pedido = montarPedido(pedidoDTO, cliente, empresa, produtos);
+        pedido = pedidoRepository.save(pedido);
+
+        return publicarAlteracao(pedido, null);
+    }
+
+    /**
+     * Carrega em lote os produtos do carrinho e valida, na mesma passada,
+     * se existem, estão ativos e pertencem à empresa do pedido
+     */
+    Map<Long, Produto> carregarProdutosDoPedido(PedidoDTO pedidoDTO) {
+        Set<Long> produtoIds = validarItens(pedidoDTO);
+
+        Map<Long, Produto> carregados = new HashMap<>();
+        for (Produto produto : produtoRepository.findAllByIdIn(produtoIds)) {
+            carregados.put(produto.getId(), produto);
+        }
+
+        return produtosDoPedido(pedidoDTO, produtoIds, carregados);
+    }
+
+    /**
+     * Separa, entre produtos já carregados (de um ou mais pedidos), os do carrinho, validando
+     * se existem, estão ativos e pertencem à empresa do pedido
+     */
+    Map<Long, Produto> produtosDoPedido(PedidoDTO pedidoDTO, Set<Long> produtoIds, Map<Long, Produto> carregados) {
+        Map<Long, Produto> produtos = new HashMap<>();
+        for (Long produtoId : produtoIds) {
+            Produto produto = carregados.get(produtoId);
+            if (produto == null) {
+                throw new NotFoundException("Produto não encontrado");
+            }
+            if (!produto.getEmpresa().getId().equals(pedidoDTO.getEmpresaId())) {
+                throw new BusinessException("Produto não pertence à empresa: " + produto.getNome());
+            }
+            if (!Boolean.TRUE.equals(produto.getAtivo())) {
+                throw new BusinessException("Produto indisponível: " + produto.getNome());
+            }
+            produtos.put(produtoId, produto);
+        }
+
+        return produtos;
+    }
+
+    /**
+     * Validação dos itens que não depende do banco. Retorna os IDs de produto do carrinho
+     */
+    Set<Long> validarItens(PedidoDTO pedidoDTO) {
+        if (pedidoDTO.getItens() == null || pedidoDTO.getItens().isEmpty()) {
+            throw new BusinessException("Pedido deve conter ao menos um item");
+        }
+
+        Set<Long> produtoIds = new HashSet<>();
+        for (PedidoDTO.ItemPedidoDTO itemDTO : pedidoDTO.getItens()) {
+            if (itemDTO.getProdutoId() == null) {
+                throw new BusinessException("Produto do item é obrigatório");
+            }
+            if (!ValidationUtils.isQuantidadeValida(itemDTO.getQuantidade())) {
+                throw new BusinessException("Quantidade inválida para o produto " + itemDTO.getProdutoId());
+            }
+            produtoIds.add(itemDTO.getProdutoId());
+        }
+        return produtoIds;
+    }
+
+    /**
+     * Monta o pedido e seus itens a partir dos produtos já carregados, sem novas consultas
+     */
+    Pedido montarPedido(PedidoDTO pedidoDTO, Cliente cliente, Empresa empresa, Map<Long, Produto> produtos) {
         Pedido pedido = new Pedido();
         pedido.setCliente(cliente);
         pedido.setEmpresa(empresa);
         pedido.setStatus(StatusPedido.PENDENTE);
-        pedido.setStatusPagamento(StatusPagamento.PENDENTE); // ← Novo campo
+        pedido.setStatusPagamento(StatusPagamento.PENDENTE);
         pedido.setFormaPagamento(pedidoDTO.getFormaPagamento());
         pedido.setObservacoes(pedidoDTO.getObservacoes());
         pedido.setEnderecoEntrega(pedidoDTO.getEnderecoEntrega());
+        pedido.setItens(new ArrayList<>(pedidoDTO.getItens().size()));
 
         BigDecimal total = BigDecimal.ZERO;
 
         for (PedidoDTO.ItemPedidoDTO itemDTO : pedidoDTO.getItens()) {
-            Produto produto = produtoRepository.findById(itemDTO.getProdutoId())
-                    .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
+            Produto produto = produtos.get(itemDTO.getProdutoId());
+            BigDecimal preco = produto.getPreco();
 
             ItemPedido item = new ItemPedido();
             item.setPedido(pedido);
             item.setProduto(produto);
             item.setQuantidade(itemDTO.getQuantidade());
-            item.setPrecoUnitario(produto.getPreco());
-            item.setSubtotal(produto.getPreco().multiply(BigDecimal.valueOf(itemDTO.getQuantidade())));
+            item.setPrecoUnitario(preco);
+            item.setSubtotal(preco.multiply(BigDecimal.valueOf(itemDTO.getQuantidade())));
 
             total = total.add(item.getSubtotal());
-
-            if (pedido.getItens() == null) {
-                pedido.setItens(new java.util.ArrayList<>());
-            }
             pedido.getItens().add(item);
         }
 
         pedido.setTotal(total);
-        pedido = pedidoRepository.save(pedido);
-
-        return convertToDTO(pedido);
+        return pedido;
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public PedidoDTO atualizarStatus(Long pedidoId, StatusPedido novoStatus, String emailEmpresa) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
-
-        // Verificar se o pedido pertence à empresa
-        if (!pedido.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Pedido não pertence à empresa");
-        }
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
-        pedido.setStatus(novoStatus);
-        pedido = pedidoRepository.save(pedido);
+        StatusPedido statusAnterior = compararEAtualizar(
+                () -> pedidoRepository.findStatusByIdAndEmpresaId(pedidoId, empresaId)
+                        .orElseThrow(() -> pedidoInacessivel(pedidoId, "Pedido não pertence à empresa")),
+                atual -> validarTransicao(atual, novoStatus),
+                atual -> pedidoRepository.atualizarStatusDaEmpresa(
+                        pedidoId, empresaId, atual, novoStatus, LocalDateTime.now()));
 
-        return convertToDTO(pedido);
+        return publicarAlteracao(carregarPedido(pedidoId), statusAnterior);
     }
 
     @Transactional(readOnly = true)
     public PedidoDTO buscarPedidoDoCliente(Long pedidoId, String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
-        Pedido pedido = pedidoRepository.findByIdWithItens(pedidoId)
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
-
-        if (!pedido.getCliente().getId().equals(cliente.getId())) {
-            throw new BusinessException("Pedido não pertence ao cliente");
-        }
+        Pedido pedido = pedidoRepository.findByIdAndClienteIdWithItens(pedidoId, clienteId)
+                .orElseThrow(() -> pedidoInacessivel(pedidoId, "Pedido não pertence ao cliente"));
 
         return convertToDTO(pedido);
     }
 
     @Transactional(readOnly = true)
     public Page<PedidoDTO> listarPedidosClientePorStatus(String emailCliente, StatusPedido status, Pageable pageable) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
-        return pedidoRepository.findByClienteIdAndStatus(cliente.getId(), status, pageable)
-                .map(this::convertToDTO);
+        return carregarPagina(pedidoRepository.findIdsByClienteIdAndStatus(clienteId, status, pageable));
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public PedidoDTO cancelarPedido(Long pedidoId, String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
-
-        Pedido pedido = pedidoRepository.findById(pedidoId)
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
-
-        if (!pedido.getCliente().getId().equals(cliente.getId())) {
-            throw new BusinessException("Pedido não pertence ao cliente");
-        }
-
-        if (pedido.getStatus() != StatusPedido.PENDENTE && pedido.getStatus() != StatusPedido.CONFIRMADO) {
-            throw new BusinessException("Não é possível cancelar este pedido");
-        }
-
-        pedido.setStatus(StatusPedido.CANCELADO);
-        pedido = pedidoRepository.save(pedido);
-
-        return convertToDTO(pedido);
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
+
+        StatusPedido statusAnterior = compararEAtualizar(
+                () -> pedidoRepository.findStatusByIdAndClienteId(pedidoId, clienteId)
+                        .orElseThrow(() -> pedidoInacessivel(pedidoId, "Pedido não pertence ao cliente")),
+                atual -> {
+                    // O cliente só cancela antes do preparo
+                    if (atual != StatusPedido.PENDENTE && atual != StatusPedido.CONFIRMADO) {
+                        throw new BusinessException("Não é possível cancelar este pedido");
+                    }
+                },
+                atual -> pedidoRepository.atualizarStatusDoCliente(
+                        pedidoId, clienteId, atual, StatusPedido.CANCELADO, LocalDateTime.now()));
+
+        return publicarAlteracao(carregarPedido(pedidoId), statusAnterior);
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> obterEstatisticasCliente(String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
         Map<String, Object> stats = new HashMap<>();
 
-        Long totalPedidos = pedidoRepository.countByClienteId(cliente.getId());
-        BigDecimal totalGasto = pedidoRepository.sumTotalByClienteId(cliente.getId());
+        Long totalPedidos = pedidoRepository.countByClienteId(clienteId);
+        BigDecimal totalGasto = pedidoRepository.sumTotalByClienteId(clienteId);
 
         stats.put("totalPedidos", totalPedidos);
         stats.put("totalGasto", totalGasto != null ? totalGasto : BigDecimal.ZERO);
@@ -179,36 +293,89 @@ public class PedidoService {
         return rastreamento;
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public PedidoDTO marcarComoEntregue(Long pedidoId, String emailEmpresa) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
+        return atualizarStatus(pedidoId, StatusPedido.ENTREGUE, emailEmpresa);
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public PedidoDTO marcarComoCancelado(Long pedidoId, String emailEmpresa) {
+        return atualizarStatus(pedidoId, StatusPedido.CANCELADO, emailEmpresa);
+    }
 
-        // Verificar se o pedido pertence à empresa
-        if (!pedido.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Pedido não pertence à empresa");
+    /**
+     * Transição de status com compare-and-set: lê o status atual, valida e grava com um UPDATE
+     * condicionado a esse status. Se outra requisição alterou o pedido entre a leitura e a escrita,
+     * relê e tenta de novo. Retorna o status anterior à transição aplicada.
+     *
+     * Os métodos que usam este fluxo rodam em READ_COMMITTED para que a releitura veja o valor atual.
+     */
+    private StatusPedido compararEAtualizar(Supplier<StatusPedido> leitura,
+                                            Consumer<StatusPedido> validacao,
+                                            ToIntFunction<StatusPedido> atualizacao) {
+        for (int tentativa = 0; tentativa < MAX_TENTATIVAS_TRANSICAO; tentativa++) {
+            StatusPedido atual = leitura.get();
+            validacao.accept(atual);
+            if (atualizacao.applyAsInt(atual) > 0) {
+                return atual;
+            }
         }
+        throw new BusinessException("Pedido alterado por outra requisição, tente novamente");
+    }
 
-        pedido.setStatus(StatusPedido.ENTREGUE);
-        pedido = pedidoRepository.save(pedido);
+    private void validarTransicao(StatusPedido atual, StatusPedido novoStatus) {
+        if (!atual.podeTransicionarPara(novoStatus)) {
+            throw new BusinessException("Transição de status inválida: " + atual + " -> " + novoStatus);
+        }
+    }
 
-        return convertToDTO(pedido);
+    private RuntimeException pedidoInacessivel(Long pedidoId, String mensagem) {
+        return pedidoRepository.existsById(pedidoId)
+                ? new BusinessException(mensagem)
+                : new NotFoundException("Pedido não encontrado");
     }
 
-    @Transactional
-    public PedidoDTO marcarComoCancelado(Long pedidoId, String emailEmpresa) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
+    private Pedido carregarPedido(Long pedidoId) {
+        return carregarPedidosComItens(List.of(pedidoId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
+    }
+
+    /**
+     * Converte o pedido salvo e avisa os ouvintes (ex.: streams de acompanhamento) após o commit
+     */
+    PedidoDTO publicarAlteracao(Pedido pedido, StatusPedido statusAnterior) {
+        PedidoDTO dto = convertToDTO(pedido);
+        eventPublisher.publishEvent(new PedidoAlteradoEvent(dto, statusAnterior));
+        return dto;
+    }
+
+    /**
+     * Segunda fase da paginação: busca pedidos e itens apenas dos IDs da página,
+     * preservando a ordem retornada pela consulta de IDs
+     */
+    private Page<PedidoDTO> carregarPagina(Page<Long> paginaIds) {
+        List<PedidoDTO> conteudo = carregarPedidosComItens(paginaIds.getContent()).stream()
+                .map(this::convertToDTO)
+                .toList();
 
-        // Verificar se o pedido pertence à empresa
-        if (!pedido.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Pedido não pertence à empresa");
+        return new PageImpl<>(conteudo, paginaIds.getPageable(), paginaIds.getTotalElements());
+    }
+
+    private List<Pedido> carregarPedidosComItens(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        pedido.setStatus(StatusPedido.CANCELADO);
-        pedido = pedidoRepository.save(pedido);
+        Map<Long, Pedido> pedidos = new HashMap<>();
+        for (Pedido pedido : pedidoRepository.findAllWithItensByIdIn(ids)) {
+            pedidos.put(pedido.getId(), pedido);
+        }
 
-        return convertToDTO(pedido);
+        return ids.stream()
+                .map(pedidos::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -224,6 +391,7 @@ public class PedidoService {
         dto.setObservacoes(pedido.getObservacoes());
         dto.setEnderecoEntrega(pedido.getEnderecoEntrega());
         dto.setDataPedido(pedido.getCreatedAt());
+        dto.setDataAtualizacao(pedido.getUpdatedAt());
 
         // Carregar itens dentro da transação
         if (pedido.getItens() != null && !pedido.getItens().isEmpty()) {
@@ -244,35 +412,27 @@ public class PedidoService {
         return dto;
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public PedidoDTO pagarPedido(Long pedidoId, String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
-
-        Pedido pedido = pedidoRepository.findByIdWithItens(pedidoId)
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
-
-        // Verificar se o pedido pertence ao cliente
-        if (!pedido.getCliente().getId().equals(cliente.getId())) {
-            throw new BusinessException("Pedido não pertence ao cliente");
-        }
-
-        // Verificar se o pedido pode ser pago
-        if (pedido.getStatus() != StatusPedido.PENDENTE) {
-            throw new BusinessException("Apenas pedidos pendentes podem ser pagos");
-        }
-
-        if (pedido.getStatusPagamento() == StatusPagamento.PAGO) {
-            throw new BusinessException("Este pedido já foi pago");
-        }
-
-        // Simular pagamento - sempre aprova
-        pedido.setStatusPagamento(StatusPagamento.PAGO);
-
-        // Automaticamente confirma o pedido quando é pago
-        pedido.setStatus(StatusPedido.CONFIRMADO);
-        pedido = pedidoRepository.save(pedido);
-
-        return convertToDTO(pedido);
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
+
+        // Simular pagamento - sempre aprova e confirma o pedido na mesma instrução
+        StatusPedido statusAnterior = compararEAtualizar(
+                () -> pedidoRepository.findStatusByIdAndClienteId(pedidoId, clienteId)
+                        .orElseThrow(() -> pedidoInacessivel(pedidoId, "Pedido não pertence ao cliente")),
+                atual -> {
+                    if (atual != StatusPedido.PENDENTE) {
+                        throw new BusinessException("Apenas pedidos pendentes podem ser pagos");
+                    }
+                },
+                atual -> {
+                    int atualizados = pedidoRepository.confirmarPagamento(pedidoId, clienteId, LocalDateTime.now());
+                    if (atualizados == 0 && pedidoRepository.existsByIdAndStatusPagamento(pedidoId, StatusPagamento.PAGO)) {
+                        throw new BusinessException("Este pedido já foi pago");
+                    }
+                    return atualizados;
+                });
+
+        return publicarAlteracao(carregarPedido(pedidoId), statusAnterior);
     }
 }
\ No newline at end of file
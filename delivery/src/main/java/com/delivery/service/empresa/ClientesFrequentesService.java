@@ -0,0 +1,83 @@
+package com.delivery.service.empresa;
+
+import com.delivery.repository.PedidoRepository;
+import com.delivery.service.empresa.RelatorioCache.Chave;
+import com.delivery.util.RankingUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Clientes mais frequentes por empresa e mês: pedidos, gasto e data do último pedido, sem cancelados.
+ *
+ * A agregação por cliente é lida do banco em stream e passa por um heap limitado, então a memória
+ * não cresce com o número de clientes da empresa. Meses encerrados ficam no RelatorioCache, que
+ * descarta a entrada quando um pedido do mês é alterado (um cancelamento tardio).
+ */
+@Service
+@RequiredArgsConstructor
+public class ClientesFrequentesService {
+
+    // Ordem crescente do ranking: pedidos, gasto, pedido mais recente e, no empate, o menor ID fica à frente
+    private static final Comparator<ClienteFrequente> RANKING = Comparator
+            .comparingLong(ClienteFrequente::pedidos)
+            .thenComparing(ClienteFrequente::total)
+            .thenComparing(ClienteFrequente::ultimoPedido)
+            .thenComparing(ClienteFrequente::clienteId, Comparator.reverseOrder());
+
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RelatorioCache relatorioCache;
+
+    @Value("${app.clientes-frequentes.limite-maximo:100}")
+    private int limiteMaximo;
+
+    /**
+     * Os limite clientes com mais pedidos na empresa no mês, do maior para o menor
+     */
+    public List<ClienteFrequente> listar(Long empresaId, YearMonth mes, int limite) {
+        int quantidade = Math.max(1, Math.min(limite, limiteMaximo));
+        YearMonth atual = YearMonth.now();
+
+        if (mes.isAfter(atual)) {
+            return List.of();
+        }
+
+        if (mes.equals(atual)) {
+            return agregar(empresaId, mes, quantidade);
+        }
+
+        // Ranking do mês encerrado, já limitado a limiteMaximo
+        List<ClienteFrequente> ranking = relatorioCache.obter(
+                new Chave(empresaId, "clientes-frequentes", mes.atDay(1), mes.atEndOfMonth()), false,
+                () -> agregar(empresaId, mes, limiteMaximo));
+        return ranking.subList(0, Math.min(quantidade, ranking.size()));
+    }
+
+    private List<ClienteFrequente> agregar(Long empresaId, YearMonth mes, int quantidade) {
+        return transactionTemplate.execute(status -> {
+            try (Stream<Object[]> linhas = pedidoRepository.streamClientesDaEmpresa(empresaId,
+                    mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay())) {
+                return RankingUtils.maiores(linhas.map(ClientesFrequentesService::clienteFrequente).iterator(),
+                        quantidade, RANKING);
+            }
+        });
+    }
+
+    private static ClienteFrequente clienteFrequente(Object[] linha) {
+        return new ClienteFrequente((Long) linha[0], (String) linha[1], ((Number) linha[2]).longValue(),
+                (BigDecimal) linha[3], (LocalDateTime) linha[4]);
+    }
+
+    public record ClienteFrequente(Long clienteId, String nome, long pedidos, BigDecimal total,
+                                   LocalDateTime ultimoPedido) {
+    }
+}
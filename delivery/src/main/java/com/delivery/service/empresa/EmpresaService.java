@@ -2,49 +2,140 @@ package com.delivery.service.empresa;
 
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.entity.Empresa;
+import com.delivery.event.EmpresaAlteradaEvent;
+import com.delivery.exception.BusinessException;
 import com.delivery.exception.NotFoundException;
 import com.delivery.repository.EmpresaRepository;
-import com.delivery.repository.FeedbackRepository;
-import com.delivery.repository.PedidoRepository;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.publico.IndiceBuscaService;
+import com.delivery.service.publico.IndiceGeograficoService;
+import com.delivery.util.CursorUtils;
+import com.delivery.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EmpresaService {
 
     private final EmpresaRepository empresaRepository;
-    private final PedidoRepository pedidoRepository;
-    private final FeedbackRepository feedbackRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final RelatorioService relatorioService;
+    private final IndiceBuscaService indiceBuscaService;
+    private final IndiceGeograficoService indiceGeograficoService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Sort POR_AVALIACAO = Sort.by(
+            Sort.Order.desc("avaliacaoMedia"), Sort.Order.desc("totalAvaliacoes"), Sort.Order.desc("id"));
+
+    @Value("${app.busca-proximidade.raio-inicial-km:2}")
+    private double raioInicialKm;
+
+    @Value("${app.busca-proximidade.raio-maximo-km:50}")
+    private double raioMaximoKm;
+
+    @Value("${app.busca-proximidade.max-resultados:50}")
+    private int maxResultados;
+
+    @Value("${app.pagination.max-size:100}")
+    private int tamanhoMaximo;
 
     public Page<EmpresaDTO> listarEmpresas(Pageable pageable) {
-        return empresaRepository.findAllAtivas(pageable)
+        return listarEmpresas(Ordem.PADRAO, pageable);
+    }
+
+    public Page<EmpresaDTO> listarEmpresas(Ordem ordem, Pageable pageable) {
+        return empresaRepository.findAllAtivas(ordenar(ordem, pageable))
                 .map(this::convertToDTO);
     }
 
     public Page<EmpresaDTO> buscarPorCategoria(Long categoriaId, Pageable pageable) {
-        return empresaRepository.findByCategoriaId(categoriaId, pageable)
+        return buscarPorCategoria(categoriaId, Ordem.PADRAO, pageable);
+    }
+
+    public Page<EmpresaDTO> buscarPorCategoria(Long categoriaId, Ordem ordem, Pageable pageable) {
+        return empresaRepository.findByCategoriaId(categoriaId, ordenar(ordem, pageable))
                 .map(this::convertToDTO);
     }
 
+    public PaginaCursorDTO<EmpresaDTO> listarEmpresasPorCursor(String cursor, int tamanho) {
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Empresa> empresas = empresaRepository.findAtivasAposCursor(
+                posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+        return CursorUtils.montarPagina(empresas, tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
+    public PaginaCursorDTO<EmpresaDTO> buscarPorCategoriaPorCursor(Long categoriaId, String cursor, int tamanho) {
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Empresa> empresas = empresaRepository.findByCategoriaIdAposCursor(
+                categoriaId, posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+        return CursorUtils.montarPagina(empresas, tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
+    /**
+     * Busca pelo índice em memória; pelo banco (LIKE) sem termo ou enquanto o índice não foi carregado
+     */
     public Page<EmpresaDTO> buscar(String termo, Long categoriaId, Pageable pageable) {
+        if (indiceBuscaService.atende(termo)) {
+            IndiceBuscaService.Resultado resultado = indiceBuscaService.buscarEmpresas(
+                    termo, categoriaId, pageable.getPageNumber(), pageable.getPageSize());
+            return new PageImpl<>(listarPorIds(resultado.ids()), pageable, resultado.total());
+        }
+
         return empresaRepository.findByTermoAndCategoria(termo, categoriaId, pageable)
                 .map(this::convertToDTO);
     }
 
     public List<EmpresaDTO> buscarPorLocalizacao(Double latitude, Double longitude, Double raioKm) {
-        return empresaRepository.findByLocalizacao(latitude, longitude, raioKm)
-                .stream()
-                .map(this::convertToDTO)
-                .toList();
+        return buscarPorLocalizacao(latitude, longitude, raioKm, PageRequest.of(0, maxResultados)).getContent();
+    }
+
+    /**
+     * Empresas ativas da mais próxima para a mais distante, com a distância. Sem raio, devolve as mais
+     * próximas: o raio começa em raio-inicial-km e dobra até cobrir a página ou chegar a raio-maximo-km.
+     * Usa o índice geográfico em memória; pelo banco enquanto ele não foi carregado
+     */
+    public Page<EmpresaDTO> buscarPorLocalizacao(Double latitude, Double longitude, Double raioKm, Pageable pageable) {
+        if (!GeoUtils.isCoordenadaValida(latitude, longitude)) {
+            throw new BusinessException("Latitude ou longitude inválida");
+        }
+        if (raioKm != null && (raioKm <= 0 || raioKm > raioMaximoKm)) {
+            throw new BusinessException("O raio deve ser maior que zero e de no máximo " + raioMaximoKm + " km");
+        }
+
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), maxResultados));
+        Map<Long, Double> distancias = new LinkedHashMap<>();
+        long total;
+        if (indiceGeograficoService.isPronto()) {
+            IndiceGeograficoService.Resultado resultado = raioKm != null
+                    ? indiceGeograficoService.buscar(latitude, longitude, raioKm, pagina.getOffset(), pagina.getPageSize())
+                    : indiceGeograficoService.buscarMaisProximas(latitude, longitude, raioInicialKm, raioMaximoKm,
+                            pagina.getOffset(), pagina.getPageSize());
+            resultado.empresas().forEach(proxima -> distancias.put(proxima.id(), proxima.distanciaKm()));
+            total = resultado.total();
+        } else {
+            total = buscarProximasNoBanco(latitude, longitude, raioKm, pagina, distancias);
+        }
+
+        List<EmpresaDTO> empresas = listarPorIds(new ArrayList<>(distancias.keySet()));
+        empresas.forEach(empresa -> empresa.setDistanciaKm(Math.round(distancias.get(empresa.getId()) * 100) / 100.0));
+        return new PageImpl<>(empresas, pagina, total);
     }
 
     public EmpresaDTO buscarPorId(Long id) {
@@ -54,13 +145,13 @@ public class EmpresaService {
     }
 
     public EmpresaDTO buscarPorEmail(String email) {
-        Empresa empresa = empresaRepository.findByEmail(email)
+        Empresa empresa = empresaRepository.findById(usuarioLogado.empresaId(email))
                 .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
         return convertToDTO(empresa);
     }
 
     public EmpresaDTO atualizarPerfil(String email, EmpresaDTO empresaDTO) {
-        Empresa empresa = empresaRepository.findByEmail(email)
+        Empresa empresa = empresaRepository.findById(usuarioLogado.empresaId(email))
                 .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
 
         // Atualizar campos permitidos
@@ -76,6 +167,9 @@ public class EmpresaService {
         if (empresaDTO.getEndereco() != null) {
             empresa.setEndereco(empresaDTO.getEndereco());
         }
+        if (empresaDTO.getCidade() != null) {
+            empresa.setCidade(empresaDTO.getCidade());
+        }
         if (empresaDTO.getLatitude() != null) {
             empresa.setLatitude(empresaDTO.getLatitude());
         }
@@ -90,6 +184,7 @@ public class EmpresaService {
         }
 
         Empresa empresaAtualizada = empresaRepository.save(empresa);
+        eventPublisher.publishEvent(new EmpresaAlteradaEvent(empresaAtualizada.getId()));
         return convertToDTO(empresaAtualizada);
     }
 
@@ -98,53 +193,61 @@ public class EmpresaService {
     }
 
     public RelatorioDTO gerarRelatorio(String emailEmpresa, int mes, int ano) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
-
-        YearMonth yearMonth = YearMonth.of(ano, mes);
-        LocalDateTime inicioMes = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime fimMes = yearMonth.atEndOfMonth().atTime(23, 59, 59);
-
-        LocalDateTime inicioAno = LocalDateTime.of(ano, 1, 1, 0, 0, 0);
-        LocalDateTime fimAno = LocalDateTime.of(ano, 12, 31, 23, 59, 59);
-
-        RelatorioDTO relatorio = new RelatorioDTO();
-
-        // Faturamento mensal
-        BigDecimal faturamentoMensal = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(
-                empresa.getId(), inicioMes, fimMes);
-        relatorio.setFaturamentoMensal(faturamentoMensal != null ? faturamentoMensal : BigDecimal.ZERO);
-
-        // Faturamento anual
-        BigDecimal faturamentoAnual = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(
-                empresa.getId(), inicioAno, fimAno);
-        relatorio.setFaturamentoAnual(faturamentoAnual != null ? faturamentoAnual : BigDecimal.ZERO);
+        return relatorioService.gerarRelatorioMensal(emailEmpresa, mes, ano);
+    }
 
-        // Quantidade de pedidos
-        Long pedidosMensal = pedidoRepository.countByEmpresaIdAndPeriodo(
-                empresa.getId(), inicioMes, fimMes);
-        relatorio.setQuantidadePedidosMensal(pedidosMensal.intValue());
+    /**
+     * Preenche distancias com as empresas da página e devolve o total no raio
+     */
+    private long buscarProximasNoBanco(double latitude, double longitude, Double raioKm, Pageable pagina,
+                                       Map<Long, Double> distancias) {
+        double raio = raioKm != null ? raioKm : raioInicialKm;
+        long total = contarProximas(latitude, longitude, raio);
+        while (raioKm == null && total < pagina.getOffset() + pagina.getPageSize() && raio < raioMaximoKm) {
+            raio = Math.min(raio * 2, raioMaximoKm);
+            total = contarProximas(latitude, longitude, raio);
+        }
+        if (total <= pagina.getOffset()) {
+            return total;
+        }
 
-        Long pedidosAnual = pedidoRepository.countByEmpresaIdAndPeriodo(
-                empresa.getId(), inicioAno, fimAno);
-        relatorio.setQuantidadePedidosAnual(pedidosAnual.intValue());
+        GeoUtils.Caixa caixa = GeoUtils.caixaDelimitadora(latitude, longitude, raio);
+        empresaRepository.findProximas(latitude, longitude, caixa.latitudeMinima(), caixa.latitudeMaxima(),
+                        caixa.longitudeMinima(), caixa.longitudeMaxima(), raio, pagina.getPageSize(), pagina.getOffset())
+                .forEach(linha -> distancias.put(((Number) linha[0]).longValue(), ((Number) linha[1]).doubleValue()));
+        return total;
+    }
 
-        // Ticket médio
-        if (pedidosMensal > 0) {
-            BigDecimal ticketMedio = faturamentoMensal.divide(BigDecimal.valueOf(pedidosMensal), 2, java.math.RoundingMode.HALF_UP);
-            relatorio.setTicketMedio(ticketMedio);
-        } else {
-            relatorio.setTicketMedio(BigDecimal.ZERO);
+    // Ordem por avaliação atendida pelos índices (ativo, avaliacao_media, total_avaliacoes)
+    private Pageable ordenar(Ordem ordem, Pageable pageable) {
+        if (ordem != Ordem.AVALIACAO) {
+            return pageable;
         }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), POR_AVALIACAO);
+    }
 
-        // Avaliações
-        Double avaliacaoMedia = feedbackRepository.findAvaliacaoMediaByEmpresaId(empresa.getId());
-        relatorio.setAvaliacaoMedia(avaliacaoMedia != null ? avaliacaoMedia : 0.0);
+    private long contarProximas(double latitude, double longitude, double raioKm) {
+        GeoUtils.Caixa caixa = GeoUtils.caixaDelimitadora(latitude, longitude, raioKm);
+        return empresaRepository.countProximas(latitude, longitude, caixa.latitudeMinima(), caixa.latitudeMaxima(),
+                caixa.longitudeMinima(), caixa.longitudeMaxima(), raioKm);
+    }
 
-        Long totalAvaliacoes = feedbackRepository.countByEmpresaId(empresa.getId());
-        relatorio.setTotalAvaliacoes(totalAvaliacoes.intValue());
+    /**
+     * Empresas na ordem dos IDs informados, com usuário e categoria carregados na mesma consulta
+     */
+    private List<EmpresaDTO> listarPorIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Empresa> empresas = empresaRepository.findComUsuarioECategoriaByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Empresa::getId, Function.identity()));
 
-        return relatorio;
+        return ids.stream()
+                .map(empresas::get)
+                .filter(empresa -> empresa != null)
+                .map(this::convertToDTO)
+                .toList();
     }
 
     private EmpresaDTO convertToDTO(Empresa empresa) {
@@ -155,6 +258,7 @@ public class EmpresaService {
         dto.setCnpj(empresa.getCnpj());
         dto.setTelefone(empresa.getTelefone());
         dto.setEndereco(empresa.getEndereco());
+        dto.setCidade(empresa.getCidade());
         dto.setLatitude(empresa.getLatitude());
         dto.setLongitude(empresa.getLongitude());
         dto.setLogoUrl(empresa.getLogoUrl());
@@ -171,13 +275,18 @@ public class EmpresaService {
             dto.setCategoria(categoriaDTO);
         }
 
-        // Avaliação média
-        Double avaliacao = feedbackRepository.findAvaliacaoMediaByEmpresaId(empresa.getId());
-        dto.setAvaliacao(avaliacao != null ? avaliacao : 0.0);
-
-        Long totalAvaliacoes = feedbackRepository.countByEmpresaId(empresa.getId());
-        dto.setTotalAvaliacoes(totalAvaliacoes.intValue());
+        // Avaliação média (agregados mantidos na empresa)
+        dto.setAvaliacao(empresa.getAvaliacaoMedia());
+        dto.setTotalAvaliacoes(empresa.getTotalAvaliacoes());
 
         return dto;
     }
+
+    /**
+     * Ordem das listagens públicas de empresas: PADRAO mantém a do banco, AVALIACAO traz as mais bem
+     * avaliadas primeiro (e, no empate, as com mais avaliações)
+     */
+    public enum Ordem {
+        PADRAO, AVALIACAO
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.delivery.service.empresa;
+
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.util.DateUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do histórico de pedidos da empresa em CSV, uma linha por item.
+ *
+ * As linhas são lidas do banco sob demanda e escritas direto na resposta, então a memória
+ * não depende do tamanho do período e os primeiros bytes saem antes do fim da consulta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportacaoPedidosService {
+
+    private static final String CABECALHO = "pedido_id,data,status,status_pagamento,forma_pagamento,cliente," +
+            "total_pedido,produto_id,produto,quantidade,preco_unitario,subtotal";
+
+    private static final String INICIO_DE_FORMULA = "=+-@\t\r";
+
+    private final PedidoRepository pedidoRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Valida o período e resolve a empresa na requisição; a consulta e a escrita rodam
+     * quando o corpo da resposta é gerado, fora da thread da requisição
+     */
+    public StreamingResponseBody exportarCSV(String emailEmpresa, String dataInicio, String dataFim) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+        LocalDate inicio = DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD);
+        LocalDate fim = DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD);
+        if (fim.isBefore(inicio)) {
+            throw new BusinessException("Data final anterior à data inicial");
+        }
+
+        return saida -> {
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            escritor.write(CABECALHO);
+            escritor.write('\n');
+            escritor.flush();
+
+            Long linhas = transactionTemplate.execute(status -> {
+                try (Stream<Object[]> itens = pedidoRepository.streamItensParaExportacao(
+                        empresaId, inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay())) {
+                    long escritas = 0;
+                    for (Iterator<Object[]> it = itens.iterator(); it.hasNext(); escritas++) {
+                        escreverLinha(escritor, it.next());
+                    }
+                    return escritas;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            escritor.flush();
+
+            log.debug("Exportação CSV da empresa {} de {} a {}: {} linhas", empresaId, inicio, fim, linhas);
+        };
+    }
+
+    private static void escreverLinha(Writer escritor, Object[] linha) throws IOException {
+        for (int i = 0; i < linha.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            escritor.write(campo(linha[i]));
+        }
+        escritor.write('\n');
+    }
+
+    // RFC 4180: aspas em volta de campos com separador, aspas ou quebra de linha
+    private static String campo(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+
+        // Textos vêm dos usuários (nomes de clientes e produtos): os que começam como fórmula recebem
+        // um apóstrofo para a planilha tratá-los como texto
+        if (valor instanceof String texto && !texto.isEmpty() && INICIO_DE_FORMULA.indexOf(texto.charAt(0)) >= 0) {
+            return "\"'" + texto.replace("\"", "\"\"") + '"';
+        }
+
+        String texto = valor instanceof LocalDateTime data
+                ? data.format(DateUtils.FORMATTER_YYYY_MM_DD_HH_MM_SS)
+                : valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+}
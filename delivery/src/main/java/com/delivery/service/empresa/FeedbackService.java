@@ -3,46 +3,52 @@ package com.delivery.service.empresa;
 import com.delivery.dto.empresa.FeedbackDTO;
 import com.delivery.entity.*;
 import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.FeedbackCriadoEvent;
 import com.delivery.exception.BusinessException;
 import com.delivery.exception.NotFoundException;
 import com.delivery.repository.*;
+import com.delivery.security.UsuarioLogado;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class FeedbackService {
 
     private final FeedbackRepository feedbackRepository;
     private final PedidoRepository pedidoRepository;
-    private final ClienteRepository clienteRepository;
     private final EmpresaRepository empresaRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<FeedbackDTO> listarFeedbacksDaEmpresa(String emailEmpresa, Pageable pageable) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
-        return feedbackRepository.findByEmpresaId(empresa.getId(), pageable)
+        return feedbackRepository.findByEmpresaId(empresaId, pageable)
                 .map(this::convertToDTO);
     }
 
     @Transactional
     public FeedbackDTO criarFeedback(FeedbackDTO feedbackDTO, String emailCliente) {
-        Cliente cliente = clienteRepository.findByEmail(emailCliente)
-                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Long clienteId = usuarioLogado.clienteId(emailCliente);
 
-        Pedido pedido = pedidoRepository.findById(feedbackDTO.getPedidoId())
-                .orElseThrow(() -> new NotFoundException("Pedido não encontrado"));
+        // Pedido já filtrado pelo cliente dono
+        Pedido pedido = pedidoRepository.findByIdAndClienteId(feedbackDTO.getPedidoId(), clienteId)
+                .orElseThrow(() -> pedidoRepository.existsById(feedbackDTO.getPedidoId())
+                        ? new BusinessException("Pedido não pertence ao cliente")
+                        : new NotFoundException("Pedido não encontrado"));
 
         // Verificações
-        if (!pedido.getCliente().getId().equals(cliente.getId())) {
-            throw new BusinessException("Pedido não pertence ao cliente");
-        }
-
         if (!pedido.getStatus().equals(StatusPedido.ENTREGUE)) {
             throw new BusinessException("Só é possível avaliar pedidos entregues");
         }
@@ -53,22 +59,51 @@ public class FeedbackService {
 
         Feedback feedback = new Feedback();
         feedback.setPedido(pedido);
-        feedback.setCliente(cliente);
+        feedback.setCliente(pedido.getCliente());
         feedback.setEmpresa(pedido.getEmpresa());
         feedback.setNota(feedbackDTO.getNota());
         feedback.setComentario(feedbackDTO.getComentario());
 
         feedback = feedbackRepository.save(feedback);
+        empresaRepository.registrarAvaliacao(pedido.getEmpresa().getId(), feedback.getNota());
+        eventPublisher.publishEvent(new FeedbackCriadoEvent(pedido.getEmpresa().getId(), feedback.getNota()));
         return convertToDTO(feedback);
     }
 
+    /**
+     * Recalcula a partir dos feedbacks os agregados de avaliação de todas as empresas, corrigindo
+     * qualquer divergência com as somas feitas em criarFeedback
+     */
+    @Scheduled(cron = "${app.avaliacoes.cron-recalculo:0 0 4 * * *}")
+    @Transactional
+    public int recalcularAvaliacoes() {
+        int empresas = empresaRepository.recalcularAvaliacoes();
+        log.info("Avaliações recalculadas para {} empresas", empresas);
+        return empresas;
+    }
+
+    /**
+     * Na inicialização, recalcula os agregados se o total registrado nas empresas divergir da tabela
+     * de feedbacks, como logo após a criação das colunas numa base que já tinha feedbacks
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void conferirAvaliacoes() {
+        long registradas = empresaRepository.somarTotalAvaliacoes();
+        long feedbacks = feedbackRepository.count();
+        if (registradas != feedbacks) {
+            log.info("Agregados de avaliação divergentes ({} registradas, {} feedbacks): recalculando",
+                    registradas, feedbacks);
+            recalcularAvaliacoes();
+        }
+    }
+
     public EstatisticasFeedback obterEstatisticas(String emailEmpresa) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
         EstatisticasFeedback stats = new EstatisticasFeedback();
-        stats.setAvaliacaoMedia(feedbackRepository.findAvaliacaoMediaByEmpresaId(empresa.getId()));
-        stats.setTotalAvaliacoes(feedbackRepository.countByEmpresaId(empresa.getId()));
+        stats.setAvaliacaoMedia(feedbackRepository.findAvaliacaoMediaByEmpresaId(empresaId));
+        stats.setTotalAvaliacoes(feedbackRepository.countByEmpresaId(empresaId));
 
         return stats;
     }
@@ -0,0 +1,192 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.exception.BusinessException;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.cliente.PedidoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Painel da cozinha: índice em memória, por empresa, dos pedidos em andamento
+ * (PENDENTE, CONFIRMADO, PREPARANDO e PRONTO).
+ *
+ * É carregado na inicialização, atualizado a cada alteração de pedido (após o commit)
+ * e reconciliado periodicamente com o banco. As consultas não acessam o banco.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PainelCozinhaService {
+
+    private static final Comparator<PedidoDTO> ORDEM_CHEGADA = Comparator
+            .comparing(PedidoDTO::getDataPedido, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(PedidoDTO::getId);
+
+    private final PedidoService pedidoService;
+    private final UsuarioLogado usuarioLogado;
+
+    @Value("${app.painel-cozinha.reconciliacao-ms:300000}")
+    private long reconciliacaoMs;
+
+    private final Object trava = new Object();
+
+    // Substituído por inteiro a cada reconciliação
+    private volatile Indice indice = new Indice();
+
+    // Alterações recebidas enquanto uma reconciliação lê o banco (protegido por trava)
+    private List<PedidoDTO> alteracoesDuranteReconciliacao;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco e troca o atual de uma vez. Os pedidos encerrados
+     * recentemente e as alterações ocorridas durante a leitura são reaplicados antes da troca;
+     * só prevalecem sobre o banco se forem mais novos que ele.
+     */
+    @Scheduled(initialDelayString = "${app.painel-cozinha.reconciliacao-ms:300000}",
+            fixedDelayString = "${app.painel-cozinha.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        synchronized (trava) {
+            alteracoesDuranteReconciliacao = new ArrayList<>();
+        }
+
+        LocalDateTime inicio = LocalDateTime.now();
+        Indice novoIndice = new Indice();
+        try {
+            pedidoService.listarPedidosAtivos().forEach(novoIndice::aplicar);
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                alteracoesDuranteReconciliacao = null;
+            }
+            log.error("Falha ao reconciliar o painel da cozinha", e);
+            return;
+        }
+
+        synchronized (trava) {
+            // Encerramentos de até uma reconciliação atrás continuam barrando eventos atrasados
+            LocalDateTime limite = inicio.minus(Duration.ofMillis(reconciliacaoMs));
+            indice.encerrados.values().stream()
+                    .filter(pedido -> pedido.getDataAtualizacao().isAfter(limite))
+                    .forEach(novoIndice::aplicar);
+            alteracoesDuranteReconciliacao.forEach(novoIndice::aplicar);
+            alteracoesDuranteReconciliacao = null;
+            indice = novoIndice;
+        }
+
+        log.debug("Painel da cozinha reconciliado: {} empresa(s) com pedidos ativos", novoIndice.pedidosPorEmpresa.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        synchronized (trava) {
+            indice.aplicar(evento.getPedido());
+            if (alteracoesDuranteReconciliacao != null) {
+                alteracoesDuranteReconciliacao.add(evento.getPedido());
+            }
+        }
+    }
+
+    /**
+     * Pedidos ativos agrupados por status, em ordem de chegada
+     */
+    public Map<StatusPedido, List<PedidoDTO>> obterPainel(String emailEmpresa) {
+        Map<StatusPedido, List<PedidoDTO>> painel = new EnumMap<>(StatusPedido.class);
+        for (StatusPedido status : StatusPedido.values()) {
+            if (status.isAtivo()) {
+                painel.put(status, new ArrayList<>());
+            }
+        }
+
+        pedidosDaEmpresa(emailEmpresa).values().forEach(pedido -> painel.get(pedido.getStatus()).add(pedido));
+        painel.values().forEach(pedidos -> pedidos.sort(ORDEM_CHEGADA));
+        return painel;
+    }
+
+    public List<PedidoDTO> listarPorStatus(String emailEmpresa, StatusPedido status) {
+        if (!status.isAtivo()) {
+            throw new BusinessException("Status não exibido no painel da cozinha: " + status);
+        }
+
+        return pedidosDaEmpresa(emailEmpresa).values().stream()
+                .filter(pedido -> pedido.getStatus() == status)
+                .sorted(ORDEM_CHEGADA)
+                .toList();
+    }
+
+    public Map<StatusPedido, Long> contarPorStatus(String emailEmpresa) {
+        Map<StatusPedido, Long> contagens = new EnumMap<>(StatusPedido.class);
+        for (StatusPedido status : StatusPedido.values()) {
+            if (status.isAtivo()) {
+                contagens.put(status, 0L);
+            }
+        }
+
+        pedidosDaEmpresa(emailEmpresa).values().forEach(pedido -> contagens.merge(pedido.getStatus(), 1L, Long::sum));
+        return contagens;
+    }
+
+    private Map<Long, PedidoDTO> pedidosDaEmpresa(String emailEmpresa) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        return indice.pedidosPorEmpresa.getOrDefault(empresaId, Map.of());
+    }
+
+    /**
+     * Estado aplicado mais recente de cada pedido. Os eventos chegam após o commit em qualquer ordem:
+     * um estado só substitui o anterior se for mais novo. Os pedidos que saem do painel ficam em
+     * encerrados para barrar eventos atrasados
+     */
+    private static final class Indice {
+        // Empresa -> (pedido -> pedido), lido sem trava pelas consultas
+        private final Map<Long, Map<Long, PedidoDTO>> pedidosPorEmpresa = new ConcurrentHashMap<>();
+
+        // Pedido -> último estado, entregue ou cancelado (protegido por trava depois de publicado)
+        private final Map<Long, PedidoDTO> encerrados = new HashMap<>();
+
+        private void aplicar(PedidoDTO pedido) {
+            PedidoDTO atual = encerrados.get(pedido.getId());
+            if (atual == null) {
+                atual = pedidosPorEmpresa.getOrDefault(pedido.getEmpresaId(), Map.of()).get(pedido.getId());
+            }
+            if (atual != null && !pedido.isMaisNovoQue(atual)) {
+                return;
+            }
+
+            if (pedido.getStatus().isAtivo()) {
+                pedidosPorEmpresa.computeIfAbsent(pedido.getEmpresaId(), id -> new ConcurrentHashMap<>())
+                        .put(pedido.getId(), pedido);
+            } else {
+                pedidosPorEmpresa.computeIfPresent(pedido.getEmpresaId(), (id, pedidos) -> {
+                    pedidos.remove(pedido.getId());
+                    return pedidos.isEmpty() ? null : pedidos;
+                });
+                if (pedido.getDataAtualizacao() != null) {
+                    encerrados.put(pedido.getId(), pedido);
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,37 @@
 package com.delivery.service.empresa;
 
 import com.delivery.dto.empresa.ProdutoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
+import com.delivery.entity.Categoria;
 import com.delivery.entity.Empresa;
 import com.delivery.entity.Produto;
+import com.delivery.event.ProdutoAlteradoEvent;
 import com.delivery.exception.BusinessException;
 import com.delivery.exception.NotFoundException;
 import com.delivery.repository.CategoriaRepository;
 import com.delivery.repository.EmpresaRepository;
 import com.delivery.repository.ProdutoRepository;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.publico.IndiceBuscaService;
+import com.delivery.util.CursorUtils;
+import com.delivery.util.ValidationUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,13 +40,22 @@ public class ProdutoService {
     private final ProdutoRepository produtoRepository;
     private final EmpresaRepository empresaRepository;
     private final CategoriaRepository categoriaRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final IndiceBuscaService indiceBuscaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Uma importação é uma única transação: lotes maiores devem ser divididos pelo cliente
+    @Value("${app.produtos.importacao-max:1000}")
+    private int importacaoMaxProdutos;
+
+    @Value("${app.pagination.max-size:100}")
+    private int tamanhoMaximo;
 
     public List<ProdutoDTO> listarProdutosDaEmpresa(String emailEmpresa) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
         // Buscar todos os produtos da empresa (incluindo inativos para o painel de administração)
-        return produtoRepository.findByEmpresaId(empresa.getId())
+        return produtoRepository.findByEmpresaId(empresaId)
                 .stream()
                 .map(this::convertToDTO)
                 .toList();
@@ -49,7 +73,16 @@ public class ProdutoService {
                 .map(this::convertToDTO);
     }
 
+    /**
+     * Busca pelo índice em memória; pelo banco (LIKE) só enquanto o índice não foi carregado
+     */
     public Page<ProdutoDTO> buscarPorTermo(String termo, Pageable pageable) {
+        if (indiceBuscaService.atende(termo)) {
+            IndiceBuscaService.Resultado resultado = indiceBuscaService.buscarProdutos(
+                    termo, pageable.getPageNumber(), pageable.getPageSize());
+            return new PageImpl<>(listarPorIds(resultado.ids()), pageable, resultado.total());
+        }
+
         return produtoRepository.findByTermoAndAtivoTrue(termo, pageable)
                 .map(this::convertToDTO);
     }
@@ -59,10 +92,23 @@ public class ProdutoService {
                 .map(this::convertToDTO);
     }
 
+    public PaginaCursorDTO<ProdutoDTO> listarTodosPorCursor(String cursor, int tamanho) {
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Produto> produtos = produtoRepository.findAtivosAposCursor(
+                posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+        return CursorUtils.montarPagina(produtos, tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
+    public PaginaCursorDTO<ProdutoDTO> buscarPorCategoriaPorCursor(Long categoriaId, String cursor, int tamanho) {
+        CursorUtils.Cursor posicao = CursorUtils.decodificar(cursor);
+        List<Produto> produtos = produtoRepository.findByCategoriaIdAtivosAposCursor(
+                categoriaId, posicao.createdAt(), posicao.id(), CursorUtils.limite(tamanho, tamanhoMaximo));
+        return CursorUtils.montarPagina(produtos, tamanho, tamanhoMaximo, this::convertToDTO);
+    }
+
     @Transactional
     public ProdutoDTO criarProduto(ProdutoDTO produtoDTO, String emailEmpresa) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Empresa empresa = empresaRepository.getReferenceById(usuarioLogado.empresaId(emailEmpresa));
 
         Produto produto = new Produto();
         produto.setEmpresa(empresa);
@@ -86,19 +132,73 @@ public class ProdutoService {
         }
 
         produto = produtoRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(List.of(produto.getId())));
         return convertToDTO(produto);
     }
 
     @Transactional
-    public ProdutoDTO atualizarProduto(Long id, ProdutoDTO produtoDTO, String emailEmpresa) {
-        Produto produto = produtoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
+    public List<ProdutoDTO> importarProdutos(List<ProdutoDTO> produtosDTO, String emailEmpresa) {
+        Empresa empresa = empresaRepository.getReferenceById(usuarioLogado.empresaId(emailEmpresa));
+
+        if (produtosDTO == null || produtosDTO.isEmpty()) {
+            throw new BusinessException("Nenhum produto informado para importação");
+        }
+        if (produtosDTO.size() > importacaoMaxProdutos) {
+            throw new BusinessException("Importação limitada a " + importacaoMaxProdutos + " produtos por vez");
+        }
 
-        // Verificar se o produto pertence à empresa
-        if (!produto.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Produto não pertence à empresa");
+        // Categorias resolvidas em uma única consulta
+        Set<Long> categoriaIds = new HashSet<>();
+        for (ProdutoDTO produtoDTO : produtosDTO) {
+            Long categoriaId = obterCategoriaId(produtoDTO);
+            if (categoriaId != null) {
+                categoriaIds.add(categoriaId);
+            }
+        }
+        Map<Long, Categoria> categorias = new HashMap<>();
+        categoriaRepository.findAllById(categoriaIds).forEach(categoria -> categorias.put(categoria.getId(), categoria));
+
+        List<Produto> produtos = new ArrayList<>(produtosDTO.size());
+        for (ProdutoDTO produtoDTO : produtosDTO) {
+            if (!ValidationUtils.isStringValida(produtoDTO.getNome())) {
+                throw new BusinessException("Nome do produto é obrigatório");
+            }
+            if (!ValidationUtils.isValorMonetarioPositivo(produtoDTO.getPreco())) {
+                throw new BusinessException("Preço inválido para o produto " + produtoDTO.getNome());
+            }
+
+            Produto produto = new Produto();
+            produto.setEmpresa(empresa);
+            produto.setNome(produtoDTO.getNome());
+            produto.setDescricao(produtoDTO.getDescricao());
+            produto.setPreco(produtoDTO.getPreco());
+            produto.setImagemUrl(produtoDTO.getImagemUrl());
+            produto.setAtivo(produtoDTO.getAtivo() != null ? produtoDTO.getAtivo() : true);
+
+            Long categoriaId = obterCategoriaId(produtoDTO);
+            if (categoriaId != null) {
+                Categoria categoria = categorias.get(categoriaId);
+                if (categoria == null) {
+                    throw new NotFoundException("Categoria não encontrada");
+                }
+                produto.setCategoria(categoria);
+            }
+
+            produtos.add(produto);
         }
 
+        // Inserts enviados em batch (IDs alocados em bloco)
+        List<Produto> salvos = produtoRepository.saveAll(produtos);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(salvos.stream().map(Produto::getId).toList()));
+        return salvos.stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    @Transactional
+    public ProdutoDTO atualizarProduto(Long id, ProdutoDTO produtoDTO, String emailEmpresa) {
+        Produto produto = carregarProdutoDaEmpresa(id, emailEmpresa);
+
         produto.setNome(produtoDTO.getNome());
         produto.setDescricao(produtoDTO.getDescricao());
         produto.setPreco(produtoDTO.getPreco());
@@ -119,65 +219,50 @@ public class ProdutoService {
         }
 
         produto = produtoRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(List.of(produto.getId())));
         return convertToDTO(produto);
     }
 
     @Transactional
     public void deletarProduto(Long id, String emailEmpresa) {
-        Produto produto = produtoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
-
-        // Verificar se o produto pertence à empresa
-        if (!produto.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Produto não pertence à empresa");
-        }
+        Produto produto = carregarProdutoDaEmpresa(id, emailEmpresa);
 
         produto.setAtivo(false);
         produtoRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(List.of(produto.getId())));
     }
 
     public Page<ProdutoDTO> listarProdutosDaEmpresaPaginado(String emailEmpresa, Pageable pageable) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
-        return produtoRepository.findByEmpresaIdPaginated(empresa.getId(), pageable)
+        return produtoRepository.findByEmpresaIdPaginated(empresaId, pageable)
                 .map(this::convertToDTO);
     }
 
     public ProdutoDTO buscarProdutoDaEmpresa(Long produtoId, String emailEmpresa) {
-        Produto produto = produtoRepository.findById(produtoId)
-                .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
-
-        if (!produto.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Produto não pertence à empresa");
-        }
+        Produto produto = carregarProdutoDaEmpresa(produtoId, emailEmpresa);
 
         return convertToDTO(produto);
     }
 
     @Transactional
     public ProdutoDTO alternarStatusProduto(Long produtoId, boolean ativo, String emailEmpresa) {
-        Produto produto = produtoRepository.findById(produtoId)
-                .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
-
-        if (!produto.getEmpresa().getUsuario().getEmail().equals(emailEmpresa)) {
-            throw new BusinessException("Produto não pertence à empresa");
-        }
+        Produto produto = carregarProdutoDaEmpresa(produtoId, emailEmpresa);
 
         produto.setAtivo(ativo);
         produto = produtoRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(List.of(produto.getId())));
 
         return convertToDTO(produto);
     }
 
     public Map<String, Object> obterEstatisticasProdutos(String emailEmpresa) {
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
 
         Map<String, Object> stats = new HashMap<>();
 
-        Long totalProdutos = produtoRepository.countByEmpresaId(empresa.getId());
-        Long produtosAtivos = produtoRepository.countByEmpresaIdAndAtivoTrue(empresa.getId());
+        Long totalProdutos = produtoRepository.countByEmpresaId(empresaId);
+        Long produtosAtivos = produtoRepository.countByEmpresaIdAndAtivoTrue(empresaId);
 
         stats.put("totalProdutos", totalProdutos);
         stats.put("produtosAtivos", produtosAtivos);
@@ -190,6 +275,44 @@ public class ProdutoService {
         return produtoRepository.countByAtivoTrue();
     }
 
+    /**
+     * Busca o produto já filtrado pela empresa dona, sem carregar empresa e usuário para comparar
+     */
+    private Produto carregarProdutoDaEmpresa(Long produtoId, String emailEmpresa) {
+        return produtoRepository.findByIdAndEmpresaId(produtoId, usuarioLogado.empresaId(emailEmpresa))
+                .orElseThrow(() -> produtoRepository.existsById(produtoId)
+                        ? new BusinessException("Produto não pertence à empresa")
+                        : new NotFoundException("Produto não encontrado"));
+    }
+
+    /**
+     * Produtos na ordem dos IDs informados, com a categoria carregada na mesma consulta
+     */
+    private List<ProdutoDTO> listarPorIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Produto> produtos = produtoRepository.findComCategoriaByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+        return ids.stream()
+                .map(produtos::get)
+                .filter(produto -> produto != null)
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    private Long obterCategoriaId(ProdutoDTO produtoDTO) {
+        if (produtoDTO.getCategoriaId() != null) {
+            return produtoDTO.getCategoriaId();
+        }
+        if (produtoDTO.getCategoria() != null) {
+            return produtoDTO.getCategoria().getId();
+        }
+        return null;
+    }
+
     private ProdutoDTO convertToDTO(Produto produto) {
         ProdutoDTO dto = new ProdutoDTO();
         dto.setId(produto.getId());
@@ -0,0 +1,203 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.service.empresa.RelatorioCache.Chave;
+import com.delivery.util.RankingUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Produtos mais vendidos por empresa e mês: quantidade e receita, sem pedidos cancelados.
+ *
+ * Meses encerrados são agregados uma vez a partir dos itens de pedido e mantidos no RelatorioCache,
+ * que descarta a entrada quando um pedido do mês é alterado (um cancelamento tardio). O mês corrente vem de
+ * contadores em memória, atualizados a cada pedido (após o commit), carregados na inicialização
+ * e reconciliados periodicamente com o banco.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProdutosMaisVendidosService {
+
+    // Ordem crescente do ranking: quantidade, receita e, no empate, o menor ID fica à frente
+    private static final Comparator<ProdutoVendido> RANKING = Comparator
+            .comparingLong(ProdutoVendido::quantidade)
+            .thenComparing(ProdutoVendido::receita)
+            .thenComparing(ProdutoVendido::produtoId, Comparator.reverseOrder());
+
+    private final PedidoRepository pedidoRepository;
+    private final RelatorioCache relatorioCache;
+
+    @Value("${app.produtos-mais-vendidos.limite-maximo:100}")
+    private int limiteMaximo;
+
+    private final Object trava = new Object();
+
+    // Substituído por inteiro na virada do mês e a cada reconciliação
+    private volatile MesCorrente mesCorrente = new MesCorrente(YearMonth.now(), new ConcurrentHashMap<>());
+
+    // Alterações recebidas enquanto uma reconciliação lê o banco (protegido por trava)
+    private List<PedidoDTO> alteracoesDuranteReconciliacao;
+
+    /**
+     * Os limite produtos mais vendidos da empresa no mês, do maior para o menor
+     */
+    public List<ProdutoVendido> listar(Long empresaId, YearMonth mes, int limite) {
+        int quantidade = Math.max(1, Math.min(limite, limiteMaximo));
+        YearMonth atual = YearMonth.now();
+
+        if (mes.isAfter(atual)) {
+            return List.of();
+        }
+
+        if (mes.equals(atual)) {
+            MesCorrente corrente = mesCorrente;
+            // Sem nenhum pedido desde a virada, os contadores ainda são do mês anterior
+            if (!corrente.mes().equals(atual)) {
+                return List.of();
+            }
+            return selecionarMaiores(corrente.produtosPorEmpresa().getOrDefault(empresaId, Map.of()).values(), quantidade);
+        }
+
+        // Ranking do mês encerrado, já limitado a limiteMaximo
+        List<ProdutoVendido> ranking = relatorioCache.obter(
+                new Chave(empresaId, "produtos-mais-vendidos", mes.atDay(1), mes.atEndOfMonth()), false, () -> {
+                    List<ProdutoVendido> produtos = pedidoRepository.somarItensVendidos(empresaId,
+                                    mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay()).stream()
+                            .map(linha -> produtoVendido(linha, 0))
+                            .toList();
+                    return selecionarMaiores(produtos, limiteMaximo);
+                });
+        return ranking.subList(0, Math.min(quantidade, ranking.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    /**
+     * Recalcula os contadores do mês corrente a partir do banco e troca os atuais de uma vez.
+     * Alterações confirmadas durante a leitura são reaplicadas antes da troca.
+     */
+    @Scheduled(initialDelayString = "${app.produtos-mais-vendidos.reconciliacao-ms:600000}",
+            fixedDelayString = "${app.produtos-mais-vendidos.reconciliacao-ms:600000}")
+    public void reconciliar() {
+        YearMonth mes = YearMonth.now();
+        synchronized (trava) {
+            alteracoesDuranteReconciliacao = new ArrayList<>();
+        }
+
+        Map<Long, Map<Long, ProdutoVendido>> novosContadores = new ConcurrentHashMap<>();
+        try {
+            for (Object[] linha : pedidoRepository.somarItensVendidosPorEmpresa(
+                    mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay())) {
+                novosContadores.computeIfAbsent((Long) linha[0], id -> new ConcurrentHashMap<>())
+                        .put((Long) linha[1], produtoVendido(linha, 1));
+            }
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                alteracoesDuranteReconciliacao = null;
+            }
+            log.error("Falha ao reconciliar os produtos mais vendidos", e);
+            return;
+        }
+
+        synchronized (trava) {
+            MesCorrente novo = new MesCorrente(mes, novosContadores);
+            alteracoesDuranteReconciliacao.forEach(pedido -> novo.aplicar(pedido, sinal(pedido)));
+            alteracoesDuranteReconciliacao = null;
+            if (!mesCorrente.mes().isAfter(mes)) {
+                mesCorrente = novo;
+            }
+        }
+
+        log.debug("Produtos mais vendidos reconciliados: {} empresa(s) com vendas em {}", novosContadores.size(), mes);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        PedidoDTO pedido = evento.getPedido();
+        if (pedido.getDataPedido() == null || pedido.getItens() == null) {
+            return;
+        }
+
+        StatusPedido anterior = evento.getStatusAnterior();
+        boolean cancelado = pedido.getStatus() == StatusPedido.CANCELADO;
+        boolean criado = anterior == null && !cancelado;
+        boolean cancelamento = anterior != null && anterior != StatusPedido.CANCELADO && cancelado;
+        if (!criado && !cancelamento) {
+            return;
+        }
+
+        YearMonth mes = YearMonth.from(pedido.getDataPedido());
+        synchronized (trava) {
+            if (mes.isAfter(mesCorrente.mes())) {
+                mesCorrente = new MesCorrente(mes, new ConcurrentHashMap<>());
+            }
+
+            if (mes.equals(mesCorrente.mes())) {
+                mesCorrente.aplicar(pedido, sinal(pedido));
+                if (alteracoesDuranteReconciliacao != null) {
+                    alteracoesDuranteReconciliacao.add(pedido);
+                }
+            }
+        }
+    }
+
+    // Somas do mês corrente podem zerar com cancelamentos: esses produtos não entram no ranking
+    private static List<ProdutoVendido> selecionarMaiores(Collection<ProdutoVendido> produtos, int quantidade) {
+        return RankingUtils.maiores(produtos.stream().filter(produto -> produto.quantidade() > 0).iterator(),
+                quantidade, RANKING);
+    }
+
+    // Pedido criado soma; pedido cancelado depois de criado subtrai
+    private static int sinal(PedidoDTO pedido) {
+        return pedido.getStatus() == StatusPedido.CANCELADO ? -1 : 1;
+    }
+
+    private static ProdutoVendido produtoVendido(Object[] linha, int inicio) {
+        return new ProdutoVendido((Long) linha[inicio], (String) linha[inicio + 1],
+                ((Number) linha[inicio + 2]).longValue(), (BigDecimal) linha[inicio + 3]);
+    }
+
+    public record ProdutoVendido(Long produtoId, String nome, long quantidade, BigDecimal receita) {
+
+        ProdutoVendido somar(ProdutoVendido outro) {
+            return new ProdutoVendido(produtoId, nome, quantidade + outro.quantidade, receita.add(outro.receita));
+        }
+    }
+
+    // Empresa -> (produto -> vendido) dos pedidos de mes
+    private record MesCorrente(YearMonth mes, Map<Long, Map<Long, ProdutoVendido>> produtosPorEmpresa) {
+
+        void aplicar(PedidoDTO pedido, int sinal) {
+            Map<Long, ProdutoVendido> produtos = produtosPorEmpresa
+                    .computeIfAbsent(pedido.getEmpresaId(), id -> new ConcurrentHashMap<>());
+            for (PedidoDTO.ItemPedidoDTO item : pedido.getItens()) {
+                ProdutoVendido vendido = new ProdutoVendido(item.getProdutoId(), item.getNomeProduto(),
+                        sinal * (long) item.getQuantidade(), item.getSubtotal().multiply(BigDecimal.valueOf(sinal)));
+                produtos.merge(item.getProdutoId(), vendido, ProdutoVendido::somar);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.delivery.service.empresa;
+
+import com.delivery.event.FeedbackCriadoEvent;
+import com.delivery.event.PedidoAlteradoEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos relatórios da empresa, por tipo e período, limitado por LRU.
+ *
+ * Cada entrada guarda o intervalo de dias dos pedidos que o relatório lê e se usa avaliações.
+ * Após o commit, um pedido criado ou alterado descarta as entradas da empresa cujo intervalo
+ * contém a data do pedido, e um feedback descarta as que usam avaliações. Assim, períodos
+ * encerrados ficam em cache até um cancelamento tardio, e o período corrente até o próximo pedido.
+ */
+@Component
+public class RelatorioCache {
+
+    @Value("${app.relatorio-cache.max-entradas:5000}")
+    private int maxEntradas;
+
+    private Map<Chave, Entrada> entradas;
+
+    // Incrementada a cada invalidação: um relatório calculado durante uma invalidação não é guardado
+    private final Map<Long, Long> versaoPorEmpresa = new ConcurrentHashMap<>();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        entradas = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, Entrada> maisAntiga) {
+                return size() > maxEntradas;
+            }
+        });
+    }
+
+    /**
+     * Relatório que lê apenas os pedidos do próprio período da chave
+     */
+    public <T> T obter(Chave chave, boolean usaAvaliacoes, Supplier<T> calcular) {
+        return obter(chave, chave.inicio(), chave.fim(), usaAvaliacoes, calcular);
+    }
+
+    /**
+     * Relatório em cache ou calculado agora; dadosInicio e dadosFim delimitam os dias dos pedidos lidos
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(Chave chave, LocalDate dadosInicio, LocalDate dadosFim, boolean usaAvaliacoes,
+                       Supplier<T> calcular) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null) {
+            acertos.increment();
+            return (T) entrada.valor();
+        }
+
+        falhas.increment();
+        long versao = versaoPorEmpresa.getOrDefault(chave.empresaId(), 0L);
+        T valor = calcular.get();
+
+        synchronized (entradas) {
+            if (versaoPorEmpresa.getOrDefault(chave.empresaId(), 0L) == versao) {
+                entradas.put(chave, new Entrada(valor, dadosInicio, dadosFim, usaAvaliacoes));
+            }
+        }
+        return valor;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        LocalDate dia = evento.getPedido().getDataPedido() != null
+                ? evento.getPedido().getDataPedido().toLocalDate()
+                : LocalDate.now();
+
+        invalidar(evento.getEmpresaId(),
+                entrada -> !dia.isBefore(entrada.dadosInicio()) && !dia.isAfter(entrada.dadosFim()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoCriarFeedback(FeedbackCriadoEvent evento) {
+        invalidar(evento.getEmpresaId(), Entrada::usaAvaliacoes);
+    }
+
+    public Estatisticas getEstatisticas() {
+        long totalAcertos = acertos.sum();
+        long totalFalhas = falhas.sum();
+        long consultas = totalAcertos + totalFalhas;
+
+        return new Estatisticas(totalAcertos, totalFalhas, entradas.size(),
+                consultas > 0 ? (double) totalAcertos / consultas : 0.0);
+    }
+
+    private void invalidar(Long empresaId, Predicate<Entrada> afetada) {
+        synchronized (entradas) {
+            versaoPorEmpresa.merge(empresaId, 1L, Long::sum);
+            entradas.entrySet().removeIf(e -> e.getKey().empresaId().equals(empresaId) && afetada.test(e.getValue()));
+        }
+    }
+
+    /**
+     * Identifica o relatório: tipo (com os parâmetros além do período, se houver) e período
+     */
+    public record Chave(Long empresaId, String tipo, LocalDate inicio, LocalDate fim) {
+    }
+
+    public record Estatisticas(long acertos, long falhas, int entradas, double taxaAcerto) {
+    }
+
+    private record Entrada(Object valor, LocalDate dadosInicio, LocalDate dadosFim, boolean usaAvaliacoes) {
+    }
+}
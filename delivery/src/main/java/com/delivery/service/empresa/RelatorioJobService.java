@@ -0,0 +1,262 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.dto.empresa.RelatorioJobDTO;
+import com.delivery.dto.empresa.RelatorioJobDTO.Status;
+import com.delivery.exception.BusinessException;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.exception.NotFoundException;
+import com.delivery.exception.ServicoSobrecarregadoException;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.util.DateUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relatórios anuais e de períodos longos gerados em segundo plano.
+ *
+ * A requisição só registra o job e devolve o ID; poucas threads geram os relatórios, com fila limitada
+ * e um número máximo de jobs em andamento por empresa. O mesmo relatório pedido de novo enquanto está
+ * em andamento recebe o job existente, e o resultado fica em memória por app.relatorio-jobs.ttl-resultado-ms.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RelatorioJobService {
+
+    private static final String EVENTO_JOB = "relatorio-job";
+
+    private final RelatorioService relatorioService;
+    private final UsuarioLogado usuarioLogado;
+
+    @Value("${app.relatorio-jobs.threads:2}")
+    private int threads;
+
+    @Value("${app.relatorio-jobs.fila:50}")
+    private int capacidadeFila;
+
+    @Value("${app.relatorio-jobs.max-por-empresa:2}")
+    private int maxPorEmpresa;
+
+    @Value("${app.relatorio-jobs.ttl-resultado-ms:300000}")
+    private long ttlResultadoMs;
+
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutSseMs;
+
+    private final Map<String, Job> jobsPorId = new ConcurrentHashMap<>();
+
+    // Protegidos pela trava: deduplicação e contagem por empresa precisam ser decididas juntas
+    private final Map<ChaveJob, Job> jobsPorChave = new HashMap<>();
+    private final Map<Long, Integer> emAndamentoPorEmpresa = new HashMap<>();
+    private final Object trava = new Object();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+                    Thread thread = new Thread(tarefa, "relatorio-jobs-" + contador.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public RelatorioJobDTO submeterRelatorioAnual(String emailEmpresa, int ano) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        return submeter(new ChaveJob(empresaId, LocalDate.of(ano, 1, 1), LocalDate.of(ano, 12, 31), true));
+    }
+
+    public RelatorioJobDTO submeterRelatorioPorPeriodo(String emailEmpresa, String dataInicio, String dataFim) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        LocalDate inicio = DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD);
+        LocalDate fim = DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD);
+        if (fim.isBefore(inicio)) {
+            throw new BusinessException("Data final anterior à data inicial");
+        }
+
+        return submeter(new ChaveJob(empresaId, inicio, fim, false));
+    }
+
+    public RelatorioJobDTO consultar(String id, String emailEmpresa) {
+        return paraDTO(buscar(id, emailEmpresa));
+    }
+
+    public RelatorioDTO obterResultado(String id, String emailEmpresa) {
+        Job job = buscar(id, emailEmpresa);
+
+        if (job.status == Status.FALHOU) {
+            throw new BusinessException(job.erro);
+        }
+        if (job.status != Status.CONCLUIDO) {
+            throw new BusinessException("Relatório ainda em processamento");
+        }
+        return job.resultado;
+    }
+
+    /**
+     * Stream com um único evento, enviado quando o job termina (na hora, se já terminou)
+     */
+    public SseEmitter acompanhar(String id, String emailEmpresa) {
+        Job job = buscar(id, emailEmpresa);
+
+        SseEmitter emitter = new SseEmitter(timeoutSseMs);
+        job.conclusao.thenRun(() -> {
+            try {
+                emitter.send(SseEmitter.event().name(EVENTO_JOB).data(paraDTO(job)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou stream expirado: o status continua disponível para consulta
+                log.debug("Não foi possível notificar a conclusão do relatório {}: {}", job.id, e.getMessage());
+            }
+        });
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.relatorio-jobs.limpeza-ms:60000}")
+    public void removerExpirados() {
+        long agora = System.currentTimeMillis();
+
+        synchronized (trava) {
+            jobsPorChave.values().removeIf(job -> job.expirado(agora));
+        }
+        jobsPorId.values().removeIf(job -> job.expirado(agora));
+    }
+
+    private RelatorioJobDTO submeter(ChaveJob chave) {
+        synchronized (trava) {
+            // Mesmo relatório em andamento ou com resultado em memória: reaproveita o job
+            Job existente = jobsPorChave.get(chave);
+            if (existente != null && existente.status != Status.FALHOU
+                    && !existente.expirado(System.currentTimeMillis())) {
+                return paraDTO(existente);
+            }
+
+            if (emAndamentoPorEmpresa.getOrDefault(chave.empresaId(), 0) >= maxPorEmpresa) {
+                throw new LimiteExcedidoException(
+                        "Limite de relatórios em processamento atingido, aguarde a conclusão dos anteriores");
+            }
+
+            Job job = new Job(UUID.randomUUID().toString(), chave);
+            try {
+                executor.execute(() -> executar(job));
+            } catch (RejectedExecutionException e) {
+                throw new ServicoSobrecarregadoException("Muitos relatórios em processamento, tente novamente em instantes");
+            }
+
+            if (existente != null) {
+                jobsPorId.remove(existente.id);
+            }
+            jobsPorId.put(job.id, job);
+            jobsPorChave.put(chave, job);
+            emAndamentoPorEmpresa.merge(chave.empresaId(), 1, Integer::sum);
+            return paraDTO(job);
+        }
+    }
+
+    private void executar(Job job) {
+        ChaveJob chave = job.chave;
+        job.status = Status.EXECUTANDO;
+
+        try {
+            job.resultado = relatorioService.gerarRelatorio(chave.empresaId(), chave.inicio(), chave.fim(), chave.anual());
+            job.terminar(Status.CONCLUIDO, ttlResultadoMs);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gerar o relatório {} da empresa {}", job.id, chave.empresaId(), e);
+            job.erro = "Falha ao gerar o relatório, tente novamente";
+            job.terminar(Status.FALHOU, ttlResultadoMs);
+        } finally {
+            synchronized (trava) {
+                emAndamentoPorEmpresa.computeIfPresent(chave.empresaId(), (id, total) -> total > 1 ? total - 1 : null);
+            }
+            job.conclusao.complete(null);
+        }
+    }
+
+    /**
+     * Jobs de outra empresa são tratados como inexistentes
+     */
+    private Job buscar(String id, String emailEmpresa) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        Job job = jobsPorId.get(id);
+        if (job == null || job.expirado(System.currentTimeMillis()) || !job.chave.empresaId().equals(empresaId)) {
+            throw new NotFoundException("Relatório não encontrado");
+        }
+        return job;
+    }
+
+    private static RelatorioJobDTO paraDTO(Job job) {
+        RelatorioJobDTO dto = new RelatorioJobDTO();
+        dto.setId(job.id);
+        dto.setStatus(job.status);
+        dto.setAnual(job.chave.anual());
+        dto.setDataInicio(job.chave.inicio());
+        dto.setDataFim(job.chave.fim());
+        dto.setCriadoEm(job.criadoEm);
+        dto.setConcluidoEm(job.concluidoEm);
+        dto.setErro(job.erro);
+        return dto;
+    }
+
+    private record ChaveJob(Long empresaId, LocalDate inicio, LocalDate fim, boolean anual) {
+    }
+
+    private static final class Job {
+        private final String id;
+        private final ChaveJob chave;
+        private final LocalDateTime criadoEm = LocalDateTime.now();
+        private final CompletableFuture<Void> conclusao = new CompletableFuture<>();
+
+        private volatile Status status = Status.PENDENTE;
+        private volatile RelatorioDTO resultado;
+        private volatile String erro;
+        private volatile LocalDateTime concluidoEm;
+        private volatile long expiraEm = Long.MAX_VALUE;
+
+        private Job(String id, ChaveJob chave) {
+            this.id = id;
+            this.chave = chave;
+        }
+
+        // O status é escrito por último: quem o lê como terminado já enxerga resultado e datas
+        private void terminar(Status statusFinal, long ttlMs) {
+            concluidoEm = LocalDateTime.now();
+            expiraEm = System.currentTimeMillis() + ttlMs;
+            status = statusFinal;
+        }
+
+        private boolean expirado(long agora) {
+            return agora >= expiraEm;
+        }
+    }
+}
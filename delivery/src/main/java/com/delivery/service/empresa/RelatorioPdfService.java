@@ -0,0 +1,180 @@
+package com.delivery.service.empresa;
+
+import com.delivery.entity.Empresa;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.VendaDiariaRepositoryCustom.Periodo;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.empresa.ProdutosMaisVendidosService.ProdutoVendido;
+import com.delivery.service.empresa.VendaDiariaService.Metricas;
+import com.delivery.service.empresa.VendaDiariaService.ResumoVendas;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extrato mensal em PDF: resumo do mês, vendas por dia e produtos mais vendidos.
+ *
+ * O documento é escrito direto na resposta à medida que é montado. A montagem roda no executor
+ * das exportações (ver WebConfig), fora das threads das requisições.
+ */
+@Service
+@RequiredArgsConstructor
+public class RelatorioPdfService {
+
+    private static final int PRODUTOS_NO_RELATORIO = 10;
+
+    private static final Locale PT_BR = new Locale("pt", "BR");
+
+    private static final Font TITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+    private static final Font SECAO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font CABECALHO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    private static final Font TEXTO = FontFactory.getFont(FontFactory.HELVETICA, 9);
+
+    private final EmpresaRepository empresaRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final VendaDiariaService vendaDiariaService;
+    private final ProdutosMaisVendidosService produtosMaisVendidosService;
+
+    /**
+     * Resolve a empresa na requisição; consultas e montagem rodam quando o corpo da resposta é gerado
+     */
+    public StreamingResponseBody exportarRelatorioMensal(String emailEmpresa, int mes, int ano) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+        YearMonth periodo = YearMonth.of(ano, mes);
+
+        return saida -> escrever(saida, empresaId, periodo);
+    }
+
+    private void escrever(OutputStream saida, Long empresaId, YearMonth mes) throws IOException {
+        // Dias até hoje (ou o mês inteiro, se encerrado) e o mês completo, numa única consulta
+        LocalDate ultimoDia = mes.equals(YearMonth.now()) ? LocalDate.now() : mes.atEndOfMonth();
+        List<Periodo> periodos = new ArrayList<>();
+        periodos.add(new Periodo(mes.atDay(1), mes.atEndOfMonth()));
+        for (LocalDate dia = mes.atDay(1); !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            periodos.add(new Periodo(dia, dia));
+        }
+        Metricas metricas = vendaDiariaService.consultar(empresaId, periodos, true);
+        List<ProdutoVendido> produtos = produtosMaisVendidosService.listar(empresaId, mes, PRODUTOS_NO_RELATORIO);
+        String empresa = empresaRepository.findById(empresaId).map(Empresa::getNomeFantasia).orElse("");
+
+        Document documento = new Document(PageSize.A4, 36, 36, 36, 36);
+        try {
+            PdfWriter escritor = PdfWriter.getInstance(documento, saida);
+            // Quem fecha a saída é o Spring, ao terminar a resposta
+            escritor.setCloseStream(false);
+            documento.open();
+
+            documento.add(new Paragraph("Relatório mensal - " + empresa, TITULO));
+            documento.add(new Paragraph(String.format("Período: %02d/%d", mes.getMonthValue(), mes.getYear()), TEXTO));
+
+            documento.add(secao("Resumo"));
+            documento.add(resumo(metricas));
+
+            documento.add(secao("Vendas por dia"));
+            documento.add(vendasPorDia(metricas.getPeriodos().subList(1, periodos.size()), mes));
+
+            documento.add(secao("Produtos mais vendidos"));
+            documento.add(produtosMaisVendidos(produtos));
+        } catch (DocumentException e) {
+            throw new IOException("Falha ao gerar o PDF do relatório", e);
+        } finally {
+            if (documento.isOpen()) {
+                documento.close();
+            }
+        }
+    }
+
+    private static PdfPTable resumo(Metricas metricas) {
+        ResumoVendas mes = metricas.getPeriodos().get(0);
+        BigDecimal ticketMedio = mes.getPedidos() > 0
+                ? mes.getTotal().divide(BigDecimal.valueOf(mes.getPedidos()), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+
+        PdfPTable tabela = tabela(new float[]{3, 2});
+        linha(tabela, "Faturamento", moeda(mes.getTotal()));
+        linha(tabela, "Pedidos", String.valueOf(mes.getPedidos()));
+        linha(tabela, "Pedidos cancelados", String.valueOf(mes.getCancelados()));
+        linha(tabela, "Ticket médio", moeda(ticketMedio));
+        linha(tabela, "Avaliação média", metricas.getAvaliacaoMedia() != null
+                ? String.format(PT_BR, "%.1f (%d avaliações)", metricas.getAvaliacaoMedia(), metricas.getTotalAvaliacoes())
+                : "Sem avaliações");
+        linha(tabela, "Produtos ativos", metricas.getProdutosAtivos() + " de " + metricas.getTotalProdutos());
+        return tabela;
+    }
+
+    private static PdfPTable vendasPorDia(List<ResumoVendas> dias, YearMonth mes) {
+        PdfPTable tabela = tabela(new float[]{2, 2, 2, 3});
+        cabecalho(tabela, "Dia", "Pedidos", "Cancelados", "Faturamento");
+        for (int i = 0; i < dias.size(); i++) {
+            ResumoVendas dia = dias.get(i);
+            linha(tabela, String.format("%02d/%02d", i + 1, mes.getMonthValue()), String.valueOf(dia.getPedidos()),
+                    String.valueOf(dia.getCancelados()), moeda(dia.getTotal()));
+        }
+        return tabela;
+    }
+
+    private static PdfPTable produtosMaisVendidos(List<ProdutoVendido> produtos) {
+        PdfPTable tabela = tabela(new float[]{6, 2, 3});
+        cabecalho(tabela, "Produto", "Quantidade", "Receita");
+        for (ProdutoVendido produto : produtos) {
+            linha(tabela, produto.nome(), String.valueOf(produto.quantidade()), moeda(produto.receita()));
+        }
+        return tabela;
+    }
+
+    private static Paragraph secao(String titulo) {
+        Paragraph paragrafo = new Paragraph(titulo, SECAO);
+        paragrafo.setSpacingBefore(14);
+        paragrafo.setSpacingAfter(6);
+        return paragrafo;
+    }
+
+    private static PdfPTable tabela(float[] larguras) {
+        PdfPTable tabela = new PdfPTable(larguras);
+        tabela.setWidthPercentage(100);
+        return tabela;
+    }
+
+    private static void cabecalho(PdfPTable tabela, String... titulos) {
+        for (String titulo : titulos) {
+            tabela.addCell(new PdfPCell(new Phrase(titulo, CABECALHO)));
+        }
+        tabela.setHeaderRows(1);
+    }
+
+    // Primeira coluna é o rótulo; as demais, valores alinhados à direita
+    private static void linha(PdfPTable tabela, String... valores) {
+        for (int i = 0; i < valores.length; i++) {
+            PdfPCell celula = new PdfPCell(new Phrase(valores[i], TEXTO));
+            if (i > 0) {
+                celula.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            }
+            tabela.addCell(celula);
+        }
+    }
+
+    private static String moeda(BigDecimal valor) {
+        return String.format(PT_BR, "R$ %.2f", valor);
+    }
+}
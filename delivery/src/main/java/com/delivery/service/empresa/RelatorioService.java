@@ -2,20 +2,21 @@ package com.delivery.service.empresa;
 
 import com.delivery.dto.empresa.RelatorioDTO;
 import com.delivery.entity.Empresa;
-import com.delivery.exception.NotFoundException;
 import com.delivery.repository.EmpresaRepository;
-import com.delivery.repository.FeedbackRepository;
-import com.delivery.repository.PedidoRepository;
-import com.delivery.repository.ProdutoRepository;
+import com.delivery.repository.VendaDiariaRepositoryCustom.Periodo;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.empresa.RelatorioCache.Chave;
+import com.delivery.service.empresa.VendaDiariaService.Metricas;
+import com.delivery.service.empresa.VendaDiariaService.ResumoVendas;
 import com.delivery.util.DateUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -23,55 +24,65 @@ import java.util.Map;
 public class RelatorioService {
 
     private final EmpresaRepository empresaRepository;
-    private final PedidoRepository pedidoRepository;
-    private final FeedbackRepository feedbackRepository;
-    private final ProdutoRepository produtoRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final VendaDiariaService vendaDiariaService;
+    private final ProdutosMaisVendidosService produtosMaisVendidosService;
+    private final ClientesFrequentesService clientesFrequentesService;
+    private final RelatorioCache relatorioCache;
 
     public RelatorioDTO gerarRelatorioMensal(String emailEmpresa, int mes, int ano) {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
         YearMonth yearMonth = YearMonth.of(ano, mes);
-        LocalDateTime inicioMes = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime fimMes = yearMonth.atEndOfMonth().atTime(23, 59, 59);
 
-        return criarRelatorio(empresa, inicioMes, fimMes, false);
+        return relatorio(empresa.getId(), yearMonth.atDay(1), yearMonth.atEndOfMonth(), false);
     }
 
     public RelatorioDTO gerarRelatorioAnual(String emailEmpresa, int ano) {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
-        LocalDateTime inicioAno = LocalDateTime.of(ano, 1, 1, 0, 0, 0);
-        LocalDateTime fimAno = LocalDateTime.of(ano, 12, 31, 23, 59, 59);
-
-        return criarRelatorio(empresa, inicioAno, fimAno, true);
+        return relatorio(empresa.getId(), LocalDate.of(ano, 1, 1), LocalDate.of(ano, 12, 31), true);
     }
 
     public RelatorioDTO gerarRelatorioPorPeriodo(String emailEmpresa, String dataInicio, String dataFim) {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
-        LocalDateTime inicio = DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD).atStartOfDay();
-        LocalDateTime fim = DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD).atTime(23, 59, 59);
+        LocalDate inicio = DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD);
+        LocalDate fim = DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD);
+
+        return relatorio(empresa.getId(), inicio, fim, false);
+    }
 
-        return criarRelatorio(empresa, inicio, fim, false);
+    /**
+     * Relatório pelo ID da empresa, para geração fora da requisição (ver RelatorioJobService)
+     */
+    public RelatorioDTO gerarRelatorio(Long empresaId, LocalDate inicio, LocalDate fim, boolean isAnual) {
+        return relatorio(empresaId, inicio, fim, isAnual);
     }
 
     public Map<String, Object> gerarRelatorioVendas(String emailEmpresa, int mes, int ano) {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
         YearMonth yearMonth = YearMonth.of(ano, mes);
-        LocalDateTime inicioMes = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime fimMes = yearMonth.atEndOfMonth().atTime(23, 59, 59);
 
+        return relatorioCache.obter(new Chave(empresa.getId(), "vendas", yearMonth.atDay(1), yearMonth.atEndOfMonth()),
+                false, () -> criarRelatorioVendas(empresa, yearMonth));
+    }
+
+    private Map<String, Object> criarRelatorioVendas(Empresa empresa, YearMonth yearMonth) {
         Map<String, Object> relatorio = new HashMap<>();
 
         // Vendas do período
-        BigDecimal vendas = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicioMes, fimMes);
-        Long quantidadePedidos = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicioMes, fimMes);
+        ResumoVendas resumo = vendaDiariaService.resumir(empresa.getId(), yearMonth.atDay(1), yearMonth.atEndOfMonth());
+        BigDecimal vendas = resumo.getTotal();
+        long quantidadePedidos = resumo.getPedidos();
 
-        relatorio.put("vendas", vendas != null ? vendas : BigDecimal.ZERO);
+        relatorio.put("vendas", vendas);
         relatorio.put("quantidadePedidos", quantidadePedidos);
+        relatorio.put("pedidosCancelados", resumo.getCancelados());
+        relatorio.put("vendasPorFormaPagamento", resumo.getTotalPorFormaPagamento());
         relatorio.put("ticketMedio", quantidadePedidos > 0 ?
-                (vendas != null ? vendas.divide(BigDecimal.valueOf(quantidadePedidos), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO)
+                vendas.divide(BigDecimal.valueOf(quantidadePedidos), 2, java.math.RoundingMode.HALF_UP)
                 : BigDecimal.ZERO);
 
         return relatorio;
@@ -81,8 +92,8 @@ public class RelatorioService {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
         Map<String, Object> relatorio = new HashMap<>();
-        // Implementação básica - pode ser expandida com query específica
-        relatorio.put("produtosMaisVendidos", new java.util.ArrayList<>());
+        relatorio.put("produtosMaisVendidos",
+                produtosMaisVendidosService.listar(empresa.getId(), YearMonth.of(ano, mes), limite));
         relatorio.put("periodo", mes + "/" + ano);
         relatorio.put("limite", limite);
 
@@ -93,8 +104,8 @@ public class RelatorioService {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
         Map<String, Object> relatorio = new HashMap<>();
-        // Implementação básica - pode ser expandida com query específica
-        relatorio.put("clientesFrequentes", new java.util.ArrayList<>());
+        relatorio.put("clientesFrequentes",
+                clientesFrequentesService.listar(empresa.getId(), YearMonth.of(ano, mes), limite));
         relatorio.put("periodo", mes + "/" + ano);
         relatorio.put("limite", limite);
 
@@ -109,29 +120,22 @@ public class RelatorioService {
         // Dados do mês atual
         LocalDate hoje = LocalDate.now();
         YearMonth mesAtual = YearMonth.from(hoje);
-        LocalDateTime inicioMes = mesAtual.atDay(1).atStartOfDay();
-        LocalDateTime fimMes = mesAtual.atEndOfMonth().atTime(23, 59, 59);
 
-        // Vendas do mês
-        BigDecimal vendasMes = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicioMes, fimMes);
-        Long pedidosMes = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicioMes, fimMes);
+        // Vendas do mês, produtos e avaliações em uma única consulta
+        Metricas metricas = vendaDiariaService.consultar(empresa.getId(),
+                List.of(new Periodo(mesAtual.atDay(1), mesAtual.atEndOfMonth())), true);
+        ResumoVendas vendasMes = metricas.getPeriodos().get(0);
 
-        dashboard.put("vendasMes", vendasMes != null ? vendasMes : BigDecimal.ZERO);
-        dashboard.put("pedidosMes", pedidosMes);
+        dashboard.put("vendasMes", vendasMes.getTotal());
+        dashboard.put("pedidosMes", vendasMes.getPedidos());
 
         // Produtos
-        Long totalProdutos = produtoRepository.countByEmpresaId(empresa.getId());
-        Long produtosAtivos = produtoRepository.countByEmpresaIdAndAtivoTrue(empresa.getId());
-
-        dashboard.put("totalProdutos", totalProdutos);
-        dashboard.put("produtosAtivos", produtosAtivos);
+        dashboard.put("totalProdutos", metricas.getTotalProdutos());
+        dashboard.put("produtosAtivos", metricas.getProdutosAtivos());
 
         // Avaliações
-        Double avaliacaoMedia = feedbackRepository.findAvaliacaoMediaByEmpresaId(empresa.getId());
-        Long totalAvaliacoes = feedbackRepository.countByEmpresaId(empresa.getId());
-
-        dashboard.put("avaliacaoMedia", avaliacaoMedia != null ? avaliacaoMedia : 0.0);
-        dashboard.put("totalAvaliacoes", totalAvaliacoes);
+        dashboard.put("avaliacaoMedia", metricas.getAvaliacaoMedia() != null ? metricas.getAvaliacaoMedia() : 0.0);
+        dashboard.put("totalAvaliacoes", metricas.getTotalAvaliacoes());
 
         return dashboard;
     }
@@ -139,43 +143,51 @@ public class RelatorioService {
     public Map<String, Object> gerarRelatorioComparativo(String emailEmpresa, int mesAtual, int anoAtual) {
         Empresa empresa = buscarEmpresaPorEmail(emailEmpresa);
 
-        Map<String, Object> comparativo = new HashMap<>();
-
         // Mês atual
         YearMonth mesAtualYM = YearMonth.of(anoAtual, mesAtual);
-        LocalDateTime inicioMesAtual = mesAtualYM.atDay(1).atStartOfDay();
-        LocalDateTime fimMesAtual = mesAtualYM.atEndOfMonth().atTime(23, 59, 59);
 
         // Mês anterior
         YearMonth mesAnteriorYM = mesAtualYM.minusMonths(1);
-        LocalDateTime inicioMesAnterior = mesAnteriorYM.atDay(1).atStartOfDay();
-        LocalDateTime fimMesAnterior = mesAnteriorYM.atEndOfMonth().atTime(23, 59, 59);
+
+        return relatorioCache.obter(
+                new Chave(empresa.getId(), "comparativo", mesAnteriorYM.atDay(1), mesAtualYM.atEndOfMonth()),
+                false, () -> criarRelatorioComparativo(empresa, mesAtualYM, mesAnteriorYM));
+    }
+
+    private Map<String, Object> criarRelatorioComparativo(Empresa empresa, YearMonth mesAtualYM, YearMonth mesAnteriorYM) {
+        Map<String, Object> comparativo = new HashMap<>();
+
+        // Mês atual e anterior na mesma consulta
+        List<ResumoVendas> periodos = vendaDiariaService.consultar(empresa.getId(), List.of(
+                new Periodo(mesAtualYM.atDay(1), mesAtualYM.atEndOfMonth()),
+                new Periodo(mesAnteriorYM.atDay(1), mesAnteriorYM.atEndOfMonth())), false).getPeriodos();
 
         // Dados mês atual
-        BigDecimal vendasAtual = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicioMesAtual, fimMesAtual);
-        Long pedidosAtual = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicioMesAtual, fimMesAtual);
+        ResumoVendas resumoAtual = periodos.get(0);
+        BigDecimal vendasAtual = resumoAtual.getTotal();
+        long pedidosAtual = resumoAtual.getPedidos();
 
         // Dados mês anterior
-        BigDecimal vendasAnterior = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicioMesAnterior, fimMesAnterior);
-        Long pedidosAnterior = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicioMesAnterior, fimMesAnterior);
+        ResumoVendas resumoAnterior = periodos.get(1);
+        BigDecimal vendasAnterior = resumoAnterior.getTotal();
+        long pedidosAnterior = resumoAnterior.getPedidos();
 
         comparativo.put("mesAtual", Map.of(
-                "vendas", vendasAtual != null ? vendasAtual : BigDecimal.ZERO,
+                "vendas", vendasAtual,
                 "pedidos", pedidosAtual,
-                "periodo", mesAtual + "/" + anoAtual
+                "periodo", mesAtualYM.getMonthValue() + "/" + mesAtualYM.getYear()
         ));
 
         comparativo.put("mesAnterior", Map.of(
-                "vendas", vendasAnterior != null ? vendasAnterior : BigDecimal.ZERO,
+                "vendas", vendasAnterior,
                 "pedidos", pedidosAnterior,
                 "periodo", mesAnteriorYM.getMonthValue() + "/" + mesAnteriorYM.getYear()
         ));
 
         // Variações percentuais
-        if (vendasAnterior != null && vendasAnterior.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal variacaoVendas = vendasAtual != null ?
-                    vendasAtual.subtract(vendasAnterior).divide(vendasAnterior, 4, java.math.RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)) :
-                    BigDecimal.valueOf(-100);
+        if (vendasAnterior.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal variacaoVendas = vendasAtual.subtract(vendasAnterior)
+                    .divide(vendasAnterior, 4, java.math.RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
             comparativo.put("variacaoVendas", variacaoVendas);
         } else {
             comparativo.put("variacaoVendas", BigDecimal.ZERO);
@@ -191,69 +203,62 @@ public class RelatorioService {
         return comparativo;
     }
 
-    public byte[] exportarRelatorioPDF(String emailEmpresa, int mes, int ano) {
-        // Implementação básica - retorna um PDF simples
-        // Em uma implementação real, você usaria uma biblioteca como iText ou JasperReports
-        RelatorioDTO relatorio = gerarRelatorioMensal(emailEmpresa, mes, ano);
-
-        String conteudo = String.format(
-                "RELATÓRIO MENSAL\n\n" +
-                        "Período: %02d/%d\n" +
-                        "Faturamento: R$ %.2f\n" +
-                        "Pedidos: %d\n" +
-                        "Ticket Médio: R$ %.2f\n" +
-                        "Avaliação Média: %.1f\n",
-                mes, ano,
-                relatorio.getFaturamentoMensal(),
-                relatorio.getQuantidadePedidosMensal(),
-                relatorio.getTicketMedio(),
-                relatorio.getAvaliacaoMedia()
-        );
-
-        return conteudo.getBytes();
-    }
-
+    /**
+     * Os relatórios só usam o ID: a referência evita consultar a empresa
+     */
     private Empresa buscarEmpresaPorEmail(String email) {
-        return empresaRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+        return empresaRepository.getReferenceById(usuarioLogado.empresaId(email));
     }
 
-    private RelatorioDTO criarRelatorio(Empresa empresa, LocalDateTime inicio, LocalDateTime fim, boolean isAnual) {
-        RelatorioDTO relatorio = new RelatorioDTO();
+    /**
+     * Os relatórios não anuais também trazem o ano de inicio, então dependem dos pedidos do ano inteiro
+     */
+    private RelatorioDTO relatorio(Long empresaId, LocalDate inicio, LocalDate fim, boolean isAnual) {
+        Chave chave = new Chave(empresaId, isAnual ? "anual" : "periodo", inicio, fim);
+        if (isAnual) {
+            return relatorioCache.obter(chave, true, () -> criarRelatorio(empresaId, inicio, fim, true));
+        }
 
-        // Faturamento do período
-        BigDecimal faturamentoPeriodo = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicio, fim);
+        LocalDate inicioAno = LocalDate.of(inicio.getYear(), 1, 1);
+        LocalDate fimAno = LocalDate.of(inicio.getYear(), 12, 31);
+        return relatorioCache.obter(chave, inicio.isBefore(inicioAno) ? inicio : inicioAno,
+                fim.isAfter(fimAno) ? fim : fimAno, true, () -> criarRelatorio(empresaId, inicio, fim, false));
+    }
 
-        if (isAnual) {
-            relatorio.setFaturamentoAnual(faturamentoPeriodo != null ? faturamentoPeriodo : BigDecimal.ZERO);
-            relatorio.setFaturamentoMensal(BigDecimal.ZERO);
-        } else {
-            relatorio.setFaturamentoMensal(faturamentoPeriodo != null ? faturamentoPeriodo : BigDecimal.ZERO);
+    /**
+     * Período, ano do período (nos relatórios não anuais) e avaliações em uma única consulta
+     */
+    private RelatorioDTO criarRelatorio(Long empresaId, LocalDate inicio, LocalDate fim, boolean isAnual) {
+        RelatorioDTO relatorio = new RelatorioDTO();
 
-            // Para relatório mensal, também calcular o anual
-            LocalDateTime inicioAno = LocalDateTime.of(inicio.getYear(), 1, 1, 0, 0, 0);
-            LocalDateTime fimAno = LocalDateTime.of(inicio.getYear(), 12, 31, 23, 59, 59);
-            BigDecimal faturamentoAnual = pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresa.getId(), inicioAno, fimAno);
-            relatorio.setFaturamentoAnual(faturamentoAnual != null ? faturamentoAnual : BigDecimal.ZERO);
-        }
+        List<Periodo> periodos = isAnual
+                ? List.of(new Periodo(inicio, fim))
+                : List.of(new Periodo(inicio, fim),
+                        new Periodo(LocalDate.of(inicio.getYear(), 1, 1), LocalDate.of(inicio.getYear(), 12, 31)));
+        Metricas metricas = vendaDiariaService.consultar(empresaId, periodos, true);
 
-        // Quantidade de pedidos
-        Long pedidosPeriodo = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicio, fim);
+        // Faturamento e quantidade de pedidos do período
+        ResumoVendas periodo = metricas.getPeriodos().get(0);
+        BigDecimal faturamentoPeriodo = periodo.getTotal();
+        long pedidosPeriodo = periodo.getPedidos();
 
         if (isAnual) {
-            relatorio.setQuantidadePedidosAnual(pedidosPeriodo.intValue());
+            relatorio.setFaturamentoAnual(faturamentoPeriodo);
+            relatorio.setFaturamentoMensal(BigDecimal.ZERO);
+            relatorio.setQuantidadePedidosAnual((int) pedidosPeriodo);
             relatorio.setQuantidadePedidosMensal(0);
         } else {
-            relatorio.setQuantidadePedidosMensal(pedidosPeriodo.intValue());
+            relatorio.setFaturamentoMensal(faturamentoPeriodo);
+            relatorio.setQuantidadePedidosMensal((int) pedidosPeriodo);
 
-            LocalDateTime inicioAno = LocalDateTime.of(inicio.getYear(), 1, 1, 0, 0, 0);
-            LocalDateTime fimAno = LocalDateTime.of(inicio.getYear(), 12, 31, 23, 59, 59);
-            Long pedidosAnual = pedidoRepository.countByEmpresaIdAndPeriodo(empresa.getId(), inicioAno, fimAno);
-            relatorio.setQuantidadePedidosAnual(pedidosAnual.intValue());
+            // Para relatório mensal, também o anual
+            ResumoVendas ano = metricas.getPeriodos().get(1);
+            relatorio.setFaturamentoAnual(ano.getTotal());
+            relatorio.setQuantidadePedidosAnual((int) ano.getPedidos());
         }
 
         // Ticket médio
-        if (pedidosPeriodo > 0 && faturamentoPeriodo != null) {
+        if (pedidosPeriodo > 0) {
             BigDecimal ticketMedio = faturamentoPeriodo.divide(BigDecimal.valueOf(pedidosPeriodo), 2, java.math.RoundingMode.HALF_UP);
             relatorio.setTicketMedio(ticketMedio);
         } else {
@@ -261,11 +266,8 @@ public class RelatorioService {
         }
 
         // Avaliações
-        Double avaliacaoMedia = feedbackRepository.findAvaliacaoMediaByEmpresaId(empresa.getId());
-        relatorio.setAvaliacaoMedia(avaliacaoMedia != null ? avaliacaoMedia : 0.0);
-
-        Long totalAvaliacoes = feedbackRepository.countByEmpresaId(empresa.getId());
-        relatorio.setTotalAvaliacoes(totalAvaliacoes.intValue());
+        relatorio.setAvaliacaoMedia(metricas.getAvaliacaoMedia() != null ? metricas.getAvaliacaoMedia() : 0.0);
+        relatorio.setTotalAvaliacoes(metricas.getTotalAvaliacoes().intValue());
 
         return relatorio;
     }
@@ -0,0 +1,159 @@
+package com.delivery.service.empresa;
+
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.repository.VendaDiariaRepository;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.empresa.RelatorioCache.Chave;
+import com.delivery.util.DateUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Série de vendas da empresa em intervalos de hora, dia, semana ou mês, para gráficos.
+ *
+ * Uma consulta traz só os dias (ou horas) com vendas; a série densa, com zero nos intervalos sem
+ * vendas, é montada aqui em arrays. As séries ficam no RelatorioCache.
+ */
+@Service
+@RequiredArgsConstructor
+public class SerieVendasService {
+
+    private final VendaDiariaRepository vendaDiariaRepository;
+    private final PedidoRepository pedidoRepository;
+    private final UsuarioLogado usuarioLogado;
+    private final RelatorioCache relatorioCache;
+
+    @Value("${app.serie-vendas.max-pontos:1000}")
+    private int maxPontos;
+
+    public enum Intervalo {
+        HORA,
+        DIA,
+        SEMANA,
+        MES
+    }
+
+    public SerieVendas gerarSerie(String emailEmpresa, String dataInicio, String dataFim, Intervalo intervalo) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        LocalDate inicio = DateUtils.parseDate(dataInicio, DateUtils.FORMATTER_YYYY_MM_DD);
+        LocalDate fim = DateUtils.parseDate(dataFim, DateUtils.FORMATTER_YYYY_MM_DD);
+
+        return consultar(empresaId, inicio, fim, intervalo);
+    }
+
+    /**
+     * Série entre as datas (inclusive). O primeiro ponto de SEMANA é a segunda-feira da semana
+     * de inicio; o de MES, o dia 1 do mês de inicio
+     */
+    public SerieVendas consultar(Long empresaId, LocalDate inicio, LocalDate fim, Intervalo intervalo) {
+        if (fim.isBefore(inicio)) {
+            throw new BusinessException("Data final anterior à data inicial");
+        }
+        LocalDateTime origem = origem(inicio, intervalo);
+        int pontos = indice(origem, fim.atStartOfDay(), intervalo) + (intervalo == Intervalo.HORA ? 24 : 1);
+        if (pontos > maxPontos) {
+            throw new BusinessException("Período longo demais para o intervalo " + intervalo.name().toLowerCase()
+                    + ": máximo de " + maxPontos + " pontos");
+        }
+
+        return relatorioCache.obter(new Chave(empresaId, "serie-" + intervalo.name(), inicio, fim), false,
+                () -> montar(empresaId, inicio, fim, intervalo, origem, pontos));
+    }
+
+    private SerieVendas montar(Long empresaId, LocalDate inicio, LocalDate fim, Intervalo intervalo,
+                               LocalDateTime origem, int pontos) {
+        LocalDate hoje = LocalDate.now();
+        boolean encerrado = fim.isBefore(hoje);
+
+        long[] pedidos = new long[pontos];
+        long[] cancelados = new long[pontos];
+        long[] centavos = new long[pontos];
+        if (intervalo == Intervalo.HORA) {
+            for (Object[] linha : pedidoRepository.somarVendasPorHora(
+                    empresaId, inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay())) {
+                LocalDateTime hora = data(linha[0]).atTime(((Number) linha[1]).intValue(), 0);
+                acumular(indice(origem, hora, intervalo), linha, 2, pedidos, cancelados, centavos);
+            }
+        } else {
+            // Dias encerrados vêm da tabela consolidada; o dia de hoje, dos pedidos
+            LocalDate fimConsolidado = encerrado ? fim : hoje.minusDays(1);
+            boolean incluiHoje = !encerrado && !inicio.isAfter(hoje);
+            LocalDateTime inicioPedidos = incluiHoje ? hoje.atStartOfDay() : inicio.atStartOfDay();
+            LocalDateTime fimPedidos = incluiHoje ? hoje.plusDays(1).atStartOfDay() : inicioPedidos;
+
+            for (Object[] linha : vendaDiariaRepository.somarPorDia(
+                    empresaId, inicio, fimConsolidado, inicioPedidos, fimPedidos)) {
+                acumular(indice(origem, data(linha[0]).atStartOfDay(), intervalo), linha, 1,
+                        pedidos, cancelados, centavos);
+            }
+        }
+
+        LocalDateTime[] inicios = new LocalDateTime[pontos];
+        BigDecimal[] total = new BigDecimal[pontos];
+        for (int i = 0; i < pontos; i++) {
+            inicios[i] = deslocar(origem, i, intervalo);
+            total[i] = BigDecimal.valueOf(centavos[i], 2);
+        }
+        return new SerieVendas(intervalo, inicio, fim, inicios, pedidos, cancelados, total);
+    }
+
+    private static void acumular(int indice, Object[] linha, int coluna,
+                                 long[] pedidos, long[] cancelados, long[] centavos) {
+        pedidos[indice] += ((Number) linha[coluna]).longValue();
+        cancelados[indice] += ((Number) linha[coluna + 1]).longValue();
+        if (linha[coluna + 2] != null) {
+            centavos[indice] += new BigDecimal(linha[coluna + 2].toString())
+                    .setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+
+    private static LocalDateTime origem(LocalDate inicio, Intervalo intervalo) {
+        return switch (intervalo) {
+            case HORA, DIA -> inicio.atStartOfDay();
+            case SEMANA -> inicio.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MES -> inicio.withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    private static int indice(LocalDateTime origem, LocalDateTime momento, Intervalo intervalo) {
+        return (int) switch (intervalo) {
+            case HORA -> ChronoUnit.HOURS.between(origem, momento);
+            case DIA -> ChronoUnit.DAYS.between(origem, momento);
+            case SEMANA -> ChronoUnit.WEEKS.between(origem, momento);
+            case MES -> ChronoUnit.MONTHS.between(YearMonth.from(origem), YearMonth.from(momento));
+        };
+    }
+
+    private static LocalDateTime deslocar(LocalDateTime origem, int pontos, Intervalo intervalo) {
+        return switch (intervalo) {
+            case HORA -> origem.plusHours(pontos);
+            case DIA -> origem.plusDays(pontos);
+            case SEMANA -> origem.plusWeeks(pontos);
+            case MES -> origem.plusMonths(pontos);
+        };
+    }
+
+    // Colunas DATE de consultas nativas chegam como java.sql.Date ou LocalDate, conforme o driver
+    private static LocalDate data(Object valor) {
+        return valor instanceof java.sql.Date data ? data.toLocalDate() : (LocalDate) valor;
+    }
+
+    /**
+     * Pontos da série, todos do mesmo tamanho: inicios[i] é o começo do intervalo i
+     */
+    public record SerieVendas(Intervalo intervalo, LocalDate dataInicio, LocalDate dataFim, LocalDateTime[] inicios,
+                              long[] pedidos, long[] cancelados, BigDecimal[] total) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.repository.VendaDiariaRepository;
+import com.delivery.repository.VendaDiariaRepositoryCustom.Periodo;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vendas diárias consolidadas por empresa, usadas pelos relatórios no lugar de somar pedidos.
+ *
+ * Cada pedido criado ou cancelado atualiza a linha do seu dia logo após o commit do pedido, em
+ * transação própria. Uma reconstrução diária recalcula os últimos dias a partir de pedidos, corrigindo
+ * alterações feitas fora do PedidoService e incrementos perdidos. Os relatórios leem o dia corrente
+ * direto dos pedidos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VendaDiariaService {
+
+    private final VendaDiariaRepository vendaDiariaRepository;
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.vendas-diarias.dias-reconstrucao:3}")
+    private int diasReconstrucao;
+
+    private TransactionTemplate novaTransacao;
+
+    @PostConstruct
+    public void iniciar() {
+        novaTransacao = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Fora da transação do pedido, a linha (empresa, dia, forma de pagamento) fica travada só pelo
+     * upsert, sem serializar os pedidos da empresa nem se misturar aos grupos da ingestão. Roda antes
+     * da invalidação do RelatorioCache, para que um relatório recalculado já veja o incremento
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        PedidoDTO pedido = evento.getPedido();
+        if (pedido.getDataPedido() == null) {
+            return;
+        }
+
+        boolean cancelado = pedido.getStatus() == StatusPedido.CANCELADO;
+        if (evento.getStatusAnterior() == null) {
+            acumular(pedido, 1, cancelado ? 1 : 0, cancelado ? BigDecimal.ZERO : pedido.getTotal());
+        } else if (cancelado && evento.getStatusAnterior() != StatusPedido.CANCELADO) {
+            acumular(pedido, 0, 1, pedido.getTotal().negate());
+        }
+    }
+
+    /**
+     * Resumo de vendas da empresa entre as datas (inclusive)
+     */
+    @Transactional(readOnly = true)
+    public ResumoVendas resumir(Long empresaId, LocalDate inicio, LocalDate fim) {
+        return consultar(empresaId, List.of(new Periodo(inicio, fim)), false).getPeriodos().get(0);
+    }
+
+    /**
+     * Vendas de cada período e, opcionalmente, os indicadores de catálogo e avaliações, tudo em uma
+     * única consulta. Dias anteriores a hoje vêm da tabela consolidada; o dia de hoje, dos pedidos
+     */
+    @Transactional(readOnly = true)
+    public Metricas consultar(Long empresaId, List<Periodo> periodos, boolean incluirIndicadores) {
+        List<Object[]> linhas = vendaDiariaRepository.consultarMetricas(
+                empresaId, periodos, LocalDate.now(), incluirIndicadores);
+
+        Metricas metricas = new Metricas();
+        for (int i = 0; i < periodos.size(); i++) {
+            ResumoVendas resumo = new ResumoVendas();
+            for (Object[] linha : linhas) {
+                resumo.somar((String) linha[0], linha, 1 + i * 3);
+            }
+            metricas.periodos.add(resumo);
+        }
+
+        if (incluirIndicadores) {
+            Object[] linha = linhas.get(0);
+            int indice = 1 + periodos.size() * 3;
+            metricas.totalProdutos = ((Number) linha[indice]).longValue();
+            metricas.produtosAtivos = ((Number) linha[indice + 1]).longValue();
+            metricas.avaliacaoMedia = linha[indice + 2] != null ? ((Number) linha[indice + 2]).doubleValue() : null;
+            metricas.totalAvaliacoes = ((Number) linha[indice + 3]).longValue();
+        }
+        return metricas;
+    }
+
+    /**
+     * Na primeira subida com a tabela vazia, consolida todo o histórico de pedidos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarHistorico() {
+        if (vendaDiariaRepository.findPrimeiroDia() != null) {
+            return;
+        }
+
+        LocalDateTime primeiroPedido = pedidoRepository.findPrimeiraData();
+        if (primeiroPedido != null) {
+            reconstruir(primeiroPedido.toLocalDate(), LocalDate.now());
+        }
+    }
+
+    /**
+     * Recalcula os últimos dias já encerrados; o dia corrente é sempre lido dos pedidos
+     */
+    @Scheduled(cron = "${app.vendas-diarias.cron-reconstrucao:0 30 3 * * *}")
+    public void reconstruirRecentes() {
+        LocalDate ontem = LocalDate.now().minusDays(1);
+        reconstruir(ontem.minusDays(diasReconstrucao - 1L), ontem);
+    }
+
+    /**
+     * Recalcula a partir de pedidos as vendas dos dias informados (inclusive), um mês por transação
+     */
+    public void reconstruir(LocalDate inicio, LocalDate fim) {
+        long linhas = 0;
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusMonths(1).withDayOfMonth(1)) {
+            LocalDate inicioBloco = dia;
+            LocalDate fimBloco = dia.withDayOfMonth(dia.lengthOfMonth()).isBefore(fim)
+                    ? dia.withDayOfMonth(dia.lengthOfMonth())
+                    : fim;
+
+            Integer inseridas = transactionTemplate.execute(status -> {
+                vendaDiariaRepository.deleteByDiaBetween(inicioBloco, fimBloco);
+                return vendaDiariaRepository.inserirAPartirDePedidos(
+                        inicioBloco.atStartOfDay(), fimBloco.plusDays(1).atStartOfDay());
+            });
+            linhas += inseridas != null ? inseridas : 0;
+        }
+        log.info("Vendas diárias reconstruídas de {} a {}: {} linhas", inicio, fim, linhas);
+    }
+
+    private void acumular(PedidoDTO pedido, long pedidos, long cancelados, BigDecimal total) {
+        try {
+            novaTransacao.executeWithoutResult(status -> vendaDiariaRepository.acumular(pedido.getEmpresaId(),
+                    pedido.getDataPedido().toLocalDate(), pedido.getFormaPagamento().name(), pedidos, cancelados, total));
+        } catch (RuntimeException e) {
+            // O pedido já foi confirmado: a reconstrução diária corrige a linha
+            log.warn("Falha ao consolidar a venda do pedido {}: {}", pedido.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Totais de um período, no geral e por forma de pagamento
+     */
+    @Getter
+    public static class ResumoVendas {
+        private long pedidos;
+        private long cancelados;
+        private BigDecimal total = BigDecimal.ZERO;
+        private final Map<FormaPagamento, BigDecimal> totalPorFormaPagamento = new EnumMap<>(FormaPagamento.class);
+
+        // Colunas [pedidos, cancelados, total] de um período, a partir de inicio
+        void somar(String formaPagamento, Object[] linha, int inicio) {
+            long pedidosDaLinha = linha[inicio] != null ? ((Number) linha[inicio]).longValue() : 0;
+            BigDecimal valor = linha[inicio + 2] != null ? new BigDecimal(linha[inicio + 2].toString()) : BigDecimal.ZERO;
+            pedidos += pedidosDaLinha;
+            cancelados += linha[inicio + 1] != null ? ((Number) linha[inicio + 1]).longValue() : 0;
+            total = total.add(valor);
+            if (formaPagamento != null && pedidosDaLinha > 0) {
+                totalPorFormaPagamento.merge(FormaPagamento.valueOf(formaPagamento), valor, BigDecimal::add);
+            }
+        }
+    }
+
+    /**
+     * Resultado de consultar: um resumo por período, na ordem pedida, e os indicadores
+     * (nulos quando não solicitados)
+     */
+    @Getter
+    public static class Metricas {
+        private final List<ResumoVendas> periodos = new ArrayList<>();
+        private Long totalProdutos;
+        private Long produtosAtivos;
+        private Double avaliacaoMedia;
+        private Long totalAvaliacoes;
+    }
+}
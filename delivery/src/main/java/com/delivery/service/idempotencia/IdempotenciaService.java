@@ -0,0 +1,200 @@
+package com.delivery.service.idempotencia;
+
+import com.delivery.entity.ChaveIdempotencia;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.repository.ChaveIdempotenciaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deduplicação de requisições pelo header Idempotency-Key.
+ *
+ * A tabela chaves_idempotencia é a fonte da verdade (vale entre instâncias e guarda a resposta
+ * pelo TTL). Em memória fica só o registro limitado das requisições em andamento nesta instância,
+ * para que uma repetição que chega antes da original terminar espere por ela em vez de executar de novo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaService {
+
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Value("${app.idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${app.idempotencia.reserva-ms:120000}")
+    private long reservaMs;
+
+    @Value("${app.idempotencia.espera-ms:5000}")
+    private long esperaMs;
+
+    @Value("${app.idempotencia.max-em-andamento:1000}")
+    private int maxEmAndamento;
+
+    private final Map<String, EmAndamento> emAndamento = new ConcurrentHashMap<>();
+
+    public enum Situacao {
+        /** Primeira requisição com a chave: deve ser executada e depois concluída ou liberada */
+        NOVA,
+        /** Já executada: a resposta gravada deve ser repetida */
+        REPETIDA,
+        /** Original ainda em execução (nesta ou em outra instância) */
+        EM_ANDAMENTO,
+        /** Chave já usada com outra requisição */
+        CONFLITO
+    }
+
+    public record Inicio(Situacao situacao, ChaveIdempotencia registro) {
+    }
+
+    /**
+     * Reserva a chave para esta requisição ou informa o que fazer com a repetição
+     */
+    public Inicio iniciar(String usuario, String chave, String hashRequisicao) {
+        String chaveInterna = usuario + ":" + chave;
+
+        EmAndamento anterior = emAndamento.get(chaveInterna);
+        if (anterior != null) {
+            if (!anterior.hashRequisicao.equals(hashRequisicao)) {
+                return new Inicio(Situacao.CONFLITO, null);
+            }
+            // Repetição enquanto a original executa: espera e depois consulta a resposta gravada
+            if (!anterior.aguardar(esperaMs)) {
+                return new Inicio(Situacao.EM_ANDAMENTO, null);
+            }
+        }
+
+        if (emAndamento.size() >= maxEmAndamento) {
+            throw new LimiteExcedidoException("Muitas requisições em andamento, tente novamente");
+        }
+
+        EmAndamento atual = new EmAndamento(hashRequisicao);
+        if (emAndamento.putIfAbsent(chaveInterna, atual) != null) {
+            return new Inicio(Situacao.EM_ANDAMENTO, null);
+        }
+
+        Inicio inicio;
+        try {
+            inicio = reservar(usuario, chave, hashRequisicao);
+        } catch (RuntimeException e) {
+            encerrar(chaveInterna, atual);
+            throw e;
+        }
+
+        if (inicio.situacao() != Situacao.NOVA) {
+            encerrar(chaveInterna, atual);
+        }
+        return inicio;
+    }
+
+    /**
+     * Grava a resposta da requisição original. Erros 5xx não são gravados: a repetição executa de novo.
+     * Só libera quem está esperando depois da gravação confirmada
+     */
+    public void concluir(ChaveIdempotencia registro, int statusHttp, String contentType, String corpoResposta) {
+        try {
+            if (statusHttp >= 500) {
+                chaveIdempotenciaRepository.deleteById(registro.getId());
+            } else {
+                chaveIdempotenciaRepository.concluir(registro.getId(), statusHttp, contentType, corpoResposta,
+                        LocalDateTime.now().plusHours(ttlHoras));
+            }
+        } finally {
+            encerrar(registro);
+        }
+    }
+
+    /**
+     * Libera a chave quando a requisição original falhou sem resposta
+     */
+    public void liberar(ChaveIdempotencia registro) {
+        try {
+            chaveIdempotenciaRepository.deleteById(registro.getId());
+        } finally {
+            encerrar(registro);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotencia.limpeza-ms:3600000}")
+    public void limparExpiradas() {
+        int removidas = chaveIdempotenciaRepository.deleteExpiradas(LocalDateTime.now());
+        if (removidas > 0) {
+            log.debug("Chaves de idempotência expiradas removidas: {}", removidas);
+        }
+    }
+
+    private Inicio reservar(String usuario, String chave, String hashRequisicao) {
+        // Duas tentativas: a primeira pode encontrar uma reserva expirada ou perder a corrida para outra instância
+        for (int tentativa = 0; tentativa < 2; tentativa++) {
+            LocalDateTime agora = LocalDateTime.now();
+            Optional<ChaveIdempotencia> existente = chaveIdempotenciaRepository.findByUsuarioAndChave(usuario, chave);
+
+            if (existente.isPresent()) {
+                ChaveIdempotencia registro = existente.get();
+                if (registro.getExpiraEm().isBefore(agora)) {
+                    chaveIdempotenciaRepository.deleteExpiradaById(registro.getId(), agora);
+                    continue;
+                }
+                if (!registro.getHashRequisicao().equals(hashRequisicao)) {
+                    return new Inicio(Situacao.CONFLITO, null);
+                }
+                return new Inicio(registro.isConcluida() ? Situacao.REPETIDA : Situacao.EM_ANDAMENTO, registro);
+            }
+
+            ChaveIdempotencia registro = new ChaveIdempotencia();
+            registro.setUsuario(usuario);
+            registro.setChave(chave);
+            registro.setHashRequisicao(hashRequisicao);
+            registro.setExpiraEm(agora.plusNanos(reservaMs * 1_000_000));
+            try {
+                return new Inicio(Situacao.NOVA, chaveIdempotenciaRepository.saveAndFlush(registro));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Chave de idempotência reservada por outra instância: {}", chave);
+            }
+        }
+        return new Inicio(Situacao.EM_ANDAMENTO, null);
+    }
+
+    private void encerrar(ChaveIdempotencia registro) {
+        String chaveInterna = registro.getUsuario() + ":" + registro.getChave();
+        EmAndamento atual = emAndamento.get(chaveInterna);
+        if (atual != null) {
+            encerrar(chaveInterna, atual);
+        }
+    }
+
+    private void encerrar(String chaveInterna, EmAndamento atual) {
+        emAndamento.remove(chaveInterna, atual);
+        atual.concluida.countDown();
+    }
+
+    private static class EmAndamento {
+        private final String hashRequisicao;
+        private final CountDownLatch concluida = new CountDownLatch(1);
+
+        EmAndamento(String hashRequisicao) {
+            this.hashRequisicao = hashRequisicao;
+        }
+
+        boolean aguardar(long esperaMs) {
+            try {
+                return concluida.await(esperaMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.delivery.service.notificacao;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.security.UsuarioLogado;
+import com.delivery.service.cliente.PedidoService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Acompanhamento de pedidos em tempo real via Server-Sent Events.
+ *
+ * Cada assinante tem uma fila limitada: se o cliente estiver lento, os eventos mais antigos
+ * são descartados (cada evento já traz o pedido completo). Um estado que não seja mais novo que o
+ * último enfileirado para o assinante é ignorado, já que a leitura inicial e os eventos após o commit
+ * podem chegar fora de ordem. Conexões ociosas não ocupam threads; poucas threads de entrega atendem
+ * todos os assinantes, e quem trava um envio por mais de app.sse.timeout-envio-ms é desconectado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PedidoStreamService {
+
+    private static final String EVENTO_PEDIDO = "pedido";
+
+    private final PedidoService pedidoService;
+    private final UsuarioLogado usuarioLogado;
+
+    @Value("${app.sse.max-conexoes:5000}")
+    private int maxConexoes;
+
+    @Value("${app.sse.max-conexoes-por-usuario:5}")
+    private int maxConexoesPorUsuario;
+
+    @Value("${app.sse.buffer-por-assinante:16}")
+    private int bufferPorAssinante;
+
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.sse.threads-entrega:4}")
+    private int threadsEntrega;
+
+    @Value("${app.sse.timeout-envio-ms:10000}")
+    private long timeoutEnvioMs;
+
+    private final Map<Long, Set<Assinatura>> assinaturasPorPedido = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Assinatura>> assinaturasPorEmpresa = new ConcurrentHashMap<>();
+    private final Map<String, Integer> conexoesPorUsuario = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConexoes = new AtomicInteger();
+
+    private ExecutorService entregador;
+
+    @PostConstruct
+    public void iniciar() {
+        entregador = Executors.newFixedThreadPool(threadsEntrega, tarefa -> {
+            Thread thread = new Thread(tarefa, "sse-entrega");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stream de um pedido do cliente. O primeiro evento é o estado atual do pedido;
+     * o stream é encerrado quando o pedido é entregue ou cancelado
+     */
+    public SseEmitter assinarPedido(Long pedidoId, String emailCliente) {
+        return assinarPedido(pedidoId, emailCliente, new SseEmitter(timeoutMs));
+    }
+
+    /**
+     * Stream com todos os pedidos novos e alterados da empresa
+     */
+    public SseEmitter assinarEmpresa(String emailEmpresa) {
+        return assinarEmpresa(emailEmpresa, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter assinarPedido(Long pedidoId, String emailCliente, SseEmitter emitter) {
+        // Registra antes de ler o estado atual: uma transição confirmada entre a leitura e o registro
+        // seria perdida (e, se final, o stream nunca fecharia). Se ela chegar antes da leitura, o
+        // estado lido, mais antigo, é ignorado por enfileirar
+        Assinatura assinatura = registrar(assinaturasPorPedido, pedidoId, emailCliente, true, emitter);
+        PedidoDTO atual;
+        try {
+            // Também valida que o pedido pertence ao cliente
+            atual = pedidoService.buscarPedidoDoCliente(pedidoId, emailCliente);
+        } catch (RuntimeException e) {
+            assinatura.remocao.run();
+            throw e;
+        }
+
+        enfileirar(assinatura, atual);
+        return assinatura.emitter;
+    }
+
+    SseEmitter assinarEmpresa(String emailEmpresa, SseEmitter emitter) {
+        Long empresaId = usuarioLogado.empresaId(emailEmpresa);
+
+        return registrar(assinaturasPorEmpresa, empresaId, emailEmpresa, false, emitter).emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoAlterarPedido(PedidoAlteradoEvent evento) {
+        notificar(assinaturasPorPedido.get(evento.getPedidoId()), evento.getPedido());
+        notificar(assinaturasPorEmpresa.get(evento.getEmpresaId()), evento.getPedido());
+    }
+
+    /**
+     * Mantém as conexões vivas atrás de proxies e detecta clientes desconectados
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:15000}")
+    public void enviarHeartbeat() {
+        assinaturasPorPedido.values().forEach(assinaturas -> assinaturas.forEach(this::enfileirarHeartbeat));
+        assinaturasPorEmpresa.values().forEach(assinaturas -> assinaturas.forEach(this::enfileirarHeartbeat));
+    }
+
+    /**
+     * Desconecta assinantes com um envio parado há mais de app.sse.timeout-envio-ms, para que um
+     * cliente que não lê o socket não prenda as threads de entrega dos demais
+     */
+    @Scheduled(fixedDelayString = "${app.sse.timeout-envio-ms:10000}")
+    public void desconectarEnviosTravados() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(timeoutEnvioMs);
+        assinaturasPorPedido.values().forEach(assinaturas -> assinaturas.forEach(a -> desconectarSeTravada(a, limite)));
+        assinaturasPorEmpresa.values().forEach(assinaturas -> assinaturas.forEach(a -> desconectarSeTravada(a, limite)));
+    }
+
+    public int getTotalConexoes() {
+        return totalConexoes.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        assinaturasPorPedido.values().forEach(assinaturas -> assinaturas.forEach(a -> a.emitter.complete()));
+        assinaturasPorEmpresa.values().forEach(assinaturas -> assinaturas.forEach(a -> a.emitter.complete()));
+        entregador.shutdownNow();
+    }
+
+    private Assinatura registrar(Map<Long, Set<Assinatura>> indice, Long chave, String usuario,
+                                 boolean encerrarEmStatusFinal, SseEmitter emitter) {
+        reservarConexao(usuario);
+
+        Assinatura assinatura = new Assinatura(emitter, usuario, encerrarEmStatusFinal,
+                new ArrayBlockingQueue<>(bufferPorAssinante));
+        assinatura.remocao = () -> remover(indice, chave, assinatura);
+
+        indice.compute(chave, (k, assinaturas) -> {
+            Set<Assinatura> conjunto = assinaturas != null ? assinaturas : ConcurrentHashMap.newKeySet();
+            conjunto.add(assinatura);
+            return conjunto;
+        });
+
+        emitter.onCompletion(assinatura.remocao);
+        emitter.onTimeout(assinatura.remocao);
+        emitter.onError(erro -> assinatura.remocao.run());
+        return assinatura;
+    }
+
+    private void notificar(Set<Assinatura> assinaturas, PedidoDTO pedido) {
+        if (assinaturas != null) {
+            assinaturas.forEach(assinatura -> enfileirar(assinatura, pedido));
+        }
+    }
+
+    private void enfileirar(Assinatura assinatura, PedidoDTO pedido) {
+        boolean encerrar = assinatura.encerrarEmStatusFinal && !pedido.getStatus().isAtivo();
+        // O ID do evento é a versão do pedido, para o Last-Event-ID apontar um estado e não só o pedido
+        Mensagem mensagem = new Mensagem(SseEmitter.event()
+                .name(EVENTO_PEDIDO)
+                .id(pedido.getId() + ":" + pedido.getStatus() + ":" + pedido.getDataAtualizacao())
+                .data(pedido), encerrar);
+
+        synchronized (assinatura) {
+            PedidoDTO anterior = assinatura.ultimos.get(pedido.getId());
+            if (anterior != null && !pedido.isMaisNovoQue(anterior)) {
+                return;
+            }
+            assinatura.ultimos.put(pedido.getId(), pedido);
+
+            // Fila cheia: descarta o evento mais antigo, o mais recente já traz o estado atual
+            while (!assinatura.fila.offer(mensagem)) {
+                assinatura.fila.poll();
+            }
+        }
+        agendarEntrega(assinatura);
+    }
+
+    private void enfileirarHeartbeat(Assinatura assinatura) {
+        // Se já houver eventos pendentes, eles mesmos servem de heartbeat
+        if (assinatura.fila.isEmpty() && assinatura.fila.offer(new Mensagem(SseEmitter.event().comment("ping"), false))) {
+            agendarEntrega(assinatura);
+        }
+    }
+
+    private void agendarEntrega(Assinatura assinatura) {
+        if (assinatura.ativa.get() && assinatura.enviando.compareAndSet(false, true)) {
+            entregador.execute(() -> entregar(assinatura));
+        }
+    }
+
+    private void entregar(Assinatura assinatura) {
+        try {
+            Mensagem mensagem;
+            while (assinatura.ativa.get() && (mensagem = assinatura.fila.poll()) != null) {
+                synchronized (assinatura) {
+                    assinatura.entregando = Thread.currentThread();
+                    assinatura.envioDesde = System.nanoTime();
+                }
+                assinatura.emitter.send(mensagem.evento());
+                synchronized (assinatura) {
+                    assinatura.entregando = null;
+                }
+                if (mensagem.encerrar()) {
+                    assinatura.emitter.complete();
+                    assinatura.remocao.run();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Assinante de pedidos desconectado ({}): {}", assinatura.usuario, e.getMessage());
+            assinatura.remocao.run();
+            assinatura.emitter.completeWithError(e);
+        } finally {
+            synchronized (assinatura) {
+                assinatura.entregando = null;
+            }
+            // Descarta a interrupção de desconectarSeTravada, caso ela tenha chegado depois do envio
+            Thread.interrupted();
+            assinatura.enviando.set(false);
+            if (!assinatura.fila.isEmpty()) {
+                agendarEntrega(assinatura);
+            }
+        }
+    }
+
+    private void desconectarSeTravada(Assinatura assinatura, long limite) {
+        synchronized (assinatura) {
+            if (assinatura.entregando == null || assinatura.envioDesde - limite > 0) {
+                return;
+            }
+            log.debug("Envio ao assinante de pedidos travado ({}), desconectando", assinatura.usuario);
+            assinatura.remocao.run();
+            // O emitter fica bloqueado pelo envio em curso; interromper a thread faz a escrita falhar
+            // e o tratamento de erro de entregar encerra a conexão
+            assinatura.entregando.interrupt();
+            assinatura.entregando = null;
+        }
+    }
+
+    private void remover(Map<Long, Set<Assinatura>> indice, Long chave, Assinatura assinatura) {
+        if (!assinatura.ativa.compareAndSet(true, false)) {
+            return;
+        }
+
+        indice.computeIfPresent(chave, (k, assinaturas) -> {
+            assinaturas.remove(assinatura);
+            return assinaturas.isEmpty() ? null : assinaturas;
+        });
+        assinatura.fila.clear();
+        liberarConexao(assinatura.usuario);
+    }
+
+    private void reservarConexao(String usuario) {
+        if (totalConexoes.incrementAndGet() > maxConexoes) {
+            totalConexoes.decrementAndGet();
+            throw new LimiteExcedidoException("Limite de conexões de acompanhamento atingido");
+        }
+
+        if (conexoesPorUsuario.merge(usuario, 1, Integer::sum) > maxConexoesPorUsuario) {
+            liberarConexao(usuario);
+            throw new LimiteExcedidoException("Limite de conexões de acompanhamento por usuário atingido");
+        }
+    }
+
+    private void liberarConexao(String usuario) {
+        totalConexoes.decrementAndGet();
+        conexoesPorUsuario.computeIfPresent(usuario, (k, conexoes) -> conexoes > 1 ? conexoes - 1 : null);
+    }
+
+    private record Mensagem(SseEmitter.SseEventBuilder evento, boolean encerrar) {
+    }
+
+    private static class Assinatura {
+        private final SseEmitter emitter;
+        private final String usuario;
+        private final boolean encerrarEmStatusFinal;
+        private final BlockingQueue<Mensagem> fila;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean ativa = new AtomicBoolean(true);
+        private Runnable remocao;
+
+        // Último estado enfileirado de cada pedido (protegido pela assinatura)
+        private final Map<Long, PedidoDTO> ultimos = new HashMap<>();
+
+        // Thread e início do envio em curso, para detectar envios travados (protegidos pela assinatura)
+        private Thread entregando;
+        private long envioDesde;
+
+        Assinatura(SseEmitter emitter, String usuario, boolean encerrarEmStatusFinal, BlockingQueue<Mensagem> fila) {
+            this.emitter = emitter;
+            this.usuario = usuario;
+            this.encerrarEmStatusFinal = encerrarEmStatusFinal;
+            this.fila = fila;
+        }
+    }
+}
@@ -23,6 +23,7 @@ public class BuscaService {
     private final EmpresaService empresaService;
     private final ProdutoService produtoService;
     private final CatalogoService catalogoService;
+    private final SugestaoBuscaService sugestaoBuscaService;
 
     public Map<String, Object> buscarTudo(BuscaDTO buscaDTO) {
         Pageable pageable = PageRequest.of(
@@ -127,24 +128,18 @@ public class BuscaService {
     }
 
     public List<String> obterSugestoesBusca(String termo) {
-        // Implementação básica de sugestões
-        // Você pode expandir isso com um mecanismo mais sofisticado
+        return obterSugestoesBusca(termo, 10);
+    }
 
+    /**
+     * Nomes de produtos, empresas e categorias com alguma palavra começando pelo termo, dos mais populares
+     */
+    public List<String> obterSugestoesBusca(String termo, int limite) {
         if (termo == null || termo.trim().length() < 2) {
             return List.of();
         }
 
-        // Sugestões fixas para demonstração
-        List<String> sugestoes = List.of(
-                "pizza", "hambúrguer", "sushi", "açaí", "lanche",
-                "comida brasileira", "comida italiana", "comida japonesa",
-                "restaurante", "lanchonete", "pizzaria", "sorveteria"
-        );
-
-        return sugestoes.stream()
-                .filter(sugestao -> sugestao.toLowerCase().contains(termo.toLowerCase()))
-                .limit(10)
-                .toList();
+        return sugestaoBuscaService.sugerir(termo, Math.min(limite, 20));
     }
 
     public Map<String, Object> obterEstatisticasBusca() {
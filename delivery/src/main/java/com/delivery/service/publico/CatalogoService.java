@@ -2,6 +2,7 @@ package com.delivery.service.publico;
 
 import com.delivery.dto.publico.CatalogoDTO;
 import com.delivery.dto.publico.CategoriaDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
 import com.delivery.dto.empresa.EmpresaDTO;
 import com.delivery.dto.empresa.ProdutoDTO;
 import com.delivery.entity.Categoria;
@@ -66,8 +67,8 @@ public class CatalogoService {
     public CatalogoDTO obterDestaques() {
         CatalogoDTO destaques = new CatalogoDTO();
 
-        // Empresas em destaque (implementação básica)
-        List<EmpresaDTO> empresasDestaque = empresaService.listarEmpresas(
+        // Empresas em destaque: as mais bem avaliadas
+        List<EmpresaDTO> empresasDestaque = empresaService.listarEmpresas(EmpresaService.Ordem.AVALIACAO,
                 org.springframework.data.domain.PageRequest.of(0, 5)
         ).getContent();
         destaques.setEmpresasDestaque(empresasDestaque);
@@ -149,14 +150,22 @@ public class CatalogoService {
         return convertToDTO(categoria);
     }
 
-    public Page<EmpresaDTO> listarEmpresasPorCategoria(Long categoriaId, Pageable pageable) {
-        return empresaService.buscarPorCategoria(categoriaId, pageable);
+    public Page<EmpresaDTO> listarEmpresasPorCategoria(Long categoriaId, EmpresaService.Ordem ordem, Pageable pageable) {
+        return empresaService.buscarPorCategoria(categoriaId, ordem, pageable);
     }
 
     public Page<ProdutoDTO> listarProdutosPorCategoria(Long categoriaId, Pageable pageable) {
         return produtoService.buscarPorCategoria(categoriaId, pageable);
     }
 
+    public PaginaCursorDTO<EmpresaDTO> listarEmpresasPorCategoriaPorCursor(Long categoriaId, String cursor, int tamanho) {
+        return empresaService.buscarPorCategoriaPorCursor(categoriaId, cursor, tamanho);
+    }
+
+    public PaginaCursorDTO<ProdutoDTO> listarProdutosPorCategoriaPorCursor(Long categoriaId, String cursor, int tamanho) {
+        return produtoService.buscarPorCategoriaPorCursor(categoriaId, cursor, tamanho);
+    }
+
     public Map<String, Object> obterEstatisticasCategoria(Long categoriaId) {
         Map<String, Object> stats = new HashMap<>();
 
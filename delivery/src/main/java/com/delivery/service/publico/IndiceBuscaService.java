@@ -0,0 +1,440 @@
+package com.delivery.service.publico;
+
+import com.delivery.event.EmpresaAlteradaEvent;
+import com.delivery.event.ProdutoAlteradoEvent;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.util.RankingUtils;
+import com.delivery.util.TextoNormalizador;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória da busca textual de produtos e empresas ativos, no lugar do
+ * LIKE '%termo%', que nenhum índice do banco atende.
+ *
+ * Nome e descrição dos produtos e o nome das empresas são reduzidos a radicais sem acento pelo
+ * TextoNormalizador. A consulta exige todos os termos e ordena por relevância: frequência saturada do
+ * termo no documento (nome vale mais que descrição) vezes o IDF do termo. A última palavra da consulta
+ * vale como prefixo ("piz" encontra "pizza"), como no LIKE, que casava trechos de palavras; as demais
+ * precisam casar o radical inteiro. Escritas em produtos e empresas são aplicadas após o commit, e
+ * reconstruir() recarrega tudo do banco. Até a primeira carga as buscas seguem pelo banco.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceBuscaService {
+
+    private static final float PESO_NOME = 3f;
+    private static final float PESO_DESCRICAO = 1f;
+
+    // Saturação da frequência, como no BM25: repetir o termo rende cada vez menos
+    private static final float K1 = 1.2f;
+
+    private static final Comparator<Ocorrencia> POR_RELEVANCIA = Comparator
+            .comparingDouble(Ocorrencia::relevancia)
+            .thenComparingLong(Ocorrencia::id);
+
+    private final ProdutoRepository produtoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.pagination.max-size:100}")
+    private int tamanhoMaximo;
+
+    private final Object trava = new Object();
+
+    // Trocados por inteiro na reconstrução (protegido por trava)
+    private volatile Indice produtos = new Indice();
+    private volatile Indice empresas = new Indice();
+    private volatile boolean pronto;
+
+    // IDs alterados enquanto uma reconstrução lê o banco (protegido por trava)
+    private Set<Long> produtosDuranteReconstrucao;
+    private Set<Long> empresasDuranteReconstrucao;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar o índice de busca; as buscas seguem pelo banco", e);
+        }
+    }
+
+    /**
+     * Recarrega os dois índices do banco e troca os atuais. Alterações ocorridas durante a leitura
+     * são reaplicadas nos novos índices
+     */
+    public Estatisticas reconstruir() {
+        synchronized (trava) {
+            produtosDuranteReconstrucao = new HashSet<>();
+            empresasDuranteReconstrucao = new HashSet<>();
+        }
+
+        Indice novosProdutos = new Indice();
+        Indice novasEmpresas = new Indice();
+        try {
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> linhas = produtoRepository.streamParaIndiceBusca()) {
+                    linhas.forEach(linha -> novosProdutos.indexar((Long) linha[0], (String) linha[1], (String) linha[2], null));
+                }
+                return null;
+            });
+            empresaRepository.findParaIndiceBusca().forEach(linha ->
+                    novasEmpresas.indexar((Long) linha[0], (String) linha[1], null, (Long) linha[2]));
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                produtosDuranteReconstrucao = null;
+                empresasDuranteReconstrucao = null;
+            }
+            throw e;
+        }
+
+        Set<Long> produtosPendentes;
+        Set<Long> empresasPendentes;
+        synchronized (trava) {
+            produtosPendentes = produtosDuranteReconstrucao;
+            empresasPendentes = empresasDuranteReconstrucao;
+            produtosDuranteReconstrucao = null;
+            empresasDuranteReconstrucao = null;
+            produtos = novosProdutos;
+            empresas = novasEmpresas;
+            pronto = true;
+        }
+        atualizarProdutos(novosProdutos, produtosPendentes);
+        empresasPendentes.forEach(empresaId -> atualizarEmpresa(novasEmpresas, empresaId));
+
+        Estatisticas estatisticas = getEstatisticas();
+        log.info("Índice de busca carregado: {} produtos, {} empresas", estatisticas.produtos(), estatisticas.empresas());
+        return estatisticas;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarProdutos(ProdutoAlteradoEvent evento) {
+        Indice indice;
+        synchronized (trava) {
+            if (produtosDuranteReconstrucao != null) {
+                produtosDuranteReconstrucao.addAll(evento.getProdutoIds());
+            }
+            indice = produtos;
+        }
+        atualizarProdutos(indice, evento.getProdutoIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarEmpresa(EmpresaAlteradaEvent evento) {
+        Indice indice;
+        synchronized (trava) {
+            if (empresasDuranteReconstrucao != null) {
+                empresasDuranteReconstrucao.add(evento.getEmpresaId());
+            }
+            indice = empresas;
+        }
+        atualizarEmpresa(indice, evento.getEmpresaId());
+    }
+
+    /**
+     * Se a busca pelo termo pode ser feita no índice: ele já foi carregado e o termo tem alguma
+     * palavra além de stopwords
+     */
+    public boolean atende(String termo) {
+        return pronto && !TextoNormalizador.termos(termo).isEmpty();
+    }
+
+    public Resultado buscarProdutos(String termo, int pagina, int tamanho) {
+        int tamanhoValido = tamanhoValido(tamanho);
+        return produtos.buscar(TextoNormalizador.termos(termo), null, (long) pagina * tamanhoValido, tamanhoValido);
+    }
+
+    public Resultado buscarEmpresas(String termo, Long categoriaId, int pagina, int tamanho) {
+        int tamanhoValido = tamanhoValido(tamanho);
+        return empresas.buscar(TextoNormalizador.termos(termo), categoriaId, (long) pagina * tamanhoValido, tamanhoValido);
+    }
+
+    // Página e tamanho vêm direto da requisição: o tamanho é limitado a app.pagination.max-size
+    private int tamanhoValido(int tamanho) {
+        return Math.max(1, Math.min(tamanho, tamanhoMaximo));
+    }
+
+    public Estatisticas getEstatisticas() {
+        Indice indiceProdutos = produtos;
+        Indice indiceEmpresas = empresas;
+        return new Estatisticas(pronto, indiceProdutos.documentos(), indiceEmpresas.documentos(),
+                indiceProdutos.termos() + indiceEmpresas.termos());
+    }
+
+    private void atualizarProdutos(Indice indice, Collection<Long> produtoIds) {
+        if (produtoIds.isEmpty()) {
+            return;
+        }
+
+        // Produto desativado ou inexistente sai do índice
+        Set<Long> removidos = new HashSet<>(produtoIds);
+        for (Object[] linha : produtoRepository.findParaIndiceBusca(produtoIds)) {
+            if (Boolean.TRUE.equals(linha[3])) {
+                indice.indexar((Long) linha[0], (String) linha[1], (String) linha[2], null);
+                removidos.remove(linha[0]);
+            }
+        }
+        removidos.forEach(indice::remover);
+    }
+
+    private void atualizarEmpresa(Indice indice, Long empresaId) {
+        Object[] linha = empresaRepository.findParaIndiceBusca(empresaId).stream().findFirst().orElse(null);
+        if (linha != null && Boolean.TRUE.equals(linha[3])) {
+            indice.indexar((Long) linha[0], (String) linha[1], null, (Long) linha[2]);
+        } else {
+            indice.remover(empresaId);
+        }
+    }
+
+    /**
+     * IDs da página em ordem de relevância e total de documentos com todos os termos
+     */
+    public record Resultado(List<Long> ids, long total) {
+    }
+
+    public record Estatisticas(boolean pronto, int produtos, int empresas, int termos) {
+    }
+
+    private record Ocorrencia(long id, double relevancia) {
+    }
+
+    /**
+     * Termo -> postagens (IDs em ordem crescente e peso do termo em cada documento). Guarda os termos
+     * de cada documento para removê-lo das postagens quando ele muda ou sai do índice
+     */
+    private static final class Indice {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Postagens> postagens = new HashMap<>();
+
+        // Os mesmos termos em ordem, para expandir o prefixo da última palavra da consulta
+        private final NavigableSet<String> dicionario = new TreeSet<>();
+        private final Map<Long, String[]> termosPorDocumento = new HashMap<>();
+
+        // Categoria das empresas, para filtrar a busca
+        private final Map<Long, Long> grupoPorDocumento = new HashMap<>();
+
+        private void indexar(Long id, String nome, String descricao, Long grupo) {
+            Map<String, Float> frequencias = new HashMap<>();
+            TextoNormalizador.termos(nome).forEach(termo -> frequencias.merge(termo, PESO_NOME, Float::sum));
+            TextoNormalizador.termos(descricao).forEach(termo -> frequencias.merge(termo, PESO_DESCRICAO, Float::sum));
+
+            lock.writeLock().lock();
+            try {
+                removerSemTrava(id);
+                if (frequencias.isEmpty()) {
+                    return;
+                }
+                frequencias.forEach((termo, frequencia) -> postagens.computeIfAbsent(termo, t -> {
+                    dicionario.add(t);
+                    return new Postagens();
+                }).inserir(id, frequencia / (frequencia + K1)));
+                termosPorDocumento.put(id, frequencias.keySet().toArray(new String[0]));
+                if (grupo != null) {
+                    grupoPorDocumento.put(id, grupo);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remover(Long id) {
+            lock.writeLock().lock();
+            try {
+                removerSemTrava(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removerSemTrava(Long id) {
+            grupoPorDocumento.remove(id);
+            String[] termos = termosPorDocumento.remove(id);
+            if (termos == null) {
+                return;
+            }
+            for (String termo : termos) {
+                Postagens lista = postagens.get(termo);
+                lista.remover(id);
+                if (lista.tamanho == 0) {
+                    postagens.remove(termo);
+                    dicionario.remove(termo);
+                }
+            }
+        }
+
+        /**
+         * Percorre a menor lista de postagens e procura cada ID nas demais por busca binária,
+         * avançando o início da busca, já que os IDs estão em ordem
+         */
+        private Resultado buscar(List<String> termos, Long grupo, long inicio, int tamanho) {
+            if (termos.isEmpty()) {
+                return new Resultado(List.of(), 0);
+            }
+
+            // A última palavra pode estar incompleta; se o mesmo termo aparece antes, ele já é exigido inteiro
+            String prefixo = termos.get(termos.size() - 1);
+            boolean expandir = termos.indexOf(prefixo) == termos.size() - 1;
+
+            lock.readLock().lock();
+            try {
+                List<Postagens> listas = new ArrayList<>();
+                for (String termo : new LinkedHashSet<>(termos)) {
+                    Postagens lista = expandir && termo.equals(prefixo) ? comPrefixo(termo) : postagens.get(termo);
+                    if (lista == null) {
+                        return new Resultado(List.of(), 0);
+                    }
+                    listas.add(lista);
+                }
+                listas.sort(Comparator.comparingInt(lista -> lista.tamanho));
+
+                int documentos = termosPorDocumento.size();
+                double[] idf = new double[listas.size()];
+                for (int t = 0; t < idf.length; t++) {
+                    int frequencia = listas.get(t).tamanho;
+                    idf[t] = Math.log(1 + (documentos - frequencia + 0.5) / (frequencia + 0.5));
+                }
+
+                Postagens menor = listas.get(0);
+                int[] inicios = new int[listas.size()];
+                List<Ocorrencia> ocorrencias = new ArrayList<>();
+                for (int i = 0; i < menor.tamanho; i++) {
+                    long id = menor.ids[i];
+                    double relevancia = idf[0] * menor.pesos[i];
+
+                    for (int t = 1; t < listas.size() && relevancia >= 0; t++) {
+                        Postagens lista = listas.get(t);
+                        int posicao = Arrays.binarySearch(lista.ids, inicios[t], lista.tamanho, id);
+                        if (posicao < 0) {
+                            inicios[t] = -posicao - 1;
+                            relevancia = -1;
+                        } else {
+                            inicios[t] = posicao + 1;
+                            relevancia += idf[t] * lista.pesos[posicao];
+                        }
+                    }
+
+                    if (relevancia >= 0 && (grupo == null || grupo.equals(grupoPorDocumento.get(id)))) {
+                        ocorrencias.add(new Ocorrencia(id, relevancia));
+                    }
+                }
+
+                if (inicio >= ocorrencias.size()) {
+                    return new Resultado(List.of(), ocorrencias.size());
+                }
+                int quantidade = (int) Math.min(inicio + tamanho, ocorrencias.size());
+                List<Long> ids = RankingUtils.maiores(ocorrencias.iterator(), quantidade, POR_RELEVANCIA)
+                        .stream()
+                        .skip(inicio)
+                        .map(Ocorrencia::id)
+                        .toList();
+                return new Resultado(ids, ocorrencias.size());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Postagens dos termos que começam com o prefixo, com o maior peso de cada documento
+         */
+        private Postagens comPrefixo(String prefixo) {
+            SortedSet<String> expansoes = dicionario.subSet(prefixo, prefixo + Character.MAX_VALUE);
+            if (expansoes.size() <= 1) {
+                return expansoes.isEmpty() ? null : postagens.get(expansoes.first());
+            }
+
+            Map<Long, Float> pesos = new HashMap<>();
+            for (String termo : expansoes) {
+                Postagens lista = postagens.get(termo);
+                for (int i = 0; i < lista.tamanho; i++) {
+                    pesos.merge(lista.ids[i], lista.pesos[i], Math::max);
+                }
+            }
+
+            Postagens uniao = new Postagens();
+            pesos.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entrada -> uniao.inserir(entrada.getKey(), entrada.getValue()));
+            return uniao;
+        }
+
+        private int documentos() {
+            lock.readLock().lock();
+            try {
+                return termosPorDocumento.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int termos() {
+            lock.readLock().lock();
+            try {
+                return postagens.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private static final class Postagens {
+        private long[] ids = new long[4];
+        private float[] pesos = new float[4];
+        private int tamanho;
+
+        private void inserir(long id, float peso) {
+            // Na carga e para documentos novos os IDs chegam em ordem: basta anexar
+            int posicao = tamanho == 0 || id > ids[tamanho - 1] ? -tamanho - 1 : Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                pesos[posicao] = peso;
+                return;
+            }
+            posicao = -posicao - 1;
+
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                pesos = Arrays.copyOf(pesos, tamanho * 2);
+            }
+            System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+            System.arraycopy(pesos, posicao, pesos, posicao + 1, tamanho - posicao);
+            ids[posicao] = id;
+            pesos[posicao] = peso;
+            tamanho++;
+        }
+
+        private void remover(long id) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao < 0) {
+                return;
+            }
+            System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+            System.arraycopy(pesos, posicao + 1, pesos, posicao, tamanho - posicao - 1);
+            tamanho--;
+        }
+    }
+}
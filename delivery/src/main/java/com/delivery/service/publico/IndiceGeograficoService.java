@@ -0,0 +1,363 @@
+package com.delivery.service.publico;
+
+import com.delivery.event.EmpresaAlteradaEvent;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice geográfico em memória das empresas ativas com coordenadas, para a busca por proximidade
+ * sem consultar o banco.
+ *
+ * As coordenadas ficam numa grade de células de celula-graus de lado, e cada célula guarda IDs,
+ * latitudes e longitudes em arrays primitivos. A busca percorre só as células da caixa que contém
+ * o círculo e calcula a distância (haversine) dos pontos delas. Alterações de empresas são aplicadas
+ * após o commit e a grade é reconstruída periodicamente. Até a primeira carga a busca segue pelo banco.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceGeograficoService {
+
+    private static final Comparator<Proxima> POR_DISTANCIA = Comparator
+            .comparingDouble(Proxima::distanciaKm)
+            .thenComparingLong(Proxima::id);
+
+    private final EmpresaRepository empresaRepository;
+
+    @Value("${app.indice-geografico.celula-graus:0.05}")
+    private double celulaGraus;
+
+    private final Object trava = new Object();
+
+    // Trocada por inteiro na reconstrução (protegido por trava); null até a primeira carga
+    private volatile Grade grade;
+
+    // IDs alterados enquanto uma reconstrução lê o banco (protegido por trava)
+    private Set<Long> alteradasDuranteReconstrucao;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    /**
+     * Recarrega a grade do banco e troca a atual. Empresas alteradas durante a leitura são reaplicadas
+     * na nova grade
+     */
+    @Scheduled(initialDelayString = "${app.indice-geografico.reconstrucao-ms:900000}",
+            fixedDelayString = "${app.indice-geografico.reconstrucao-ms:900000}")
+    public void reconstruir() {
+        synchronized (trava) {
+            alteradasDuranteReconstrucao = new HashSet<>();
+        }
+
+        Grade nova = new Grade(celulaGraus);
+        try {
+            empresaRepository.findCoordenadasAtivas().forEach(linha -> nova.posicionar(
+                    (Long) linha[0], ((Number) linha[1]).doubleValue(), ((Number) linha[2]).doubleValue()));
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                alteradasDuranteReconstrucao = null;
+            }
+            log.error("Falha ao reconstruir o índice geográfico; mantendo a grade anterior", e);
+            return;
+        }
+
+        Set<Long> pendentes;
+        synchronized (trava) {
+            pendentes = alteradasDuranteReconstrucao;
+            alteradasDuranteReconstrucao = null;
+            grade = nova;
+        }
+        pendentes.forEach(empresaId -> atualizar(nova, empresaId));
+        log.info("Índice geográfico carregado: {} empresas em {} células", nova.empresas(), nova.celulas());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarEmpresa(EmpresaAlteradaEvent evento) {
+        Grade atual;
+        synchronized (trava) {
+            if (alteradasDuranteReconstrucao != null) {
+                alteradasDuranteReconstrucao.add(evento.getEmpresaId());
+            }
+            atual = grade;
+        }
+        if (atual != null) {
+            atualizar(atual, evento.getEmpresaId());
+        }
+    }
+
+    public boolean isPronto() {
+        return grade != null;
+    }
+
+    /**
+     * Empresas no raio a partir de offset, da mais próxima para a mais distante, e o total no raio
+     */
+    public Resultado buscar(double latitude, double longitude, double raioKm, long offset, int limite) {
+        return grade.buscar(latitude, longitude, raioKm, offset, limite);
+    }
+
+    /**
+     * As mais próximas, com a mesma regra da busca no banco: o raio começa em raioInicialKm e dobra
+     * até conter offset + limite empresas ou chegar a raioMaximoKm
+     */
+    public Resultado buscarMaisProximas(double latitude, double longitude, double raioInicialKm, double raioMaximoKm,
+                                        long offset, int limite) {
+        Grade atual = grade;
+        double raio = raioInicialKm;
+        Resultado resultado = atual.buscar(latitude, longitude, raio, offset, limite);
+        while (resultado.total() < offset + limite && raio < raioMaximoKm) {
+            raio = Math.min(raio * 2, raioMaximoKm);
+            resultado = atual.buscar(latitude, longitude, raio, offset, limite);
+        }
+        return resultado;
+    }
+
+    public Estatisticas getEstatisticas() {
+        Grade atual = grade;
+        return atual == null ? new Estatisticas(false, 0, 0) : new Estatisticas(true, atual.empresas(), atual.celulas());
+    }
+
+    // Empresa desativada, sem coordenadas ou inexistente sai da grade
+    private void atualizar(Grade grade, Long empresaId) {
+        Object[] linha = empresaRepository.findCoordenadas(empresaId).stream().findFirst().orElse(null);
+        if (linha != null && linha[1] != null && linha[2] != null && Boolean.TRUE.equals(linha[3])) {
+            grade.posicionar(empresaId, ((Number) linha[1]).doubleValue(), ((Number) linha[2]).doubleValue());
+        } else {
+            grade.remover(empresaId);
+        }
+    }
+
+    /**
+     * Empresas da página com a distância em km e total de empresas no raio
+     */
+    public record Resultado(List<Proxima> empresas, long total) {
+    }
+
+    public record Proxima(long id, double distanciaKm) {
+    }
+
+    public record Estatisticas(boolean pronto, int empresas, int celulas) {
+    }
+
+    /**
+     * Células indexadas por linha * colunas + coluna, contando a partir de (-90, -180). Guarda a célula
+     * de cada empresa para tirá-la de lá quando ela muda de lugar ou sai do índice
+     */
+    private static final class Grade {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final double tamanho;
+        private final int linhas;
+        private final int colunas;
+        private final Map<Long, Celula> celulas = new HashMap<>();
+        private final Map<Long, Long> celulaPorEmpresa = new HashMap<>();
+
+        private Grade(double tamanho) {
+            this.tamanho = tamanho;
+            this.linhas = (int) Math.ceil(180 / tamanho);
+            this.colunas = (int) Math.ceil(360 / tamanho);
+        }
+
+        private void posicionar(long id, double latitude, double longitude) {
+            long chave = (long) linha(latitude) * colunas + coluna(longitude);
+            lock.writeLock().lock();
+            try {
+                removerSemTrava(id);
+                celulas.computeIfAbsent(chave, c -> new Celula()).adicionar(id, latitude, longitude);
+                celulaPorEmpresa.put(id, chave);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remover(long id) {
+            lock.writeLock().lock();
+            try {
+                removerSemTrava(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removerSemTrava(long id) {
+            Long chave = celulaPorEmpresa.remove(id);
+            if (chave == null) {
+                return;
+            }
+            Celula celula = celulas.get(chave);
+            celula.remover(id);
+            if (celula.tamanho == 0) {
+                celulas.remove(chave);
+            }
+        }
+
+        /**
+         * Percorre as células da caixa do círculo, ou todas as células ocupadas quando a caixa tem mais
+         * células que elas, guardando num heap limitado as offset + limite mais próximas
+         */
+        private Resultado buscar(double latitude, double longitude, double raioKm, long offset, int limite) {
+            GeoUtils.Caixa caixa = GeoUtils.caixaDelimitadora(latitude, longitude, raioKm);
+            int linhaMinima = linha(caixa.latitudeMinima());
+            int linhaMaxima = linha(caixa.latitudeMaxima());
+            int colunaMinima = coluna(caixa.longitudeMinima());
+            int colunaMaxima = coluna(caixa.longitudeMaxima());
+
+            Coletor coletor = new Coletor(latitude, longitude, raioKm, caixa, (int) Math.min(offset + limite, Integer.MAX_VALUE));
+            lock.readLock().lock();
+            try {
+                long celulasNaCaixa = (long) (linhaMaxima - linhaMinima + 1) * (colunaMaxima - colunaMinima + 1);
+                if (celulasNaCaixa > celulas.size()) {
+                    celulas.values().forEach(coletor::percorrer);
+                } else {
+                    for (int linha = linhaMinima; linha <= linhaMaxima; linha++) {
+                        for (int coluna = colunaMinima; coluna <= colunaMaxima; coluna++) {
+                            Celula celula = celulas.get((long) linha * colunas + coluna);
+                            if (celula != null) {
+                                coletor.percorrer(celula);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return coletor.resultado(offset);
+        }
+
+        private int empresas() {
+            lock.readLock().lock();
+            try {
+                return celulaPorEmpresa.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int celulas() {
+            lock.readLock().lock();
+            try {
+                return celulas.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int linha(double latitude) {
+            return Math.min((int) Math.floor((latitude + 90) / tamanho), linhas - 1);
+        }
+
+        private int coluna(double longitude) {
+            return Math.min((int) Math.floor((longitude + 180) / tamanho), colunas - 1);
+        }
+    }
+
+    /**
+     * Empresas de uma célula em arrays paralelos; a remoção move a última para a posição liberada
+     */
+    private static final class Celula {
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int tamanho;
+
+        private void adicionar(long id, double latitude, double longitude) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                latitudes = Arrays.copyOf(latitudes, tamanho * 2);
+                longitudes = Arrays.copyOf(longitudes, tamanho * 2);
+            }
+            ids[tamanho] = id;
+            latitudes[tamanho] = latitude;
+            longitudes[tamanho] = longitude;
+            tamanho++;
+        }
+
+        private void remover(long id) {
+            for (int i = 0; i < tamanho; i++) {
+                if (ids[i] == id) {
+                    tamanho--;
+                    ids[i] = ids[tamanho];
+                    latitudes[i] = latitudes[tamanho];
+                    longitudes[i] = longitudes[tamanho];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Conta as empresas no raio e mantém as quantidade mais próximas num heap com a mais distante no topo
+     */
+    private static final class Coletor {
+        private final double latitude;
+        private final double longitude;
+        private final double raioKm;
+        private final GeoUtils.Caixa caixa;
+        private final int quantidade;
+        private final PriorityQueue<Proxima> heap;
+        private long total;
+
+        private Coletor(double latitude, double longitude, double raioKm, GeoUtils.Caixa caixa, int quantidade) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.raioKm = raioKm;
+            this.caixa = caixa;
+            this.quantidade = quantidade;
+            this.heap = new PriorityQueue<>(Math.min(quantidade, 1024) + 1, POR_DISTANCIA.reversed());
+        }
+
+        private void percorrer(Celula celula) {
+            for (int i = 0; i < celula.tamanho; i++) {
+                double lat = celula.latitudes[i];
+                double lon = celula.longitudes[i];
+                if (lat < caixa.latitudeMinima() || lat > caixa.latitudeMaxima()
+                        || lon < caixa.longitudeMinima() || lon > caixa.longitudeMaxima()) {
+                    continue;
+                }
+                double distancia = GeoUtils.distanciaKm(latitude, longitude, lat, lon);
+                if (distancia > raioKm) {
+                    continue;
+                }
+
+                total++;
+                if (heap.size() < quantidade) {
+                    heap.offer(new Proxima(celula.ids[i], distancia));
+                } else if (quantidade > 0) {
+                    Proxima maisDistante = heap.peek();
+                    if (distancia < maisDistante.distanciaKm()
+                            || (distancia == maisDistante.distanciaKm() && celula.ids[i] < maisDistante.id())) {
+                        heap.poll();
+                        heap.offer(new Proxima(celula.ids[i], distancia));
+                    }
+                }
+            }
+        }
+
+        private Resultado resultado(long offset) {
+            List<Proxima> proximas = new ArrayList<>(heap);
+            proximas.sort(POR_DISTANCIA);
+            return new Resultado(offset >= proximas.size() ? List.of() : proximas.subList((int) offset, proximas.size()), total);
+        }
+    }
+}
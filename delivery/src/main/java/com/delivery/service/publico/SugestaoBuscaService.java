@@ -0,0 +1,303 @@
+package com.delivery.service.publico;
+
+import com.delivery.repository.CategoriaRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.util.TextoNormalizador;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Sugestões de busca (autocomplete) com nomes de produtos, empresas e categorias, dos mais populares
+ * para os menos: unidades vendidas e produtos com o nome, pedidos da empresa, empresas e produtos da categoria.
+ *
+ * Cada nome entra no índice uma vez por palavra, a partir dela ("Pizza Calabresa" responde a "piz" e a
+ * "cala"). As chaves, sem acento e ordenadas, ficam codificadas por prefixo comum em blocos; uma árvore
+ * de segmentos com a entrada mais popular de cada intervalo devolve as mais populares entre as chaves
+ * com o prefixo digitado sem percorrê-las. O índice é reconstruído em segundo plano e trocado de uma vez.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SugestaoBuscaService {
+
+    private final ProdutoRepository produtoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile IndicePrefixos indice = IndicePrefixos.construir(List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    @Scheduled(initialDelayString = "${app.sugestoes.reconstrucao-ms:600000}",
+            fixedDelayString = "${app.sugestoes.reconstrucao-ms:600000}")
+    public void reconstruir() {
+        try {
+            // Chave normalizada -> nome exibido e popularidade somada (o mesmo nome em várias empresas)
+            Map<String, Nome> nomes = new HashMap<>();
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> linhas = produtoRepository.streamPopularidadeDosNomes()) {
+                    linhas.forEach(linha -> acumular(nomes, (String) linha[0], soma(linha[1], linha[2])));
+                }
+                return null;
+            });
+            empresaRepository.findPopularidadeDosNomes()
+                    .forEach(linha -> acumular(nomes, (String) linha[0], 1 + soma(linha[1])));
+            categoriaRepository.findPopularidadeDosNomes()
+                    .forEach(linha -> acumular(nomes, (String) linha[0], 1 + soma(linha[1], linha[2])));
+
+            IndicePrefixos novo = IndicePrefixos.construir(nomes.values());
+            indice = novo;
+            log.info("Sugestões de busca carregadas: {} nomes, {} entradas", nomes.size(), novo.tamanho);
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconstruir as sugestões de busca; mantendo o índice anterior", e);
+        }
+    }
+
+    /**
+     * Até limite nomes com alguma palavra começando pelo texto digitado, dos mais populares para os menos
+     */
+    public List<String> sugerir(String texto, int limite) {
+        String prefixo = TextoNormalizador.chave(texto);
+        if (prefixo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        return indice.maisPopulares(prefixo, limite);
+    }
+
+    private static void acumular(Map<String, Nome> nomes, String rotulo, long peso) {
+        String chave = TextoNormalizador.chave(rotulo);
+        if (chave.isEmpty()) {
+            return;
+        }
+        nomes.merge(chave, new Nome(chave, rotulo.trim(), peso),
+                (atual, outro) -> new Nome(chave, atual.rotulo(), atual.peso() + outro.peso()));
+    }
+
+    private static long soma(Object... valores) {
+        long soma = 0;
+        for (Object valor : valores) {
+            soma += valor != null ? ((Number) valor).longValue() : 0;
+        }
+        return soma;
+    }
+
+    private record Nome(String chave, String rotulo, long peso) {
+    }
+
+    private record Entrada(String chave, int nome) {
+    }
+
+    private record Intervalo(int de, int ate, int melhor) {
+    }
+
+    /**
+     * Entradas (chave a partir de uma palavra do nome -> nome) em ordem de chave. As chaves ficam em blocos
+     * de BLOCO: a primeira inteira, as demais como tamanho do prefixo comum com a anterior mais o sufixo.
+     * Imutável depois de construído
+     */
+    private static final class IndicePrefixos {
+        private static final int BLOCO = 16;
+
+        private final String[] rotulos;
+        private final long[] pesos;
+
+        private final int tamanho;
+        private final int[] nomeDaEntrada;
+        private final String[] cabecas;
+        private final char[] compartilhados;
+        private final int[] inicioSufixo;
+        private final char[] sufixos;
+
+        // Árvore de segmentos: arvore[i] é a entrada de maior peso do nó; folhas em [tamanho, 2 * tamanho)
+        private final int[] arvore;
+
+        private final Comparator<Intervalo> maisPopularPrimeiro = Comparator
+                .comparingLong((Intervalo intervalo) -> peso(intervalo.melhor())).reversed()
+                .thenComparingInt(Intervalo::melhor);
+
+        private IndicePrefixos(String[] rotulos, long[] pesos, List<Entrada> entradas) {
+            this.rotulos = rotulos;
+            this.pesos = pesos;
+            this.tamanho = entradas.size();
+            this.nomeDaEntrada = new int[tamanho];
+            this.cabecas = new String[(tamanho + BLOCO - 1) / BLOCO];
+            this.compartilhados = new char[tamanho];
+            this.inicioSufixo = new int[tamanho + 1];
+
+            StringBuilder texto = new StringBuilder();
+            String anterior = "";
+            for (int i = 0; i < tamanho; i++) {
+                Entrada entrada = entradas.get(i);
+                String chave = entrada.chave();
+                nomeDaEntrada[i] = entrada.nome();
+                inicioSufixo[i] = texto.length();
+
+                if (i % BLOCO == 0) {
+                    cabecas[i / BLOCO] = chave;
+                } else {
+                    int comum = 0;
+                    int maximo = Math.min(anterior.length(), chave.length());
+                    while (comum < maximo && anterior.charAt(comum) == chave.charAt(comum)) {
+                        comum++;
+                    }
+                    compartilhados[i] = (char) comum;
+                    texto.append(chave, comum, chave.length());
+                }
+                anterior = chave;
+            }
+            inicioSufixo[tamanho] = texto.length();
+            this.sufixos = texto.toString().toCharArray();
+
+            this.arvore = new int[2 * tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                arvore[tamanho + i] = i;
+            }
+            for (int i = tamanho - 1; i > 0; i--) {
+                arvore[i] = melhor(arvore[2 * i], arvore[2 * i + 1]);
+            }
+        }
+
+        private static IndicePrefixos construir(Collection<Nome> nomes) {
+            String[] rotulos = new String[nomes.size()];
+            long[] pesos = new long[nomes.size()];
+            List<Entrada> entradas = new ArrayList<>();
+
+            int n = 0;
+            for (Nome nome : nomes) {
+                rotulos[n] = nome.rotulo();
+                pesos[n] = nome.peso();
+
+                // Uma entrada a partir de cada palavra, exceto stopwords no meio do nome
+                String chave = nome.chave();
+                int inicio = 0;
+                while (inicio >= 0) {
+                    int fim = chave.indexOf(' ', inicio);
+                    String palavra = fim < 0 ? chave.substring(inicio) : chave.substring(inicio, fim);
+                    if (inicio == 0 || !TextoNormalizador.isStopword(palavra)) {
+                        entradas.add(new Entrada(chave.substring(inicio), n));
+                    }
+                    inicio = fim < 0 ? -1 : fim + 1;
+                }
+                n++;
+            }
+
+            entradas.sort(Comparator.comparing(Entrada::chave));
+            return new IndicePrefixos(rotulos, pesos, entradas);
+        }
+
+        /**
+         * Intervalo das entradas com o prefixo; a entrada mais popular de cada subintervalo sai da árvore,
+         * e o subintervalo é dividido em volta dela até juntar limite nomes distintos
+         */
+        private List<String> maisPopulares(String prefixo, int limite) {
+            int de = limiteInferior(prefixo);
+            int ate = limiteInferior(prefixo + Character.MAX_VALUE);
+            if (de >= ate) {
+                return List.of();
+            }
+
+            PriorityQueue<Intervalo> intervalos = new PriorityQueue<>(maisPopularPrimeiro);
+            intervalos.add(new Intervalo(de, ate, consultar(de, ate)));
+
+            List<String> sugestoes = new ArrayList<>(limite);
+            Set<Integer> vistos = new HashSet<>();
+            while (sugestoes.size() < limite && !intervalos.isEmpty()) {
+                Intervalo intervalo = intervalos.poll();
+                int entrada = intervalo.melhor();
+                if (vistos.add(nomeDaEntrada[entrada])) {
+                    sugestoes.add(rotulos[nomeDaEntrada[entrada]]);
+                }
+                if (intervalo.de() < entrada) {
+                    intervalos.add(new Intervalo(intervalo.de(), entrada, consultar(intervalo.de(), entrada)));
+                }
+                if (entrada + 1 < intervalo.ate()) {
+                    intervalos.add(new Intervalo(entrada + 1, intervalo.ate(), consultar(entrada + 1, intervalo.ate())));
+                }
+            }
+            return sugestoes;
+        }
+
+        /**
+         * Posição da primeira chave maior ou igual: busca binária nas cabeças dos blocos e decodificação
+         * sequencial de um único bloco
+         */
+        private int limiteInferior(String chave) {
+            int baixo = 0;
+            int alto = cabecas.length - 1;
+            int bloco = -1;
+            while (baixo <= alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (cabecas[meio].compareTo(chave) <= 0) {
+                    bloco = meio;
+                    baixo = meio + 1;
+                } else {
+                    alto = meio - 1;
+                }
+            }
+            if (bloco < 0) {
+                return 0;
+            }
+
+            int inicio = bloco * BLOCO;
+            int fim = Math.min(inicio + BLOCO, tamanho);
+            StringBuilder atual = new StringBuilder(cabecas[bloco]);
+            for (int i = inicio; i < fim; i++) {
+                if (i > inicio) {
+                    atual.setLength(compartilhados[i]);
+                    atual.append(sufixos, inicioSufixo[i], inicioSufixo[i + 1] - inicioSufixo[i]);
+                }
+                if (CharSequence.compare(atual, chave) >= 0) {
+                    return i;
+                }
+            }
+            return fim;
+        }
+
+        // Entrada de maior peso em [de, ate)
+        private int consultar(int de, int ate) {
+            int resultado = -1;
+            for (de += tamanho, ate += tamanho; de < ate; de >>= 1, ate >>= 1) {
+                if ((de & 1) == 1) {
+                    resultado = melhor(resultado, arvore[de++]);
+                }
+                if ((ate & 1) == 1) {
+                    resultado = melhor(resultado, arvore[--ate]);
+                }
+            }
+            return resultado;
+        }
+
+        // Maior peso; no empate, a primeira em ordem de chave
+        private int melhor(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            return peso(a) > peso(b) || (peso(a) == peso(b) && a < b) ? a : b;
+        }
+
+        private long peso(int entrada) {
+            return pesos[nomeDaEntrada[entrada]];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.delivery.util;
+
+import com.delivery.dto.publico.PaginaCursorDTO;
+import com.delivery.entity.base.BaseEntity;
+import com.delivery.exception.BusinessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorUtils {
+
+    private CursorUtils() {
+        // Utility class
+    }
+
+    private static final String SEPARADOR = "_";
+
+    /**
+     * Posição na ordenação (createdAt DESC, id DESC). Sem cursor, ambos ficam nulos (primeira página)
+     */
+    public record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    /**
+     * Gera o cursor opaco a partir do último registro da página
+     */
+    public static String codificar(BaseEntity entidade) {
+        String valor = entidade.getCreatedAt() + SEPARADOR + entidade.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente
+     */
+    public static Cursor decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(null, null);
+        }
+
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new Cursor(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Limite da consulta: um registro a mais que o tamanho pedido indica se há próxima página.
+     * tamanhoMaximo é o app.pagination.max-size do serviço chamador
+     */
+    public static Pageable limite(int tamanho, int tamanhoMaximo) {
+        return PageRequest.of(0, tamanhoValido(tamanho, tamanhoMaximo) + 1);
+    }
+
+    /**
+     * Monta a página a partir do resultado da consulta com limite(tamanho, tamanhoMaximo)
+     */
+    public static <E extends BaseEntity, D> PaginaCursorDTO<D> montarPagina(List<E> resultados, int tamanho,
+                                                                          int tamanhoMaximo,
+                                                                          Function<E, D> conversor) {
+        int tamanhoPagina = tamanhoValido(tamanho, tamanhoMaximo);
+        boolean temMais = resultados.size() > tamanhoPagina;
+        List<E> pagina = temMais ? resultados.subList(0, tamanhoPagina) : resultados;
+
+        String proximoCursor = temMais ? codificar(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaCursorDTO<>(pagina.stream().map(conversor).toList(), proximoCursor, temMais, tamanhoPagina);
+    }
+
+    private static int tamanhoValido(int tamanho, int tamanhoMaximo) {
+        return Math.max(1, Math.min(tamanho, tamanhoMaximo));
+    }
+}
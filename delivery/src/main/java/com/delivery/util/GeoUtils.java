@@ -0,0 +1,52 @@
+package com.delivery.util;
+
+public class GeoUtils {
+
+    private GeoUtils() {
+        // Utility class
+    }
+
+    public static final double RAIO_TERRA_KM = 6371.0;
+
+    private static final double KM_POR_GRAU_LATITUDE = Math.PI * RAIO_TERRA_KM / 180;
+
+    public record Caixa(double latitudeMinima, double latitudeMaxima, double longitudeMinima, double longitudeMaxima) {
+    }
+
+    /**
+     * Menor retângulo de latitude/longitude que contém o círculo. Se o círculo alcança um polo ou cruza
+     * o antimeridiano, o retângulo cobre todas as longitudes
+     */
+    public static Caixa caixaDelimitadora(double latitude, double longitude, double raioKm) {
+        double deltaLatitude = raioKm / KM_POR_GRAU_LATITUDE;
+        double latitudeMinima = latitude - deltaLatitude;
+        double latitudeMaxima = latitude + deltaLatitude;
+        if (latitudeMinima <= -90 || latitudeMaxima >= 90) {
+            return new Caixa(Math.max(latitudeMinima, -90), Math.min(latitudeMaxima, 90), -180, 180);
+        }
+
+        double deltaLongitude = Math.toDegrees(Math.asin(
+                Math.sin(raioKm / RAIO_TERRA_KM) / Math.cos(Math.toRadians(latitude))));
+        if (longitude - deltaLongitude < -180 || longitude + deltaLongitude > 180) {
+            return new Caixa(latitudeMinima, latitudeMaxima, -180, 180);
+        }
+        return new Caixa(latitudeMinima, latitudeMaxima, longitude - deltaLongitude, longitude + deltaLongitude);
+    }
+
+    /**
+     * Distância em km pela fórmula de haversine
+     */
+    public static double distanciaKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double senoLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double senoLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = senoLatitude * senoLatitude + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * senoLongitude * senoLongitude;
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static boolean isCoordenadaValida(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+}
@@ -0,0 +1,33 @@
+package com.delivery.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class RankingUtils {
+
+    private RankingUtils() {
+        // Utility class
+    }
+
+    /**
+     * Os quantidade maiores elementos segundo ordem, do maior para o menor.
+     * Usa um heap limitado: a memória não depende de quantos elementos são percorridos
+     */
+    public static <T> List<T> maiores(Iterator<T> elementos, int quantidade, Comparator<? super T> ordem) {
+        // Capacidade inicial limitada: a quantidade pode vir de um tamanho de página grande
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(quantidade, 1024) + 1, ordem);
+        while (elementos.hasNext()) {
+            heap.offer(elementos.next());
+            if (heap.size() > quantidade) {
+                heap.poll();
+            }
+        }
+
+        List<T> maiores = new ArrayList<>(heap);
+        maiores.sort(ordem.reversed());
+        return maiores;
+    }
+}
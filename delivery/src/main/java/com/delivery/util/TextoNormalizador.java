@@ -0,0 +1,109 @@
+package com.delivery.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class TextoNormalizador {
+
+    private TextoNormalizador() {
+        // Utility class
+    }
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "com", "sem", "em", "no", "na",
+            "nos", "nas", "para", "por", "um", "uma", "ao", "aos"
+    );
+
+    private static final int TAMANHO_MINIMO_RADICAL = 3;
+
+    /**
+     * Minúsculas sem acentos ("Pão de Açúcar" -> "pao de acucar")
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return ACENTOS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Texto normalizado com as palavras separadas por um espaço ("Pão-de-Queijo!" -> "pao de queijo")
+     */
+    public static String chave(String texto) {
+        return SEPARADORES.matcher(normalizar(texto)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Se a palavra, já normalizada, é uma stopword
+     */
+    public static boolean isStopword(String palavra) {
+        return STOPWORDS.contains(palavra);
+    }
+
+    /**
+     * Radicais das palavras do texto, na ordem e com repetições, sem stopwords.
+     * O mesmo texto sempre gera os mesmos radicais: serve tanto para indexar quanto para consultar
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String palavra : SEPARADORES.split(normalizar(texto))) {
+            if (palavra.isEmpty() || STOPWORDS.contains(palavra)) {
+                continue;
+            }
+            termos.add(radical(palavra));
+        }
+        return termos;
+    }
+
+    /**
+     * Stemmer leve para o português, nos moldes do RSLP: remove plural, diminutivo e vogal temática.
+     * Espera a palavra já normalizada
+     */
+    public static String radical(String palavra) {
+        if (palavra.length() <= TAMANHO_MINIMO_RADICAL || Character.isDigit(palavra.charAt(0))) {
+            return palavra;
+        }
+
+        String radical = singular(palavra);
+
+        for (String sufixo : new String[]{"zinho", "zinha", "inho", "inha"}) {
+            if (radical.endsWith(sufixo) && radical.length() - sufixo.length() >= TAMANHO_MINIMO_RADICAL) {
+                radical = radical.substring(0, radical.length() - sufixo.length());
+                break;
+            }
+        }
+
+        char ultima = radical.charAt(radical.length() - 1);
+        if (radical.length() > 4 && (ultima == 'a' || ultima == 'o' || ultima == 'e')) {
+            radical = radical.substring(0, radical.length() - 1);
+        }
+        return radical;
+    }
+
+    private static String singular(String palavra) {
+        if (!palavra.endsWith("s")) {
+            return palavra;
+        }
+        if (palavra.endsWith("oes") || palavra.endsWith("aes")) {
+            return palavra.substring(0, palavra.length() - 3) + "ao";
+        }
+        if (palavra.endsWith("ais") || palavra.endsWith("eis") || palavra.endsWith("ois")) {
+            return palavra.substring(0, palavra.length() - 2) + "l";
+        }
+        if (palavra.endsWith("res") && palavra.length() > 4) {
+            return palavra.substring(0, palavra.length() - 2);
+        }
+        if (palavra.endsWith("ns")) {
+            return palavra.substring(0, palavra.length() - 2) + "m";
+        }
+        return palavra.substring(0, palavra.length() - 1);
+    }
+}
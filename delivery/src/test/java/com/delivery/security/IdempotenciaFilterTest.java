@@ -0,0 +1,167 @@
+package com.delivery.security;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.service.auth.JwtService;
+import com.delivery.support.DadosTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class IdempotenciaFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String tokenCliente;
+    private Long clienteId;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("idem", "Cliente Idempotência");
+        clienteId = cliente.getId();
+        tokenCliente = jwtService.generateToken(cliente.getUsuario().getEmail());
+
+        Empresa empresa = dadosTeste.novaEmpresa("idem", "Empresa Idempotência");
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Idempotência").getId();
+    }
+
+    @Test
+    @DisplayName("Repetição da criação de pedido deve receber a resposta original")
+    public void repeticaoDeveReceberRespostaOriginal() throws Exception {
+        String chave = UUID.randomUUID().toString();
+
+        MockHttpServletResponse primeira = criarPedido(chave, 1);
+        MockHttpServletResponse repetida = criarPedido(chave, 1);
+
+        assertEquals(200, primeira.getStatus());
+        assertEquals(200, repetida.getStatus());
+        assertNull(primeira.getHeader(IdempotenciaFilter.HEADER_REPETIDA));
+        assertEquals("true", repetida.getHeader(IdempotenciaFilter.HEADER_REPETIDA));
+        assertEquals(lerPedido(primeira).getId(), lerPedido(repetida).getId());
+        assertEquals(1, totalPedidosDoCliente());
+    }
+
+    @Test
+    @DisplayName("Chave reutilizada com outro corpo deve ser recusada")
+    public void chaveComOutroCorpoDeveSerRecusada() throws Exception {
+        String chave = UUID.randomUUID().toString();
+
+        assertEquals(200, criarPedido(chave, 1).getStatus());
+        assertEquals(422, criarPedido(chave, 2).getStatus());
+        assertEquals(1, totalPedidosDoCliente());
+    }
+
+    @Test
+    @DisplayName("Repetição do pagamento deve repetir a resposta em vez de falhar")
+    public void repeticaoDoPagamentoDeveRepetirResposta() throws Exception {
+        Long pedidoId = lerPedido(criarPedido(UUID.randomUUID().toString(), 1)).getId();
+        String chave = UUID.randomUUID().toString();
+
+        assertEquals(200, pagarPedido(pedidoId, chave).getStatus());
+        MockHttpServletResponse repetida = pagarPedido(pedidoId, chave);
+        assertEquals(200, repetida.getStatus());
+        assertEquals("true", repetida.getHeader(IdempotenciaFilter.HEADER_REPETIDA));
+
+        // Sem a chave, a segunda chamada executa de novo e é recusada pelo serviço
+        assertEquals(400, pagarPedido(pedidoId, null).getStatus());
+    }
+
+    @Test
+    @DisplayName("Repetições simultâneas devem criar um único pedido")
+    public void repeticoesSimultaneasDevemCriarUmPedido() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        int threads = 6;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> respostas = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return criarPedido(chave, 1);
+                }));
+            }
+            largada.countDown();
+
+            for (Future<MockHttpServletResponse> resposta : respostas) {
+                int status = resposta.get(30, TimeUnit.SECONDS).getStatus();
+                assertTrue(status == 200 || status == 409, "Status inesperado: " + status);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, totalPedidosDoCliente());
+    }
+
+    private MockHttpServletResponse criarPedido(String chave, int quantidade) throws Exception {
+        PedidoDTO dto = DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+        return mockMvc.perform(post("/api/cliente/pedidos")
+                        .header("Authorization", "Bearer " + tokenCliente)
+                        .header(IdempotenciaFilter.HEADER_CHAVE, chave)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse pagarPedido(Long pedidoId, String chave) throws Exception {
+        var requisicao = post("/api/cliente/pedidos/" + pedidoId + "/pagar")
+                .header("Authorization", "Bearer " + tokenCliente);
+        if (chave != null) {
+            requisicao.header(IdempotenciaFilter.HEADER_CHAVE, chave);
+        }
+        return mockMvc.perform(requisicao).andReturn().getResponse();
+    }
+
+    private PedidoDTO lerPedido(MockHttpServletResponse resposta) throws Exception {
+        return objectMapper.readValue(resposta.getContentAsByteArray(), PedidoDTO.class);
+    }
+
+    private long totalPedidosDoCliente() {
+        return pedidoRepository.findIdsByClienteId(clienteId, PageRequest.of(0, 10)).getTotalElements();
+    }
+}
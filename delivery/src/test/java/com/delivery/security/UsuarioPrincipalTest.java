@@ -0,0 +1,124 @@
+package com.delivery.security;
+
+import com.delivery.dto.auth.LoginRequest;
+import com.delivery.dto.auth.RegisterRequest;
+import com.delivery.dto.auth.TokenResponse;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.service.auth.AuthService;
+import com.delivery.service.auth.JwtService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UsuarioPrincipalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long clienteId;
+    private Long usuarioId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("principal", "Cliente Principal");
+        clienteId = cliente.getId();
+        emailCliente = cliente.getUsuario().getEmail();
+        usuarioId = cliente.getUsuario().getId();
+    }
+
+    @Test
+    @DisplayName("Token com claims de ID deve autenticar sem carregar o usuário pelo email")
+    public void tokenComClaimsDeveDispensarConsultaDoUsuario() throws Exception {
+        // Email sem usuário no banco: só passa se o filtro e o serviço usarem os IDs do token
+        UsuarioPrincipal principal = new UsuarioPrincipal(usuarioId, "sem-cadastro@test.com", TipoUsuario.CLIENTE,
+                clienteId, null, null, true);
+        String token = jwtService.generateToken(principal);
+
+        mockMvc.perform(get("/api/cliente/pedidos").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Token de usuário desativado deve ser recusado")
+    public void tokenDeUsuarioDesativadoDeveSerRecusado() throws Exception {
+        String token = jwtService.generateToken(new UsuarioPrincipal(usuarioId, emailCliente, TipoUsuario.CLIENTE,
+                clienteId, null, null, true));
+        mockMvc.perform(get("/api/cliente/pedidos").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/auth/user/deactivate").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertFalse(jwtService.extractPrincipal(token).orElseThrow().isEnabled());
+        mockMvc.perform(get("/api/cliente/pedidos").header("Authorization", "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    @DisplayName("Token sem claims de ID deve continuar aceito")
+    public void tokenAntigoDeveContinuarAceito() throws Exception {
+        String token = jwtService.generateToken(emailCliente);
+
+        assertTrue(jwtService.extractPrincipal(token).isEmpty());
+        mockMvc.perform(get("/api/cliente/pedidos").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Cadastro e login devem emitir token com o ID do cliente")
+    public void cadastroELoginDevemEmitirTokenComIds() {
+        String sufixo = DadosTeste.sufixo();
+
+        RegisterRequest cadastro = new RegisterRequest();
+        cadastro.setEmail("principal-cadastro-" + sufixo + "@test.com");
+        cadastro.setSenha("senha123");
+        cadastro.setTipoUsuario(TipoUsuario.CLIENTE);
+        cadastro.setNome("Cliente Cadastro");
+        cadastro.setCpf(sufixo + "999");
+
+        TokenResponse registro = authService.register(cadastro);
+        Long idCadastrado = clienteRepository.findIdByEmail(cadastro.getEmail()).orElseThrow();
+
+        UsuarioPrincipal doRegistro = jwtService.extractPrincipal(registro.getToken()).orElseThrow();
+        assertEquals(registro.getUserId(), doRegistro.getUsuarioId());
+        assertEquals(idCadastrado, doRegistro.getClienteId());
+        assertNull(doRegistro.getEmpresaId());
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail(cadastro.getEmail());
+        login.setSenha(cadastro.getSenha());
+
+        UsuarioPrincipal doLogin = jwtService.extractPrincipal(authService.login(login).getToken()).orElseThrow();
+        assertEquals(idCadastrado, doLogin.getClienteId());
+        assertEquals(TipoUsuario.CLIENTE, doLogin.getTipoUsuario());
+    }
+}
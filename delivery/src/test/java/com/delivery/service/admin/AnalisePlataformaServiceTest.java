@@ -0,0 +1,132 @@
+package com.delivery.service.admin;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Categoria;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.repository.CategoriaRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.service.admin.AnalisePlataformaService.Agrupamento;
+import com.delivery.service.admin.AnalisePlataformaService.Analise;
+import com.delivery.service.admin.AnalisePlataformaService.Fatia;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tarefas pequenas para que a varredura seja dividida entre as threads mesmo com poucos pedidos
+@SpringBootTest(properties = "app.analise-plataforma.linhas-por-tarefa=2")
+@ActiveProfiles("test")
+public class AnalisePlataformaServiceTest {
+
+    @Autowired
+    private AnalisePlataformaService analisePlataformaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String sufixo;
+    private String emailCliente;
+    private String cidade;
+    private Categoria categoria;
+
+    @BeforeEach
+    public void prepararDados() {
+        sufixo = DadosTeste.sufixo();
+        cidade = "Cidade " + sufixo;
+
+        Cliente cliente = dadosTeste.novoCliente("analise", "Cliente Análise");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        categoria = new Categoria();
+        categoria.setNome("Categoria " + sufixo);
+        categoria.setSlug("categoria-" + sufixo);
+        categoria = categoriaRepository.save(categoria);
+    }
+
+    @Test
+    @DisplayName("Deve agrupar pedidos carregados e recebidos depois por cidade, categoria e dia")
+    public void deveAgruparPedidosCarregadosERecebidos() {
+        Long produtoA = novaEmpresaComProduto("a", categoria, cidade);
+        Long produtoB = novaEmpresaComProduto("b", null, "Outra " + sufixo);
+
+        PedidoDTO antigo = pedidoService.criarPedido(novoPedido(produtoA, 1), emailCliente);
+        PedidoDTO deOntem = pedidoService.criarPedido(novoPedido(produtoB, 1), emailCliente);
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?",
+                LocalDate.now().minusDays(1).atTime(12, 0), deOntem.getId());
+        analisePlataformaService.reconciliar();
+
+        // Após a carga: pedido novo de empresa conhecida, de empresa criada depois e um cancelamento
+        PedidoDTO novo = pedidoService.criarPedido(novoPedido(produtoA, 3), emailCliente);
+        Long produtoC = novaEmpresaComProduto("c", categoria, cidade.toUpperCase());
+        PedidoDTO deEmpresaNova = pedidoService.criarPedido(novoPedido(produtoC, 2), emailCliente);
+        pedidoService.cancelarPedido(antigo.getId(), emailCliente);
+
+        LocalDate hoje = LocalDate.now();
+        Fatia porCidade = fatia(analisePlataformaService.consultar(hoje.minusDays(7), hoje, Agrupamento.CIDADE), cidade);
+        assertEquals(3, porCidade.pedidos());
+        assertEquals(1, porCidade.cancelados());
+        BigDecimal gmv = novo.getTotal().add(deEmpresaNova.getTotal());
+        assertEquals(0, gmv.compareTo(porCidade.gmv()));
+        assertEquals(0, gmv.divide(BigDecimal.valueOf(2)).compareTo(porCidade.ticketMedio()));
+
+        Fatia porCategoria = fatia(analisePlataformaService.consultar(hoje.minusDays(7), hoje, Agrupamento.CATEGORIA),
+                categoria.getNome());
+        assertEquals(3, porCategoria.pedidos());
+        assertEquals(0, gmv.compareTo(porCategoria.gmv()));
+
+        // O pedido de ontem da empresa B fica fora do período de hoje
+        Analise deHoje = analisePlataformaService.consultar(hoje, hoje, Agrupamento.CIDADE);
+        assertTrue(deHoje.fatias().stream().noneMatch(f -> f.chave().equals("Outra " + sufixo)));
+        Analise porDia = analisePlataformaService.consultar(hoje.minusDays(1), hoje, Agrupamento.DIA);
+        assertEquals(hoje.minusDays(1).toString(), porDia.fatias().get(0).chave());
+
+        // A reconciliação chega ao mesmo resultado a partir do banco
+        analisePlataformaService.reconciliar();
+        assertEquals(porCidade,
+                fatia(analisePlataformaService.consultar(hoje.minusDays(7), hoje, Agrupamento.CIDADE), cidade));
+    }
+
+    private Fatia fatia(Analise analise, String chave) {
+        return analise.fatias().stream()
+                .filter(f -> f.chave().equalsIgnoreCase(chave))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Long novaEmpresaComProduto(String nome, Categoria categoriaEmpresa, String cidadeEmpresa) {
+        Empresa empresa = dadosTeste.novaEmpresa("analise-" + nome, nova -> {
+            nova.setNomeFantasia("Empresa " + nome.toUpperCase() + " " + sufixo);
+            nova.setCategoria(categoriaEmpresa);
+            nova.setCidade(cidadeEmpresa);
+        });
+        return dadosTeste.novoProduto(empresa, "Produto Análise").getId();
+    }
+
+    private PedidoDTO novoPedido(Long produtoId, int quantidade) {
+        Long empresaId = produtoRepository.findById(produtoId).orElseThrow().getEmpresa().getId();
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
@@ -0,0 +1,130 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.Produto;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.exception.ServicoSobrecarregadoException;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Benchmark de vazão (pedidos/s) com muitas requisições simultâneas de criação de pedido:
+ * uma transação por pedido (PedidoService) vs. fila de ingestão com gravação em grupo.
+ *
+ * Executar com: mvn test -Dtest=IngestaoPedidoBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = "app.ingestao-pedidos.habilitada=true")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class IngestaoPedidoBenchmarkTest {
+
+    private static final int REQUISICOES_SIMULTANEAS = 64;
+    private static final int AQUECIMENTO = 200;
+    private static final int PEDIDOS = 2000;
+    private static final int ITENS_POR_PEDIDO = 3;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private IngestaoPedidoService ingestaoPedidoService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long empresaId;
+    private List<Long> produtoIds;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("bench-ingestao", "Cliente Benchmark Ingestão");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("bench-ingestao", "Empresa Benchmark Ingestão");
+        empresaId = empresa.getId();
+
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < ITENS_POR_PEDIDO; i++) {
+            Produto produto = new Produto();
+            produto.setEmpresa(empresa);
+            produto.setNome("Produto " + i);
+            produto.setPreco(BigDecimal.valueOf(10 + i));
+            produto.setAtivo(true);
+            produtos.add(produto);
+        }
+        produtoIds = produtoRepository.saveAll(produtos).stream().map(Produto::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Pedidos por segundo: transação por pedido vs. gravação em grupo")
+    public void compararVazao() throws Exception {
+        PedidoDTO carrinho = montarCarrinho();
+
+        medir(pedidoService::criarPedido, carrinho, AQUECIMENTO);
+        double porPedido = medir(pedidoService::criarPedido, carrinho, PEDIDOS);
+
+        medir(ingestaoPedidoService::criarPedido, carrinho, AQUECIMENTO);
+        double emGrupo = medir(ingestaoPedidoService::criarPedido, carrinho, PEDIDOS);
+
+        System.out.printf("%d requisições simultâneas: transação por pedido %8.1f pedidos/s | em grupo %8.1f pedidos/s%n",
+                REQUISICOES_SIMULTANEAS, porPedido, emGrupo);
+    }
+
+    private double medir(BiFunction<PedidoDTO, String, PedidoDTO> criacao, PedidoDTO carrinho, int quantidade)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES_SIMULTANEAS);
+        AtomicInteger recusados = new AtomicInteger();
+        try {
+            List<Future<?>> tarefas = new ArrayList<>(quantidade);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < quantidade; i++) {
+                tarefas.add(executor.submit(() -> {
+                    try {
+                        criacao.apply(carrinho, emailCliente);
+                    } catch (ServicoSobrecarregadoException e) {
+                        recusados.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+            long duracao = System.nanoTime() - inicio;
+
+            if (recusados.get() > 0) {
+                System.out.printf("Pedidos recusados por fila cheia: %d%n", recusados.get());
+            }
+            return (quantidade - recusados.get()) / (duracao / 1_000_000_000.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PedidoDTO montarCarrinho() {
+        List<PedidoDTO.ItemPedidoDTO> itens = produtoIds.stream().map(produtoId -> DadosTeste.item(produtoId, 1)).toList();
+        return DadosTeste.novoPedido(empresaId, FormaPagamento.PIX, itens);
+    }
+}
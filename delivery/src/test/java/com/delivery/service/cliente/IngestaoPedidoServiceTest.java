@@ -0,0 +1,149 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.support.DadosTeste;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.ingestao-pedidos.habilitada=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class IngestaoPedidoServiceTest {
+
+    @Autowired
+    private IngestaoPedidoService ingestaoPedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long clienteId;
+    private Long empresaId;
+    private Long produtoId;
+    private Long outroProdutoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("ingestao", "Cliente Ingestão");
+        clienteId = cliente.getId();
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("ingestao", "Empresa Ingestão");
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Ingestão").getId();
+        outroProdutoId = dadosTeste.novoProduto(empresa, "Outro Produto Ingestão").getId();
+    }
+
+    @Test
+    @DisplayName("Pedidos concorrentes devem ser gravados pela fila e devolvidos a quem chamou")
+    public void pedidosConcorrentesDevemSerGravados() throws Exception {
+        int total = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PedidoDTO>> resultados = new ArrayList<>();
+            for (int i = 0; i < total; i++) {
+                int quantidade = 1 + i % 3;
+                resultados.add(executor.submit(() -> ingestaoPedidoService.criarPedido(novoPedido(produtoId, quantidade), emailCliente)));
+            }
+
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < total; i++) {
+                PedidoDTO pedido = resultados.get(i).get(30, TimeUnit.SECONDS);
+                assertEquals(BigDecimal.TEN.multiply(BigDecimal.valueOf(1 + i % 3)).compareTo(pedido.getTotal()), 0);
+                ids.add(pedido.getId());
+            }
+            assertEquals(total, ids.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(total, pedidoRepository.findIdsByClienteId(clienteId, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Pedido inválido deve falhar sozinho sem derrubar o grupo")
+    public void pedidoInvalidoDeveFalharSozinho() throws Exception {
+        IngestaoPedidoService.Solicitacao valida = new IngestaoPedidoService.Solicitacao(novoPedido(produtoId, 1), emailCliente, clienteId);
+        IngestaoPedidoService.Solicitacao invalida = new IngestaoPedidoService.Solicitacao(novoPedido(-1L, 1), emailCliente, clienteId);
+        IngestaoPedidoService.Solicitacao outraValida = new IngestaoPedidoService.Solicitacao(novoPedido(produtoId, 2), emailCliente, clienteId);
+
+        ingestaoPedidoService.gravarGrupo(new ArrayList<>(List.of(valida, invalida, outraValida)));
+
+        assertNotNull(valida.resposta.get().getId());
+        assertNotNull(outraValida.resposta.get().getId());
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> invalida.resposta.get());
+        assertEquals("Produto não encontrado", erro.getCause().getMessage());
+        assertEquals(2, pedidoRepository.findIdsByClienteId(clienteId, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Produtos de todos os pedidos do grupo devem ser carregados numa única consulta")
+    public void produtosDoGrupoEmUmaConsulta() throws Exception {
+        List<IngestaoPedidoService.Solicitacao> grupo = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            grupo.add(new IngestaoPedidoService.Solicitacao(novoPedido(i % 2 == 0 ? produtoId : outroProdutoId, 1), emailCliente, clienteId));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ingestaoPedidoService.gravarGrupo(grupo);
+
+        for (IngestaoPedidoService.Solicitacao solicitacao : grupo) {
+            assertNotNull(solicitacao.resposta.get().getId());
+        }
+        long consultasDeProdutos = Arrays.stream(statistics.getQueries())
+                .filter(consulta -> consulta.contains("FROM Produto"))
+                .mapToLong(consulta -> statistics.getQueryStatistics(consulta).getExecutionCount())
+                .sum();
+        assertEquals(1, consultasDeProdutos);
+    }
+
+    @Test
+    @DisplayName("Pedido sem itens deve ser recusado antes de entrar na fila")
+    public void pedidoSemItensDeveSerRecusadoAntesDaFila() {
+        PedidoDTO vazio = novoPedido(produtoId, 1);
+        vazio.getItens().clear();
+
+        assertThrows(BusinessException.class, () -> ingestaoPedidoService.criarPedido(vazio, emailCliente));
+        assertEquals(0, ingestaoPedidoService.getTamanhoFila());
+    }
+
+    private PedidoDTO novoPedido(Long produto, int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produto, quantidade);
+    }
+}
@@ -0,0 +1,180 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.ProdutoDTO;
+import com.delivery.entity.*;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.service.empresa.ProdutoService;
+import com.delivery.support.DadosTeste;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class InsertEmLoteTest {
+
+    private static final int TAMANHO_BATCH = 25;
+
+    // Alocação de um novo bloco de IDs: select + update no gerador, por tabela
+    private static final int STATEMENTS_ALOCACAO_IDS = 2;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private Statistics statistics;
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private List<Long> produtoIds;
+
+    @BeforeEach
+    public void prepararDados() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Cliente cliente = dadosTeste.novoCliente("lote", "Cliente Lote");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("lote", "Empresa Lote");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Produto produto = new Produto();
+            produto.setEmpresa(empresa);
+            produto.setNome("Produto " + i);
+            produto.setPreco(BigDecimal.TEN);
+            produto.setAtivo(true);
+            produtos.add(produto);
+        }
+        produtoIds = produtoRepository.saveAll(produtos).stream().map(Produto::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Itens do pedido devem ser inseridos em batch")
+    public void itensDoPedidoDevemSerInseridosEmBatch() {
+        int quantidadeItens = 50;
+
+        long statements = transactionTemplate.execute(status -> {
+            PedidoDTO dto = montarCarrinho(quantidadeItens);
+            Cliente cliente = clienteRepository.findByEmail(emailCliente).orElseThrow();
+            Empresa empresa = empresaRepository.findById(empresaId).orElseThrow();
+            Map<Long, Produto> produtos = produtoRepository.findAllByIdIn(produtoIds).stream()
+                    .collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+            Pedido pedido = pedidoService.montarPedido(dto, cliente, empresa, produtos);
+
+            statistics.clear();
+            pedidoRepository.save(pedido);
+            entityManager.flush();
+            return statistics.getPrepareStatementCount();
+        });
+
+        // 1 insert de pedido + ceil(50 / 25) batches de itens, contra 51 statements sem batch
+        long esperado = 1 + lotes(quantidadeItens);
+        assertEquals(quantidadeItens + 1, statistics.getEntityInsertCount());
+        assertTrue(statements <= esperado + 2 * STATEMENTS_ALOCACAO_IDS,
+                "Esperado no máximo " + (esperado + 2 * STATEMENTS_ALOCACAO_IDS) + " statements, obtido " + statements);
+    }
+
+    @Test
+    @DisplayName("Importação acima do limite configurado deve ser recusada")
+    public void importacaoAcimaDoLimiteDeveSerRecusada() {
+        List<ProdutoDTO> produtosDTO = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            ProdutoDTO dto = new ProdutoDTO();
+            dto.setNome("Excedente " + i);
+            dto.setPreco(BigDecimal.ONE);
+            produtosDTO.add(dto);
+        }
+
+        assertThrows(BusinessException.class, () -> produtoService.importarProdutos(produtosDTO, emailEmpresa));
+    }
+
+    @Test
+    @DisplayName("Importação de produtos deve ser inserida em batch")
+    public void importacaoDeProdutosDeveSerInseridaEmBatch() {
+        int quantidadeProdutos = 60;
+
+        List<ProdutoDTO> produtosDTO = new ArrayList<>();
+        for (int i = 0; i < quantidadeProdutos; i++) {
+            ProdutoDTO dto = new ProdutoDTO();
+            dto.setNome("Importado " + i);
+            dto.setPreco(BigDecimal.ONE);
+            produtosDTO.add(dto);
+        }
+
+        statistics.clear();
+        List<ProdutoDTO> importados = produtoService.importarProdutos(produtosDTO, emailEmpresa);
+
+        // Consultas da empresa (com usuário) + ceil(60 / 25) batches de produtos
+        long esperado = 2 + lotes(quantidadeProdutos);
+        assertEquals(quantidadeProdutos, importados.size());
+        assertEquals(quantidadeProdutos, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= esperado + STATEMENTS_ALOCACAO_IDS,
+                "Esperado no máximo " + (esperado + STATEMENTS_ALOCACAO_IDS) + " statements, obtido "
+                        + statistics.getPrepareStatementCount());
+    }
+
+    private long lotes(int quantidade) {
+        return (quantidade + TAMANHO_BATCH - 1) / TAMANHO_BATCH;
+    }
+
+    private PedidoDTO montarCarrinho(int tamanho) {
+        List<PedidoDTO.ItemPedidoDTO> itens = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            itens.add(DadosTeste.item(produtoIds.get(i), 1));
+        }
+        return DadosTeste.novoPedido(empresaId, FormaPagamento.DINHEIRO, itens);
+    }
+}
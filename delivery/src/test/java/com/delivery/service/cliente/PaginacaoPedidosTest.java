@@ -0,0 +1,163 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.publico.PaginaCursorDTO;
+import com.delivery.entity.*;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.support.DadosTeste;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class PaginacaoPedidosTest {
+
+    private static final int TOTAL_PEDIDOS = 5;
+    private static final int ITENS_POR_PEDIDO = 3;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private Statistics statistics;
+    private String emailCliente;
+    private String emailEmpresa;
+    private List<Long> pedidoIds;
+
+    @BeforeEach
+    public void prepararDados() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Cliente cliente = dadosTeste.novoCliente("pag", "Cliente Paginação");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("pag", "Empresa Paginação");
+        emailEmpresa = empresa.getUsuario().getEmail();
+
+        Produto produto = dadosTeste.novoProduto(empresa, "Produto Paginação");
+
+        pedidoIds = new ArrayList<>();
+        for (int i = 0; i < TOTAL_PEDIDOS; i++) {
+            List<PedidoDTO.ItemPedidoDTO> itens = new ArrayList<>();
+            for (int j = 0; j < ITENS_POR_PEDIDO; j++) {
+                itens.add(DadosTeste.item(produto.getId(), 1));
+            }
+            PedidoDTO dto = DadosTeste.novoPedido(empresa.getId(), FormaPagamento.PIX, itens);
+
+            Map<Long, Produto> produtos = Map.of(produto.getId(), produto);
+            pedidoIds.add(pedidoRepository.save(pedidoService.montarPedido(dto, cliente, empresa, produtos)).getId());
+        }
+        pedidoIds.sort(Comparator.reverseOrder());
+    }
+
+    @Test
+    @DisplayName("Listagem de pedidos da empresa deve paginar no banco e trazer os itens")
+    public void listagemDaEmpresaDevePaginarNoBanco() {
+        statistics.clear();
+        Page<PedidoDTO> primeira = pedidoService.listarPedidosEmpresa(emailEmpresa, PageRequest.of(0, 2));
+
+        // Empresa (+ usuário) + IDs da página + contagem + pedidos com itens, independente do total de pedidos
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+                "Esperado no máximo 5 statements, obtido " + statistics.getPrepareStatementCount());
+        assertEquals(TOTAL_PEDIDOS, primeira.getTotalElements());
+        assertEquals(List.of(pedidoIds.get(0), pedidoIds.get(1)),
+                primeira.getContent().stream().map(PedidoDTO::getId).toList());
+        primeira.getContent().forEach(pedido -> assertEquals(ITENS_POR_PEDIDO, pedido.getItens().size()));
+
+        Page<PedidoDTO> ultima = pedidoService.listarPedidosEmpresa(emailEmpresa, PageRequest.of(2, 2));
+        assertEquals(1, ultima.getNumberOfElements());
+        assertEquals(pedidoIds.get(4), ultima.getContent().get(0).getId());
+        assertEquals(ITENS_POR_PEDIDO, ultima.getContent().get(0).getItens().size());
+
+        Page<PedidoDTO> foraDoIntervalo = pedidoService.listarPedidosEmpresa(emailEmpresa, PageRequest.of(5, 2));
+        assertTrue(foraDoIntervalo.getContent().isEmpty());
+        assertEquals(TOTAL_PEDIDOS, foraDoIntervalo.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Listagem de pedidos do cliente deve paginar no banco e trazer os itens")
+    public void listagemDoClienteDevePaginarNoBanco() {
+        Page<PedidoDTO> pagina = pedidoService.listarPedidosCliente(emailCliente, PageRequest.of(1, 3));
+
+        assertEquals(TOTAL_PEDIDOS, pagina.getTotalElements());
+        assertEquals(List.of(pedidoIds.get(3), pedidoIds.get(4)),
+                pagina.getContent().stream().map(PedidoDTO::getId).toList());
+        pagina.getContent().forEach(pedido -> assertEquals(ITENS_POR_PEDIDO, pedido.getItens().size()));
+    }
+
+    @Test
+    @DisplayName("Listagem por cursor deve percorrer todos os pedidos sem repetir")
+    public void listagemPorCursorDevePercorrerTodosOsPedidos() {
+        List<Long> percorridos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+
+        do {
+            PaginaCursorDTO<PedidoDTO> pagina = pedidoService.listarPedidosEmpresaPorCursor(emailEmpresa, cursor, 2);
+            pagina.getConteudo().forEach(pedido -> {
+                percorridos.add(pedido.getId());
+                assertEquals(ITENS_POR_PEDIDO, pedido.getItens().size());
+            });
+            assertEquals(pagina.isTemMais(), pagina.getProximoCursor() != null);
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(pedidoIds, percorridos);
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    @DisplayName("Tamanho da página por cursor deve respeitar app.pagination.max-size")
+    public void tamanhoPorCursorDeveRespeitarMaximoConfigurado() {
+        assertEquals(100, pedidoService.listarPedidosEmpresaPorCursor(emailEmpresa, null, 10_000).getTamanho());
+        assertEquals(1, pedidoService.listarPedidosEmpresaPorCursor(emailEmpresa, null, 0).getTamanho());
+    }
+
+    @Test
+    @DisplayName("Cursor inválido deve ser rejeitado")
+    public void cursorInvalidoDeveSerRejeitado() {
+        assertThrows(BusinessException.class,
+                () -> pedidoService.listarPedidosClientePorCursor(emailCliente, "invalido", 2));
+    }
+
+    @Test
+    @DisplayName("Paginação em memória sobre JOIN FETCH de coleção deve falhar")
+    public void paginacaoEmMemoriaDeveFalhar() {
+        // Garante que a configuração que bloqueia o HHH90003004 continua ativa
+        assertThrows(RuntimeException.class, () -> entityManager
+                .createQuery("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens", Pedido.class)
+                .setMaxResults(2)
+                .getResultList());
+    }
+}
@@ -0,0 +1,161 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.*;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.entity.enums.StatusPagamento;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.exception.NotFoundException;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark de criação de pedidos (pedidos/s) para carrinhos de 1, 10 e 50 itens.
+ * Compara o fluxo antigo (uma consulta e um insert por item) com o fluxo em lote.
+ *
+ * Executar com: mvn test -Dtest=PedidoServiceBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PedidoServiceBenchmarkTest {
+
+    private static final int AQUECIMENTO = 20;
+    private static final int ITERACOES = 200;
+    private static final int[] TAMANHOS_CARRINHO = {1, 10, 50};
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long empresaId;
+    private List<Long> produtoIds;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("bench", "Cliente Benchmark");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("bench", "Empresa Benchmark");
+        empresaId = empresa.getId();
+
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Produto produto = new Produto();
+            produto.setEmpresa(empresa);
+            produto.setNome("Produto " + i);
+            produto.setPreco(BigDecimal.valueOf(10 + i));
+            produto.setAtivo(true);
+            produtos.add(produto);
+        }
+        produtoIds = produtoRepository.saveAll(produtos).stream().map(Produto::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Pedidos por segundo: fluxo por item vs. fluxo em lote")
+    public void compararFluxos() {
+        for (int tamanho : TAMANHOS_CARRINHO) {
+            PedidoDTO carrinho = montarCarrinho(tamanho);
+
+            double antes = medir(dto -> transactionTemplate.executeWithoutResult(
+                    status -> criarPedidoPorItem(dto)), carrinho);
+            double depois = medir(dto -> pedidoService.criarPedido(dto, emailCliente), carrinho);
+
+            System.out.printf("Carrinho com %2d itens: antes %8.1f pedidos/s | depois %8.1f pedidos/s%n",
+                    tamanho, antes, depois);
+        }
+    }
+
+    private double medir(Consumer<PedidoDTO> criacao, PedidoDTO carrinho) {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            criacao.accept(carrinho);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            criacao.accept(carrinho);
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        return ITERACOES / (duracao / 1_000_000_000.0);
+    }
+
+    private PedidoDTO montarCarrinho(int tamanho) {
+        List<PedidoDTO.ItemPedidoDTO> itens = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            itens.add(DadosTeste.item(produtoIds.get(i), 1 + (i % 3)));
+        }
+        return DadosTeste.novoPedido(empresaId, FormaPagamento.PIX, itens);
+    }
+
+    /**
+     * Reprodução do fluxo anterior: uma consulta por item e um insert por linha
+     */
+    private void criarPedidoPorItem(PedidoDTO pedidoDTO) {
+        Cliente cliente = clienteRepository.findByEmail(emailCliente)
+                .orElseThrow(() -> new NotFoundException("Cliente não encontrado"));
+        Empresa empresa = empresaRepository.findById(pedidoDTO.getEmpresaId())
+                .orElseThrow(() -> new NotFoundException("Empresa não encontrada"));
+
+        Pedido pedido = new Pedido();
+        pedido.setCliente(cliente);
+        pedido.setEmpresa(empresa);
+        pedido.setStatus(StatusPedido.PENDENTE);
+        pedido.setStatusPagamento(StatusPagamento.PENDENTE);
+        pedido.setFormaPagamento(pedidoDTO.getFormaPagamento());
+        pedido.setItens(new ArrayList<>());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (PedidoDTO.ItemPedidoDTO itemDTO : pedidoDTO.getItens()) {
+            Produto produto = produtoRepository.findById(itemDTO.getProdutoId())
+                    .orElseThrow(() -> new NotFoundException("Produto não encontrado"));
+
+            ItemPedido item = new ItemPedido();
+            item.setPedido(pedido);
+            item.setProduto(produto);
+            item.setQuantidade(itemDTO.getQuantidade());
+            item.setPrecoUnitario(produto.getPreco());
+            item.setSubtotal(produto.getPreco().multiply(BigDecimal.valueOf(itemDTO.getQuantidade())));
+
+            total = total.add(item.getSubtotal());
+            pedido.getItens().add(item);
+        }
+
+        pedido.setTotal(total);
+        pedidoRepository.save(pedido);
+    }
+}
@@ -0,0 +1,150 @@
+package com.delivery.service.cliente;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.StatusPagamento;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransicaoStatusConcorrenteTest {
+
+    private static final int THREADS = 8;
+
+    private static final List<StatusPedido> FLUXO = List.of(
+            StatusPedido.CONFIRMADO, StatusPedido.PREPARANDO, StatusPedido.PRONTO, StatusPedido.ENTREGUE);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("cas", "Cliente Concorrente");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("cas", "Empresa Concorrente");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Concorrente").getId();
+    }
+
+    @Test
+    @DisplayName("Tablets concorrentes devem aplicar cada transição exatamente uma vez")
+    public void transicoesConcorrentesDevemSerAplicadasUmaVez() throws Exception {
+        Long pedidoId = pedidoService.criarPedido(novoPedido(), emailCliente).getId();
+
+        // Todas as threads percorrem o fluxo inteiro; cada status só pode ser aplicado por uma delas
+        List<StatusPedido> aplicados = disputar(() -> {
+            List<StatusPedido> sucessos = new ArrayList<>();
+            for (StatusPedido status : FLUXO) {
+                if (tentar(() -> pedidoService.atualizarStatus(pedidoId, status, emailEmpresa))) {
+                    sucessos.add(status);
+                }
+            }
+            return sucessos;
+        });
+
+        assertEquals(aplicados.size(), Set.copyOf(aplicados).size(), "Transição aplicada mais de uma vez: " + aplicados);
+        assertTrue(aplicados.contains(StatusPedido.ENTREGUE));
+        assertEquals(StatusPedido.ENTREGUE, pedidoRepository.findById(pedidoId).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Pagamentos concorrentes do mesmo pedido devem ser aplicados uma única vez")
+    public void pagamentosConcorrentesDevemSerAplicadosUmaVez() throws Exception {
+        Long pedidoId = pedidoService.criarPedido(novoPedido(), emailCliente).getId();
+
+        List<StatusPedido> aplicados = disputar(() -> tentar(() -> pedidoService.pagarPedido(pedidoId, emailCliente))
+                ? List.of(StatusPedido.CONFIRMADO) : List.of());
+
+        assertEquals(1, aplicados.size());
+        var pedido = pedidoRepository.findById(pedidoId).orElseThrow();
+        assertEquals(StatusPedido.CONFIRMADO, pedido.getStatus());
+        assertEquals(StatusPagamento.PAGO, pedido.getStatusPagamento());
+    }
+
+    @Test
+    @DisplayName("Transições fora da máquina de estados devem ser recusadas")
+    public void transicaoInvalidaDeveSerRecusada() {
+        Long pedidoId = pedidoService.criarPedido(novoPedido(), emailCliente).getId();
+        pedidoService.marcarComoCancelado(pedidoId, emailEmpresa);
+
+        BusinessException erro = assertThrows(BusinessException.class,
+                () -> pedidoService.atualizarStatus(pedidoId, StatusPedido.PREPARANDO, emailEmpresa));
+        assertEquals("Transição de status inválida: CANCELADO -> PREPARANDO", erro.getMessage());
+        assertThrows(BusinessException.class, () -> pedidoService.cancelarPedido(pedidoId, emailCliente));
+    }
+
+    /**
+     * Dispara a tarefa em todas as threads ao mesmo tempo e junta os status aplicados por elas
+     */
+    private List<StatusPedido> disputar(Callable<List<StatusPedido>> tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<List<StatusPedido>>> resultados = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return tarefa.call();
+                }));
+            }
+            largada.countDown();
+
+            List<StatusPedido> aplicados = new ArrayList<>();
+            for (Future<List<StatusPedido>> resultado : resultados) {
+                aplicados.addAll(resultado.get(30, TimeUnit.SECONDS));
+            }
+            return aplicados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean tentar(Runnable transicao) {
+        try {
+            transicao.run();
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private PedidoDTO novoPedido() {
+        return DadosTeste.novoPedido(empresaId, produtoId, 1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.EmpresaDTO;
+import com.delivery.dto.empresa.FeedbackDTO;
+import com.delivery.entity.Categoria;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.repository.CategoriaRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AvaliacaoEmpresaTest {
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String sufixo;
+    private String emailCliente;
+    private Empresa empresa;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        sufixo = DadosTeste.sufixo();
+
+        Cliente cliente = dadosTeste.novoCliente("avaliacao", "Cliente Avaliação");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        empresa = novaEmpresa(null, 0, 0);
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Avaliação").getId();
+    }
+
+    @Test
+    @DisplayName("Cada feedback deve somar a nota aos agregados da empresa")
+    public void feedbackDeveAtualizarAgregados() {
+        avaliar(5);
+        avaliar(4);
+        avaliar(2);
+
+        EmpresaDTO dto = empresaService.buscarPorId(empresa.getId());
+        assertEquals(3, dto.getTotalAvaliacoes());
+        assertEquals(11.0 / 3, dto.getAvaliacao(), 1e-9);
+        assertEquals(11L, empresaRepository.findById(empresa.getId()).orElseThrow().getSomaAvaliacoes());
+    }
+
+    @Test
+    @DisplayName("O recálculo deve corrigir agregados divergentes dos feedbacks")
+    public void recalculoDeveCorrigirDivergencias() {
+        avaliar(3);
+        Empresa semFeedbacks = novaEmpresa(null, 40, 10);
+        jdbcTemplate.update("UPDATE empresas SET soma_avaliacoes = 50, total_avaliacoes = 10, avaliacao_media = 5 " +
+                "WHERE id = ?", empresa.getId());
+
+        assertTrue(feedbackService.recalcularAvaliacoes() >= 2);
+
+        EmpresaDTO avaliada = empresaService.buscarPorId(empresa.getId());
+        assertEquals(1, avaliada.getTotalAvaliacoes());
+        assertEquals(3.0, avaliada.getAvaliacao(), 1e-9);
+
+        EmpresaDTO zerada = empresaService.buscarPorId(semFeedbacks.getId());
+        assertEquals(0, zerada.getTotalAvaliacoes());
+        assertEquals(0.0, zerada.getAvaliacao());
+    }
+
+    @Test
+    @DisplayName("Na inicialização, agregados zerados de empresas com feedbacks devem ser preenchidos")
+    public void conferenciaDevePreencherAgregadosZerados() {
+        avaliar(4);
+        avaliar(5);
+        jdbcTemplate.update("UPDATE empresas SET soma_avaliacoes = 0, total_avaliacoes = 0, avaliacao_media = 0 " +
+                "WHERE id = ?", empresa.getId());
+
+        feedbackService.conferirAvaliacoes();
+
+        EmpresaDTO dto = empresaService.buscarPorId(empresa.getId());
+        assertEquals(2, dto.getTotalAvaliacoes());
+        assertEquals(4.5, dto.getAvaliacao(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("A listagem ordenada por avaliação deve trazer as mais bem avaliadas primeiro")
+    public void deveOrdenarPorAvaliacao() {
+        Categoria categoria = new Categoria();
+        categoria.setNome("Avaliação " + sufixo);
+        categoria.setSlug("avaliacao-" + sufixo);
+        categoria = categoriaRepository.save(categoria);
+
+        Long quatroEMeioPoucas = novaEmpresa(categoria, 9, 2).getId();
+        Long cinco = novaEmpresa(categoria, 5, 1).getId();
+        Long quatroEMeioMuitas = novaEmpresa(categoria, 45, 10).getId();
+        Long semAvaliacao = novaEmpresa(categoria, 0, 0).getId();
+
+        List<Long> ids = empresaService.buscarPorCategoria(categoria.getId(), EmpresaService.Ordem.AVALIACAO,
+                        PageRequest.of(0, 10))
+                .getContent().stream().map(EmpresaDTO::getId).toList();
+        assertEquals(List.of(cinco, quatroEMeioMuitas, quatroEMeioPoucas, semAvaliacao), ids);
+    }
+
+    private void avaliar(int nota) {
+        PedidoDTO criado = pedidoService.criarPedido(DadosTeste.novoPedido(empresa.getId(), produtoId, 1), emailCliente);
+        jdbcTemplate.update("UPDATE pedidos SET status = 'ENTREGUE' WHERE id = ?", criado.getId());
+
+        FeedbackDTO feedback = new FeedbackDTO();
+        feedback.setPedidoId(criado.getId());
+        feedback.setNota(nota);
+        feedbackService.criarFeedback(feedback, emailCliente);
+    }
+
+    private Empresa novaEmpresa(Categoria categoria, long somaAvaliacoes, int totalAvaliacoes) {
+        return dadosTeste.novaEmpresa("avaliacao", nova -> {
+            nova.setCategoria(categoria);
+            nova.setSomaAvaliacoes(somaAvaliacoes);
+            nova.setTotalAvaliacoes(totalAvaliacoes);
+            nova.setAvaliacaoMedia(totalAvaliacoes > 0 ? (double) somaAvaliacoes / totalAvaliacoes : 0.0);
+        });
+    }
+}
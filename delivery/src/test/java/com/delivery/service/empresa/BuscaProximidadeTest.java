@@ -0,0 +1,147 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.empresa.EmpresaDTO;
+import com.delivery.entity.Empresa;
+import com.delivery.event.EmpresaAlteradaEvent;
+import com.delivery.exception.BusinessException;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.service.publico.IndiceGeograficoService;
+import com.delivery.support.DadosTeste;
+import com.delivery.util.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BuscaProximidadeTest {
+
+    private static final double KM_POR_GRAU = Math.PI * GeoUtils.RAIO_TERRA_KM / 180;
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private IndiceGeograficoService indiceGeograficoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    // Ponto no oceano, sorteado para não encontrar empresas de outros testes
+    private double latitude;
+    private double longitude;
+    private Long aUmKm;
+    private Long aTresKm;
+    private Long aSeisKm;
+
+    @BeforeEach
+    public void prepararDados() {
+        latitude = -40 - ThreadLocalRandom.current().nextDouble(5);
+        longitude = -20 - ThreadLocalRandom.current().nextDouble(5);
+
+        aUmKm = novaEmpresa(1, true);
+        aTresKm = novaEmpresa(3, true);
+        aSeisKm = novaEmpresa(6, true);
+        novaEmpresa(30, true);
+        novaEmpresa(0.5, false);
+        indiceGeograficoService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Deve listar as empresas ativas no raio por distância, paginadas e com a distância")
+    public void deveListarEmpresasNoRaioPorDistancia() {
+        Page<EmpresaDTO> noRaio = empresaService.buscarPorLocalizacao(latitude, longitude, 5.0, PageRequest.of(0, 10));
+
+        assertEquals(List.of(aUmKm, aTresKm), ids(noRaio));
+        assertEquals(1.0, noRaio.getContent().get(0).getDistanciaKm(), 0.01);
+        assertEquals(3.0, noRaio.getContent().get(1).getDistanciaKm(), 0.01);
+
+        Page<EmpresaDTO> segundaPagina = empresaService.buscarPorLocalizacao(latitude, longitude, 5.0, PageRequest.of(1, 1));
+        assertEquals(List.of(aTresKm), ids(segundaPagina));
+        assertEquals(2, segundaPagina.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Sem raio deve devolver as k empresas mais próximas")
+    public void semRaioDeveDevolverAsMaisProximas() {
+        Page<EmpresaDTO> maisProximas = empresaService.buscarPorLocalizacao(latitude, longitude, null, PageRequest.of(0, 3));
+
+        assertEquals(List.of(aUmKm, aTresKm, aSeisKm), ids(maisProximas));
+        assertEquals(6.0, maisProximas.getContent().get(2).getDistanciaKm(), 0.01);
+    }
+
+    @Test
+    @DisplayName("O índice em memória deve devolver as mesmas empresas e distâncias da consulta no banco")
+    public void indiceDeveConcordarComOBanco() {
+        GeoUtils.Caixa caixa = GeoUtils.caixaDelimitadora(latitude, longitude, 40);
+        List<Object[]> doBanco = empresaRepository.findProximas(latitude, longitude, caixa.latitudeMinima(),
+                caixa.latitudeMaxima(), caixa.longitudeMinima(), caixa.longitudeMaxima(), 40, 10, 0);
+        IndiceGeograficoService.Resultado daMemoria = indiceGeograficoService.buscar(latitude, longitude, 40, 0, 10);
+
+        assertEquals(doBanco.stream().map(linha -> ((Number) linha[0]).longValue()).toList(),
+                daMemoria.empresas().stream().map(IndiceGeograficoService.Proxima::id).toList());
+        assertEquals(4, daMemoria.total());
+        for (int i = 0; i < doBanco.size(); i++) {
+            assertEquals(((Number) doBanco.get(i)[1]).doubleValue(), daMemoria.empresas().get(i).distanciaKm(), 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("O índice deve acompanhar mudança de coordenadas no perfil e desativação")
+    public void indiceDeveAcompanharAlteracoes() {
+        Empresa aUmKmAntes = empresaRepository.findById(aUmKm).orElseThrow();
+        EmpresaDTO perfil = new EmpresaDTO();
+        perfil.setLatitude(latitude + 4 / KM_POR_GRAU);
+        empresaService.atualizarPerfil(aUmKmAntes.getUsuario().getEmail(), perfil);
+
+        assertEquals(List.of(aTresKm, aUmKm, aSeisKm),
+                ids(empresaService.buscarPorLocalizacao(latitude, longitude, 10.0, PageRequest.of(0, 10))));
+
+        Empresa aTresKmAntes = empresaRepository.findById(aTresKm).orElseThrow();
+        aTresKmAntes.setAtivo(false);
+        empresaRepository.save(aTresKmAntes);
+        eventPublisher.publishEvent(new EmpresaAlteradaEvent(aTresKm));
+
+        assertEquals(List.of(aUmKm, aSeisKm),
+                ids(empresaService.buscarPorLocalizacao(latitude, longitude, 10.0, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar raio acima do máximo e coordenadas inválidas")
+    public void deveRejeitarParametrosInvalidos() {
+        PageRequest pagina = PageRequest.of(0, 10);
+
+        assertThrows(BusinessException.class, () -> empresaService.buscarPorLocalizacao(latitude, longitude, 500.0, pagina));
+        assertThrows(BusinessException.class, () -> empresaService.buscarPorLocalizacao(95.0, longitude, 5.0, pagina));
+    }
+
+    // Empresa a distanciaKm ao norte do ponto
+    private Long novaEmpresa(double distanciaKm, boolean ativa) {
+        return dadosTeste.novaEmpresa("proximidade", empresa -> {
+            empresa.setLatitude(latitude + distanciaKm / KM_POR_GRAU);
+            empresa.setLongitude(longitude);
+            empresa.setAtivo(ativa);
+        }).getId();
+    }
+
+    private List<Long> ids(Page<EmpresaDTO> empresas) {
+        return empresas.getContent().stream().map(EmpresaDTO::getId).toList();
+    }
+}
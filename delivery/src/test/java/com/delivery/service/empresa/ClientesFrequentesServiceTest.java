@@ -0,0 +1,111 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Empresa;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.empresa.ClientesFrequentesService.ClienteFrequente;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ClientesFrequentesServiceTest {
+
+    @Autowired
+    private ClientesFrequentesService clientesFrequentesService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Empresa empresa = dadosTeste.novaEmpresa("frequentes", "Empresa Frequentes");
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Frequentes").getId();
+    }
+
+    @Test
+    @DisplayName("Ranking deve ordenar por pedidos e ignorar cancelados")
+    public void rankingDeveIgnorarCancelados() {
+        String assiduo = novoCliente("a");
+        String gastador = novoCliente("b");
+        String eventual = novoCliente("c");
+
+        pedidoService.criarPedido(novoPedido(1), assiduo);
+        pedidoService.criarPedido(novoPedido(1), assiduo);
+        pedidoService.criarPedido(novoPedido(1), assiduo);
+        pedidoService.criarPedido(novoPedido(5), gastador);
+        pedidoService.criarPedido(novoPedido(1), gastador);
+        pedidoService.criarPedido(novoPedido(1), eventual);
+        for (int i = 0; i < 3; i++) {
+            PedidoDTO cancelado = pedidoService.criarPedido(novoPedido(1), eventual);
+            pedidoService.cancelarPedido(cancelado.getId(), eventual);
+        }
+
+        List<ClienteFrequente> ranking = clientesFrequentesService.listar(empresaId, YearMonth.now(), 2);
+        assertEquals(2, ranking.size());
+        assertEquals(3, ranking.get(0).pedidos());
+        assertEquals(0, new BigDecimal("30").compareTo(ranking.get(0).total()));
+        assertEquals(2, ranking.get(1).pedidos());
+        assertEquals(0, new BigDecimal("60").compareTo(ranking.get(1).total()));
+        assertNotNull(ranking.get(1).ultimoPedido());
+    }
+
+    @Test
+    @DisplayName("Mês encerrado deve ficar em cache até um cancelamento tardio")
+    public void mesEncerradoDeveFicarEmCache() {
+        YearMonth mesAnterior = YearMonth.now().minusMonths(1);
+        String cliente = novoCliente("d");
+        PedidoDTO primeiro = pedidoService.criarPedido(novoPedido(1), cliente);
+        PedidoDTO segundo = pedidoService.criarPedido(novoPedido(1), cliente);
+        moverParaMes(primeiro.getId(), mesAnterior);
+        moverParaMes(segundo.getId(), mesAnterior);
+
+        assertEquals(2, clientesFrequentesService.listar(empresaId, mesAnterior, 10).get(0).pedidos());
+
+        // Alteração direta no banco não é vista: o ranking do mês encerrado está em cache
+        PedidoDTO terceiro = pedidoService.criarPedido(novoPedido(3), cliente);
+        moverParaMes(terceiro.getId(), mesAnterior);
+        assertEquals(2, clientesFrequentesService.listar(empresaId, mesAnterior, 10).get(0).pedidos());
+
+        // Cancelamento de pedido do mês descarta o cache
+        pedidoService.cancelarPedido(primeiro.getId(), cliente);
+        assertEquals(2, clientesFrequentesService.listar(empresaId, mesAnterior, 10).get(0).pedidos());
+        assertEquals(0, new BigDecimal("40").compareTo(
+                clientesFrequentesService.listar(empresaId, mesAnterior, 10).get(0).total()));
+    }
+
+    private String novoCliente(String marca) {
+        return dadosTeste.novoCliente("frequentes-" + marca).getUsuario().getEmail();
+    }
+
+    private void moverParaMes(Long pedidoId, YearMonth mes) {
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", mes.atDay(10).atTime(12, 0), pedidoId);
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
@@ -0,0 +1,152 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.security.UsuarioPrincipal;
+import com.delivery.service.auth.JwtService;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ExportacaoPedidosServiceTest {
+
+    @Autowired
+    private ExportacaoPedidosService exportacaoPedidosService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long usuarioEmpresaId;
+    private Long pizzaId;
+    private Long sucoId;
+    private Long formulaId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("exportacao", "Silva, \"Zé\"");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("exportacao", "Empresa Exportação");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+        usuarioEmpresaId = empresa.getUsuario().getId();
+
+        pizzaId = dadosTeste.novoProduto(empresa, "Pizza", new BigDecimal("30")).getId();
+        sucoId = dadosTeste.novoProduto(empresa, "Suco", new BigDecimal("8")).getId();
+        formulaId = dadosTeste.novoProduto(empresa, "=HYPERLINK(\"http://x\",\"Suco\")", new BigDecimal("5")).getId();
+    }
+
+    @Test
+    @DisplayName("CSV deve ter uma linha por item dos pedidos do período")
+    public void csvDeveTerUmaLinhaPorItem() throws Exception {
+        PedidoDTO completo = pedidoService.criarPedido(novoPedido(2, 1), emailCliente);
+        pedidoService.criarPedido(novoPedido(1, 0), emailCliente);
+        PedidoDTO antigo = pedidoService.criarPedido(novoPedido(1, 0), emailCliente);
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?",
+                LocalDate.now().minusDays(40).atStartOfDay(), antigo.getId());
+
+        String hoje = LocalDate.now().toString();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoPedidosService.exportarCSV(emailEmpresa, LocalDate.now().minusDays(7).toString(), hoje).writeTo(saida);
+
+        List<String> linhas = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, linhas.size());
+        assertTrue(linhas.get(0).startsWith("pedido_id,data,status"));
+        assertTrue(linhas.get(1).startsWith(completo.getId() + ","));
+        assertTrue(linhas.get(1).contains(",\"Silva, \"\"Zé\"\"\",68.00,"));
+        assertTrue(linhas.stream().noneMatch(linha -> linha.startsWith(antigo.getId() + ",")));
+    }
+
+    @Test
+    @DisplayName("Texto que começa como fórmula deve sair com apóstrofo e entre aspas")
+    public void textoComoFormulaDeveSerNeutralizado() throws Exception {
+        PedidoDTO pedido = pedidoService.criarPedido(
+                DadosTeste.novoPedido(empresaId, FormaPagamento.PIX, List.of(DadosTeste.item(formulaId, 1))), emailCliente);
+
+        String hoje = LocalDate.now().toString();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoPedidosService.exportarCSV(emailEmpresa, hoje, hoje).writeTo(saida);
+
+        String linha = saida.toString(StandardCharsets.UTF_8).lines()
+                .filter(l -> l.startsWith(pedido.getId() + ","))
+                .findFirst().orElseThrow();
+        assertTrue(linha.contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"Suco\"\")\","), linha);
+    }
+
+    @Test
+    @DisplayName("Endpoint deve enviar o CSV de forma assíncrona")
+    public void endpointDeveEnviarCsv() throws Exception {
+        pedidoService.criarPedido(novoPedido(1, 1), emailCliente);
+        UsuarioPrincipal principal = new UsuarioPrincipal(usuarioEmpresaId, emailEmpresa, TipoUsuario.EMPRESA,
+                null, empresaId, null, true);
+        String hoje = LocalDate.now().toString();
+
+        MvcResult resultado = mockMvc.perform(get("/api/empresa/relatorios/exportar/csv")
+                        .param("dataInicio", hoje)
+                        .param("dataFim", hoje)
+                        .header("Authorization", "Bearer " + jwtService.generateToken(principal)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv; charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(3, csv.lines().count());
+    }
+
+    private PedidoDTO novoPedido(int pizzas, int sucos) {
+        List<PedidoDTO.ItemPedidoDTO> itens = new ArrayList<>();
+        if (pizzas > 0) {
+            itens.add(DadosTeste.item(pizzaId, pizzas));
+        }
+        if (sucos > 0) {
+            itens.add(DadosTeste.item(sucoId, sucos));
+        }
+        return DadosTeste.novoPedido(empresaId, FormaPagamento.PIX, itens);
+    }
+}
@@ -0,0 +1,124 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PainelCozinhaServiceTest {
+
+    @Autowired
+    private PainelCozinhaService painelCozinhaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("painel", "Cliente Painel");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("painel", "Empresa Painel");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Painel").getId();
+    }
+
+    @Test
+    @DisplayName("Painel deve acompanhar as transições de status dos pedidos")
+    public void painelDeveAcompanharTransicoes() {
+        PedidoDTO primeiro = pedidoService.criarPedido(novoPedido(), emailCliente);
+        PedidoDTO segundo = pedidoService.criarPedido(novoPedido(), emailCliente);
+
+        assertEquals(List.of(primeiro.getId(), segundo.getId()), idsPorStatus(StatusPedido.PENDENTE));
+
+        pedidoService.pagarPedido(primeiro.getId(), emailCliente);
+        pedidoService.atualizarStatus(segundo.getId(), StatusPedido.PREPARANDO, emailEmpresa);
+
+        Map<StatusPedido, Long> contagens = painelCozinhaService.contarPorStatus(emailEmpresa);
+        assertEquals(0L, contagens.get(StatusPedido.PENDENTE));
+        assertEquals(1L, contagens.get(StatusPedido.CONFIRMADO));
+        assertEquals(1L, contagens.get(StatusPedido.PREPARANDO));
+        assertEquals(0L, contagens.get(StatusPedido.PRONTO));
+
+        pedidoService.marcarComoEntregue(segundo.getId(), emailEmpresa);
+        Map<StatusPedido, List<PedidoDTO>> painel = painelCozinhaService.obterPainel(emailEmpresa);
+        assertFalse(painel.containsKey(StatusPedido.ENTREGUE));
+        assertTrue(painel.get(StatusPedido.PREPARANDO).isEmpty());
+        assertEquals(primeiro.getId(), painel.get(StatusPedido.CONFIRMADO).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Reconciliação deve corrigir alterações feitas fora do PedidoService")
+    public void reconciliacaoDeveCorrigirDivergencias() {
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+
+        // Alteração direta no banco, sem evento
+        transactionTemplate.executeWithoutResult(status -> pedidoRepository.findById(pedido.getId())
+                .ifPresent(p -> p.setStatus(StatusPedido.PRONTO)));
+        assertEquals(List.of(pedido.getId()), idsPorStatus(StatusPedido.PENDENTE));
+
+        painelCozinhaService.reconciliar();
+
+        assertTrue(idsPorStatus(StatusPedido.PENDENTE).isEmpty());
+        assertEquals(List.of(pedido.getId()), idsPorStatus(StatusPedido.PRONTO));
+        assertEquals(empresaId, painelCozinhaService.listarPorStatus(emailEmpresa, StatusPedido.PRONTO).get(0).getEmpresaId());
+    }
+
+    @Test
+    @DisplayName("Eventos atrasados não devem trazer de volta estados antigos, nem depois da reconciliação")
+    public void eventoAtrasadoDeveSerIgnorado() {
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+        PedidoDTO preparando = pedidoService.atualizarStatus(pedido.getId(), StatusPedido.PREPARANDO, emailEmpresa);
+        pedidoService.marcarComoEntregue(pedido.getId(), emailEmpresa);
+
+        painelCozinhaService.aoAlterarPedido(new PedidoAlteradoEvent(preparando, StatusPedido.PENDENTE));
+        assertTrue(idsPorStatus(StatusPedido.PREPARANDO).isEmpty());
+
+        painelCozinhaService.reconciliar();
+        painelCozinhaService.aoAlterarPedido(new PedidoAlteradoEvent(pedido, null));
+        assertTrue(idsPorStatus(StatusPedido.PENDENTE).isEmpty());
+    }
+
+    private List<Long> idsPorStatus(StatusPedido status) {
+        return painelCozinhaService.listarPorStatus(emailEmpresa, status).stream().map(PedidoDTO::getId).toList();
+    }
+
+    private PedidoDTO novoPedido() {
+        return DadosTeste.novoPedido(empresaId, FormaPagamento.DINHEIRO, produtoId, 2);
+    }
+}
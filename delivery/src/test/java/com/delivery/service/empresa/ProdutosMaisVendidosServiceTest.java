@@ -0,0 +1,109 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.empresa.ProdutosMaisVendidosService.ProdutoVendido;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProdutosMaisVendidosServiceTest {
+
+    @Autowired
+    private ProdutosMaisVendidosService produtosMaisVendidosService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long empresaId;
+    private Long pizzaId;
+    private Long refrigeranteId;
+    private Long sobremesaId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("ranking", "Cliente Ranking");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("ranking", "Empresa Ranking");
+        empresaId = empresa.getId();
+
+        pizzaId = dadosTeste.novoProduto(empresa, "Pizza", new BigDecimal("10")).getId();
+        refrigeranteId = dadosTeste.novoProduto(empresa, "Refrigerante", new BigDecimal("5")).getId();
+        sobremesaId = dadosTeste.novoProduto(empresa, "Sobremesa", new BigDecimal("20")).getId();
+    }
+
+    @Test
+    @DisplayName("Mês corrente deve vir dos contadores, sem pedidos cancelados")
+    public void mesCorrenteDeveIgnorarCancelados() {
+        pedidoService.criarPedido(novoPedido(pizzaId, 3), emailCliente);
+        pedidoService.criarPedido(novoPedido(refrigeranteId, 5), emailCliente);
+        pedidoService.criarPedido(novoPedido(sobremesaId, 1), emailCliente);
+        PedidoDTO cancelado = pedidoService.criarPedido(novoPedido(pizzaId, 4), emailCliente);
+        pedidoService.cancelarPedido(cancelado.getId(), emailCliente);
+
+        List<ProdutoVendido> ranking = produtosMaisVendidosService.listar(empresaId, YearMonth.now(), 2);
+        assertEquals(List.of(refrigeranteId, pizzaId), ranking.stream().map(ProdutoVendido::produtoId).toList());
+        assertEquals(3, ranking.get(1).quantidade());
+        assertEquals(0, new BigDecimal("30").compareTo(ranking.get(1).receita()));
+
+        // A reconciliação com o banco deve chegar ao mesmo resultado
+        produtosMaisVendidosService.reconciliar();
+        assertEquals(ranking, produtosMaisVendidosService.listar(empresaId, YearMonth.now(), 2));
+    }
+
+    @Test
+    @DisplayName("Mês encerrado deve ficar em cache até um cancelamento tardio")
+    public void mesEncerradoDeveFicarEmCache() {
+        YearMonth mesAnterior = YearMonth.now().minusMonths(1);
+        PedidoDTO pizza = pedidoService.criarPedido(novoPedido(pizzaId, 3), emailCliente);
+        PedidoDTO refrigerante = pedidoService.criarPedido(novoPedido(refrigeranteId, 2), emailCliente);
+        moverParaMes(pizza.getId(), mesAnterior);
+        moverParaMes(refrigerante.getId(), mesAnterior);
+        produtosMaisVendidosService.reconciliar();
+
+        assertTrue(produtosMaisVendidosService.listar(empresaId, YearMonth.now(), 10).isEmpty());
+        List<ProdutoVendido> ranking = produtosMaisVendidosService.listar(empresaId, mesAnterior, 10);
+        assertEquals(List.of(pizzaId, refrigeranteId), ranking.stream().map(ProdutoVendido::produtoId).toList());
+
+        // Alteração direta no banco não é vista: o ranking do mês encerrado está em cache
+        PedidoDTO sobremesa = pedidoService.criarPedido(novoPedido(sobremesaId, 9), emailCliente);
+        moverParaMes(sobremesa.getId(), mesAnterior);
+        assertEquals(ranking, produtosMaisVendidosService.listar(empresaId, mesAnterior, 10));
+
+        // Cancelamento de pedido do mês descarta o cache
+        pedidoService.cancelarPedido(pizza.getId(), emailCliente);
+        assertEquals(List.of(sobremesaId, refrigeranteId), produtosMaisVendidosService.listar(empresaId, mesAnterior, 10)
+                .stream().map(ProdutoVendido::produtoId).toList());
+    }
+
+    private void moverParaMes(Long pedidoId, YearMonth mes) {
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", mes.atDay(10).atTime(12, 0), pedidoId);
+    }
+
+    private PedidoDTO novoPedido(Long produtoId, int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
@@ -0,0 +1,123 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.FeedbackDTO;
+import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RelatorioCacheTest {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private VendaDiariaService vendaDiariaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("cache", "Cliente Cache");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("cache", "Empresa Cache");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Cache").getId();
+    }
+
+    @Test
+    @DisplayName("Relatório do mês corrente deve ser invalidado por novo pedido e por feedback")
+    public void mesCorrenteDeveSerInvalidadoPorPedidoEFeedback() {
+        LocalDate hoje = LocalDate.now();
+        PedidoDTO primeiro = pedidoService.criarPedido(novoPedido(1), emailCliente);
+
+        RelatorioDTO mensal = mensal(hoje);
+        long acertos = relatorioCache.getEstatisticas().acertos();
+        assertSame(mensal, mensal(hoje));
+        assertEquals(acertos + 1, relatorioCache.getEstatisticas().acertos());
+
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+        assertEquals(2, mensal(hoje).getQuantidadePedidosMensal());
+
+        // Feedback muda a avaliação do relatório mensal, mas não o de vendas
+        Map<String, Object> vendas = relatorioService.gerarRelatorioVendas(emailEmpresa, hoje.getMonthValue(), hoje.getYear());
+        jdbcTemplate.update("UPDATE pedidos SET status = 'ENTREGUE' WHERE id = ?", primeiro.getId());
+        FeedbackDTO feedback = new FeedbackDTO();
+        feedback.setPedidoId(primeiro.getId());
+        feedback.setNota(4);
+        feedbackService.criarFeedback(feedback, emailCliente);
+
+        assertEquals(1, mensal(hoje).getTotalAvaliacoes());
+        assertSame(vendas, relatorioService.gerarRelatorioVendas(emailEmpresa, hoje.getMonthValue(), hoje.getYear()));
+    }
+
+    @Test
+    @DisplayName("Relatório de mês encerrado só deve ser invalidado por alteração de pedido do mês")
+    public void mesEncerradoDeveSerInvalidadoSoPorPedidoDoMes() {
+        YearMonth mesAnterior = YearMonth.now().minusMonths(1);
+        PedidoDTO antigo = pedidoService.criarPedido(novoPedido(3), emailCliente);
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", mesAnterior.atDay(5).atTime(12, 0), antigo.getId());
+        vendaDiariaService.reconstruir(mesAnterior.atDay(5), mesAnterior.atDay(5));
+
+        Map<String, Object> vendas = vendasDoMes(mesAnterior);
+        assertEquals(1L, vendas.get("quantidadePedidos"));
+
+        pedidoService.criarPedido(novoPedido(1), emailCliente);
+        assertSame(vendas, vendasDoMes(mesAnterior));
+
+        pedidoService.cancelarPedido(antigo.getId(), emailCliente);
+        Map<String, Object> atualizado = vendasDoMes(mesAnterior);
+        assertNotSame(vendas, atualizado);
+        assertEquals(1L, atualizado.get("pedidosCancelados"));
+    }
+
+    private RelatorioDTO mensal(LocalDate dia) {
+        return relatorioService.gerarRelatorioMensal(emailEmpresa, dia.getMonthValue(), dia.getYear());
+    }
+
+    private Map<String, Object> vendasDoMes(YearMonth mes) {
+        return relatorioService.gerarRelatorioVendas(emailEmpresa, mes.getMonthValue(), mes.getYear());
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
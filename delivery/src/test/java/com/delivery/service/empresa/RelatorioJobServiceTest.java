@@ -0,0 +1,128 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.dto.empresa.RelatorioJobDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.exception.BusinessException;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.exception.NotFoundException;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RelatorioJobServiceTest {
+
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
+    @SpyBean
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("jobs", "Cliente Jobs");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("jobs-a", "Empresa Jobs a");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Jobs", new BigDecimal("25.00")).getId();
+    }
+
+    @Test
+    @DisplayName("Relatório concluído deve ser reaproveitado por quem pedir o mesmo período")
+    public void resultadoDeveFicarEmCache() throws Exception {
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+        String hoje = LocalDate.now().toString();
+
+        RelatorioJobDTO job = relatorioJobService.submeterRelatorioPorPeriodo(emailEmpresa, hoje, hoje);
+        aguardarConclusao(job.getId());
+
+        RelatorioDTO relatorio = relatorioJobService.obterResultado(job.getId(), emailEmpresa);
+        assertEquals(0, new BigDecimal("50.00").compareTo(relatorio.getFaturamentoMensal()));
+        assertEquals(1, relatorio.getQuantidadePedidosMensal());
+
+        RelatorioJobDTO repetido = relatorioJobService.submeterRelatorioPorPeriodo(emailEmpresa, hoje, hoje);
+        assertEquals(job.getId(), repetido.getId());
+        assertEquals(RelatorioJobDTO.Status.CONCLUIDO, repetido.getStatus());
+        verify(relatorioService, times(1)).gerarRelatorio(eq(empresaId), any(), any(), anyBoolean());
+
+        // Job de outra empresa não é visível
+        String outraEmpresa = dadosTeste.novaEmpresa("jobs-b", "Empresa Jobs b").getUsuario().getEmail();
+        assertThrows(NotFoundException.class, () -> relatorioJobService.consultar(job.getId(), outraEmpresa));
+    }
+
+    @Test
+    @DisplayName("Pedidos iguais em andamento devem compartilhar o job, respeitando o limite por empresa")
+    public void jobsEmAndamentoDevemSerDeduplicadosELimitados() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return invocacao.callRealMethod();
+        }).when(relatorioService).gerarRelatorio(eq(empresaId), any(), any(), anyBoolean());
+
+        try {
+            int ano = LocalDate.now().getYear();
+            RelatorioJobDTO anual = relatorioJobService.submeterRelatorioAnual(emailEmpresa, ano);
+            assertEquals(anual.getId(), relatorioJobService.submeterRelatorioAnual(emailEmpresa, ano).getId());
+
+            relatorioJobService.submeterRelatorioAnual(emailEmpresa, ano - 1);
+            assertThrows(LimiteExcedidoException.class,
+                    () -> relatorioJobService.submeterRelatorioAnual(emailEmpresa, ano - 2));
+            assertThrows(BusinessException.class, () -> relatorioJobService.obterResultado(anual.getId(), emailEmpresa));
+
+            liberar.countDown();
+            aguardarConclusao(anual.getId());
+            assertNotNull(relatorioJobService.obterResultado(anual.getId(), emailEmpresa).getFaturamentoAnual());
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    private void aguardarConclusao(String id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (relatorioJobService.consultar(id, emailEmpresa).getStatus() != RelatorioJobDTO.Status.CONCLUIDO) {
+            assertTrue(System.currentTimeMillis() < limite, "Relatório não concluído a tempo");
+            Thread.sleep(20);
+        }
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
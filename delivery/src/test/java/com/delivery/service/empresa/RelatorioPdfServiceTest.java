@@ -0,0 +1,132 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.security.UsuarioPrincipal;
+import com.delivery.service.auth.JwtService;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class RelatorioPdfServiceTest {
+
+    @Autowired
+    private RelatorioPdfService relatorioPdfService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ThreadPoolTaskExecutor executorExportacoes;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long usuarioEmpresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("pdf", "Cliente PDF");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("pdf", "Pizzaria PDF");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+        usuarioEmpresaId = empresa.getUsuario().getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Calabresa Especial", new BigDecimal("42.50")).getId();
+    }
+
+    @Test
+    @DisplayName("PDF mensal deve trazer resumo, vendas por dia e produtos mais vendidos")
+    public void pdfDeveTrazerAsSecoes() throws Exception {
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+
+        LocalDate hoje = LocalDate.now();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        relatorioPdfService.exportarRelatorioMensal(emailEmpresa, hoje.getMonthValue(), hoje.getYear()).writeTo(saida);
+
+        PdfReader leitor = new PdfReader(saida.toByteArray());
+        StringBuilder texto = new StringBuilder();
+        PdfTextExtractor extrator = new PdfTextExtractor(leitor);
+        for (int pagina = 1; pagina <= leitor.getNumberOfPages(); pagina++) {
+            texto.append(extrator.getTextFromPage(pagina));
+        }
+        leitor.close();
+
+        assertTrue(texto.toString().contains("Pizzaria PDF"));
+        assertTrue(texto.toString().contains("Vendas por dia"));
+        assertTrue(texto.toString().contains("Calabresa Especial"));
+        assertTrue(texto.toString().contains("R$ 85,00"));
+    }
+
+    @Test
+    @DisplayName("Com a fila de exportações cheia, a exportação deve ser recusada com 503")
+    public void filaCheiaDeveRecusarExportacao() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        int ocupadas = executorExportacoes.getMaxPoolSize() + executorExportacoes.getQueueCapacity();
+        for (int i = 0; i < ocupadas; i++) {
+            executorExportacoes.execute(() -> {
+                try {
+                    liberar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        try {
+            UsuarioPrincipal principal = new UsuarioPrincipal(usuarioEmpresaId, emailEmpresa, TipoUsuario.EMPRESA,
+                    null, empresaId, null, true);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(jwtService.generateToken(principal));
+
+            ResponseEntity<String> resposta = restTemplate.exchange("/api/empresa/relatorios/exportar/pdf",
+                    HttpMethod.GET, new HttpEntity<>(headers), String.class);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+            assertNotNull(resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
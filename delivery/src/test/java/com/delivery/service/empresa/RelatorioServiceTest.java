@@ -0,0 +1,156 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.security.UsuarioPrincipal;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class RelatorioServiceTest {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private VendaDiariaService vendaDiariaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("relatorio", "Cliente Relatório");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("relatorio", "Empresa Relatório");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Relatório").getId();
+    }
+
+    @AfterEach
+    public void limparAutenticacao() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Cada relatório deve ser respondido com uma única consulta")
+    public void cadaRelatorioDeveUsarUmaConsulta() {
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+        autenticarEmpresa();
+
+        LocalDate hoje = LocalDate.now();
+        Map<String, Supplier<?>> relatorios = new LinkedHashMap<>();
+        relatorios.put("mensal", () -> relatorioService.gerarRelatorioMensal(emailEmpresa, hoje.getMonthValue(), hoje.getYear()));
+        relatorios.put("anual", () -> relatorioService.gerarRelatorioAnual(emailEmpresa, hoje.getYear()));
+        relatorios.put("periodo", () -> relatorioService.gerarRelatorioPorPeriodo(emailEmpresa, hoje.minusDays(7).toString(), hoje.toString()));
+        relatorios.put("vendas", () -> relatorioService.gerarRelatorioVendas(emailEmpresa, hoje.getMonthValue(), hoje.getYear()));
+        relatorios.put("dashboard", () -> relatorioService.gerarDadosDashboard(emailEmpresa));
+        relatorios.put("comparativo", () -> relatorioService.gerarRelatorioComparativo(emailEmpresa, hoje.getMonthValue(), hoje.getYear()));
+        // Mês diferente do relatório mensal acima, que já está em cache
+        LocalDate mesAnterior = hoje.minusMonths(1);
+        relatorios.put("empresa", () -> empresaService.gerarRelatorio(emailEmpresa, mesAnterior.getMonthValue(), mesAnterior.getYear()));
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        relatorios.forEach((nome, relatorio) -> {
+            estatisticas.clear();
+            assertNotNull(relatorio.get());
+            assertEquals(1, estatisticas.getPrepareStatementCount(), "Consultas do relatório " + nome);
+        });
+    }
+
+    @Test
+    @DisplayName("Relatórios devem combinar dias consolidados e pedidos de hoje")
+    @SuppressWarnings("unchecked")
+    public void relatoriosDevemCombinarConsolidadoEHoje() {
+        YearMonth mesAtual = YearMonth.now();
+        LocalDate diaMesAnterior = mesAtual.minusMonths(1).atDay(15);
+
+        PedidoDTO anterior = pedidoService.criarPedido(novoPedido(3), emailCliente);
+        PedidoDTO canceladoAnterior = pedidoService.criarPedido(novoPedido(1), emailCliente);
+        pedidoService.cancelarPedido(canceladoAnterior.getId(), emailCliente);
+        for (PedidoDTO pedido : List.of(anterior, canceladoAnterior)) {
+            jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", diaMesAnterior.atTime(12, 0), pedido.getId());
+        }
+        vendaDiariaService.reconstruir(diaMesAnterior, diaMesAnterior);
+
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+
+        Map<String, Object> comparativo = relatorioService.gerarRelatorioComparativo(
+                emailEmpresa, mesAtual.getMonthValue(), mesAtual.getYear());
+        Map<String, Object> atual = (Map<String, Object>) comparativo.get("mesAtual");
+        Map<String, Object> passado = (Map<String, Object>) comparativo.get("mesAnterior");
+        assertEquals(0, new BigDecimal("20").compareTo((BigDecimal) atual.get("vendas")));
+        assertEquals(1L, atual.get("pedidos"));
+        assertEquals(0, new BigDecimal("30").compareTo((BigDecimal) passado.get("vendas")));
+        assertEquals(2L, passado.get("pedidos"));
+
+        RelatorioDTO anual = relatorioService.gerarRelatorioAnual(emailEmpresa, mesAtual.getYear());
+        boolean mesmoAno = diaMesAnterior.getYear() == mesAtual.getYear();
+        assertEquals(mesmoAno ? 3 : 1, anual.getQuantidadePedidosAnual());
+        assertEquals(0, new BigDecimal(mesmoAno ? "50" : "20").compareTo(anual.getFaturamentoAnual()));
+
+        Map<String, Object> dashboard = relatorioService.gerarDadosDashboard(emailEmpresa);
+        assertEquals(1L, dashboard.get("totalProdutos"));
+        assertEquals(1L, dashboard.get("produtosAtivos"));
+        assertEquals(0L, dashboard.get("totalAvaliacoes"));
+        assertEquals(0.0, dashboard.get("avaliacaoMedia"));
+    }
+
+    private void autenticarEmpresa() {
+        UsuarioPrincipal principal = new UsuarioPrincipal(null, emailEmpresa, TipoUsuario.EMPRESA,
+                null, empresaId, null, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
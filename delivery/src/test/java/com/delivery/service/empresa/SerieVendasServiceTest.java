@@ -0,0 +1,122 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.exception.BusinessException;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.empresa.SerieVendasService.Intervalo;
+import com.delivery.service.empresa.SerieVendasService.SerieVendas;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SerieVendasServiceTest {
+
+    @Autowired
+    private SerieVendasService serieVendasService;
+
+    @Autowired
+    private VendaDiariaService vendaDiariaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("serie", "Cliente Série");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("serie", "Empresa Série");
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Série", new BigDecimal("12.50")).getId();
+    }
+
+    @Test
+    @DisplayName("Série deve ter um ponto por intervalo, com zero nos intervalos sem vendas")
+    public void serieDeveSerDensa() {
+        LocalDate hoje = LocalDate.now();
+        pedidoService.criarPedido(novoPedido(2), emailCliente);
+        PedidoDTO antigo = pedidoService.criarPedido(novoPedido(1), emailCliente);
+        moverPara(antigo.getId(), hoje.minusDays(3).atTime(10, 0));
+
+        SerieVendas porDia = serieVendasService.consultar(empresaId, hoje.minusDays(3), hoje, Intervalo.DIA);
+        assertArrayEquals(new long[]{1, 0, 0, 1}, porDia.pedidos());
+        assertEquals(0, new BigDecimal("12.50").compareTo(porDia.total()[0]));
+        assertEquals(0, BigDecimal.ZERO.compareTo(porDia.total()[1]));
+        assertEquals(0, new BigDecimal("25.00").compareTo(porDia.total()[3]));
+        assertEquals(hoje.atStartOfDay(), porDia.inicios()[3]);
+
+        SerieVendas porHora = serieVendasService.consultar(empresaId, hoje.minusDays(3), hoje.minusDays(3), Intervalo.HORA);
+        assertEquals(24, porHora.pedidos().length);
+        assertEquals(1, porHora.pedidos()[10]);
+
+        SerieVendas porMes = serieVendasService.consultar(empresaId, hoje.withDayOfMonth(1), hoje, Intervalo.MES);
+        assertEquals(1, porMes.pedidos().length);
+
+        assertThrows(BusinessException.class,
+                () -> serieVendasService.consultar(empresaId, hoje.minusYears(1), hoje, Intervalo.HORA));
+    }
+
+    @Test
+    @DisplayName("Série de período encerrado deve ficar em cache até um cancelamento no período")
+    public void periodoEncerradoDeveFicarEmCache() {
+        LocalDate ontem = LocalDate.now().minusDays(1);
+        PedidoDTO primeiro = pedidoService.criarPedido(novoPedido(1), emailCliente);
+        moverPara(primeiro.getId(), ontem.atTime(12, 0));
+
+        assertEquals(1, serieVendasService.consultar(empresaId, ontem.minusDays(6), ontem, Intervalo.SEMANA)
+                .pedidos()[ultimaSemana(ontem)]);
+
+        // Alteração direta no banco não é vista: a série está em cache
+        PedidoDTO segundo = pedidoService.criarPedido(novoPedido(1), emailCliente);
+        moverPara(segundo.getId(), ontem.atTime(13, 0));
+        assertEquals(1, serieVendasService.consultar(empresaId, ontem.minusDays(6), ontem, Intervalo.SEMANA)
+                .pedidos()[ultimaSemana(ontem)]);
+
+        // Cancelamento de pedido do período descarta o cache
+        pedidoService.cancelarPedido(primeiro.getId(), emailCliente);
+        SerieVendas serie = serieVendasService.consultar(empresaId, ontem.minusDays(6), ontem, Intervalo.SEMANA);
+        assertEquals(2, serie.pedidos()[ultimaSemana(ontem)]);
+        assertEquals(1, serie.cancelados()[ultimaSemana(ontem)]);
+    }
+
+    private int ultimaSemana(LocalDate ontem) {
+        return ontem.minusDays(6).getDayOfWeek() == DayOfWeek.MONDAY ? 0 : 1;
+    }
+
+    // Move o pedido e reconsolida o dia, como faria a reconstrução diária
+    private void moverPara(Long pedidoId, LocalDateTime data) {
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", data, pedidoId);
+        vendaDiariaService.reconstruir(data.toLocalDate(), data.toLocalDate());
+    }
+
+    private PedidoDTO novoPedido(int quantidade) {
+        return DadosTeste.novoPedido(empresaId, produtoId, quantidade);
+    }
+}
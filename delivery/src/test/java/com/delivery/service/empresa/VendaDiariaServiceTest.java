@@ -0,0 +1,121 @@
+package com.delivery.service.empresa;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.dto.empresa.RelatorioDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.repository.PedidoRepository;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.service.empresa.VendaDiariaService.ResumoVendas;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VendaDiariaServiceTest {
+
+    @Autowired
+    private VendaDiariaService vendaDiariaService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("vendas", "Cliente Vendas");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("vendas", "Empresa Vendas");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Vendas").getId();
+    }
+
+    @Test
+    @DisplayName("Relatório de dias anteriores deve vir das vendas consolidadas e bater com os pedidos")
+    public void relatorioDeveBaterComPedidos() {
+        LocalDate dia = LocalDate.now().minusDays(10);
+
+        PedidoDTO pix = pedidoService.criarPedido(novoPedido(FormaPagamento.PIX, 2), emailCliente);
+        PedidoDTO dinheiro = pedidoService.criarPedido(novoPedido(FormaPagamento.DINHEIRO, 1), emailCliente);
+        PedidoDTO cancelado = pedidoService.criarPedido(novoPedido(FormaPagamento.PIX, 5), emailCliente);
+        pedidoService.cancelarPedido(cancelado.getId(), emailCliente);
+
+        // Pedidos levados para um dia anterior direto no banco: só a reconstrução os consolida
+        for (PedidoDTO pedido : List.of(pix, dinheiro, cancelado)) {
+            moverParaDia(pedido.getId(), dia);
+        }
+        vendaDiariaService.reconstruir(dia, LocalDate.now());
+
+        ResumoVendas resumo = vendaDiariaService.resumir(empresaId, dia, dia);
+        assertEquals(3, resumo.getPedidos());
+        assertEquals(1, resumo.getCancelados());
+        assertEquals(0, new BigDecimal("30").compareTo(resumo.getTotal()));
+        assertEquals(0, new BigDecimal("20").compareTo(resumo.getTotalPorFormaPagamento().get(FormaPagamento.PIX)));
+        assertEquals(0, BigDecimal.TEN.compareTo(resumo.getTotalPorFormaPagamento().get(FormaPagamento.DINHEIRO)));
+
+        // Cancelamento posterior atualiza a linha do dia do pedido, sem reconstrução
+        pedidoService.cancelarPedido(dinheiro.getId(), emailCliente);
+
+        String data = dia.toString();
+        RelatorioDTO relatorio = relatorioService.gerarRelatorioPorPeriodo(emailEmpresa, data, data);
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = dia.atTime(23, 59, 59);
+        assertEquals(0, pedidoRepository.sumTotalByEmpresaIdAndPeriodo(empresaId, inicio, fim)
+                .compareTo(relatorio.getFaturamentoMensal()));
+        assertEquals(pedidoRepository.countByEmpresaIdAndPeriodo(empresaId, inicio, fim).intValue(),
+                relatorio.getQuantidadePedidosMensal());
+        assertEquals(2, vendaDiariaService.resumir(empresaId, dia, dia).getCancelados());
+    }
+
+    @Test
+    @DisplayName("Vendas de hoje devem ser lidas direto dos pedidos")
+    public void vendasDeHojeDevemVirDosPedidos() {
+        pedidoService.criarPedido(novoPedido(FormaPagamento.CARTAO_CREDITO, 3), emailCliente);
+
+        ResumoVendas resumo = vendaDiariaService.resumir(empresaId, LocalDate.now().minusDays(30), LocalDate.now());
+        assertEquals(1, resumo.getPedidos());
+        assertEquals(0, new BigDecimal("30").compareTo(resumo.getTotal()));
+        assertEquals(0, new BigDecimal("30").compareTo(resumo.getTotalPorFormaPagamento().get(FormaPagamento.CARTAO_CREDITO)));
+    }
+
+    private void moverParaDia(Long pedidoId, LocalDate dia) {
+        jdbcTemplate.update("UPDATE pedidos SET created_at = ? WHERE id = ?", dia.atTime(12, 0), pedidoId);
+    }
+
+    private PedidoDTO novoPedido(FormaPagamento formaPagamento, int quantidade) {
+        return DadosTeste.novoPedido(empresaId, formaPagamento, produtoId, quantidade);
+    }
+}
@@ -0,0 +1,213 @@
+package com.delivery.service.notificacao;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.enums.StatusPedido;
+import com.delivery.event.PedidoAlteradoEvent;
+import com.delivery.exception.LimiteExcedidoException;
+import com.delivery.exception.NotFoundException;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.sse.max-conexoes-por-usuario=2",
+        "app.sse.threads-entrega=1",
+        "app.sse.timeout-envio-ms=300"
+})
+@ActiveProfiles("test")
+public class PedidoStreamServiceTest {
+
+    @Autowired
+    private PedidoStreamService pedidoStreamService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String emailCliente;
+    private String emailEmpresa;
+    private Long empresaId;
+    private Long produtoId;
+
+    @BeforeEach
+    public void prepararDados() {
+        Cliente cliente = dadosTeste.novoCliente("sse", "Cliente Stream");
+        emailCliente = cliente.getUsuario().getEmail();
+
+        Empresa empresa = dadosTeste.novaEmpresa("sse", "Empresa Stream");
+        emailEmpresa = empresa.getUsuario().getEmail();
+        empresaId = empresa.getId();
+
+        produtoId = dadosTeste.novoProduto(empresa, "Produto Stream").getId();
+    }
+
+    @Test
+    @DisplayName("Stream do pedido deve receber o estado atual e as mudanças de status")
+    public void streamDoPedidoDeveReceberMudancasDeStatus() throws Exception {
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+        int conexoesAntes = pedidoStreamService.getTotalConexoes();
+
+        EmitterCapturador emitter = new EmitterCapturador();
+        pedidoStreamService.assinarPedido(pedido.getId(), emailCliente, emitter);
+        assertEquals(conexoesAntes + 1, pedidoStreamService.getTotalConexoes());
+        assertEquals(StatusPedido.PENDENTE, emitter.proximoPedido().getStatus());
+
+        pedidoService.pagarPedido(pedido.getId(), emailCliente);
+        assertEquals(StatusPedido.CONFIRMADO, emitter.proximoPedido().getStatus());
+
+        // Status final encerra o stream e libera a conexão
+        pedidoService.marcarComoEntregue(pedido.getId(), emailEmpresa);
+        assertEquals(StatusPedido.ENTREGUE, emitter.proximoPedido().getStatus());
+        aguardarConexoes(conexoesAntes);
+    }
+
+    @Test
+    @DisplayName("Assinar pedido já finalizado deve entregar o estado e encerrar; pedido inacessível não deve ocupar conexão")
+    public void assinaturaDePedidoFinalizadoOuInacessivel() throws Exception {
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+        pedidoService.pagarPedido(pedido.getId(), emailCliente);
+        pedidoService.marcarComoEntregue(pedido.getId(), emailEmpresa);
+        int conexoesAntes = pedidoStreamService.getTotalConexoes();
+
+        EmitterCapturador emitter = new EmitterCapturador();
+        pedidoStreamService.assinarPedido(pedido.getId(), emailCliente, emitter);
+        assertEquals(StatusPedido.ENTREGUE, emitter.proximoPedido().getStatus());
+        aguardarConexoes(conexoesAntes);
+
+        assertThrows(NotFoundException.class,
+                () -> pedidoStreamService.assinarPedido(Long.MAX_VALUE, emailCliente, new EmitterCapturador()));
+        assertEquals(conexoesAntes, pedidoStreamService.getTotalConexoes());
+    }
+
+    @Test
+    @DisplayName("Stream da empresa deve receber pedidos novos")
+    public void streamDaEmpresaDeveReceberPedidosNovos() throws Exception {
+        EmitterCapturador emitter = new EmitterCapturador();
+        pedidoStreamService.assinarEmpresa(emailEmpresa, emitter);
+
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+
+        PedidoDTO recebido = emitter.proximoPedido();
+        assertEquals(pedido.getId(), recebido.getId());
+        assertEquals(empresaId, recebido.getEmpresaId());
+        emitter.complete();
+    }
+
+    @Test
+    @DisplayName("Estado mais antigo que o já enviado deve ser ignorado e cada versão deve ter seu ID de evento")
+    public void estadoAntigoDeveSerIgnorado() throws Exception {
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+
+        EmitterCapturador emitter = new EmitterCapturador();
+        pedidoStreamService.assinarPedido(pedido.getId(), emailCliente, emitter);
+        assertEquals(StatusPedido.PENDENTE, emitter.proximoPedido().getStatus());
+
+        pedidoService.pagarPedido(pedido.getId(), emailCliente);
+        assertEquals(StatusPedido.CONFIRMADO, emitter.proximoPedido().getStatus());
+
+        // Evento atrasado com o estado da criação chega depois da confirmação
+        pedidoStreamService.aoAlterarPedido(new PedidoAlteradoEvent(pedido, null));
+
+        pedidoService.marcarComoEntregue(pedido.getId(), emailEmpresa);
+        assertEquals(StatusPedido.ENTREGUE, emitter.proximoPedido().getStatus());
+        assertEquals(3, emitter.ids.size());
+        assertEquals(3, Set.copyOf(emitter.ids).size());
+    }
+
+    @Test
+    @DisplayName("Assinante com envio travado deve ser desconectado sem atrasar os demais")
+    public void assinanteTravadoDeveSerDesconectado() throws Exception {
+        int conexoesAntes = pedidoStreamService.getTotalConexoes();
+        pedidoStreamService.assinarEmpresa(emailEmpresa, new EmitterTravado());
+        EmitterCapturador emitter = new EmitterCapturador();
+        pedidoStreamService.assinarEmpresa(emailEmpresa, emitter);
+
+        // Com uma única thread de entrega, o envio travado bloquearia o segundo assinante
+        PedidoDTO pedido = pedidoService.criarPedido(novoPedido(), emailCliente);
+
+        assertEquals(pedido.getId(), emitter.proximoPedido().getId());
+        aguardarConexoes(conexoesAntes + 1);
+        emitter.complete();
+    }
+
+    @Test
+    @DisplayName("Conexões acima do limite por usuário devem ser recusadas")
+    public void conexoesAcimaDoLimiteDevemSerRecusadas() {
+        pedidoStreamService.assinarEmpresa(emailEmpresa, new EmitterCapturador());
+        pedidoStreamService.assinarEmpresa(emailEmpresa, new EmitterCapturador());
+
+        assertThrows(LimiteExcedidoException.class,
+                () -> pedidoStreamService.assinarEmpresa(emailEmpresa, new EmitterCapturador()));
+    }
+
+    private PedidoDTO novoPedido() {
+        return DadosTeste.novoPedido(empresaId, produtoId, 1);
+    }
+
+    private void aguardarConexoes(int esperado) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (pedidoStreamService.getTotalConexoes() != esperado && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertEquals(esperado, pedidoStreamService.getTotalConexoes());
+    }
+
+    /**
+     * Emitter sem conexão HTTP que guarda os pedidos enviados e os IDs dos eventos
+     */
+    private static class EmitterCapturador extends SseEmitter {
+        private final BlockingQueue<PedidoDTO> pedidos = new LinkedBlockingQueue<>();
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(parte -> {
+                if (parte.getData() instanceof PedidoDTO pedido) {
+                    pedidos.add(pedido);
+                } else if (parte.getData() instanceof String texto) {
+                    texto.lines().filter(linha -> linha.startsWith("id:")).forEach(ids::add);
+                }
+            });
+        }
+
+        PedidoDTO proximoPedido() throws InterruptedException {
+            PedidoDTO pedido = pedidos.poll(5, TimeUnit.SECONDS);
+            assertNotNull(pedido, "Nenhum evento de pedido recebido");
+            return pedido;
+        }
+    }
+
+    /**
+     * Emitter de um cliente que não lê o socket: o envio só termina quando a thread é interrompida
+     */
+    private static class EmitterTravado extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                throw new IOException("Envio interrompido");
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.delivery.service.publico;
+
+import com.delivery.entity.Empresa;
+import com.delivery.entity.Produto;
+import com.delivery.repository.ProdutoRepository;
+import com.delivery.service.empresa.ProdutoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark da busca textual de produtos (consultas/s): LIKE '%termo%' no banco vs. índice em memória.
+ * Cada consulta pede a primeira página de 20 produtos com o total, como a busca pública.
+ * Mede também a latência das sugestões de busca, letra a letra, com várias threads.
+ *
+ * Executar com: mvn test -Dtest=BuscaBenchmarkTest -Dbenchmark=true [-Dbenchmark.produtos=1000000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BuscaBenchmarkTest {
+
+    private static final int LOTE = 5000;
+    private static final String[] PRATOS = {"Pizza", "Pastel", "Hambúrguer", "Coxinha", "Açaí", "Sushi",
+            "Lasanha", "Esfiha", "Tapioca", "Crepe", "Salada", "Torta"};
+    private static final String[] SABORES = {"Calabresa", "Frango", "Queijo", "Carne", "Chocolate", "Morango",
+            "Palmito", "Bacon", "Catupiry", "Salmão", "Banana", "Presunto", "Atum", "Brócolis"};
+    private static final String[] TERMOS = {"pizza", "calabresa", "frango catupiry", "salmão", "brocolis"};
+    private static final int THREADS_SUGESTOES = 8;
+    private static final int SUGESTOES_POR_THREAD = 50_000;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private IndiceBuscaService indiceBuscaService;
+
+    @Autowired
+    private SugestaoBuscaService sugestaoBuscaService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private Long empresaId;
+
+    @BeforeAll
+    public void prepararDados() {
+        int quantidade = Integer.getInteger("benchmark.produtos", 1_000_000);
+
+        Empresa empresa = dadosTeste.novaEmpresa("bench-busca", "Empresa Benchmark Busca");
+        empresaId = empresa.getId();
+
+        List<Produto> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < quantidade; i++) {
+            String prato = PRATOS[i % PRATOS.length];
+            String sabor = SABORES[(i / PRATOS.length) % SABORES.length];
+            String acompanhamento = SABORES[(i * 7 + 3) % SABORES.length];
+
+            Produto produto = new Produto();
+            produto.setEmpresa(empresa);
+            produto.setNome(prato + " " + sabor + " " + i);
+            produto.setDescricao("Feito na hora com " + sabor.toLowerCase() + " e " + acompanhamento.toLowerCase());
+            produto.setPreco(BigDecimal.valueOf(10 + i % 50));
+            produto.setAtivo(true);
+            lote.add(produto);
+
+            if (lote.size() == LOTE) {
+                produtoRepository.saveAll(lote);
+                lote.clear();
+            }
+        }
+        produtoRepository.saveAll(lote);
+
+        long inicio = System.nanoTime();
+        IndiceBuscaService.Estatisticas estatisticas = indiceBuscaService.reconstruir();
+        System.out.printf("Índice com %d produtos e %d termos construído em %d ms%n",
+                estatisticas.produtos(), estatisticas.termos(), (System.nanoTime() - inicio) / 1_000_000);
+
+        inicio = System.nanoTime();
+        sugestaoBuscaService.reconstruir();
+        System.out.printf("Sugestões construídas em %d ms%n", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @AfterAll
+    public void limparDados() {
+        jdbcTemplate.update("DELETE FROM produtos WHERE empresa_id = ?", empresaId);
+        indiceBuscaService.reconstruir();
+        sugestaoBuscaService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Consultas por segundo: LIKE no banco vs. índice em memória")
+    public void compararBuscas() {
+        PageRequest pagina = PageRequest.of(0, 20);
+
+        for (String termo : TERMOS) {
+            double antes = medir(t -> produtoRepository.findByTermoAndAtivoTrue(t, pagina), termo, 1, 5);
+            double depois = medir(t -> produtoService.buscarPorTermo(t, pagina), termo, 20, 200);
+
+            System.out.printf("%-16s antes %8.1f consultas/s | depois %8.1f consultas/s%n", termo, antes, depois);
+        }
+    }
+
+    @Test
+    @DisplayName("Latência das sugestões por letra digitada, com várias threads")
+    public void medirSugestoes() throws Exception {
+        List<String> prefixos = new ArrayList<>();
+        for (String termo : TERMOS) {
+            for (int tamanho = 1; tamanho <= termo.length(); tamanho++) {
+                prefixos.add(termo.substring(0, tamanho));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_SUGESTOES);
+        List<Future<long[]>> resultados = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int t = 0; t < THREADS_SUGESTOES; t++) {
+            int deslocamento = t;
+            resultados.add(executor.submit(() -> {
+                long[] latencias = new long[SUGESTOES_POR_THREAD];
+                for (int i = 0; i < SUGESTOES_POR_THREAD; i++) {
+                    String prefixo = prefixos.get((i + deslocamento) % prefixos.size());
+                    long antes = System.nanoTime();
+                    sugestaoBuscaService.sugerir(prefixo, 10);
+                    latencias[i] = System.nanoTime() - antes;
+                }
+                return latencias;
+            }));
+        }
+
+        long[] todas = new long[0];
+        for (Future<long[]> resultado : resultados) {
+            long[] latencias = resultado.get();
+            int anterior = todas.length;
+            todas = Arrays.copyOf(todas, anterior + latencias.length);
+            System.arraycopy(latencias, 0, todas, anterior, latencias.length);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        executor.shutdown();
+
+        Arrays.sort(todas);
+        System.out.printf("Sugestões: %.0f consultas/s | p50 %.3f ms | p99 %.3f ms | máx %.3f ms%n",
+                todas.length / segundos, todas[todas.length / 2] / 1e6,
+                todas[(int) (todas.length * 0.99)] / 1e6, todas[todas.length - 1] / 1e6);
+    }
+
+    private double medir(Consumer<String> busca, String termo, int aquecimento, int iteracoes) {
+        for (int i = 0; i < aquecimento; i++) {
+            busca.accept(termo);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteracoes; i++) {
+            busca.accept(termo);
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        return iteracoes / (duracao / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,171 @@
+package com.delivery.service.publico;
+
+import com.delivery.dto.empresa.EmpresaDTO;
+import com.delivery.dto.empresa.ProdutoDTO;
+import com.delivery.entity.Categoria;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.Produto;
+import com.delivery.repository.CategoriaRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.service.empresa.EmpresaService;
+import com.delivery.service.empresa.ProdutoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IndiceBuscaServiceTest {
+
+    @Autowired
+    private IndiceBuscaService indiceBuscaService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String sufixo;
+    private String emailEmpresa;
+    private Empresa empresa;
+
+    @BeforeEach
+    public void prepararDados() {
+        sufixo = DadosTeste.sufixo();
+
+        empresa = dadosTeste.novaEmpresa("busca", "Empresa Busca");
+        emailEmpresa = empresa.getUsuario().getEmail();
+    }
+
+    @Test
+    @DisplayName("Busca deve ignorar acentos e plural e ordenar ocorrências no nome antes da descrição")
+    public void deveBuscarSemAcentoEOrdenarPorRelevancia() {
+        ProdutoDTO pasteis = produtoService.criarProduto(novoProduto("Pastéis de Queijo " + sufixo, "Massa crocante"), emailEmpresa);
+        ProdutoDTO carne = produtoService.criarProduto(novoProduto("Pastel de Carne " + sufixo, "Com um toque de queijo"), emailEmpresa);
+
+        Page<ProdutoDTO> porQueijo = buscarProdutos("QUEIJOS " + sufixo);
+        assertEquals(List.of(pasteis.getId(), carne.getId()), ids(porQueijo.getContent()));
+        assertEquals(2, porQueijo.getTotalElements());
+
+        // Todos os termos são exigidos
+        assertEquals(List.of(carne.getId()), ids(buscarProdutos("pastel carne " + sufixo).getContent()));
+    }
+
+    @Test
+    @DisplayName("A última palavra deve valer como prefixo, como no LIKE, e empresas só casam pelo nome")
+    public void ultimaPalavraDeveValerComoPrefixo() {
+        ProdutoDTO calabresa = produtoService.criarProduto(novoProduto("Pizza Calabresa " + sufixo, null), emailEmpresa);
+        produtoService.criarProduto(novoProduto("Hambúrguer " + sufixo, null), emailEmpresa);
+
+        assertEquals(List.of(calabresa.getId()), ids(buscarProdutos(sufixo + " calab").getContent()));
+        assertEquals(List.of(calabresa.getId()), ids(buscarProdutos(sufixo + " piz").getContent()));
+        assertEquals(1, buscarProdutos(sufixo + " hamb").getTotalElements());
+        assertEquals(2, buscarProdutos(sufixo.substring(0, 6)).getTotalElements());
+        // Só a última palavra é prefixo
+        assertEquals(0, buscarProdutos("calab " + sufixo).getTotalElements());
+
+        EmpresaDTO perfil = new EmpresaDTO();
+        perfil.setNomeFantasia("Cantina " + sufixo);
+        perfil.setDescricao("Massas artesanais " + sufixo);
+        empresaService.atualizarPerfil(emailEmpresa, perfil);
+
+        PageRequest pagina = PageRequest.of(0, 10);
+        assertEquals(1, empresaService.buscar(sufixo + " cant", null, pagina).getTotalElements());
+        assertEquals(0, empresaService.buscar(sufixo + " massas", null, pagina).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Alterações de produtos e empresas devem chegar ao índice após o commit")
+    public void deveAtualizarIndiceAposEscritas() {
+        ProdutoDTO produto = produtoService.criarProduto(novoProduto("Coxinha " + sufixo, null), emailEmpresa);
+        assertEquals(1, buscarProdutos("coxinhas " + sufixo).getTotalElements());
+
+        ProdutoDTO alteracao = novoProduto("Empada " + sufixo, null);
+        alteracao.setAtivo(true);
+        produtoService.atualizarProduto(produto.getId(), alteracao, emailEmpresa);
+        assertEquals(0, buscarProdutos("coxinha " + sufixo).getTotalElements());
+        assertEquals(1, buscarProdutos("empada " + sufixo).getTotalElements());
+
+        produtoService.deletarProduto(produto.getId(), emailEmpresa);
+        assertEquals(0, buscarProdutos("empada " + sufixo).getTotalElements());
+
+        Categoria categoria = new Categoria();
+        categoria.setNome("Categoria " + sufixo);
+        categoria.setSlug("categoria-" + sufixo);
+        categoria = categoriaRepository.save(categoria);
+        empresa.setCategoria(categoria);
+        empresaRepository.save(empresa);
+
+        EmpresaDTO perfil = new EmpresaDTO();
+        perfil.setNomeFantasia("Pizzaria Nonna " + sufixo);
+        empresaService.atualizarPerfil(emailEmpresa, perfil);
+
+        PageRequest pagina = PageRequest.of(0, 10);
+        Page<EmpresaDTO> empresas = empresaService.buscar("pizzarias " + sufixo, categoria.getId(), pagina);
+        assertEquals(1, empresas.getTotalElements());
+        assertEquals(emailEmpresa, empresas.getContent().get(0).getEmail());
+        assertEquals(0, empresaService.buscar("pizzaria " + sufixo, categoria.getId() + 1, pagina).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Reconstrução deve indexar produtos gravados fora do serviço")
+    public void reconstrucaoDeveIndexarProdutosGravadosDiretamente() {
+        Produto produto = dadosTeste.novoProduto(empresa, "Tapioca " + sufixo);
+        assertEquals(0, buscarProdutos("tapioca " + sufixo).getTotalElements());
+
+        IndiceBuscaService.Estatisticas estatisticas = indiceBuscaService.reconstruir();
+
+        assertTrue(estatisticas.pronto());
+        assertEquals(List.of(produto.getId()), ids(buscarProdutos("tapioca " + sufixo).getContent()));
+    }
+
+    @Test
+    @DisplayName("Página e tamanho fora dos limites não devem estourar o heap nem o cálculo do início")
+    public void deveLimitarPaginaETamanho() {
+        ProdutoDTO produto = produtoService.criarProduto(novoProduto("Quibe " + sufixo, null), emailEmpresa);
+
+        IndiceBuscaService.Resultado enorme = indiceBuscaService.buscarProdutos("quibe " + sufixo, 0, 2_000_000_000);
+        assertEquals(List.of(produto.getId()), enorme.ids());
+
+        IndiceBuscaService.Resultado distante = indiceBuscaService.buscarProdutos("quibe " + sufixo, Integer.MAX_VALUE, 100);
+        assertTrue(distante.ids().isEmpty());
+        assertEquals(1, distante.total());
+    }
+
+    private Page<ProdutoDTO> buscarProdutos(String termo) {
+        return produtoService.buscarPorTermo(termo, PageRequest.of(0, 10));
+    }
+
+    private List<Long> ids(List<ProdutoDTO> produtos) {
+        return produtos.stream().map(ProdutoDTO::getId).toList();
+    }
+
+    private ProdutoDTO novoProduto(String nome, String descricao) {
+        ProdutoDTO dto = new ProdutoDTO();
+        dto.setNome(nome);
+        dto.setDescricao(descricao);
+        dto.setPreco(BigDecimal.TEN);
+        return dto;
+    }
+}
@@ -0,0 +1,151 @@
+package com.delivery.service.publico;
+
+import com.delivery.entity.Empresa;
+import com.delivery.entity.base.Usuario;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.support.DadosTeste;
+import com.delivery.util.GeoUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark da busca por proximidade: consulta nativa no banco (caixa indexada + haversine, contagem e
+ * página) vs. índice geográfico em memória, com 10 mil e 100 mil empresas espalhadas numa região de
+ * cerca de 220 x 160 km. Mede latência por consulta para um raio fixo e para as mais próximas.
+ *
+ * Executar com: mvn test -Dtest=ProximidadeBenchmarkTest -Dbenchmark=true [-Dbenchmark.empresas=10000,100000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ProximidadeBenchmarkTest {
+
+    private static final int LOTE = 5000;
+    private static final int PAGINA = 20;
+    private static final double RAIO_KM = 5;
+    private static final double RAIO_MAXIMO_KM = 50;
+    private static final double LATITUDE = -44;
+    private static final double LONGITUDE = -26;
+    private static final int PONTOS = 500;
+
+    @Autowired
+    private IndiceGeograficoService indiceGeograficoService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+    private final String sufixo = DadosTeste.sufixo();
+
+    @AfterAll
+    public void limparDados() {
+        jdbcTemplate.update("DELETE FROM empresas WHERE cnpj LIKE ?", "bp" + sufixo + "%");
+        jdbcTemplate.update("DELETE FROM usuarios WHERE email LIKE ?", "bench-prox-" + sufixo + "%");
+        indiceGeograficoService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Latência: consulta nativa no banco vs. índice geográfico em memória")
+    public void compararBuscas() {
+        int inseridas = 0;
+        for (String tamanho : System.getProperty("benchmark.empresas", "10000,100000").split(",")) {
+            int quantidade = Integer.parseInt(tamanho.trim());
+            inserirEmpresas(inseridas, quantidade);
+            inseridas = quantidade;
+
+            long inicio = System.nanoTime();
+            indiceGeograficoService.reconstruir();
+            System.out.printf("%d empresas: grade construída em %d ms (%s)%n", quantidade,
+                    (System.nanoTime() - inicio) / 1_000_000, indiceGeograficoService.getEstatisticas());
+
+            double[][] pontos = new double[PONTOS][];
+            for (int i = 0; i < PONTOS; i++) {
+                pontos[i] = new double[]{LATITUDE + random.nextDouble() * 2, LONGITUDE + random.nextDouble() * 2};
+            }
+
+            imprimir("raio " + RAIO_KM + " km", pontos,
+                    ponto -> buscarNoBanco(ponto[0], ponto[1], RAIO_KM),
+                    ponto -> indiceGeograficoService.buscar(ponto[0], ponto[1], RAIO_KM, 0, PAGINA));
+            imprimir(PAGINA + " mais próximas", pontos,
+                    ponto -> buscarMaisProximasNoBanco(ponto[0], ponto[1]),
+                    ponto -> indiceGeograficoService.buscarMaisProximas(ponto[0], ponto[1], 2, RAIO_MAXIMO_KM, 0, PAGINA));
+        }
+    }
+
+    private void inserirEmpresas(int de, int ate) {
+        List<Empresa> lote = new ArrayList<>(LOTE);
+        for (int i = de; i < ate; i++) {
+            Empresa empresa = new Empresa();
+            empresa.setUsuario(new Usuario("bench-prox-" + sufixo + "-" + i + "@test.com", "x", TipoUsuario.EMPRESA, true));
+            empresa.setNomeFantasia("Empresa Benchmark Proximidade " + i);
+            empresa.setCnpj("bp" + sufixo + i);
+            empresa.setLatitude(LATITUDE + random.nextDouble() * 2);
+            empresa.setLongitude(LONGITUDE + random.nextDouble() * 2);
+            empresa.setAtivo(true);
+            lote.add(empresa);
+
+            if (lote.size() == LOTE) {
+                empresaRepository.saveAll(lote);
+                lote.clear();
+            }
+        }
+        empresaRepository.saveAll(lote);
+    }
+
+    // Mesmas consultas que EmpresaService faz sem o índice: contagem e página
+    private long buscarNoBanco(double latitude, double longitude, double raioKm) {
+        GeoUtils.Caixa caixa = GeoUtils.caixaDelimitadora(latitude, longitude, raioKm);
+        long total = empresaRepository.countProximas(latitude, longitude, caixa.latitudeMinima(), caixa.latitudeMaxima(),
+                caixa.longitudeMinima(), caixa.longitudeMaxima(), raioKm);
+        empresaRepository.findProximas(latitude, longitude, caixa.latitudeMinima(), caixa.latitudeMaxima(),
+                caixa.longitudeMinima(), caixa.longitudeMaxima(), raioKm, PAGINA, 0);
+        return total;
+    }
+
+    private void buscarMaisProximasNoBanco(double latitude, double longitude) {
+        double raio = 2;
+        while (buscarNoBanco(latitude, longitude, raio) < PAGINA && raio < RAIO_MAXIMO_KM) {
+            raio = Math.min(raio * 2, RAIO_MAXIMO_KM);
+        }
+    }
+
+    private void imprimir(String cenario, double[][] pontos, Consumer<double[]> banco, Consumer<double[]> memoria) {
+        long[] antes = medir(banco, pontos, 1);
+        long[] depois = medir(memoria, pontos, 20);
+        System.out.printf("  %-18s banco p50 %7.3f ms p99 %7.3f ms | memória p50 %7.4f ms p99 %7.4f ms%n", cenario,
+                antes[antes.length / 2] / 1e6, antes[(int) (antes.length * 0.99)] / 1e6,
+                depois[depois.length / 2] / 1e6, depois[(int) (depois.length * 0.99)] / 1e6);
+    }
+
+    // Latências ordenadas da última rodada, depois de rodadas de aquecimento
+    private long[] medir(Consumer<double[]> busca, double[][] pontos, int rodadas) {
+        long[] latencias = new long[pontos.length];
+        for (int rodada = 0; rodada < rodadas; rodada++) {
+            for (int i = 0; i < pontos.length; i++) {
+                long inicio = System.nanoTime();
+                busca.accept(pontos[i]);
+                latencias[i] = System.nanoTime() - inicio;
+            }
+        }
+        Arrays.sort(latencias);
+        return latencias;
+    }
+}
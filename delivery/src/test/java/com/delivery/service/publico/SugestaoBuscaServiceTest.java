@@ -0,0 +1,90 @@
+package com.delivery.service.publico;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Categoria;
+import com.delivery.entity.Empresa;
+import com.delivery.repository.CategoriaRepository;
+import com.delivery.service.cliente.PedidoService;
+import com.delivery.support.DadosTeste;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SugestaoBuscaServiceTest {
+
+    @Autowired
+    private SugestaoBuscaService sugestaoBuscaService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private DadosTeste dadosTeste;
+
+    private String sufixo;
+    private String emailCliente;
+    private Empresa empresa;
+
+    @BeforeEach
+    public void prepararDados() {
+        sufixo = "zq" + DadosTeste.sufixo();
+
+        emailCliente = dadosTeste.novoCliente("sugestao", "Cliente Sugestão").getUsuario().getEmail();
+        empresa = dadosTeste.novaEmpresa("sugestao", "Pizzaria " + sufixo);
+    }
+
+    @Test
+    @DisplayName("Sugestões devem vir do índice reconstruído, das mais populares para as menos")
+    public void deveSugerirPorPopularidade() {
+        Long calabresa = novoProduto("Pizza Calabresa " + sufixo);
+        Long margherita = novoProduto("Pizza Margherita " + sufixo);
+        assertTrue(sugestaoBuscaService.sugerir(sufixo, 10).isEmpty());
+
+        pedidoService.criarPedido(novoPedido(calabresa, 5), emailCliente);
+        PedidoDTO cancelado = pedidoService.criarPedido(novoPedido(margherita, 9), emailCliente);
+        pedidoService.cancelarPedido(cancelado.getId(), emailCliente);
+        sugestaoBuscaService.reconstruir();
+
+        // Calabresa: 1 produto + 5 unidades; Pizzaria: 1 + 1 pedido válido; Margherita: 1 produto
+        assertEquals(List.of("Pizza Calabresa " + sufixo, "Pizzaria " + sufixo, "Pizza Margherita " + sufixo),
+                sugestaoBuscaService.sugerir(sufixo.toUpperCase(), 10));
+        assertEquals(2, sugestaoBuscaService.sugerir(sufixo, 2).size());
+        assertTrue(sugestaoBuscaService.sugerir("pizza margh", 10).contains("Pizza Margherita " + sufixo));
+    }
+
+    @Test
+    @DisplayName("Sugestões devem ignorar acentos e pontuação e incluir categorias")
+    public void deveIgnorarAcentosEIncluirCategorias() {
+        Categoria categoria = new Categoria();
+        categoria.setNome("Açaí & Sorvetes " + sufixo);
+        categoria.setSlug("acai-" + sufixo);
+        categoriaRepository.save(categoria);
+        sugestaoBuscaService.reconstruir();
+
+        assertEquals(List.of("Açaí & Sorvetes " + sufixo), sugestaoBuscaService.sugerir("acai sorv", 10).stream()
+                .filter(sugestao -> sugestao.endsWith(sufixo))
+                .toList());
+        assertEquals(List.of("Açaí & Sorvetes " + sufixo), sugestaoBuscaService.sugerir("SORVÉTES " + sufixo, 10));
+        assertTrue(sugestaoBuscaService.sugerir("   ", 10).isEmpty());
+    }
+
+    private Long novoProduto(String nome) {
+        return dadosTeste.novoProduto(empresa, nome).getId();
+    }
+
+    private PedidoDTO novoPedido(Long produtoId, int quantidade) {
+        return DadosTeste.novoPedido(empresa.getId(), produtoId, quantidade);
+    }
+}
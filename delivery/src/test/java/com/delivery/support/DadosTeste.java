@@ -0,0 +1,109 @@
+package com.delivery.support;
+
+import com.delivery.dto.cliente.PedidoDTO;
+import com.delivery.entity.Cliente;
+import com.delivery.entity.Empresa;
+import com.delivery.entity.Produto;
+import com.delivery.entity.base.Usuario;
+import com.delivery.entity.enums.FormaPagamento;
+import com.delivery.entity.enums.TipoUsuario;
+import com.delivery.repository.ClienteRepository;
+import com.delivery.repository.EmpresaRepository;
+import com.delivery.repository.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Massa de dados dos testes de integração. Todos os contextos usam o mesmo banco, então cada
+ * cliente e empresa recebe email, CPF e CNPJ únicos; o prefixo identifica o teste que os criou
+ */
+@Component
+@RequiredArgsConstructor
+public class DadosTeste {
+
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
+    private final ProdutoRepository produtoRepository;
+
+    public static String sufixo() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public Cliente novoCliente(String prefixo) {
+        return novoCliente(prefixo, "Cliente " + prefixo);
+    }
+
+    public Cliente novoCliente(String prefixo, String nome) {
+        String sufixo = sufixo();
+
+        Cliente cliente = new Cliente();
+        cliente.setUsuario(new Usuario(prefixo + "-cliente-" + sufixo + "@test.com", "x", TipoUsuario.CLIENTE, true));
+        cliente.setNome(nome);
+        cliente.setCpf(sufixo + "000");
+        return clienteRepository.save(cliente);
+    }
+
+    public Empresa novaEmpresa(String prefixo) {
+        return novaEmpresa(prefixo, empresa -> { });
+    }
+
+    public Empresa novaEmpresa(String prefixo, String nomeFantasia) {
+        return novaEmpresa(prefixo, empresa -> empresa.setNomeFantasia(nomeFantasia));
+    }
+
+    /**
+     * Empresa ativa; ajustes é aplicado antes de salvar
+     */
+    public Empresa novaEmpresa(String prefixo, Consumer<Empresa> ajustes) {
+        String sufixo = sufixo();
+
+        Empresa empresa = new Empresa();
+        empresa.setUsuario(new Usuario(prefixo + "-empresa-" + sufixo + "@test.com", "x", TipoUsuario.EMPRESA, true));
+        empresa.setNomeFantasia("Empresa " + prefixo);
+        empresa.setCnpj(sufixo + "000000");
+        ajustes.accept(empresa);
+        return empresaRepository.save(empresa);
+    }
+
+    public Produto novoProduto(Empresa empresa, String nome) {
+        return novoProduto(empresa, nome, BigDecimal.TEN);
+    }
+
+    public Produto novoProduto(Empresa empresa, String nome, BigDecimal preco) {
+        Produto produto = new Produto();
+        produto.setEmpresa(empresa);
+        produto.setNome(nome);
+        produto.setPreco(preco);
+        produto.setAtivo(true);
+        return produtoRepository.save(produto);
+    }
+
+    public static PedidoDTO novoPedido(Long empresaId, Long produtoId, int quantidade) {
+        return novoPedido(empresaId, FormaPagamento.PIX, produtoId, quantidade);
+    }
+
+    public static PedidoDTO novoPedido(Long empresaId, FormaPagamento formaPagamento, Long produtoId, int quantidade) {
+        return novoPedido(empresaId, formaPagamento, List.of(item(produtoId, quantidade)));
+    }
+
+    public static PedidoDTO novoPedido(Long empresaId, FormaPagamento formaPagamento, List<PedidoDTO.ItemPedidoDTO> itens) {
+        PedidoDTO dto = new PedidoDTO();
+        dto.setEmpresaId(empresaId);
+        dto.setFormaPagamento(formaPagamento);
+        dto.setItens(new ArrayList<>(itens));
+        return dto;
+    }
+
+    public static PedidoDTO.ItemPedidoDTO item(Long produtoId, int quantidade) {
+        PedidoDTO.ItemPedidoDTO item = new PedidoDTO.ItemPedidoDTO();
+        item.setProdutoId(produtoId);
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}